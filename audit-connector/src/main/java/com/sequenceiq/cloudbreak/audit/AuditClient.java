@@ -3,7 +3,6 @@ package com.sequenceiq.cloudbreak.audit;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.sequenceiq.cloudbreak.util.NullUtil.doIfNotNull;
 import static com.sequenceiq.cloudbreak.util.UuidUtil.uuidSupplier;
-import static io.grpc.internal.GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,12 +27,12 @@ import com.sequenceiq.cloudbreak.audit.model.AttemptAuditEventResult;
 import com.sequenceiq.cloudbreak.audit.model.AuditEvent;
 import com.sequenceiq.cloudbreak.audit.model.ListAuditEvent;
 import com.sequenceiq.cloudbreak.audit.util.ActorUtil;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelRegistry;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 import com.sequenceiq.cloudbreak.grpc.altus.AltusMetadataInterceptor;
 import com.sequenceiq.cloudbreak.grpc.util.GrpcUtil;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.opentracing.Tracer;
 
 @Component
@@ -51,13 +50,17 @@ public class AuditClient {
 
     private final Tracer tracer;
 
+    private final ManagedChannelRegistry channelRegistry;
+
     public AuditClient(AuditConfig auditConfig, AuditEventToGrpcAuditEventConverter auditEventConverter,
-            AttemptAuditEventResultToGrpcAttemptAuditEventResultConverter resultConverter, ActorUtil actorUtil, Tracer tracer) {
+            AttemptAuditEventResultToGrpcAttemptAuditEventResultConverter resultConverter, ActorUtil actorUtil, Tracer tracer,
+            ManagedChannelRegistry channelRegistry) {
         this.auditConfig = auditConfig;
         this.auditEventConverter = auditEventConverter;
         this.resultConverter = resultConverter;
         this.actorUtil = actorUtil;
         this.tracer = tracer;
+        this.channelRegistry = channelRegistry;
     }
 
     @Retryable(value = Exception.class, maxAttempts = 3, backoff = @Backoff(delay = 5000))
@@ -101,11 +104,7 @@ public class AuditClient {
      * @return the wrapper object
      */
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-                ManagedChannelBuilder.forAddress(auditConfig.getHost(), auditConfig.getPort())
-                        .usePlaintext()
-                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                        .build());
+        return channelRegistry.getWrapper(auditConfig.getHost(), auditConfig.getPort());
     }
 
     /**
@@ -41,11 +41,13 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.sequenceiq.cloudbreak.auth.InternalCrnBuilder;
 import com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider;
+import com.sequenceiq.cloudbreak.auth.altus.cache.UmsRightCheckResultCache;
 import com.sequenceiq.cloudbreak.auth.altus.config.UmsClientConfig;
 import com.sequenceiq.cloudbreak.auth.altus.config.UmsConfig;
 import com.sequenceiq.cloudbreak.auth.altus.exception.UmsOperationException;
 import com.sequenceiq.cloudbreak.auth.altus.model.AltusCredential;
 import com.sequenceiq.cloudbreak.auth.altus.model.Entitlement;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelRegistry;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 import com.sequenceiq.cloudbreak.logger.MDCUtils;
 import com.sequenceiq.common.api.telemetry.model.AnonymizationRule;
@@ -72,6 +74,12 @@ public class GrpcUmsClient {
     @Inject
     private Tracer tracer;
 
+    @Inject
+    private ManagedChannelRegistry channelRegistry;
+
+    @Inject
+    private UmsRightCheckResultCache rightCheckResultCache;
+
     public static GrpcUmsClient createClient(UmsConfig config, UmsClientConfig clientConfig, Tracer tracer) {
         GrpcUmsClient client = new GrpcUmsClient();
         client.setUmsConfig(config);
@@ -518,6 +526,12 @@ public class GrpcUmsClient {
         return entitled;
     }
 
+    private void invalidateRightCheckResultsOfMember(String memberCrn) {
+        if (rightCheckResultCache != null) {
+            rightCheckResultCache.invalidateMember(memberCrn);
+        }
+    }
+
     private boolean isEntitledAndLogResult(String actorCrn, String accountId, Entitlement entitlement) {
         boolean entitled = isEntitled(actorCrn, accountId, entitlement);
         LOGGER.debug("Entitlement result {}={}", entitlement, entitled);
@@ -538,6 +552,7 @@ public class GrpcUmsClient {
             UmsClient client = makeClient(channelWrapper.getChannel(), userCrn);
             client.assignMachineUserRole(requestId.orElse(UUID.randomUUID().toString()),
                     userCrn, accountId, machineUserCrn, roleCrn);
+            invalidateRightCheckResultsOfMember(machineUserCrn);
         } catch (StatusRuntimeException ex) {
             if (Status.UNAVAILABLE.getCode().equals(ex.getStatus().getCode())) {
                 String errMessage = String.format("Cannot assign role '%s' to machine user '%s' as " +
@@ -564,6 +579,7 @@ public class GrpcUmsClient {
             UmsClient client = makeClient(channelWrapper.getChannel(), userCrn);
             client.unassignMachineUserRole(requestId.orElse(UUID.randomUUID().toString()),
                     machineUserCrn, roleCrn, accountId);
+            invalidateRightCheckResultsOfMember(machineUserCrn);
         }
     }
 
@@ -696,6 +712,10 @@ public class GrpcUmsClient {
 
     @VisibleForTesting
     ManagedChannelWrapper makeWrapper() {
+        if (channelRegistry != null) {
+            return channelRegistry.getWrapper(umsConfig.getEndpoint(), umsConfig.getPort());
+        }
+        // the client was created outside of Spring by createClient, its channel lives for one call only
         return new ManagedChannelWrapper(
                 ManagedChannelBuilder.forAddress(umsConfig.getEndpoint(), umsConfig.getPort())
                         .usePlaintext()
@@ -735,6 +755,7 @@ public class GrpcUmsClient {
             UmsClient client = makeClient(channelWrapper.getChannel(), ThreadBasedUserCrnProvider.INTERNAL_ACTOR_CRN);
             LOGGER.info("Assigning {} role for resource {} to user {}", resourceRoleCrn, resourceCrn, userCrn);
             client.assignResourceRole(requestId.orElse(UUID.randomUUID().toString()), userCrn, resourceCrn, resourceRoleCrn);
+            invalidateRightCheckResultsOfMember(userCrn);
             LOGGER.info("Assigned {} role for resource {} to user {}", resourceRoleCrn, resourceCrn, userCrn);
         }
     }
@@ -761,6 +782,7 @@ public class GrpcUmsClient {
             UmsClient client = makeClient(channelWrapper.getChannel(), ThreadBasedUserCrnProvider.INTERNAL_ACTOR_CRN);
             LOGGER.info("Unassigning {} role for resource {} from user {}", resourceRoleCrn, resourceCrn, userCrn);
             client.unassignResourceRole(requestId.orElse(UUID.randomUUID().toString()), userCrn, resourceCrn, resourceRoleCrn);
+            invalidateRightCheckResultsOfMember(userCrn);
             LOGGER.info("Unassigned {} role for resource {} from user {}", resourceRoleCrn, resourceCrn, userCrn);
         }
     }
@@ -772,6 +794,9 @@ public class GrpcUmsClient {
             LOGGER.debug("Notify UMS about resource ('{}') was deleted", resourceCrn);
             UmsClient client = makeClient(channelWrapper.getChannel(), ThreadBasedUserCrnProvider.INTERNAL_ACTOR_CRN);
             client.notifyResourceDeleted(requestId.orElse(UUID.randomUUID().toString()), resourceCrn);
+            if (rightCheckResultCache != null) {
+                rightCheckResultCache.invalidateResource(resourceCrn);
+            }
             LOGGER.info("Notified UMS about deletion of resource {}", resourceCrn);
         } catch (Exception e) {
             LOGGER.error(String.format("Notifying UMS about deletion of resource %s has failed: ", resourceCrn), e);
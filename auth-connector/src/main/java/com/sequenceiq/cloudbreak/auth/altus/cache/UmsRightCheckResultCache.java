@@ -0,0 +1,153 @@
+package com.sequenceiq.cloudbreak.auth.altus.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.annotations.VisibleForTesting;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Keeps the results of the UMS right checks of the members on resources. A granted right is kept for the positive time to live, a denied
+ * one for the shorter negative time to live, so a right granted after a denial takes effect soon. The results of a member are dropped
+ * when a role is assigned to or unassigned from the member, the results on a resource are dropped when UMS is notified about its deletion.
+ * Rights changed in UMS directly, e.g. by a group membership, take effect when the kept result expires.
+ */
+@Component
+public class UmsRightCheckResultCache {
+
+    private static final String METRIC_PREFIX = "ums.right.check.result.cache.";
+
+    @VisibleForTesting
+    @Value("${altus.ums.rights.result.cache.enabled:true}")
+    boolean enabled;
+
+    @VisibleForTesting
+    @Value("${altus.ums.rights.result.cache.positive.ttl:PT1M}")
+    Duration positiveTtl;
+
+    @VisibleForTesting
+    @Value("${altus.ums.rights.result.cache.negative.ttl:PT10S}")
+    Duration negativeTtl;
+
+    @VisibleForTesting
+    @Value("${altus.ums.rights.result.cache.max.entries:10000}")
+    long maxEntries;
+
+    private Cache<RightCheckKey, Boolean> results;
+
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new ResultExpiry())
+                .build();
+    }
+
+    /**
+     * Returns the kept result of the right check, empty if the right has to be checked in UMS.
+     */
+    public Optional<Boolean> get(String memberCrn, String right, String resourceCrn) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Boolean result = results.getIfPresent(new RightCheckKey(memberCrn, right, resourceCrn));
+        Metrics.counter(METRIC_PREFIX + (result != null ? "hit" : "miss")).increment();
+        return Optional.ofNullable(result);
+    }
+
+    public void put(String memberCrn, String right, String resourceCrn, boolean result) {
+        if (enabled) {
+            results.put(new RightCheckKey(memberCrn, right, resourceCrn), result);
+        }
+    }
+
+    /**
+     * Drops every kept result of the member, its roles changed.
+     */
+    public void invalidateMember(String memberCrn) {
+        results.asMap().keySet().removeIf(key -> key.getMemberCrn().equals(memberCrn));
+        Metrics.counter(METRIC_PREFIX + "invalidation", "reason", "member").increment();
+    }
+
+    /**
+     * Drops every kept result on the resource, it was deleted.
+     */
+    public void invalidateResource(String resourceCrn) {
+        results.asMap().keySet().removeIf(key -> Objects.equals(key.getResourceCrn(), resourceCrn));
+        Metrics.counter(METRIC_PREFIX + "invalidation", "reason", "resource").increment();
+    }
+
+    @VisibleForTesting
+    long size() {
+        results.cleanUp();
+        return results.estimatedSize();
+    }
+
+    private class ResultExpiry implements Expiry<RightCheckKey, Boolean> {
+
+        @Override
+        public long expireAfterCreate(RightCheckKey key, Boolean result, long currentTime) {
+            return (result ? positiveTtl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(RightCheckKey key, Boolean result, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(RightCheckKey key, Boolean result, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static class RightCheckKey {
+
+        private final String memberCrn;
+
+        private final String right;
+
+        private final String resourceCrn;
+
+        RightCheckKey(String memberCrn, String right, String resourceCrn) {
+            this.memberCrn = memberCrn;
+            this.right = right;
+            this.resourceCrn = resourceCrn;
+        }
+
+        String getMemberCrn() {
+            return memberCrn;
+        }
+
+        String getResourceCrn() {
+            return resourceCrn;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RightCheckKey that = (RightCheckKey) o;
+            return memberCrn.equals(that.memberCrn) && right.equals(that.right) && Objects.equals(resourceCrn, that.resourceCrn);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(memberCrn, right, resourceCrn);
+        }
+    }
+}
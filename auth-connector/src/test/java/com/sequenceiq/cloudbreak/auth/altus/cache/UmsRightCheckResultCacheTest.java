@@ -0,0 +1,87 @@
+package com.sequenceiq.cloudbreak.auth.altus.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class UmsRightCheckResultCacheTest {
+
+    private static final String USER_CRN = "crn:cdp:iam:us-west-1:1234:user:1";
+
+    private static final String OTHER_USER_CRN = "crn:cdp:iam:us-west-1:1234:user:2";
+
+    private static final String RESOURCE_CRN = "crn:cdp:environments:us-west-1:1234:environment:1";
+
+    private static final String OTHER_RESOURCE_CRN = "crn:cdp:environments:us-west-1:1234:environment:2";
+
+    private static final String RIGHT = "environments/describeEnvironment";
+
+    private static final long MAX_ENTRIES = 100L;
+
+    private final UmsRightCheckResultCache underTest = new UmsRightCheckResultCache();
+
+    @Before
+    public void setUp() {
+        underTest.enabled = true;
+        underTest.positiveTtl = Duration.ofMinutes(1L);
+        underTest.negativeTtl = Duration.ofMinutes(1L);
+        underTest.maxEntries = MAX_ENTRIES;
+        underTest.init();
+    }
+
+    @Test
+    public void testResultsAreKept() {
+        underTest.put(USER_CRN, RIGHT, RESOURCE_CRN, true);
+        underTest.put(USER_CRN, RIGHT, OTHER_RESOURCE_CRN, false);
+
+        assertEquals(Optional.of(true), underTest.get(USER_CRN, RIGHT, RESOURCE_CRN));
+        assertEquals(Optional.of(false), underTest.get(USER_CRN, RIGHT, OTHER_RESOURCE_CRN));
+        assertEquals(Optional.empty(), underTest.get(OTHER_USER_CRN, RIGHT, RESOURCE_CRN));
+    }
+
+    @Test
+    public void testDeniedRightsHaveTheirOwnTimeToLive() {
+        underTest.negativeTtl = Duration.ZERO;
+        underTest.put(USER_CRN, RIGHT, RESOURCE_CRN, true);
+        underTest.put(USER_CRN, RIGHT, OTHER_RESOURCE_CRN, false);
+
+        assertEquals(Optional.of(true), underTest.get(USER_CRN, RIGHT, RESOURCE_CRN));
+        assertEquals(Optional.empty(), underTest.get(USER_CRN, RIGHT, OTHER_RESOURCE_CRN));
+    }
+
+    @Test
+    public void testResultsOfMemberAreInvalidated() {
+        underTest.put(USER_CRN, RIGHT, RESOURCE_CRN, true);
+        underTest.put(OTHER_USER_CRN, RIGHT, RESOURCE_CRN, true);
+
+        underTest.invalidateMember(USER_CRN);
+
+        assertEquals(Optional.empty(), underTest.get(USER_CRN, RIGHT, RESOURCE_CRN));
+        assertEquals(1L, underTest.size());
+    }
+
+    @Test
+    public void testResultsOnResourceAreInvalidated() {
+        underTest.put(USER_CRN, RIGHT, RESOURCE_CRN, true);
+        underTest.put(OTHER_USER_CRN, RIGHT, RESOURCE_CRN, false);
+        underTest.put(USER_CRN, RIGHT, OTHER_RESOURCE_CRN, true);
+
+        underTest.invalidateResource(RESOURCE_CRN);
+
+        assertEquals(Optional.of(true), underTest.get(USER_CRN, RIGHT, OTHER_RESOURCE_CRN));
+        assertEquals(1L, underTest.size());
+    }
+
+    @Test
+    public void testNothingIsKeptWhenDisabled() {
+        underTest.enabled = false;
+        underTest.put(USER_CRN, RIGHT, RESOURCE_CRN, true);
+
+        assertEquals(Optional.empty(), underTest.get(USER_CRN, RIGHT, RESOURCE_CRN));
+        assertEquals(0L, underTest.size());
+    }
+}
@@ -0,0 +1,102 @@
+package com.sequenceiq.authorization.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.cloudera.thunderhead.service.authorization.AuthorizationProto;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Keeps the right check results of the users on the current thread while an API call is authorized and served, so a right checked by an
+ * outer annotated method is not checked again by the annotated methods it calls. While the checks of an annotated method are deferred they
+ * are only collected, so every right the method needs is checked in UMS with one call. A context opened while another one is active on the
+ * thread joins the outer one and closing it has no effect. The UMS calls made in a context are recorded when the outermost one is closed.
+ */
+public class AuthorizationRequestContext implements AutoCloseable {
+
+    private static final ThreadLocal<AuthorizationRequestContext> CURRENT = new ThreadLocal<>();
+
+    private final AuthorizationRequestContext outer;
+
+    private final Map<String, Map<AuthorizationProto.RightCheck, Boolean>> results = new HashMap<>();
+
+    private List<DeferredRightCheck> deferredRightChecks;
+
+    private int umsCalls;
+
+    private AuthorizationRequestContext(AuthorizationRequestContext outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * Opens a context on the current thread or joins the one already active. The returned context has to be closed by the caller.
+     */
+    public static AuthorizationRequestContext open() {
+        AuthorizationRequestContext current = CURRENT.get();
+        if (current != null) {
+            return new AuthorizationRequestContext(current);
+        }
+        AuthorizationRequestContext context = new AuthorizationRequestContext(null);
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static Optional<AuthorizationRequestContext> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public Optional<Boolean> getResult(String userCrn, AuthorizationProto.RightCheck rightCheck) {
+        return Optional.ofNullable(root().results.getOrDefault(userCrn, Map.of()).get(rightCheck));
+    }
+
+    public void putResult(String userCrn, AuthorizationProto.RightCheck rightCheck, boolean result) {
+        root().results.computeIfAbsent(userCrn, key -> new HashMap<>()).put(rightCheck, result);
+    }
+
+    /**
+     * Runs the permission checks and returns the right checks they deferred instead of checking them.
+     */
+    public List<DeferredRightCheck> collectDeferred(Runnable permissionChecks) {
+        AuthorizationRequestContext root = root();
+        List<DeferredRightCheck> previous = root.deferredRightChecks;
+        root.deferredRightChecks = new ArrayList<>();
+        try {
+            permissionChecks.run();
+            return root.deferredRightChecks;
+        } finally {
+            root.deferredRightChecks = previous;
+        }
+    }
+
+    public boolean isDeferring() {
+        return root().deferredRightChecks != null;
+    }
+
+    public void defer(DeferredRightCheck deferredRightCheck) {
+        root().deferredRightChecks.add(deferredRightCheck);
+    }
+
+    public void umsCalled() {
+        root().umsCalls++;
+    }
+
+    public int getUmsCalls() {
+        return root().umsCalls;
+    }
+
+    @Override
+    public void close() {
+        if (outer == null) {
+            CURRENT.remove();
+            Metrics.summary("authorization.request.ums.calls").record(umsCalls);
+        }
+    }
+
+    private AuthorizationRequestContext root() {
+        return outer == null ? this : outer;
+    }
+}
@@ -0,0 +1,39 @@
+package com.sequenceiq.authorization.service;
+
+import java.util.List;
+
+import com.cloudera.thunderhead.service.authorization.AuthorizationProto;
+
+public class DeferredRightCheck {
+
+    private final String userCrn;
+
+    private final List<AuthorizationProto.RightCheck> rightChecks;
+
+    private final boolean anyRightEnough;
+
+    private final String unauthorizedMessage;
+
+    public DeferredRightCheck(String userCrn, List<AuthorizationProto.RightCheck> rightChecks, boolean anyRightEnough, String unauthorizedMessage) {
+        this.userCrn = userCrn;
+        this.rightChecks = rightChecks;
+        this.anyRightEnough = anyRightEnough;
+        this.unauthorizedMessage = unauthorizedMessage;
+    }
+
+    public String getUserCrn() {
+        return userCrn;
+    }
+
+    public List<AuthorizationProto.RightCheck> getRightChecks() {
+        return rightChecks;
+    }
+
+    public boolean isAnyRightEnough() {
+        return anyRightEnough;
+    }
+
+    public String getUnauthorizedMessage() {
+        return unauthorizedMessage;
+    }
+}
@@ -55,6 +55,9 @@ public class PermissionCheckService {
     @Inject
     private ReflectionUtil reflectionUtil;
 
+    @Inject
+    private UmsResourceAuthorizationService umsResourceAuthorizationService;
+
     private final Map<Class<? extends Annotation>, PermissionChecker<? extends Annotation>> permissionCheckerMap = new HashMap<>();
 
     @PostConstruct
@@ -63,6 +66,12 @@ public class PermissionCheckService {
     }
 
     public Object hasPermission(ProceedingJoinPoint proceedingJoinPoint) {
+        try (AuthorizationRequestContext context = AuthorizationRequestContext.open()) {
+            return hasPermissionInContext(proceedingJoinPoint);
+        }
+    }
+
+    private Object hasPermissionInContext(ProceedingJoinPoint proceedingJoinPoint) {
         long startTime = System.currentTimeMillis();
         MethodSignature methodSignature = (MethodSignature) proceedingJoinPoint.getSignature();
         LOGGER.debug("Permission check started at {} (method: {})", startTime,
@@ -106,10 +115,13 @@ public class PermissionCheckService {
             return listPermissionChecker.checkPermissions(listFilterAnnotation, userCrn, proceedingJoinPoint, methodSignature, startTime);
         }
 
-        annotations.stream().forEach(annotation -> {
-            PermissionChecker<? extends Annotation> permissionChecker = permissionCheckerMap.get(annotation.annotationType());
-            permissionChecker.checkPermissions(annotation, userCrn, proceedingJoinPoint, methodSignature, startTime);
-        });
+        try (AuthorizationRequestContext context = AuthorizationRequestContext.open()) {
+            List<DeferredRightCheck> deferredRightChecks = context.collectDeferred(() -> annotations.forEach(annotation -> {
+                PermissionChecker<? extends Annotation> permissionChecker = permissionCheckerMap.get(annotation.annotationType());
+                permissionChecker.checkPermissions(annotation, userCrn, proceedingJoinPoint, methodSignature, startTime);
+            }));
+            umsResourceAuthorizationService.checkDeferredRights(deferredRightChecks);
+        }
         return commonPermissionCheckingUtils.proceed(proceedingJoinPoint, methodSignature, startTime);
     }
 
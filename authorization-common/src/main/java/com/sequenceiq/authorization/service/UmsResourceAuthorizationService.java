@@ -1,11 +1,17 @@
 package com.sequenceiq.authorization.service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -21,6 +27,7 @@ import com.sequenceiq.authorization.utils.AuthorizationMessageUtils;
 import com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider;
 import com.sequenceiq.cloudbreak.auth.altus.EntitlementService;
 import com.sequenceiq.cloudbreak.auth.altus.GrpcUmsClient;
+import com.sequenceiq.cloudbreak.auth.altus.cache.UmsRightCheckResultCache;
 import com.sequenceiq.cloudbreak.logger.LoggerContextKey;
 import com.sequenceiq.cloudbreak.logger.MDCBuilder;
 
@@ -38,13 +45,22 @@ public class UmsResourceAuthorizationService {
     @Inject
     private EntitlementService entitlementService;
 
+    @Inject
+    private UmsRightCheckResultCache rightCheckResultCache;
+
     public void checkRightOfUserOnResource(String userCrn, AuthorizationResourceAction action, String resourceCrn) {
         String right = umsRightProvider.getRight(action);
         checkRightOfUserOnResource(userCrn, right, resourceCrn, AuthorizationMessageUtils.formatTemplate(right, resourceCrn));
     }
 
     public Map<String, Boolean> getRightOfUserOnResources(String userCrn, AuthorizationResourceAction action, List<String> resourceCrns) {
-        return umsClient.hasRights(userCrn, userCrn, resourceCrns, umsRightProvider.getRight(action), getRequestId());
+        String right = umsRightProvider.getRight(action);
+        Optional<AuthorizationRequestContext> context = AuthorizationRequestContext.current();
+        if (context.isEmpty()) {
+            return umsClient.hasRights(userCrn, userCrn, resourceCrns, right, getRequestId());
+        }
+        Map<AuthorizationProto.RightCheck, Boolean> results = resolve(context.get(), userCrn, getRightChecks(right, resourceCrns));
+        return resourceCrns.stream().distinct().collect(Collectors.toMap(Function.identity(), resourceCrn -> results.get(getRightCheck(right, resourceCrn))));
     }
 
     public void checkRightOfUserOnResources(String userCrn, AuthorizationResourceAction action, Collection<String> resourceCrns) {
@@ -63,6 +79,11 @@ public class UmsResourceAuthorizationService {
                 .setResource(entry.getKey())
                 .setRight(umsRightProvider.getRight(entry.getValue()))
                 .build()).collect(Collectors.toList());
+        Optional<AuthorizationRequestContext> context = AuthorizationRequestContext.current();
+        if (context.isPresent()) {
+            check(context.get(), new DeferredRightCheck(userCrn, rightCheckList, true, AuthorizationMessageUtils.formatTemplate(rightCheckList)));
+            return;
+        }
         List<Boolean> rightCheckResults = umsClient.hasRights(userCrn, userCrn, rightCheckList, getRequestId());
         LOGGER.info("Right check results: {}", rightCheckResults);
         if (rightCheckResults.stream().noneMatch(Boolean::booleanValue)) {
@@ -70,21 +91,101 @@ public class UmsResourceAuthorizationService {
         }
     }
 
+    /**
+     * Checks the rights deferred by the permission checks of an annotated method, the rights not known in the current authorization context
+     * or in the result cache are checked in UMS with one call per user. Throws access denied for the first failed check.
+     */
+    public void checkDeferredRights(List<DeferredRightCheck> deferredRightChecks) {
+        if (deferredRightChecks.isEmpty()) {
+            return;
+        }
+        try (AuthorizationRequestContext context = AuthorizationRequestContext.open()) {
+            Map<String, List<AuthorizationProto.RightCheck>> rightChecksByUser = deferredRightChecks.stream()
+                    .collect(Collectors.groupingBy(DeferredRightCheck::getUserCrn, LinkedHashMap::new,
+                            Collectors.flatMapping(deferredRightCheck -> deferredRightCheck.getRightChecks().stream(), Collectors.toList())));
+            Map<String, Map<AuthorizationProto.RightCheck, Boolean>> resultsByUser = new HashMap<>();
+            rightChecksByUser.forEach((userCrn, rightChecks) -> resultsByUser.put(userCrn, resolve(context, userCrn, rightChecks)));
+            deferredRightChecks.forEach(deferredRightCheck -> verify(deferredRightCheck, resultsByUser.get(deferredRightCheck.getUserCrn())));
+        }
+    }
+
     private void checkRightOfUserOnResource(String userCrn, String right, String resourceCrn, String unauthorizedMessage) {
-        if (!umsClient.checkRight(userCrn, userCrn, right, resourceCrn, getRequestId())) {
+        Optional<AuthorizationRequestContext> context = AuthorizationRequestContext.current();
+        if (context.isPresent() && resourceCrn != null
+                && entitlementService.isAuthorizationEntitlementRegistered(userCrn, ThreadBasedUserCrnProvider.getAccountId())) {
+            check(context.get(), new DeferredRightCheck(userCrn, List.of(getRightCheck(right, resourceCrn)), false, unauthorizedMessage));
+        } else if (!umsClient.checkRight(userCrn, userCrn, right, resourceCrn, getRequestId())) {
             LOGGER.error(unauthorizedMessage);
             throw new AccessDeniedException(unauthorizedMessage);
         }
     }
 
     private void checkRightOfUserOnResources(String userCrn, String right, Collection<String> resourceCrns, String unauthorizedMessage) {
-        if (!umsClient.hasRights(userCrn, userCrn, Lists.newArrayList(resourceCrns), right, getRequestId())
+        Optional<AuthorizationRequestContext> context = AuthorizationRequestContext.current();
+        if (context.isPresent()) {
+            check(context.get(), new DeferredRightCheck(userCrn, getRightChecks(right, resourceCrns), false, unauthorizedMessage));
+        } else if (!umsClient.hasRights(userCrn, userCrn, Lists.newArrayList(resourceCrns), right, getRequestId())
                 .values().stream().allMatch(Boolean::booleanValue)) {
             LOGGER.error(unauthorizedMessage);
             throw new AccessDeniedException(unauthorizedMessage);
         }
     }
 
+    private void check(AuthorizationRequestContext context, DeferredRightCheck rightCheck) {
+        if (context.isDeferring()) {
+            context.defer(rightCheck);
+        } else {
+            verify(rightCheck, resolve(context, rightCheck.getUserCrn(), rightCheck.getRightChecks()));
+        }
+    }
+
+    private void verify(DeferredRightCheck rightCheck, Map<AuthorizationProto.RightCheck, Boolean> results) {
+        Stream<Boolean> granted = rightCheck.getRightChecks().stream().map(results::get);
+        if (rightCheck.isAnyRightEnough() ? granted.noneMatch(Boolean.TRUE::equals) : !granted.allMatch(Boolean.TRUE::equals)) {
+            LOGGER.error(rightCheck.getUnauthorizedMessage());
+            throw new AccessDeniedException(rightCheck.getUnauthorizedMessage());
+        }
+    }
+
+    private Map<AuthorizationProto.RightCheck, Boolean> resolve(AuthorizationRequestContext context, String userCrn,
+            List<AuthorizationProto.RightCheck> rightChecks) {
+        Map<AuthorizationProto.RightCheck, Boolean> results = new HashMap<>();
+        List<AuthorizationProto.RightCheck> unknownRightChecks = new ArrayList<>();
+        for (AuthorizationProto.RightCheck rightCheck : new LinkedHashSet<>(rightChecks)) {
+            Optional<Boolean> result = context.getResult(userCrn, rightCheck)
+                    .or(() -> rightCheckResultCache.get(userCrn, rightCheck.getRight(), rightCheck.getResource()));
+            if (result.isPresent()) {
+                results.put(rightCheck, result.get());
+                context.putResult(userCrn, rightCheck, result.get());
+            } else {
+                unknownRightChecks.add(rightCheck);
+            }
+        }
+        if (!unknownRightChecks.isEmpty()) {
+            context.umsCalled();
+            List<Boolean> unknownResults = umsClient.hasRights(userCrn, userCrn, unknownRightChecks, getRequestId());
+            for (int i = 0; i < unknownRightChecks.size(); i++) {
+                AuthorizationProto.RightCheck rightCheck = unknownRightChecks.get(i);
+                boolean result = unknownResults.get(i);
+                results.put(rightCheck, result);
+                context.putResult(userCrn, rightCheck, result);
+                rightCheckResultCache.put(userCrn, rightCheck.getRight(), rightCheck.getResource(), result);
+            }
+        }
+        return results;
+    }
+
+    private List<AuthorizationProto.RightCheck> getRightChecks(String right, Collection<String> resourceCrns) {
+        return resourceCrns.stream().map(resourceCrn -> getRightCheck(right, resourceCrn)).collect(Collectors.toList());
+    }
+
+    private AuthorizationProto.RightCheck getRightCheck(String right, String resourceCrn) {
+        return AuthorizationProto.RightCheck.newBuilder()
+                .setRight(right)
+                .setResource(resourceCrn)
+                .build();
+    }
+
     protected Optional<String> getRequestId() {
         String requestId = MDCBuilder.getMdcContextMap().get(LoggerContextKey.REQUEST_ID.toString());
         if (requestId == null) {
@@ -50,6 +50,9 @@ public class PermissionCheckServiceTest {
     @Mock
     private ReflectionUtil reflectionUtil;
 
+    @Mock
+    private UmsResourceAuthorizationService umsResourceAuthorizationService;
+
     @Spy
     private List<PermissionChecker> permissionCheckers = new ArrayList<PermissionChecker>();
 
@@ -100,6 +103,7 @@ public class PermissionCheckServiceTest {
         ThreadBasedUserCrnProvider.doAs(USER_CRN, () -> underTest.hasPermission(proceedingJoinPoint));
 
         verify(permissionChecker).checkPermissions(any(), any(), any(), any(), anyLong());
+        verify(umsResourceAuthorizationService).checkDeferredRights(List.of());
         verify(commonPermissionCheckingUtils).proceed(any(), any(), anyLong());
     }
 
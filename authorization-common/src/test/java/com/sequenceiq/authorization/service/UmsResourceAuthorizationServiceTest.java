@@ -6,11 +6,16 @@ import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -22,6 +27,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.security.access.AccessDeniedException;
 
+import com.cloudera.thunderhead.service.authorization.AuthorizationProto;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.sequenceiq.authorization.resource.AuthorizationResourceAction;
@@ -29,6 +35,7 @@ import com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider;
 import com.sequenceiq.cloudbreak.auth.altus.Crn;
 import com.sequenceiq.cloudbreak.auth.altus.EntitlementService;
 import com.sequenceiq.cloudbreak.auth.altus.GrpcUmsClient;
+import com.sequenceiq.cloudbreak.auth.altus.cache.UmsRightCheckResultCache;
 
 @RunWith(MockitoJUnitRunner.class)
 public class UmsResourceAuthorizationServiceTest {
@@ -53,6 +60,9 @@ public class UmsResourceAuthorizationServiceTest {
     @Mock
     private EntitlementService entitlementService;
 
+    @Mock
+    private UmsRightCheckResultCache rightCheckResultCache;
+
     @InjectMocks
     private UmsResourceAuthorizationService underTest;
 
@@ -121,6 +131,79 @@ public class UmsResourceAuthorizationServiceTest {
                         RESOURCE_CRN2, AuthorizationResourceAction.ACCESS_ENVIRONMENT)));
     }
 
+    @Test
+    public void testDeferredRightChecksAreCheckedInOneUmsCall() {
+        List<AuthorizationProto.RightCheck> rightChecks = List.of(rightCheck("environments/describeEnvironment", RESOURCE_CRN),
+                rightCheck("environments/describeEnvironment", RESOURCE_CRN2), rightCheck("environments/accessEnvironment", RESOURCE_CRN));
+        when(umsClient.hasRights(anyString(), anyString(), anyList(), any())).thenReturn(List.of(TRUE, TRUE, TRUE));
+
+        try (AuthorizationRequestContext context = AuthorizationRequestContext.open()) {
+            ThreadBasedUserCrnProvider.doAs(USER_CRN, () -> {
+                List<DeferredRightCheck> deferredRightChecks = context.collectDeferred(() -> {
+                    underTest.checkRightOfUserOnResource(USER_CRN, AuthorizationResourceAction.DESCRIBE_ENVIRONMENT, RESOURCE_CRN);
+                    underTest.checkRightOfUserOnResources(USER_CRN, AuthorizationResourceAction.DESCRIBE_ENVIRONMENT, List.of(RESOURCE_CRN, RESOURCE_CRN2));
+                    underTest.checkIfUserHasAtLeastOneRight(USER_CRN, Map.of(RESOURCE_CRN, AuthorizationResourceAction.ACCESS_ENVIRONMENT));
+                });
+                assertEquals(3, deferredRightChecks.size());
+                underTest.checkDeferredRights(deferredRightChecks);
+                underTest.checkRightOfUserOnResource(USER_CRN, AuthorizationResourceAction.DESCRIBE_ENVIRONMENT, RESOURCE_CRN2);
+            });
+
+            assertEquals(1, context.getUmsCalls());
+        }
+        verify(umsClient).hasRights(eq(USER_CRN), eq(USER_CRN), eq(rightChecks), any());
+        verify(umsClient, never()).checkRight(anyString(), anyString(), anyString(), anyString(), any());
+        verify(rightCheckResultCache).put(USER_CRN, "environments/accessEnvironment", RESOURCE_CRN, true);
+    }
+
+    @Test
+    public void testDeferredRightCheckFailure() {
+        when(umsClient.hasRights(anyString(), anyString(), anyList(), any())).thenReturn(List.of(TRUE, FALSE));
+
+        thrown.expect(AccessDeniedException.class);
+        thrown.expectMessage(formatTemplate("environments/describeEnvironment", RESOURCE_CRN2));
+
+        try (AuthorizationRequestContext context = AuthorizationRequestContext.open()) {
+            ThreadBasedUserCrnProvider.doAs(USER_CRN, () -> underTest.checkDeferredRights(context.collectDeferred(() -> {
+                underTest.checkRightOfUserOnResource(USER_CRN, AuthorizationResourceAction.DESCRIBE_ENVIRONMENT, RESOURCE_CRN);
+                underTest.checkRightOfUserOnResource(USER_CRN, AuthorizationResourceAction.DESCRIBE_ENVIRONMENT, RESOURCE_CRN2);
+            })));
+        }
+    }
+
+    @Test
+    public void testCachedResultIsNotCheckedInUms() {
+        when(rightCheckResultCache.get(USER_CRN, "environments/describeEnvironment", RESOURCE_CRN)).thenReturn(Optional.of(FALSE));
+
+        thrown.expect(AccessDeniedException.class);
+        thrown.expectMessage(formatTemplate("environments/describeEnvironment", RESOURCE_CRN));
+
+        try (AuthorizationRequestContext context = AuthorizationRequestContext.open()) {
+            ThreadBasedUserCrnProvider.doAs(USER_CRN, () -> underTest.
+                    checkRightOfUserOnResource(USER_CRN, AuthorizationResourceAction.DESCRIBE_ENVIRONMENT, RESOURCE_CRN));
+        } finally {
+            verify(umsClient, never()).hasRights(anyString(), anyString(), anyList(), any());
+        }
+    }
+
+    @Test
+    public void testGetRightOfUserOnResourcesInContext() {
+        when(rightCheckResultCache.get(USER_CRN, "environments/describeEnvironment", RESOURCE_CRN)).thenReturn(Optional.of(TRUE));
+        when(umsClient.hasRights(anyString(), anyString(), anyList(), any())).thenReturn(List.of(FALSE));
+
+        try (AuthorizationRequestContext context = AuthorizationRequestContext.open()) {
+            Map<String, Boolean> result = ThreadBasedUserCrnProvider.doAs(USER_CRN, () -> underTest.
+                    getRightOfUserOnResources(USER_CRN, AuthorizationResourceAction.DESCRIBE_ENVIRONMENT, List.of(RESOURCE_CRN, RESOURCE_CRN2)));
+
+            assertEquals(Map.of(RESOURCE_CRN, TRUE, RESOURCE_CRN2, FALSE), result);
+        }
+        verify(umsClient).hasRights(eq(USER_CRN), eq(USER_CRN), eq(List.of(rightCheck("environments/describeEnvironment", RESOURCE_CRN2))), any());
+    }
+
+    private AuthorizationProto.RightCheck rightCheck(String right, String resourceCrn) {
+        return AuthorizationProto.RightCheck.newBuilder().setRight(right).setResource(resourceCrn).build();
+    }
+
     private String formatTemplate(String right, String resourceCrn) {
         return String.format(INSUFFICIENT_RIGHTS_TEMPLATE, right, Crn.fromString(resourceCrn).getResourceType().getName(), resourceCrn);
     }
@@ -1,6 +1,8 @@
 package com.sequenceiq.periscope.monitor;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.quartz.JobExecutionContext;
 
@@ -36,6 +38,14 @@ public abstract class ClusterMonitor extends AbstractMonitor<Cluster> {
         clusterService.setLastEvaluated(monitored.getId(), monitored.getLastEvaluated());
     }
 
+    @Override
+    protected void saveAll(List<Cluster> monitored) {
+        //The clusters of a run are evaluated at the same time, so it is a single update.
+        Map<Long, List<Long>> clusterIdsByLastEvaluated = monitored.stream()
+                .collect(Collectors.groupingBy(Cluster::getLastEvaluated, Collectors.mapping(Cluster::getId, Collectors.toList())));
+        clusterIdsByLastEvaluated.forEach((lastEvaluated, clusterIds) -> clusterService.setLastEvaluated(clusterIds, lastEvaluated));
+    }
+
     PeriscopeNodeConfig getPeriscopeNodeConfig() {
         return periscopeNodeConfig;
     }
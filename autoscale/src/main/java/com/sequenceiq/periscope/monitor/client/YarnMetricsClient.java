@@ -61,7 +61,7 @@ public class YarnMetricsClient {
                 .orElseThrow(() -> new RuntimeException(String.format("ClusterProxy Not Configured for Cluster {}, " +
                         " cannot query YARN Metrics.", cluster.getStackCrn())));
 
-        Client restClient = RestClientUtil.createClient(tlsConfig.getServerCert(),
+        Client restClient = RestClientUtil.getTlsClient(tlsConfig.getServerCert(),
                 tlsConfig.getClientCert(), tlsConfig.getClientKey(), true);
         String yarnApiUrl = String.format(YARN_API_URL, clusterProxyUrl, cluster.getStackCrn());
 
@@ -62,7 +62,9 @@ public class ScalingHandler implements ApplicationListener<ScalingEvent> {
 
         int hostGroupNodeCount = event.getHostGroupNodeCount();
         int desiredAbsoluteHostGroupNodeCount = event.getDesiredAbsoluteHostGroupNodeCount();
-        if (hostGroupNodeCount != desiredAbsoluteHostGroupNodeCount) {
+        if (hostGroupNodeCount != desiredAbsoluteHostGroupNodeCount && !clusterService.isAllocatedToThisNode(cluster)) {
+            LOGGER.info("Cluster '{}' has been moved to node '{}', scaling is left to that node.", cluster.getStackCrn(), cluster.getPeriscopeNodeId());
+        } else if (hostGroupNodeCount != desiredAbsoluteHostGroupNodeCount) {
             Runnable scalingRequest = (Runnable) applicationContext.getBean("ScalingRequest", cluster, policy,
                     hostGroupNodeCount, desiredAbsoluteHostGroupNodeCount, event.getDecommissionNodeIds());
 
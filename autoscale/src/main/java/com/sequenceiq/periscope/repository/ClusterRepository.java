@@ -67,14 +67,25 @@ public interface ClusterRepository extends CrudRepository<Cluster, Long> {
 
     List<Cluster> findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(List<String> nodes);
 
+    @Query("SELECT c.id, c.periscopeNodeId FROM Cluster c WHERE c.periscopeNodeId IN :periscopeNodeIds")
+    List<Object[]> findAllocationsOfNodes(@Param("periscopeNodeIds") List<String> periscopeNodeIds);
+
     @Modifying
     @Query("UPDATE Cluster c SET c.periscopeNodeId = NULL WHERE c.periscopeNodeId = :periscopeNodeId")
     void deallocateClustersOfNode(@Param("periscopeNodeId") String periscopeNodeId);
 
+    @Modifying
+    @Query("UPDATE Cluster c SET c.periscopeNodeId = :periscopeNodeId WHERE c.id IN :clusterIds")
+    void allocateClustersToNode(@Param("clusterIds") List<Long> clusterIds, @Param("periscopeNodeId") String periscopeNodeId);
+
     @Modifying
     @Query("UPDATE Cluster c SET c.lastEvaluated = :lastEvaluated WHERE c.id = :clusterId")
     void setClusterLastEvaluated(@Param("clusterId") Long clusterId, @Param("lastEvaluated") Long lastEvaluated);
 
+    @Modifying
+    @Query("UPDATE Cluster c SET c.lastEvaluated = :lastEvaluated WHERE c.id IN :clusterIds")
+    void setClustersLastEvaluated(@Param("clusterIds") List<Long> clusterIds, @Param("lastEvaluated") Long lastEvaluated);
+
     @Modifying
     @Query("UPDATE Cluster c SET c.lastScalingActivity = :lastScalingActivity WHERE c.id = :clusterId")
     void setClusterLastScalingActivity(@Param("clusterId") Long clusterId, @Param("lastScalingActivity") Long lastScalingActivity);
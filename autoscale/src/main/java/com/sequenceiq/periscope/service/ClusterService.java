@@ -20,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
 import com.sequenceiq.cloudbreak.api.endpoint.v4.common.ClusterManagerVariant;
 import com.sequenceiq.cloudbreak.api.endpoint.v4.common.StackType;
 import com.sequenceiq.cloudbreak.api.endpoint.v4.stacks.response.AutoscaleStackV4Response;
@@ -44,6 +45,8 @@ public class ClusterService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClusterService.class);
 
+    private static final int UPDATE_BATCH_SIZE = 1000;
+
     @Inject
     private ClusterRepository clusterRepository;
 
@@ -154,6 +157,13 @@ public class ClusterService {
         return clusterRepository.save(cluster);
     }
 
+    /**
+     * The leader may move a cluster to another node while this node evaluates it, so the cluster must be checked again before acting on it.
+     */
+    public boolean isAllocatedToThisNode(Cluster cluster) {
+        return !periscopeNodeConfig.isNodeIdSpecified() || periscopeNodeConfig.getId().equals(cluster.getPeriscopeNodeId());
+    }
+
     public Cluster findById(Long clusterId) {
         Cluster cluster = clusterRepository.findById(clusterId).orElseThrow(notFound("Cluster", clusterId));
         MDCBuilder.buildMdcContext(cluster);
@@ -205,6 +215,10 @@ public class ClusterService {
         clusterRepository.setClusterLastEvaluated(clusterId, lastEvaluated);
     }
 
+    public void setLastEvaluated(List<Long> clusterIds, Long lastEvaluated) {
+        Lists.partition(clusterIds, UPDATE_BATCH_SIZE).forEach(batch -> clusterRepository.setClustersLastEvaluated(batch, lastEvaluated));
+    }
+
     public void setLastScalingActivity(Long clusterId, Long lastScalingActivity) {
         clusterRepository.setClusterLastScalingActivity(clusterId, lastScalingActivity);
     }
@@ -0,0 +1,37 @@
+package com.sequenceiq.periscope.service.ha;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Maps clusters to Periscope nodes so that a node joining or leaving only moves the clusters of its own share of the ring, every other
+ * cluster keeps its node. Each node is placed on the ring several times to spread the clusters evenly.
+ */
+class ConsistentHashRing {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+    private final NavigableMap<Integer, String> ring = new TreeMap<>();
+
+    ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        for (String nodeId : nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(HASH_FUNCTION.hashString(nodeId + '#' + i, StandardCharsets.UTF_8).asInt(), nodeId);
+            }
+        }
+    }
+
+    String getNode(long clusterId) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("There is no Periscope node to allocate cluster " + clusterId + " to");
+        }
+        Map.Entry<Integer, String> entry = ring.ceilingEntry(HASH_FUNCTION.hashLong(clusterId).asInt());
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+}
@@ -4,11 +4,13 @@ import static com.sequenceiq.periscope.service.NotFoundException.notFound;
 
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.function.Supplier;
@@ -24,6 +26,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
 import com.sequenceiq.cloudbreak.common.service.Clock;
 import com.sequenceiq.cloudbreak.common.service.TransactionService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
@@ -47,9 +50,14 @@ public class LeaderElectionService {
 
     private static final long STACK_COLLECTOR_PERIOD = 10000L;
 
+    private static final int ALLOCATION_BATCH_SIZE = 1000;
+
     @Value("${periscope.ha.heartbeat.threshold:60000}")
     private Integer heartbeatThresholdRate;
 
+    @Value("${periscope.ha.allocation.virtualNodes:64}")
+    private Integer virtualNodes;
+
     @Inject
     private ApplicationContext applicationContext;
 
@@ -78,6 +86,8 @@ public class LeaderElectionService {
 
     private Supplier<Timer> timerFactory = Timer::new;
 
+    private volatile Set<String> balancedNodeIds = Set.of();
+
     @PostConstruct
     public void init() {
         timer = timerFactory.get();
@@ -133,22 +143,49 @@ public class LeaderElectionService {
             return;
         }
         List<String> nodeIds = activeNodes.stream().map(PeriscopeNode::getUuid).collect(Collectors.toList());
+        ConsistentHashRing ring = new ConsistentHashRing(nodeIds, virtualNodes);
         List<Cluster> orphanClusters = clusterRepository.findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(nodeIds);
         if (!orphanClusters.isEmpty()) {
-            Iterator<PeriscopeNode> iterator = activeNodes.iterator();
             for (Cluster cluster : orphanClusters) {
-                if (!iterator.hasNext()) {
-                    iterator = activeNodes.iterator();
-                }
                 if (isExecutionOfMissedTimeBasedAlertsNeeded(cluster)) {
                     LOGGER.info("Executing missed alerts on cluster {}", cluster.getId());
                     executeMissedTimeBasedAlerts(cluster);
                 }
-                cluster.setPeriscopeNodeId(iterator.next().getUuid());
+                cluster.setPeriscopeNodeId(ring.getNode(cluster.getId()));
                 LOGGER.info("Allocationg cluster {} to node {}", cluster.getId(), cluster.getPeriscopeNodeId());
             }
             clusterRepository.saveAll(orphanClusters);
         }
+        Set<String> activeNodeIds = Set.copyOf(nodeIds);
+        if (!activeNodeIds.equals(balancedNodeIds) && rebalanceClusters(nodeIds, ring)) {
+            balancedNodeIds = activeNodeIds;
+        }
+    }
+
+    private boolean rebalanceClusters(List<String> nodeIds, ConsistentHashRing ring) {
+        Map<String, List<Long>> movedClusterIds = new HashMap<>();
+        for (Object[] allocation : clusterRepository.findAllocationsOfNodes(nodeIds)) {
+            Long clusterId = (Long) allocation[0];
+            String nodeId = ring.getNode(clusterId);
+            if (!nodeId.equals(allocation[1])) {
+                movedClusterIds.computeIfAbsent(nodeId, k -> new ArrayList<>()).add(clusterId);
+            }
+        }
+        if (!movedClusterIds.isEmpty()) {
+            LOGGER.info("Active nodes changed to {}, moving {} clusters to other nodes", nodeIds,
+                    movedClusterIds.values().stream().mapToInt(List::size).sum());
+            try {
+                transactionService.required(() -> {
+                    movedClusterIds.forEach((nodeId, clusterIds) -> Lists.partition(clusterIds, ALLOCATION_BATCH_SIZE)
+                            .forEach(batch -> clusterRepository.allocateClustersToNode(batch, nodeId)));
+                    return null;
+                });
+            } catch (TransactionExecutionException e) {
+                LOGGER.error("Unable to move clusters to other nodes", e);
+                return false;
+            }
+        }
+        return true;
     }
 
     private boolean isExecutionOfMissedTimeBasedAlertsNeeded(Cluster cluster) {
@@ -193,6 +230,7 @@ public class LeaderElectionService {
     }
 
     private void resetTimer() {
+        balancedNodeIds = Set.of();
         timer.cancel();
         timer.purge();
         timer = timerFactory.get();
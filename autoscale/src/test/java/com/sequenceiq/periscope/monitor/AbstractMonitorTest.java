@@ -1,7 +1,9 @@
 package com.sequenceiq.periscope.monitor;
 
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -74,6 +76,33 @@ public class AbstractMonitorTest {
         verify(rejectedThreadService).remove(CLUSTER_ID);
     }
 
+    @Test
+    public void testExecuteUpdatesLastEvaluatedOfClustersInOneBatch() {
+        when(periscopeNodeConfig.getId()).thenReturn("nodeId");
+        when(clusterService.findAllForNode(ClusterState.RUNNING, true, "nodeId")).thenReturn(List.of(getCluster(CLUSTER_ID), getCluster(CLUSTER_ID + 1)));
+        ClusterMonitor clusterMonitor = new ClusterMonitor() {
+            @Override
+            public String getIdentifier() {
+                return null;
+            }
+
+            @Override
+            public String getTriggerExpression() {
+                return null;
+            }
+
+            @Override
+            public Class<?> getEvaluatorType(Cluster cluster) {
+                return TestExecutor.class;
+            }
+        };
+
+        clusterMonitor.execute(getContext());
+
+        verify(clusterService).setLastEvaluated(eq(List.of(CLUSTER_ID, CLUSTER_ID + 1)), anyLong());
+        verify(clusterService, never()).setLastEvaluated(anyLong(), anyLong());
+    }
+
     private JobExecutionContext getContext() {
         JobExecutionContext jobExecutionContext = mock(JobExecutionContext.class);
         JobDetail jobDetail = mock(JobDetail.class);
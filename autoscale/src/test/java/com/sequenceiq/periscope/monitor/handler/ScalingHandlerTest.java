@@ -96,6 +96,7 @@ public class ScalingHandlerTest {
         when(scalingEventMock.getHostGroupNodeCount()).thenReturn(hostGroupNodeCount);
         when(scalingEventMock.getDesiredAbsoluteHostGroupNodeCount()).thenReturn(expectedNodeCount);
         when(scalingEventMock.getDecommissionNodeIds()).thenReturn(nodeIds);
+        when(clusterService.isAllocatedToThisNode(cluster)).thenReturn(true);
         when(applicationContext.getBean("ScalingRequest", cluster, scalingPolicyMock,
                 hostGroupNodeCount, expectedNodeCount, nodeIds)).thenReturn(runnableMock);
 
@@ -131,6 +132,25 @@ public class ScalingHandlerTest {
         verify(applicationContext, never()).getBean("ScalingRequest");
     }
 
+    @Test
+    public void testOnApplicationEventWhenClusterMovedToAnotherNode() {
+        LoadAlert loadAlertMock = mock(LoadAlert.class);
+        Cluster cluster = getARunningCluster();
+
+        when(scalingEventMock.getAlert()).thenReturn(loadAlertMock);
+        when(loadAlertMock.getCluster()).thenReturn(cluster);
+        when(loadAlertMock.getScalingPolicy()).thenReturn(scalingPolicyMock);
+        when(clusterService.findById(anyLong())).thenReturn(cluster);
+        when(scalingEventMock.getHostGroupNodeCount()).thenReturn(2);
+        when(scalingEventMock.getDesiredAbsoluteHostGroupNodeCount()).thenReturn(5);
+        when(clusterService.isAllocatedToThisNode(cluster)).thenReturn(false);
+
+        underTest.onApplicationEvent(scalingEventMock);
+
+        verify(executorService, never()).submit(any(Runnable.class));
+        verify(clusterService, never()).setLastScalingActivity(eq(AUTOSCALE_CLUSTER_ID), anyLong());
+    }
+
     public static Stream<Arguments> dataClusterScaling() {
         return Stream.of(
                 //TestCase, CurrentHostGroupCount,ScalingAdjustment,ExpectedScalingCount
@@ -166,6 +186,7 @@ public class ScalingHandlerTest {
         when(baseAlertMock.getScalingPolicy()).thenReturn(scalingPolicyMock);
 
         when(scalingEventMock.getDecommissionNodeIds()).thenCallRealMethod();
+        when(clusterService.isAllocatedToThisNode(cluster)).thenReturn(true);
         when(applicationContext.getBean("ScalingRequest", cluster, scalingPolicyMock,
                 currentHostGroupCount, expectedScaleUpCount, List.of())).thenReturn(runnableMock);
 
@@ -0,0 +1,50 @@
+package com.sequenceiq.periscope.service.ha;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 64;
+
+    private static final long CLUSTER_COUNT = 10_000L;
+
+    private static final List<String> NODES = List.of("node1", "node2", "node3", "node4");
+
+    @Test
+    public void testClustersAreSpreadOverEveryNode() {
+        ConsistentHashRing underTest = new ConsistentHashRing(NODES, VIRTUAL_NODES);
+
+        Map<String, Long> clustersPerNode = new HashMap<>();
+        for (long clusterId = 0L; clusterId < CLUSTER_COUNT; clusterId++) {
+            clustersPerNode.merge(underTest.getNode(clusterId), 1L, Long::sum);
+        }
+
+        assertEquals(NODES.size(), clustersPerNode.size());
+        clustersPerNode.values().forEach(count -> assertTrue("Unbalanced allocation: " + clustersPerNode, count > CLUSTER_COUNT / NODES.size() / 2));
+    }
+
+    @Test
+    public void testOnlyTheClustersOfALeavingNodeAreMoved() {
+        ConsistentHashRing underTest = new ConsistentHashRing(NODES, VIRTUAL_NODES);
+        ConsistentHashRing withoutNode4 = new ConsistentHashRing(NODES.subList(0, NODES.size() - 1), VIRTUAL_NODES);
+
+        for (long clusterId = 0L; clusterId < CLUSTER_COUNT; clusterId++) {
+            String node = underTest.getNode(clusterId);
+            if (!"node4".equals(node)) {
+                assertEquals(node, withoutNode4.getNode(clusterId));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEmptyRing() {
+        new ConsistentHashRing(List.of(), VIRTUAL_NODES).getNode(1L);
+    }
+}
@@ -4,6 +4,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -13,14 +14,18 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -43,6 +48,8 @@ import com.sequenceiq.periscope.service.PeriscopeMetricService;
 @RunWith(MockitoJUnitRunner.class)
 public class LeaderElectionServiceTest {
 
+    private static final long CLUSTER_COUNT = 1000L;
+
     @InjectMocks
     private LeaderElectionService underTest;
 
@@ -87,6 +94,7 @@ public class LeaderElectionServiceTest {
         when(clock.getCurrentTimeMillis()).thenReturn(5000L);
         when(applicationContext.getBean(eq("CronTimeEvaluator"), eq(CronTimeEvaluator.class))).thenReturn(cronTimeEvaluator);
         ReflectionTestUtils.setField(underTest, "heartbeatThresholdRate", 70000);
+        ReflectionTestUtils.setField(underTest, "virtualNodes", 64);
     }
 
     @Test
@@ -149,7 +157,9 @@ public class LeaderElectionServiceTest {
         PeriscopeNode leader = new PeriscopeNode("nodeid");
         leader.setLeader(true);
         when(periscopeNodeRepository.findAllByLastUpdatedIsGreaterThan(anyLong())).thenReturn(Collections.singletonList(leader));
-        when(clusterRepository.findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(any())).thenReturn(Collections.singletonList(new Cluster()));
+        Cluster cluster = new Cluster();
+        cluster.setId(1L);
+        when(clusterRepository.findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(any())).thenReturn(Collections.singletonList(cluster));
 
         underTest.leaderElection();
 
@@ -158,6 +168,35 @@ public class LeaderElectionServiceTest {
         verify(transactionService, times(2)).required(any(Supplier.class));
         verify(clusterRepository, times(1)).findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(any(List.class));
         verify(clusterRepository, times(1)).saveAll(any(List.class));
+        Assert.assertEquals("nodeid", cluster.getPeriscopeNodeId());
+    }
+
+    @Test
+    public void testClustersAreRebalancedWhenActiveNodesChange() throws TransactionExecutionException {
+        when(periscopeNodeRepository.countByLeaderIsTrueAndLastUpdatedIsGreaterThan(anyLong())).thenReturn(0L);
+        when(transactionService.required(any(Supplier.class))).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        SpyTimer spyTimer = new SpyTimer();
+        when(timerFactory.get()).thenReturn(spyTimer);
+        PeriscopeNode leader = new PeriscopeNode("nodeid");
+        leader.setLeader(true);
+        PeriscopeNode otherNode = new PeriscopeNode("othernodeid");
+        when(periscopeNodeRepository.findById("nodeid")).thenReturn(Optional.of(leader));
+        when(periscopeNodeRepository.findAllByLastUpdatedIsGreaterThan(anyLong())).thenReturn(List.of(leader, otherNode));
+        List<Object[]> allocations = LongStream.range(0L, CLUSTER_COUNT)
+                .mapToObj(clusterId -> new Object[]{clusterId, "nodeid"})
+                .collect(Collectors.toList());
+        when(clusterRepository.findAllocationsOfNodes(List.of("nodeid", "othernodeid"))).thenReturn(allocations);
+
+        underTest.leaderElection();
+        spyTimer.lastTask.run();
+        spyTimer.lastTask.run();
+
+        ArgumentCaptor<List<Long>> movedClusterIds = ArgumentCaptor.forClass(List.class);
+        verify(clusterRepository, times(1)).findAllocationsOfNodes(any());
+        verify(clusterRepository, times(1)).allocateClustersToNode(movedClusterIds.capture(), eq("othernodeid"));
+        verify(clusterRepository, never()).allocateClustersToNode(any(), eq("nodeid"));
+        Assert.assertTrue(movedClusterIds.getValue().size() > CLUSTER_COUNT / 4);
+        Assert.assertTrue(movedClusterIds.getValue().size() < CLUSTER_COUNT * 3 / 4);
     }
 
     @Test
@@ -1,7 +1,5 @@
 package com.sequenceiq.cloudbreak.ccmimpl.altus;
 
-import static io.grpc.internal.GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
-
 import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
@@ -25,10 +23,10 @@ import com.sequenceiq.cloudbreak.ccm.exception.CcmException;
 import com.sequenceiq.cloudbreak.ccmimpl.altus.config.MinaSshdManagementClientConfig;
 import com.sequenceiq.cloudbreak.ccmimpl.altus.config.MinaSshdManagementConfig;
 import com.sequenceiq.cloudbreak.ccmimpl.util.RetryUtil;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelRegistry;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.opentracing.Tracer;
 
 @Component
@@ -49,6 +47,9 @@ public class GrpcMinaSshdManagementClient {
     @Inject
     private Tracer tracer;
 
+    @Inject
+    private ManagedChannelRegistry channelRegistry;
+
     /**
      * Attempts to acquire a minasshd service for the specified account. If it is not available immediately,
      * polls until it is acquires a ready service, is interrupted, times out, or there are no pending minasshd service instances.
@@ -236,11 +237,7 @@ public class GrpcMinaSshdManagementClient {
     }
 
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-                ManagedChannelBuilder.forAddress(minaSshdManagementConfig.getEndpoint(), minaSshdManagementConfig.getPort())
-                        .usePlaintext()
-                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                        .build());
+        return channelRegistry.getWrapper(minaSshdManagementConfig.getEndpoint(), minaSshdManagementConfig.getPort());
     }
 
     private MinaSshdManagementClient makeClient(ManagedChannel channel, String actorCrn) {
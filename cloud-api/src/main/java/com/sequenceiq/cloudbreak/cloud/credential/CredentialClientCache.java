@@ -0,0 +1,125 @@
+package com.sequenceiq.cloudbreak.cloud.credential;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Keeps the authenticated clients of a cloud provider, keyed by the id of the credential and the fingerprint of its secrets, so the
+ * connectors do not authenticate and build a new client for every call. A client is rebuilt in the background when the refresh interval
+ * elapsed since it was built, the calls keep using the previous client meanwhile, so the tokens are renewed before they expire. When a
+ * credential is seen with new secrets its clients built with the old ones are dropped. The clients unused for the idle timeout or over
+ * the size limit are dropped as well. The cache statistics are published as micrometer cache metrics under the name of the cache.
+ */
+public class CredentialClientCache<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CredentialClientCache.class);
+
+    private final String name;
+
+    private final Function<CloudCredential, String> fingerprintFunction;
+
+    private final LoadingCache<ClientKey, T> clients;
+
+    private final Cache<String, String> fingerprints;
+
+    public CredentialClientCache(String name, Function<CloudCredential, String> fingerprintFunction, Function<CloudCredential, T> clientFactory,
+            long maxEntries, Duration idleTimeout, Duration refreshInterval) {
+        this.name = name;
+        this.fingerprintFunction = fingerprintFunction;
+        clients = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(idleTimeout)
+                .refreshAfterWrite(refreshInterval)
+                .recordStats()
+                .build(key -> {
+                    LOGGER.debug("Building {} client for credential {}", name, key.getCredentialId());
+                    return clientFactory.apply(key.getCredential());
+                });
+        fingerprints = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, clients, name);
+    }
+
+    public T get(CloudCredential credential) {
+        String credentialId = StringUtils.defaultString(credential.getId());
+        String fingerprint = fingerprintFunction.apply(credential);
+        String previousFingerprint = fingerprints.asMap().put(credentialId, fingerprint);
+        if (previousFingerprint != null && !previousFingerprint.equals(fingerprint)) {
+            LOGGER.info("Credential {} was updated, dropping its {} client", credentialId, name);
+            clients.invalidate(new ClientKey(credentialId, previousFingerprint, null));
+            Metrics.counter("credential.client.cache.invalidation", "cache", name).increment();
+        }
+        return clients.get(new ClientKey(credentialId, fingerprint, credential));
+    }
+
+    /**
+     * Drops the clients of the credential, e.g. because it was deleted.
+     */
+    public void invalidate(CloudCredential credential) {
+        String credentialId = StringUtils.defaultString(credential.getId());
+        fingerprints.invalidate(credentialId);
+        clients.asMap().keySet().removeIf(key -> key.getCredentialId().equals(credentialId));
+    }
+
+    @VisibleForTesting
+    long size() {
+        clients.cleanUp();
+        return clients.estimatedSize();
+    }
+
+    private static class ClientKey {
+
+        private final String credentialId;
+
+        private final String fingerprint;
+
+        private final CloudCredential credential;
+
+        ClientKey(String credentialId, String fingerprint, CloudCredential credential) {
+            this.credentialId = credentialId;
+            this.fingerprint = fingerprint;
+            this.credential = credential;
+        }
+
+        String getCredentialId() {
+            return credentialId;
+        }
+
+        CloudCredential getCredential() {
+            return credential;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClientKey clientKey = (ClientKey) o;
+            return credentialId.equals(clientKey.credentialId) && fingerprint.equals(clientKey.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(credentialId, fingerprint);
+        }
+    }
+}
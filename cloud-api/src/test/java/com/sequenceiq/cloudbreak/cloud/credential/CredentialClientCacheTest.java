@@ -0,0 +1,67 @@
+package com.sequenceiq.cloudbreak.cloud.credential;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+
+public class CredentialClientCacheTest {
+
+    private static final String SECRET = "secret";
+
+    private static final long MAX_ENTRIES = 10L;
+
+    private final AtomicInteger builtClients = new AtomicInteger();
+
+    private final CredentialClientCache<Object> underTest = new CredentialClientCache<>("testClientCache",
+            credential -> credential.getParameter(SECRET, String.class), credential -> {
+                builtClients.incrementAndGet();
+                return new Object();
+            }, MAX_ENTRIES, Duration.ofMinutes(1L), Duration.ofMinutes(1L));
+
+    @Test
+    public void testClientIsBuiltOncePerCredential() {
+        Object client = underTest.get(credential("id1", "s1"));
+
+        assertSame(client, underTest.get(credential("id1", "s1")));
+        assertNotSame(client, underTest.get(credential("id2", "s1")));
+        assertEquals(2, builtClients.get());
+    }
+
+    @Test
+    public void testClientIsRebuiltWhenSecretChanges() {
+        Object client = underTest.get(credential("id1", "s1"));
+
+        Object updatedClient = underTest.get(credential("id1", "s2"));
+
+        assertNotSame(client, updatedClient);
+        assertSame(updatedClient, underTest.get(credential("id1", "s2")));
+        assertEquals(1L, underTest.size());
+    }
+
+    @Test
+    public void testClientsOfCredentialAreInvalidated() {
+        underTest.get(credential("id1", "s1"));
+        underTest.get(credential("id2", "s1"));
+
+        underTest.invalidate(credential("id1", "s1"));
+
+        assertEquals(1L, underTest.size());
+        underTest.get(credential("id1", "s1"));
+        assertEquals(3, builtClients.get());
+    }
+
+    private CloudCredential credential(String id, String secret) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(SECRET, secret);
+        return new CloudCredential(id, "name", parameters, false);
+    }
+}
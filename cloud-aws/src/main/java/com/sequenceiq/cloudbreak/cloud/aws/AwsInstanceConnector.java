@@ -202,11 +202,12 @@ public class AwsInstanceConnector implements InstanceConnector {
         if (e.getErrorCode().equalsIgnoreCase(INSTANCE_NOT_FOUND_ERROR_CODE)) {
             Pattern pattern = Pattern.compile("i-[a-z0-9]*");
             Matcher matcher = pattern.matcher(e.getErrorMessage());
-            if (matcher.find()) {
-                String doesNotExistInstanceId = matcher.group();
-                LOGGER.debug("Remove instance from vms: {}", doesNotExistInstanceId);
-                vms.removeIf(vm -> doesNotExistInstanceId.equals(vm.getInstanceId()));
+            Set<String> doesNotExistInstanceIds = new HashSet<>();
+            while (matcher.find()) {
+                doesNotExistInstanceIds.add(matcher.group());
             }
+            LOGGER.debug("Remove instances from vms: {}", doesNotExistInstanceIds);
+            vms.removeIf(vm -> doesNotExistInstanceIds.contains(vm.getInstanceId()));
         }
         throw e;
     }
@@ -180,6 +180,14 @@ public class AwsInstanceConnectorTest {
         Assert.assertThat(mutableList, hasSize(1));
     }
 
+    @Test
+    public void testCheckExceptionHandleRemovesEveryMissingInstance() {
+        mockDescribeInstancesException(INSTANCE_NOT_FOUND_ERROR_CODE, "The instance IDs 'i-1, i-2' do not exist");
+        List<CloudInstance> mutableList = getCloudInstances().stream().collect(toCollection(ArrayList::new));
+        Assertions.assertThrows(AmazonEC2Exception.class, () -> underTest.check(authenticatedContext, mutableList));
+        Assert.assertThat(mutableList, hasSize(0));
+    }
+
     @Test
     public void testCheckSdkExceptionRetry() {
         when(amazonEC2Client.describeInstances(any(DescribeInstancesRequest.class))).thenThrow(new SdkClientException("lamb"),
@@ -21,6 +21,7 @@ import com.sequenceiq.cloudbreak.cloud.response.CredentialPrerequisitesResponse;
 import com.sequenceiq.cloudbreak.cloud.CredentialConnector;
 import com.sequenceiq.cloudbreak.cloud.azure.client.AuthenticationContextProvider;
 import com.sequenceiq.cloudbreak.cloud.azure.client.AzureClient;
+import com.sequenceiq.cloudbreak.cloud.azure.client.AzureClientService;
 import com.sequenceiq.cloudbreak.cloud.azure.client.CBRefreshTokenClientProvider;
 import com.sequenceiq.cloudbreak.cloud.azure.client.CbDelegatedTokenCredentials;
 import com.sequenceiq.cloudbreak.cloud.azure.view.AzureCredentialView;
@@ -56,6 +57,9 @@ public class AzureCredentialConnector implements CredentialConnector {
     @Inject
     private AzureExceptionExtractor exceptionExtractor;
 
+    @Inject
+    private AzureClientService azureClientService;
+
     @Override
     public CloudCredentialStatus verify(AuthenticatedContext authenticatedContext, CredentialVerificationContext credentialVerificationContext) {
         CloudCredential cloudCredential = authenticatedContext.getCloudCredential();
@@ -96,6 +100,7 @@ public class AzureCredentialConnector implements CredentialConnector {
 
     @Override
     public CloudCredentialStatus delete(AuthenticatedContext authenticatedContext) {
+        azureClientService.invalidateClient(authenticatedContext.getCloudCredential());
         return new CloudCredentialStatus(authenticatedContext.getCloudCredential(), CredentialStatus.DELETED);
     }
 
@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.cloud.azure.client;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 
@@ -56,6 +57,18 @@ public class AzureClientCredentials {
                 .withSubscription(credentialView.getSubscriptionId());
     }
 
+    /**
+     * Acquires the access token of the management endpoint, so the first call made with a new client does not wait for it. A failure is
+     * only logged, the calls made with the client report it as before.
+     */
+    public void acquireManagementToken() {
+        try {
+            azureClientCredentials.getToken(AzureEnvironment.AZURE.managementEndpoint());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Could not acquire management token in advance for credential: {}", credentialView.getName(), e);
+        }
+    }
+
     public privatednsManager getPrivateDnsManager() {
         return privatednsManager.authenticate(azureClientCredentials, credentialView.getSubscriptionId());
     }
@@ -1,24 +1,47 @@
 package com.sequenceiq.cloudbreak.cloud.azure.client;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
 import com.microsoft.rest.LogLevel;
 import com.sequenceiq.cloudbreak.cloud.azure.tracing.AzureOkHttp3TracingInterceptor;
 import com.sequenceiq.cloudbreak.cloud.azure.util.AzureAuthExceptionHandler;
 import com.sequenceiq.cloudbreak.cloud.azure.view.AzureCredentialView;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
 import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.credential.CredentialClientCache;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
 
 @Service
 public class AzureClientService {
 
+    private static final char FINGERPRINT_SEPARATOR = '\0';
+
+    @VisibleForTesting
+    @Value("${cb.azure.client.cache.enabled:true}")
+    boolean clientCacheEnabled;
+
     @Value("${cb.azure.loglevel:BASIC}")
     private LogLevel logLevel;
 
+    @Value("${cb.azure.client.cache.max.entries:500}")
+    private long clientCacheMaxEntries;
+
+    @Value("${cb.azure.client.cache.idle.timeout:PT30M}")
+    private Duration clientCacheIdleTimeout;
+
+    @Value("${cb.azure.client.cache.token.refresh.interval:PT40M}")
+    private Duration clientCacheTokenRefreshInterval;
+
     @Inject
     private CBRefreshTokenClientProvider cbRefreshTokenClientProvider;
 
@@ -31,6 +54,14 @@ public class AzureClientService {
     @Inject
     private AzureAuthExceptionHandler azureAuthExceptionHandler;
 
+    private CredentialClientCache<AzureClient> clientCache;
+
+    @PostConstruct
+    public void init() {
+        clientCache = new CredentialClientCache<>("azureClientCache", this::fingerprint, this::createCachedClient, clientCacheMaxEntries,
+                clientCacheIdleTimeout, clientCacheTokenRefreshInterval);
+    }
+
     public AuthenticatedContext createAuthenticatedContext(CloudContext cloudContext, CloudCredential cloudCredential) {
         AuthenticatedContext authenticatedContext = new AuthenticatedContext(cloudContext, cloudCredential);
         AzureClient azureClient = getClient(cloudCredential);
@@ -38,10 +69,48 @@ public class AzureClientService {
         return authenticatedContext;
     }
 
+    /**
+     * Returns the client of an application based credential from the client cache. The code grant flow based credentials hand out new
+     * refresh tokens, so they get a new client on every call.
+     */
     public AzureClient getClient(CloudCredential cloudCredential) {
         AzureCredentialView azureCredentialView = new AzureCredentialView(cloudCredential);
-        AzureClientCredentials azureClientCredentials = new AzureClientCredentials(azureCredentialView, logLevel, cbRefreshTokenClientProvider,
-                authenticationContextProvider, tracingInterceptor);
+        if (!clientCacheEnabled || azureCredentialView.codeGrantFlow()) {
+            return createClient(azureCredentialView);
+        }
+        return clientCache.get(cloudCredential);
+    }
+
+    /**
+     * Drops the cached client of the credential, e.g. because it was deleted.
+     */
+    public void invalidateClient(CloudCredential cloudCredential) {
+        if (clientCache != null) {
+            clientCache.invalidate(cloudCredential);
+        }
+    }
+
+    private AzureClient createCachedClient(CloudCredential cloudCredential) {
+        AzureClientCredentials azureClientCredentials = createClientCredentials(new AzureCredentialView(cloudCredential));
+        azureClientCredentials.acquireManagementToken();
         return new AzureClient(azureClientCredentials, azureAuthExceptionHandler);
     }
+
+    private AzureClient createClient(AzureCredentialView azureCredentialView) {
+        return new AzureClient(createClientCredentials(azureCredentialView), azureAuthExceptionHandler);
+    }
+
+    private AzureClientCredentials createClientCredentials(AzureCredentialView azureCredentialView) {
+        return new AzureClientCredentials(azureCredentialView, logLevel, cbRefreshTokenClientProvider, authenticationContextProvider, tracingInterceptor);
+    }
+
+    private String fingerprint(CloudCredential cloudCredential) {
+        AzureCredentialView azureCredentialView = new AzureCredentialView(cloudCredential);
+        return Hashing.sha256().newHasher()
+                .putString(StringUtils.defaultString(azureCredentialView.getSubscriptionId()), StandardCharsets.UTF_8).putChar(FINGERPRINT_SEPARATOR)
+                .putString(StringUtils.defaultString(azureCredentialView.getTenantId()), StandardCharsets.UTF_8).putChar(FINGERPRINT_SEPARATOR)
+                .putString(StringUtils.defaultString(azureCredentialView.getAccessKey()), StandardCharsets.UTF_8).putChar(FINGERPRINT_SEPARATOR)
+                .putString(StringUtils.defaultString(azureCredentialView.getSecretKey()), StandardCharsets.UTF_8)
+                .hash().toString();
+    }
 }
@@ -0,0 +1,156 @@
+package com.sequenceiq.cloudbreak.cloud.azure.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.cloud.credential.CredentialClientCache;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Calls a local stub of AAD and ARM the way the Azure connectors do, once with a new authenticated client per call like
+ * {@link AzureClientService} did before, once through the {@link CredentialClientCache}. The Azure SDK cannot be pointed to a local
+ * Active Directory, so a stub client acquires its token and calls the resource endpoint with the JDK HTTP client, building a new HTTP client
+ * with its own connection pool like the SDK does. The token requests served by the stub are logged per iteration.
+ * Run with {@code ./gradlew :cloud-azure:benchmark -PbenchmarkIncludes=AzureClientCacheBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class AzureClientCacheBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AzureClientCacheBenchmark.class);
+
+    private static final int CREDENTIALS = 10;
+
+    private static final int STUB_THREADS = 8;
+
+    private static final long MAX_ENTRIES = 100L;
+
+    private static final int HTTP_OK = 200;
+
+    @Param({"CLIENT_PER_CALL", "CACHED_CLIENT"})
+    private String mode;
+
+    private final AtomicLong tokenRequests = new AtomicLong();
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private HttpServer server;
+
+    private URI tokenUri;
+
+    private URI resourceUri;
+
+    private CredentialClientCache<StubAzureClient> clientCache;
+
+    private CloudCredential[] credentials;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/token", exchange -> {
+            tokenRequests.incrementAndGet();
+            respond(exchange, "{\"access_token\":\"token\",\"expires_in\":3600}");
+        });
+        server.createContext("/subscriptions", exchange -> respond(exchange, "{\"subscriptionId\":\"subscription\"}"));
+        server.setExecutor(Executors.newFixedThreadPool(STUB_THREADS));
+        server.start();
+        tokenUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/token");
+        resourceUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/subscriptions");
+        clientCache = new CredentialClientCache<>("azureClientCacheBenchmark", credential -> credential.getParameter("secret", String.class),
+                credential -> new StubAzureClient(tokenUri, resourceUri), MAX_ENTRIES, Duration.ofMinutes(30L), Duration.ofMinutes(40L));
+        credentials = new CloudCredential[CREDENTIALS];
+        for (int i = 0; i < CREDENTIALS; i++) {
+            credentials[i] = new CloudCredential("credential" + i, "credential" + i, Map.of("secret", "secret" + i), false);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printTokenRequests() {
+        LOGGER.info("{}: {} token requests for {} calls", mode, tokenRequests.getAndSet(0L), calls.getAndSet(0L));
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Benchmark
+    public String getSubscription() {
+        CloudCredential credential = credentials[(int) (calls.incrementAndGet() % CREDENTIALS)];
+        StubAzureClient client = "CACHED_CLIENT".equals(mode) ? clientCache.get(credential) : new StubAzureClient(tokenUri, resourceUri);
+        return client.getSubscription();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().readAllBytes();
+        exchange.sendResponseHeaders(HTTP_OK, response.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(response);
+        }
+    }
+
+    private static class StubAzureClient {
+
+        private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        private final URI resourceUri;
+
+        private final String token;
+
+        StubAzureClient(URI tokenUri, URI resourceUri) {
+            this.resourceUri = resourceUri;
+            token = send(HttpRequest.newBuilder(tokenUri).POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials")).build());
+        }
+
+        String getSubscription() {
+            return send(HttpRequest.newBuilder(resourceUri).header("Authorization", "Bearer " + token).GET().build());
+        }
+
+        private String send(HttpRequest request) {
+            try {
+                return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.sequenceiq.cloudbreak.polling;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Wait time between two status checks of an asynchronous polling. The interval grows by the multiplier after every attempt up to the maximum,
+ * and is randomized by the jitter ratio, so pollers started together do not hit the polled service at the same time.
+ */
+public class PollingBackoff {
+
+    private final long initialIntervalMillis;
+
+    private final long maxIntervalMillis;
+
+    private final double multiplier;
+
+    private final double jitterRatio;
+
+    private PollingBackoff(long initialIntervalMillis, long maxIntervalMillis, double multiplier, double jitterRatio) {
+        if (initialIntervalMillis < 0 || maxIntervalMillis < initialIntervalMillis) {
+            throw new IllegalArgumentException("Polling intervals must satisfy 0 <= initial <= max");
+        }
+        if (multiplier < 1.0d || jitterRatio < 0.0d || jitterRatio > 1.0d) {
+            throw new IllegalArgumentException("Polling multiplier must be at least 1 and jitter ratio must be between 0 and 1");
+        }
+        this.initialIntervalMillis = initialIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.multiplier = multiplier;
+        this.jitterRatio = jitterRatio;
+    }
+
+    public static PollingBackoff fixed(long intervalMillis) {
+        return new PollingBackoff(intervalMillis, intervalMillis, 1.0d, 0.0d);
+    }
+
+    public static PollingBackoff exponential(long initialIntervalMillis, long maxIntervalMillis, double multiplier, double jitterRatio) {
+        return new PollingBackoff(initialIntervalMillis, maxIntervalMillis, multiplier, jitterRatio);
+    }
+
+    /**
+     * @param attempt the number of status checks done so far, starting from 1
+     */
+    public long getDelayMillis(int attempt) {
+        double interval = Math.min(maxIntervalMillis, initialIntervalMillis * Math.pow(multiplier, Math.max(0, attempt - 1)));
+        if (jitterRatio > 0.0d) {
+            interval += interval * jitterRatio * ThreadLocalRandom.current().nextDouble(-1.0d, 1.0d);
+        }
+        return Math.max(0L, Math.round(interval));
+    }
+
+    @Override
+    public String toString() {
+        return "PollingBackoff{"
+                + "initialIntervalMillis=" + initialIntervalMillis
+                + ", maxIntervalMillis=" + maxIntervalMillis
+                + ", multiplier=" + multiplier
+                + ", jitterRatio=" + jitterRatio
+                + '}';
+    }
+}
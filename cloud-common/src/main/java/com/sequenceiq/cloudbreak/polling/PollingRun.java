@@ -0,0 +1,93 @@
+package com.sequenceiq.cloudbreak.polling;
+
+import java.util.Optional;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The state of one polling, shared by the blocking and the asynchronous {@link PollingService} methods. The caller decides how to wait
+ * between the steps, every step returns the result once the polling is finished.
+ */
+class PollingRun<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PollingRun.class);
+
+    private final StatusCheckerTask<T> statusCheckerTask;
+
+    private final T t;
+
+    private final TimeoutChecker timeoutChecker;
+
+    private final int maxConsecutiveFailures;
+
+    private int attempts;
+
+    private int consecutiveFailures;
+
+    private Exception actual;
+
+    PollingRun(StatusCheckerTask<T> statusCheckerTask, T t, TimeoutChecker timeoutChecker, int maxConsecutiveFailures) {
+        this.statusCheckerTask = statusCheckerTask;
+        this.t = t;
+        this.timeoutChecker = timeoutChecker;
+        this.maxConsecutiveFailures = maxConsecutiveFailures;
+    }
+
+    Optional<Pair<PollingResult, Exception>> checkExit() {
+        return statusCheckerTask.exitPolling(t) ? Optional.of(exited()) : Optional.empty();
+    }
+
+    Optional<Pair<PollingResult, Exception>> checkStatus() {
+        LOGGER.debug("Polling attempt {}.", attempts);
+        boolean success = false;
+        try {
+            success = statusCheckerTask.checkStatus(t);
+        } catch (Exception ex) {
+            consecutiveFailures++;
+            actual = ex;
+            LOGGER.debug("Exception occurred in the polling: {}. Number of consecutive failures: [{}/{}]",
+                    ex.getMessage(), consecutiveFailures, maxConsecutiveFailures, ex);
+        }
+        if (consecutiveFailures >= maxConsecutiveFailures) {
+            LOGGER.debug("Polling failure reached the limit which was {}, poller will drop the last exception.", maxConsecutiveFailures);
+            statusCheckerTask.handleException(actual);
+            return Optional.of(new ImmutablePair<>(PollingResult.FAILURE, actual));
+        } else if (success) {
+            LOGGER.debug(statusCheckerTask.successMessage(t));
+            LOGGER.debug("Set the number of consecutive failures to 0, since we received a positve answer. Original number of consecutiveFailures: {}",
+                    consecutiveFailures);
+            consecutiveFailures = 0;
+            return Optional.of(new ImmutablePair<>(PollingResult.SUCCESS, actual));
+        }
+        return Optional.empty();
+    }
+
+    Optional<Pair<PollingResult, Exception>> checkTimeoutAndExit() {
+        attempts++;
+        boolean timeout = timeoutChecker.checkTimeout();
+        boolean exit = statusCheckerTask.exitPolling(t);
+        if (timeout) {
+            LOGGER.debug("Poller timeout.");
+            statusCheckerTask.handleTimeout(t);
+            return Optional.of(new ImmutablePair<>(PollingResult.TIMEOUT, actual));
+        }
+        return exit ? Optional.of(exited()) : Optional.empty();
+    }
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    String getTaskName() {
+        Class<?> taskClass = statusCheckerTask.getClass();
+        return taskClass.getSimpleName().isEmpty() ? taskClass.getName() : taskClass.getSimpleName();
+    }
+
+    private Pair<PollingResult, Exception> exited() {
+        LOGGER.debug("Poller exiting.");
+        return new ImmutablePair<>(PollingResult.EXIT, actual);
+    }
+}
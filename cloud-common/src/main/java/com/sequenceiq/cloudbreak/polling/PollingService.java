@@ -1,16 +1,52 @@
 package com.sequenceiq.cloudbreak.polling;
 
-import org.apache.commons.lang3.tuple.ImmutablePair;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.metrics.type.MetricTag;
+import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerScheduledExecutor;
+
 @Component
 public class PollingService<T> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PollingService.class);
 
+    @Value("${cb.polling.scheduler.pool.size:8}")
+    private int schedulerPoolSize;
+
+    @Inject
+    private Optional<MetricService> metricService;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = new MDCCleanerScheduledExecutor(schedulerPoolSize, new ThreadFactoryBuilder().setNameFormat("polling-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
     /**
      * Executes a {@link StatusCheckerTask} until it signals success, or the
      * maximum attempts are reached. A {@link StatusCheckerTask} has no
@@ -31,47 +67,24 @@ public class PollingService<T> {
         return pollWithTimeout(statusCheckerTask, t, interval, new AbsolutTimeBasedTimeoutChecker(maximumWaitTimeInSeconds), maxConsecutiveFailures);
     }
 
+    /**
+     * Blocking variant of {@link #pollAsync(StatusCheckerTask, Object, PollingBackoff, TimeoutChecker, int)}, the status checks run on the
+     * calling thread, so they see its thread local state (e.g. the security context).
+     */
     public Pair<PollingResult, Exception> pollWithTimeout(StatusCheckerTask<T> statusCheckerTask, T t, long interval, TimeoutChecker timeoutChecker,
             int maxConsecutiveFailures) {
-        boolean success = false;
-        boolean timeout = false;
-        int attempts = 0;
-        int consecutiveFailures = 0;
-        Exception actual = null;
-        boolean exit = statusCheckerTask.exitPolling(t);
-        while (!timeout && !exit) {
-            LOGGER.debug("Polling attempt {}.", attempts);
-            try {
-                success = statusCheckerTask.checkStatus(t);
-            } catch (Exception ex) {
-                consecutiveFailures++;
-                actual = ex;
-                LOGGER.debug("Exception occurred in the polling: {}. Number of consecutive failures: [{}/{}]",
-                        ex.getMessage(), consecutiveFailures, maxConsecutiveFailures, ex);
+        long start = System.currentTimeMillis();
+        PollingRun<T> run = new PollingRun<>(statusCheckerTask, t, timeoutChecker, maxConsecutiveFailures);
+        Optional<Pair<PollingResult, Exception>> result = run.checkExit();
+        while (result.isEmpty()) {
+            result = run.checkStatus();
+            if (result.isEmpty()) {
+                sleep(interval);
+                result = run.checkTimeoutAndExit();
             }
-            if (consecutiveFailures >= maxConsecutiveFailures) {
-                LOGGER.debug("Polling failure reached the limit which was {}, poller will drop the last exception.", maxConsecutiveFailures);
-                statusCheckerTask.handleException(actual);
-                return new ImmutablePair<>(PollingResult.FAILURE, actual);
-            } else if (success) {
-                LOGGER.debug(statusCheckerTask.successMessage(t));
-                LOGGER.debug("Set the number of consecutive failures to 0, since we received a positve answer. Original number of consecutiveFailures: {}",
-                        consecutiveFailures);
-                consecutiveFailures = 0;
-                return new ImmutablePair<>(PollingResult.SUCCESS, actual);
-            }
-            sleep(interval);
-            attempts++;
-            timeout = timeoutChecker.checkTimeout();
-            exit = statusCheckerTask.exitPolling(t);
-        }
-        if (timeout) {
-            LOGGER.debug("Poller timeout.");
-            statusCheckerTask.handleTimeout(t);
-            return new ImmutablePair<>(PollingResult.TIMEOUT, actual);
         }
-        LOGGER.debug("Poller exiting.");
-        return new ImmutablePair<>(PollingResult.EXIT, actual);
+        recordMetrics(run, result.get().getLeft(), start);
+        return result.get();
     }
 
     public PollingResult pollWithAbsoluteTimeoutSingleFailure(StatusCheckerTask<T> statusCheckerTask, T t, int interval, long maximumWaitTimeInSeconds) {
@@ -82,6 +95,57 @@ public class PollingService<T> {
         return pollWithTimeout(statusCheckerTask, t, interval, maxAttempts, 1).getLeft();
     }
 
+    /**
+     * Executes a {@link StatusCheckerTask} like {@link #pollWithTimeout(StatusCheckerTask, Object, long, TimeoutChecker, int)}, but no thread is
+     * held between the status checks: every check is scheduled on a shared scheduler after the delay of the backoff. The status checks run on
+     * the scheduler threads with the logging context of the caller, so they should not block for long.
+     * Cancelling the returned future stops the polling before the next status check.
+     */
+    public CompletableFuture<Pair<PollingResult, Exception>> pollAsync(StatusCheckerTask<T> statusCheckerTask, T t, PollingBackoff backoff,
+            TimeoutChecker timeoutChecker, int maxConsecutiveFailures) {
+        CompletableFuture<Pair<PollingResult, Exception>> result = new CompletableFuture<>();
+        PollingRun<T> run = new PollingRun<>(statusCheckerTask, t, timeoutChecker, maxConsecutiveFailures);
+        Map<String, String> mdcContext = MDCBuilder.getMdcContextMap();
+        long start = System.currentTimeMillis();
+        scheduler.execute(() -> runStep(run, () -> run.checkExit().or(run::checkStatus), backoff, mdcContext, result, start));
+        return result;
+    }
+
+    public CompletableFuture<Pair<PollingResult, Exception>> pollAsyncWithAbsoluteTimeout(StatusCheckerTask<T> statusCheckerTask, T t,
+            PollingBackoff backoff, long maximumWaitTimeInSeconds, int maxConsecutiveFailures) {
+        return pollAsync(statusCheckerTask, t, backoff, new AbsolutTimeBasedTimeoutChecker(maximumWaitTimeInSeconds), maxConsecutiveFailures);
+    }
+
+    private void runStep(PollingRun<T> run, PollingStep step, PollingBackoff backoff, Map<String, String> mdcContext,
+            CompletableFuture<Pair<PollingResult, Exception>> result, long start) {
+        if (result.isDone()) {
+            LOGGER.debug("Polling of {} was cancelled.", run.getTaskName());
+            return;
+        }
+        MDCBuilder.buildMdcContextFromMap(mdcContext);
+        try {
+            Optional<Pair<PollingResult, Exception>> stepResult = step.execute();
+            if (stepResult.isPresent()) {
+                recordMetrics(run, stepResult.get().getLeft(), start);
+                result.complete(stepResult.get());
+            } else {
+                scheduler.schedule(() -> runStep(run, () -> run.checkTimeoutAndExit().or(run::checkStatus), backoff, mdcContext, result, start),
+                        backoff.getDelayMillis(run.getAttempts() + 1), TimeUnit.MILLISECONDS);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Polling of {} failed.", run.getTaskName(), e);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void recordMetrics(PollingRun<T> run, PollingResult pollingResult, long start) {
+        String[] tags = {MetricTag.POLLING_TASK.name(), run.getTaskName(), MetricTag.POLLING_RESULT.name(), pollingResult.name()};
+        metricService.ifPresent(service -> {
+            service.recordTimerMetric(MetricType.POLLING_TIME, Duration.ofMillis(System.currentTimeMillis() - start), tags);
+            service.incrementMetricCounter(MetricType.POLLING_FINISHED, tags);
+        });
+    }
+
     private void sleep(long duration) {
         try {
             Thread.sleep(duration);
@@ -90,4 +154,9 @@ public class PollingService<T> {
             Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface PollingStep {
+        Optional<Pair<PollingResult, Exception>> execute();
+    }
+}
@@ -0,0 +1,222 @@
+package com.sequenceiq.cloudbreak.util;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Pre-generates key pairs in the background, so the key generation does not slow down the requests which need new key pairs.
+ * <p>
+ * Every key type has its own pool, which is refilled on a dedicated bounded executor when it shrinks below the low watermark. The pool is
+ * refilled to the number of keys taken over the last {@code cb.security.keypair.pool.demand.window}, but at least to the high watermark and
+ * at most to the max size, so a burst of requests raises the number of the pregenerated keys. The pool of a type is created on its first
+ * use, the types in {@code cb.security.keypair.pool.preload} are pregenerated on startup.
+ * <p>
+ * When the pool of a type is empty, the key pair being generated is waited for at most {@code cb.security.keypair.pool.max.wait}, then
+ * the key pair is generated on the requesting thread, so a request never fails because of the pool.
+ */
+@Component
+public class KeyPairPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private static final String METRIC_PREFIX = "keypair.pool.";
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10L);
+
+    @VisibleForTesting
+    @Value("${cb.security.keypair.pool.preload:}")
+    Set<KeyPairType> preloadedTypes;
+
+    @VisibleForTesting
+    @Value("${cb.security.keypair.pool.low.watermark:4}")
+    int lowWatermark;
+
+    @VisibleForTesting
+    @Value("${cb.security.keypair.pool.high.watermark:${cb.security.keypair.cache.size:10}}")
+    int highWatermark;
+
+    @VisibleForTesting
+    @Value("${cb.security.keypair.pool.max.size:100}")
+    int maxSize;
+
+    @VisibleForTesting
+    @Value("${cb.security.keypair.pool.demand.window:PT5M}")
+    Duration demandWindow;
+
+    @VisibleForTesting
+    @Value("${cb.security.keypair.pool.max.wait:PT0.5S}")
+    Duration maxWait;
+
+    @VisibleForTesting
+    @Value("${cb.security.keypair.pool.threads:2}")
+    int threads;
+
+    @VisibleForTesting
+    Function<KeyPairType, KeyPair> generator = KeyPairType::generate;
+
+    private final Map<KeyPairType, TypePool> pools = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxSize * KeyPairType.values().length),
+                new ThreadFactoryBuilder().setNameFormat("keypair-pool-%d").setDaemon(true).build());
+        preloadedTypes.forEach(this::getPool);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public KeyPair take(KeyPairType type) {
+        return getPool(type).take();
+    }
+
+    @VisibleForTesting
+    int size(KeyPairType type) {
+        TypePool pool = pools.get(type);
+        return pool == null ? 0 : pool.size();
+    }
+
+    @VisibleForTesting
+    int target(KeyPairType type) {
+        return getPool(type).target();
+    }
+
+    private TypePool getPool(KeyPairType type) {
+        return pools.computeIfAbsent(type, key -> {
+            TypePool pool = new TypePool(key);
+            Metrics.gauge(METRIC_PREFIX + "size", Tags.of("type", key.name()), pool, TypePool::size);
+            pool.refill();
+            return pool;
+        });
+    }
+
+    private class TypePool {
+
+        private final KeyPairType type;
+
+        private final LinkedBlockingQueue<KeyPair> keyPairs = new LinkedBlockingQueue<>();
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final Timer waitTimer;
+
+        private double demand;
+
+        private long lastDemandUpdate = System.nanoTime();
+
+        TypePool(KeyPairType type) {
+            this.type = type;
+            waitTimer = Metrics.timer(METRIC_PREFIX + "wait", "type", type.name());
+        }
+
+        int size() {
+            return keyPairs.size();
+        }
+
+        KeyPair take() {
+            long start = System.nanoTime();
+            updateDemand();
+            KeyPair keyPair = keyPairs.poll();
+            String result = "hit";
+            if (keyPair == null) {
+                keyPair = waitForPending();
+                result = keyPair == null ? "miss" : "wait";
+            }
+            refill();
+            if (keyPair == null) {
+                LOGGER.info("No pregenerated {} key pair is available, generating it on the requesting thread", type);
+                keyPair = generator.apply(type);
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Metrics.counter(METRIC_PREFIX + "take", "type", type.name(), "result", result).increment();
+            return keyPair;
+        }
+
+        synchronized void refill() {
+            int available = keyPairs.size() + pending.get();
+            if (available >= lowWatermark) {
+                return;
+            }
+            int missing = target() - available;
+            for (int i = 0; i < missing; i++) {
+                pending.incrementAndGet();
+                try {
+                    executor.execute(this::generate);
+                } catch (RejectedExecutionException e) {
+                    pending.decrementAndGet();
+                    LOGGER.debug("Key pair pool executor is full, {} key pairs are refilled later", type);
+                    return;
+                }
+            }
+        }
+
+        private KeyPair waitForPending() {
+            if (pending.get() == 0) {
+                return null;
+            }
+            try {
+                return keyPairs.poll(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        private void generate() {
+            try {
+                keyPairs.offer(generator.apply(type));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not pregenerate {} key pair", type, e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+
+        /**
+         * The keys taken over the demand window, decayed exponentially, bounded by the high watermark and the max size.
+         */
+        private synchronized int target() {
+            return (int) Math.min(maxSize, Math.max(highWatermark, Math.ceil(decayedDemand(System.nanoTime()))));
+        }
+
+        private synchronized void updateDemand() {
+            long now = System.nanoTime();
+            demand = decayedDemand(now) + 1;
+            lastDemandUpdate = now;
+        }
+
+        private double decayedDemand(long now) {
+            return demand * Math.exp(-(double) (now - lastDemandUpdate) / demandWindow.toNanos());
+        }
+    }
+}
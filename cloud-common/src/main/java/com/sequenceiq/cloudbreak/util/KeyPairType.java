@@ -0,0 +1,52 @@
+package com.sequenceiq.cloudbreak.util;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+
+import com.sequenceiq.cloudbreak.certificate.PkiException;
+
+public enum KeyPairType {
+
+    RSA_2048("RSA", 2048, null),
+    RSA_3072("RSA", 3072, null),
+    RSA_4096("RSA", 4096, null),
+    EC_P256("EC", 256, "secp256r1"),
+    EC_P384("EC", 384, "secp384r1");
+
+    private final String algorithm;
+
+    private final int keySize;
+
+    private final String curve;
+
+    KeyPairType(String algorithm, int keySize, String curve) {
+        this.algorithm = algorithm;
+        this.keySize = keySize;
+        this.curve = curve;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getKeySize() {
+        return keySize;
+    }
+
+    public KeyPair generate() {
+        try {
+            KeyPairGenerator keyGen = KeyPairGenerator.getInstance(algorithm);
+            if (curve != null) {
+                keyGen.initialize(new ECGenParameterSpec(curve), new SecureRandom());
+            } else {
+                keyGen.initialize(keySize, new SecureRandom());
+            }
+            return keyGen.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new PkiException(String.format("Failed to generate %s key pair!", name()), e);
+        }
+    }
+}
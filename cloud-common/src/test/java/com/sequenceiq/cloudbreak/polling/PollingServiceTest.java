@@ -0,0 +1,244 @@
+package com.sequenceiq.cloudbreak.polling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.metrics.type.MetricTag;
+import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
+
+@ExtendWith(MockitoExtension.class)
+class PollingServiceTest {
+
+    private static final long INTERVAL = 1L;
+
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    @Mock
+    private MetricService metricService;
+
+    @InjectMocks
+    private PollingService<AtomicInteger> underTest;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "schedulerPoolSize", 2);
+        ReflectionTestUtils.setField(underTest, "metricService", Optional.of(metricService));
+        underTest.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void testPollWithTimeoutSucceedsAfterAttempts() {
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(new CountingTask(3), new AtomicInteger(), INTERVAL, 10, 1);
+
+        assertEquals(PollingResult.SUCCESS, result.getLeft());
+        verify(metricService).incrementMetricCounter(MetricType.POLLING_FINISHED,
+                MetricTag.POLLING_TASK.name(), "CountingTask", MetricTag.POLLING_RESULT.name(), "SUCCESS");
+        verify(metricService).recordTimerMetric(eq(MetricType.POLLING_TIME), any(), any());
+    }
+
+    @Test
+    void testPollWithTimeoutWorksWithoutMetricService() {
+        ReflectionTestUtils.setField(underTest, "metricService", Optional.empty());
+
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(new CountingTask(3), new AtomicInteger(), INTERVAL, 10, 1);
+
+        assertEquals(PollingResult.SUCCESS, result.getLeft());
+    }
+
+    @Test
+    void testPollWithTimeoutTimesOut() {
+        CountingTask task = new CountingTask(Integer.MAX_VALUE);
+
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(task, new AtomicInteger(), INTERVAL, 3, 1);
+
+        assertEquals(PollingResult.TIMEOUT, result.getLeft());
+        assertTrue(task.timeoutHandled);
+    }
+
+    @Test
+    void testPollAsyncSucceedsAfterAttempts() throws Exception {
+        AtomicInteger checks = new AtomicInteger();
+
+        Pair<PollingResult, Exception> result = underTest.pollAsync(new CountingTask(3), checks, PollingBackoff.exponential(1L, 4L, 2.0d, 0.5d),
+                new AttemptBasedTimeoutChecker(10), 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(PollingResult.SUCCESS, result.getLeft());
+        assertEquals(3, checks.get());
+    }
+
+    @Test
+    void testPollAsyncTimesOut() throws Exception {
+        AtomicInteger checks = new AtomicInteger();
+
+        Pair<PollingResult, Exception> result = underTest.pollAsync(new CountingTask(Integer.MAX_VALUE), checks, PollingBackoff.fixed(INTERVAL),
+                new AttemptBasedTimeoutChecker(3), 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(PollingResult.TIMEOUT, result.getLeft());
+        assertEquals(3, checks.get());
+    }
+
+    @Test
+    void testPollAsyncExitsBeforeFirstCheck() throws Exception {
+        CountingTask task = new CountingTask(1);
+        task.exit = true;
+        AtomicInteger checks = new AtomicInteger();
+
+        Pair<PollingResult, Exception> result = underTest.pollAsync(task, checks, PollingBackoff.fixed(INTERVAL),
+                new AttemptBasedTimeoutChecker(3), 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(PollingResult.EXIT, result.getLeft());
+        assertEquals(0, checks.get());
+    }
+
+    @Test
+    void testPollAsyncReturnsFailureAfterConsecutiveFailures() throws Exception {
+        IllegalStateException error = new IllegalStateException("check failed");
+        CountingTask task = new CountingTask(Integer.MAX_VALUE);
+        task.error = error;
+
+        Pair<PollingResult, Exception> result = underTest.pollAsync(task, new AtomicInteger(), PollingBackoff.fixed(INTERVAL),
+                new AttemptBasedTimeoutChecker(10), 2).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(PollingResult.FAILURE, result.getLeft());
+        assertSame(error, result.getRight());
+    }
+
+    @Test
+    void testPollAsyncCompletesExceptionallyWhenExceptionHandlerThrows() {
+        CountingTask task = new CountingTask(Integer.MAX_VALUE);
+        task.error = new IllegalStateException("check failed");
+        task.rethrow = true;
+
+        CompletableFuture<Pair<PollingResult, Exception>> result = underTest.pollAsync(task, new AtomicInteger(), PollingBackoff.fixed(INTERVAL),
+                new AttemptBasedTimeoutChecker(10), 1);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(CloudbreakServiceException.class, exception.getCause().getClass());
+    }
+
+    @Test
+    void testCancelledPollAsyncStopsChecking() throws InterruptedException {
+        AtomicInteger checks = new AtomicInteger();
+        CompletableFuture<Pair<PollingResult, Exception>> result = underTest.pollAsync(new CountingTask(Integer.MAX_VALUE), checks,
+                PollingBackoff.fixed(INTERVAL), new AttemptBasedTimeoutChecker(-1), 1);
+
+        result.cancel(true);
+        int checksAfterCancel = checks.get();
+        Thread.sleep(50L);
+
+        assertTrue(checks.get() <= checksAfterCancel + 1);
+    }
+
+    @Test
+    void testFixedBackoffHasNoJitter() {
+        PollingBackoff backoff = PollingBackoff.fixed(100L);
+
+        assertEquals(100L, backoff.getDelayMillis(1));
+        assertEquals(100L, backoff.getDelayMillis(10));
+    }
+
+    @Test
+    void testExponentialBackoffIsCappedAndJittered() {
+        PollingBackoff backoff = PollingBackoff.exponential(100L, 1000L, 2.0d, 0.2d);
+
+        for (int i = 0; i < 100; i++) {
+            long first = backoff.getDelayMillis(1);
+            long third = backoff.getDelayMillis(3);
+            long capped = backoff.getDelayMillis(20);
+            assertTrue(first >= 80L && first <= 120L, "first delay " + first);
+            assertTrue(third >= 320L && third <= 480L, "third delay " + third);
+            assertTrue(capped >= 800L && capped <= 1200L, "capped delay " + capped);
+        }
+    }
+
+    @Test
+    void testInvalidBackoffIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PollingBackoff.exponential(100L, 10L, 2.0d, 0.0d));
+        assertThrows(IllegalArgumentException.class, () -> PollingBackoff.exponential(100L, 1000L, 0.5d, 0.0d));
+    }
+
+    @Test
+    void testAsyncResultHasNoExceptionOnSuccess() throws Exception {
+        Pair<PollingResult, Exception> result = underTest.pollAsync(new CountingTask(1), new AtomicInteger(), PollingBackoff.fixed(INTERVAL),
+                new AttemptBasedTimeoutChecker(1), 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertNull(result.getRight());
+    }
+
+    private static class CountingTask extends SimpleStatusCheckerTask<AtomicInteger> {
+
+        private final int successfulCheck;
+
+        private boolean timeoutHandled;
+
+        private boolean exit;
+
+        private RuntimeException error;
+
+        private boolean rethrow;
+
+        CountingTask(int successfulCheck) {
+            this.successfulCheck = successfulCheck;
+        }
+
+        @Override
+        public boolean checkStatus(AtomicInteger checks) {
+            int check = checks.incrementAndGet();
+            if (error != null) {
+                throw error;
+            }
+            return check >= successfulCheck;
+        }
+
+        @Override
+        public void handleTimeout(AtomicInteger checks) {
+            timeoutHandled = true;
+        }
+
+        @Override
+        public String successMessage(AtomicInteger checks) {
+            return "Succeeded after " + checks.get() + " checks";
+        }
+
+        @Override
+        public boolean exitPolling(AtomicInteger checks) {
+            return exit;
+        }
+
+        @Override
+        public void handleException(Exception e) {
+            if (rethrow) {
+                super.handleException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.sequenceiq.cloudbreak.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.cloudbreak.certificate.PkiException;
+
+public class KeyPairPoolTest {
+
+    private static final int HIGH_WATERMARK = 3;
+
+    private static final int MAX_SIZE = 8;
+
+    private final AtomicInteger generated = new AtomicInteger();
+
+    private final KeyPair keyPair = new KeyPair(null, null);
+
+    private KeyPairPool underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new KeyPairPool();
+        underTest.preloadedTypes = Set.of(KeyPairType.RSA_2048);
+        underTest.lowWatermark = 2;
+        underTest.highWatermark = HIGH_WATERMARK;
+        underTest.maxSize = MAX_SIZE;
+        underTest.demandWindow = Duration.ofMinutes(5L);
+        underTest.maxWait = Duration.ofMillis(100L);
+        underTest.threads = 2;
+        underTest.generator = type -> {
+            generated.incrementAndGet();
+            return keyPair;
+        };
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        underTest.shutdown();
+    }
+
+    @Test
+    public void testPreloadedTypeIsPregeneratedUpToTheHighWatermark() {
+        underTest.init();
+
+        awaitSize(KeyPairType.RSA_2048, HIGH_WATERMARK);
+        assertSame(keyPair, underTest.take(KeyPairType.RSA_2048));
+        assertEquals(HIGH_WATERMARK - 1, underTest.size(KeyPairType.RSA_2048));
+        assertEquals(HIGH_WATERMARK, generated.get());
+    }
+
+    @Test
+    public void testPoolIsRefilledWhenItShrinksBelowTheLowWatermark() {
+        underTest.init();
+        awaitSize(KeyPairType.RSA_2048, HIGH_WATERMARK);
+
+        underTest.take(KeyPairType.RSA_2048);
+        underTest.take(KeyPairType.RSA_2048);
+
+        awaitSize(KeyPairType.RSA_2048, HIGH_WATERMARK);
+    }
+
+    @Test
+    public void testRefillFollowsTheDemandUpToTheMaxSize() {
+        underTest.init();
+        assertEquals(HIGH_WATERMARK, underTest.target(KeyPairType.RSA_2048));
+
+        for (int i = 0; i < MAX_SIZE - 1; i++) {
+            underTest.take(KeyPairType.RSA_2048);
+        }
+        assertEquals(MAX_SIZE - 1, underTest.target(KeyPairType.RSA_2048));
+
+        for (int i = 0; i < MAX_SIZE; i++) {
+            underTest.take(KeyPairType.RSA_2048);
+        }
+        assertEquals(MAX_SIZE, underTest.target(KeyPairType.RSA_2048));
+    }
+
+    @Test
+    public void testKeyPairIsGeneratedOnTheRequestingThreadWhenTheBackgroundGenerationFails() {
+        underTest.generator = type -> {
+            if (Thread.currentThread().getName().startsWith("keypair-pool")) {
+                throw new PkiException("generation failed");
+            }
+            return keyPair;
+        };
+        underTest.init();
+
+        assertSame(keyPair, underTest.take(KeyPairType.RSA_2048));
+    }
+
+    @Test
+    public void testPoolOfOtherTypesIsCreatedOnFirstUse() {
+        underTest.init();
+
+        assertSame(keyPair, underTest.take(KeyPairType.EC_P256));
+
+        awaitSize(KeyPairType.EC_P256, HIGH_WATERMARK - 1);
+    }
+
+    private void awaitSize(KeyPairType type, int size) {
+        Awaitility.await()
+                .atMost(10, TimeUnit.SECONDS)
+                .until(() -> underTest.size(type) == size);
+    }
+}
@@ -0,0 +1,26 @@
+package com.sequenceiq.cloudbreak.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+
+import org.junit.Test;
+
+public class KeyPairTypeTest {
+
+    @Test
+    public void testRsaKeyPairIsGeneratedWithTheKeySize() {
+        KeyPair keyPair = KeyPairType.RSA_2048.generate();
+
+        assertEquals(KeyPairType.RSA_2048.getKeySize(), ((RSAPublicKey) keyPair.getPublic()).getModulus().bitLength());
+    }
+
+    @Test
+    public void testEcKeyPairIsGeneratedOnTheCurve() {
+        KeyPair keyPair = KeyPairType.EC_P384.generate();
+
+        assertEquals(KeyPairType.EC_P384.getKeySize(), ((ECPublicKey) keyPair.getPublic()).getParams().getCurve().getField().getFieldSize());
+    }
+}
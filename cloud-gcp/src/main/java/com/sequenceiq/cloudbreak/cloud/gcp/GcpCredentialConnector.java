@@ -19,6 +19,7 @@ import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
 import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
 import com.sequenceiq.cloudbreak.cloud.gcp.context.GcpContext;
 import com.sequenceiq.cloudbreak.cloud.gcp.context.GcpContextBuilder;
+import com.sequenceiq.cloudbreak.cloud.gcp.util.GcpApiFactory;
 import com.sequenceiq.cloudbreak.cloud.gcp.util.GcpStackUtil;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredentialStatus;
 import com.sequenceiq.cloudbreak.cloud.model.CredentialStatus;
@@ -41,6 +42,9 @@ public class GcpCredentialConnector implements CredentialConnector {
     @Inject
     private GcpPlatformParameters gcpPlatformParameters;
 
+    @Inject
+    private GcpApiFactory gcpApiFactory;
+
     @Override
     public CloudCredentialStatus verify(@Nonnull AuthenticatedContext authenticatedContext, CredentialVerificationContext credentialVerificationContext) {
         LOGGER.debug("Verify credential: {}", authenticatedContext.getCloudCredential());
@@ -64,6 +68,7 @@ public class GcpCredentialConnector implements CredentialConnector {
 
     @Override
     public CloudCredentialStatus delete(@Nonnull AuthenticatedContext authenticatedContext) {
+        gcpApiFactory.invalidateComputeApi(authenticatedContext.getCloudCredential());
         return new CloudCredentialStatus(authenticatedContext.getCloudCredential(), CredentialStatus.DELETED);
     }
 
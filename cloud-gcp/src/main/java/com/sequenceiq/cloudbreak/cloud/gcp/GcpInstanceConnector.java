@@ -4,19 +4,26 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.inject.Inject;
+
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
 import com.google.api.services.compute.Compute;
 import com.google.api.services.compute.Compute.Instances.GetSerialPortOutput;
 import com.google.api.services.compute.model.Instance;
+import com.google.common.collect.Lists;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
-import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
 import com.sequenceiq.cloudbreak.cloud.exception.CloudOperationNotSupportedException;
+import com.sequenceiq.cloudbreak.cloud.gcp.util.GcpApiFactory;
 import com.sequenceiq.cloudbreak.cloud.gcp.util.GcpStackUtil;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
 import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
@@ -29,39 +36,39 @@ public class GcpInstanceConnector extends AbstractInstanceConnector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GcpInstanceConnector.class);
 
+    private static final String BATCH_PATH = "batch/compute/v1";
+
     @Value("${cb.gcp.hostkey.verify:}")
     private boolean verifyHostKey;
 
+    @Value("${cb.gcp.instance.status.batch.size:100}")
+    private int statusBatchSize;
+
+    @Inject
+    private GcpApiFactory gcpApiFactory;
+
     @Override
     public List<CloudVmInstanceStatus> reboot(AuthenticatedContext authenticatedContext, List<CloudInstance> vms) {
         throw new CloudOperationNotSupportedException("Reboot instances operation is not supported on GCP");
     }
 
+    /**
+     * Looks up the instances with batch requests of at most {@code cb.gcp.instance.status.batch.size} calls instead of one request per
+     * instance. The status of every instance is reported on its own, a missing instance is terminated, an instance which could not be
+     * looked up is unknown.
+     */
     @Override
     public List<CloudVmInstanceStatus> check(AuthenticatedContext ac, List<CloudInstance> vms) {
         List<CloudVmInstanceStatus> statuses = new ArrayList<>();
+        if (vms.isEmpty()) {
+            return statuses;
+        }
         CloudCredential credential = ac.getCloudCredential();
-        CloudContext cloudContext = ac.getCloudContext();
-        Compute compute = GcpStackUtil.buildCompute(credential);
-        for (CloudInstance instance : vms) {
-            InstanceStatus status = InstanceStatus.UNKNOWN;
-            try {
-                Instance executeInstance = getInstance(cloudContext, credential, compute, instance.getInstanceId());
-                if ("RUNNING".equals(executeInstance.getStatus())) {
-                    status = InstanceStatus.STARTED;
-                } else if ("TERMINATED".equals(executeInstance.getStatus())) {
-                    status = InstanceStatus.STOPPED;
-                }
-            } catch (GoogleJsonResponseException e) {
-                if (e.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                    status = InstanceStatus.TERMINATED;
-                } else {
-                    LOGGER.info(String.format("Instance %s is not reachable", instance), e);
-                }
-            } catch (IOException e) {
-                LOGGER.info(String.format("Instance %s is not reachable", instance), e);
-            }
-            statuses.add(new CloudVmInstanceStatus(instance, status));
+        Compute compute = gcpApiFactory.getComputeApi(credential);
+        String projectId = GcpStackUtil.getProjectId(credential);
+        String zone = ac.getCloudContext().getLocation().getAvailabilityZone().value();
+        for (List<CloudInstance> batchOfVms : Lists.partition(vms, statusBatchSize)) {
+            statuses.addAll(checkBatch(compute, projectId, zone, batchOfVms));
         }
         return statuses;
     }
@@ -73,7 +80,7 @@ public class GcpInstanceConnector extends AbstractInstanceConnector {
         }
         CloudCredential credential = authenticatedContext.getCloudCredential();
         try {
-            GetSerialPortOutput instanceGet = GcpStackUtil.buildCompute(credential).instances()
+            GetSerialPortOutput instanceGet = gcpApiFactory.getComputeApi(credential).instances()
                     .getSerialPortOutput(GcpStackUtil.getProjectId(credential),
                             authenticatedContext.getCloudContext().getLocation().getAvailabilityZone().value(), vm.getInstanceId());
             return instanceGet.execute().getContents();
@@ -82,8 +89,58 @@ public class GcpInstanceConnector extends AbstractInstanceConnector {
         }
     }
 
-    private Instance getInstance(CloudContext context, CloudCredential credential, Compute compute, String instanceName) throws IOException {
-        return compute.instances().get(GcpStackUtil.getProjectId(credential),
-                context.getLocation().getAvailabilityZone().value(), instanceName).execute();
+    private List<CloudVmInstanceStatus> checkBatch(Compute compute, String projectId, String zone, List<CloudInstance> vms) {
+        List<InstanceStatusCallback> callbacks = new ArrayList<>();
+        try {
+            BatchRequest batch = compute.batch();
+            batch.setBatchUrl(new GenericUrl(compute.getRootUrl() + BATCH_PATH));
+            for (CloudInstance instance : vms) {
+                InstanceStatusCallback callback = new InstanceStatusCallback(instance);
+                compute.instances().get(projectId, zone, instance.getInstanceId()).queue(batch, callback);
+                callbacks.add(callback);
+            }
+            batch.execute();
+        } catch (IOException e) {
+            LOGGER.info(String.format("Instances %s are not reachable", vms), e);
+        }
+        List<CloudVmInstanceStatus> statuses = new ArrayList<>();
+        for (int i = 0; i < vms.size(); i++) {
+            InstanceStatus status = i < callbacks.size() ? callbacks.get(i).getStatus() : InstanceStatus.UNKNOWN;
+            statuses.add(new CloudVmInstanceStatus(vms.get(i), status));
+        }
+        return statuses;
+    }
+
+    private static class InstanceStatusCallback extends JsonBatchCallback<Instance> {
+
+        private final CloudInstance instance;
+
+        private InstanceStatus status = InstanceStatus.UNKNOWN;
+
+        InstanceStatusCallback(CloudInstance instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public void onSuccess(Instance executeInstance, HttpHeaders responseHeaders) {
+            if ("RUNNING".equals(executeInstance.getStatus())) {
+                status = InstanceStatus.STARTED;
+            } else if ("TERMINATED".equals(executeInstance.getStatus())) {
+                status = InstanceStatus.STOPPED;
+            }
+        }
+
+        @Override
+        public void onFailure(GoogleJsonError e, HttpHeaders responseHeaders) {
+            if (e != null && e.getCode() == HttpStatus.SC_NOT_FOUND) {
+                status = InstanceStatus.TERMINATED;
+            } else {
+                LOGGER.info("Instance {} is not reachable: {}", instance, e != null ? e.getMessage() : null);
+            }
+        }
+
+        InstanceStatus getStatus() {
+            return status;
+        }
     }
 }
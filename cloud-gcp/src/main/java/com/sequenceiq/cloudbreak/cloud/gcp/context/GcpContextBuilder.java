@@ -2,12 +2,15 @@ package com.sequenceiq.cloudbreak.cloud.gcp.context;
 
 import java.util.List;
 
+import javax.inject.Inject;
+
 import org.springframework.stereotype.Service;
 
 import com.google.api.services.compute.Compute;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
 import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
 import com.sequenceiq.cloudbreak.cloud.gcp.GcpConstants;
+import com.sequenceiq.cloudbreak.cloud.gcp.util.GcpApiFactory;
 import com.sequenceiq.cloudbreak.cloud.gcp.util.GcpStackUtil;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
 import com.sequenceiq.cloudbreak.cloud.model.CloudResource;
@@ -22,12 +25,15 @@ public class GcpContextBuilder implements ResourceContextBuilder<GcpContext> {
 
     public static final int PARALLEL_RESOURCE_REQUEST = 30;
 
+    @Inject
+    private GcpApiFactory gcpApiFactory;
+
     @Override
     public GcpContext contextInit(CloudContext context, AuthenticatedContext auth, Network network, List<CloudResource> resources, boolean build) {
         CloudCredential credential = auth.getCloudCredential();
         String projectId = GcpStackUtil.getProjectId(credential);
         String serviceAccountId = GcpStackUtil.getServiceAccountId(credential);
-        Compute compute = GcpStackUtil.buildCompute(credential);
+        Compute compute = gcpApiFactory.getComputeApi(credential);
         Location location = context.getLocation();
         boolean noPublicIp = network != null ? GcpStackUtil.noPublicIp(network) : false;
         return new GcpContext(context.getName(), location, projectId, serviceAccountId, compute, noPublicIp, PARALLEL_RESOURCE_REQUEST, build);
@@ -1,14 +1,89 @@
 package com.sequenceiq.cloudbreak.cloud.gcp.util;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.google.api.services.compute.Compute;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.sequenceiq.cloudbreak.cloud.credential.CredentialClientCache;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
 
 @Component
 public class GcpApiFactory {
 
+    private static final char FINGERPRINT_SEPARATOR = '\0';
+
+    @VisibleForTesting
+    @Value("${cb.gcp.compute.client.cache.enabled:true}")
+    boolean computeCacheEnabled;
+
+    @Value("${cb.gcp.compute.client.cache.max.entries:500}")
+    private long computeCacheMaxEntries;
+
+    @Value("${cb.gcp.compute.client.cache.idle.timeout:PT30M}")
+    private Duration computeCacheIdleTimeout;
+
+    @Value("${cb.gcp.compute.client.cache.refresh.interval:PT50M}")
+    private Duration computeCacheRefreshInterval;
+
+    private CredentialClientCache<Compute> computeCache;
+
+    @PostConstruct
+    public void init() {
+        computeCache = new CredentialClientCache<>("gcpComputeClientCache", this::fingerprint, GcpStackUtil::buildCompute, computeCacheMaxEntries,
+                computeCacheIdleTimeout, computeCacheRefreshInterval);
+    }
+
+    /**
+     * Returns the compute client of the credential from the client cache. The clients refresh their access tokens by themselves, so the
+     * same client serves every call made with the credential.
+     */
     public Compute getComputeApi(CloudCredential cloudCredential) {
-        return GcpStackUtil.buildCompute(cloudCredential);
+        if (!computeCacheEnabled || computeCache == null) {
+            return GcpStackUtil.buildCompute(cloudCredential);
+        }
+        return computeCache.get(cloudCredential);
+    }
+
+    /**
+     * Drops the cached client of the credential, e.g. because it was deleted.
+     */
+    public void invalidateComputeApi(CloudCredential cloudCredential) {
+        if (computeCache != null) {
+            computeCache.invalidate(cloudCredential);
+        }
+    }
+
+    private String fingerprint(CloudCredential cloudCredential) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        putField(hasher, cloudCredential.getParameter(GcpStackUtil.PROJECT_ID, String.class));
+        putField(hasher, GcpStackUtil.getServiceAccountId(cloudCredential));
+        putField(hasher, GcpStackUtil.getServiceAccountPrivateKey(cloudCredential));
+        putField(hasher, getCredentialJson(cloudCredential));
+        return hasher.hash().toString();
+    }
+
+    private void putField(Hasher hasher, Object value) {
+        hasher.putString(Objects.toString(value, ""), StandardCharsets.UTF_8).putChar(FINGERPRINT_SEPARATOR);
+    }
+
+    private Object getCredentialJson(CloudCredential cloudCredential) {
+        Object gcp = cloudCredential.getParameters().get(GcpStackUtil.GCP);
+        if (gcp instanceof Map) {
+            Object json = ((Map<?, ?>) gcp).get(GcpStackUtil.JSON);
+            if (json instanceof Map) {
+                return ((Map<?, ?>) json).get(GcpStackUtil.CREDENTIAL_JSON);
+            }
+        }
+        return null;
     }
 }
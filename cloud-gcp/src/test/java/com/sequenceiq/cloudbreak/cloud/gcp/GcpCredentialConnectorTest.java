@@ -1,6 +1,7 @@
 package com.sequenceiq.cloudbreak.cloud.gcp;
 
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -29,6 +30,7 @@ import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
 import com.sequenceiq.cloudbreak.cloud.gcp.context.GcpContext;
 import com.sequenceiq.cloudbreak.cloud.gcp.context.GcpContextBuilder;
 import com.sequenceiq.cloudbreak.cloud.gcp.context.InvalidGcpContextException;
+import com.sequenceiq.cloudbreak.cloud.gcp.util.GcpApiFactory;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredentialStatus;
 import com.sequenceiq.cloudbreak.cloud.model.CredentialStatus;
@@ -76,6 +78,9 @@ public class GcpCredentialConnectorTest {
     @Mock
     private GcpCredentialVerifier gcpCredentialVerifier;
 
+    @Mock
+    private GcpApiFactory gcpApiFactory;
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -189,10 +194,12 @@ public class GcpCredentialConnectorTest {
      */
     @Test
     public void testDeletePositive() {
-        CloudCredentialStatus status = underTest.delete(createAuthContext());
+        AuthenticatedContext authContext = createAuthContext();
+        CloudCredentialStatus status = underTest.delete(authContext);
 
         Assert.assertNotNull("The returned CloudCredentialStatus instance is null!", status);
         Assert.assertEquals("Invalid credential status has specified!", CredentialStatus.DELETED, status.getStatus());
+        verify(gcpApiFactory).invalidateComputeApi(authContext.getCloudCredential());
     }
 
     /**
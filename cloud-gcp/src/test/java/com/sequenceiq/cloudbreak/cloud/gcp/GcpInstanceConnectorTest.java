@@ -0,0 +1,155 @@
+package com.sequenceiq.cloudbreak.cloud.gcp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.http.HttpStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.compute.Compute;
+import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.gcp.util.GcpApiFactory;
+import com.sequenceiq.cloudbreak.cloud.model.AvailabilityZone;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.InstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.Location;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GcpInstanceConnectorTest {
+
+    private static final String AZ = "europe-north1-a";
+
+    private static final String BOUNDARY = "batch_boundary";
+
+    private static final String RUNNING = "{\"name\":\"testcluster-w-1\",\"status\":\"RUNNING\"}";
+
+    private static final String TERMINATED = "{\"name\":\"testcluster-w-3\",\"status\":\"TERMINATED\"}";
+
+    private static final String NOT_FOUND = "{\"error\":{\"code\":404,\"message\":\"The resource was not found\"}}";
+
+    private static final String SERVER_ERROR = "{\"error\":{\"code\":500,\"message\":\"Internal error\"}}";
+
+    @InjectMocks
+    private GcpInstanceConnector underTest;
+
+    @Mock
+    private GcpApiFactory gcpApiFactory;
+
+    private final List<String> requestUrls = new ArrayList<>();
+
+    private final Deque<String> batchResponses = new LinkedList<>();
+
+    private AuthenticatedContext authenticatedContext;
+
+    @Before
+    public void before() {
+        ReflectionTestUtils.setField(underTest, "statusBatchSize", 2);
+        authenticatedContext = createAuthenticatedContext();
+        Compute compute = new Compute(new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                requestUrls.add(url);
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        String content = batchResponses.poll();
+                        if (content == null) {
+                            return new MockLowLevelHttpResponse().setStatusCode(HttpStatus.SC_SERVICE_UNAVAILABLE);
+                        }
+                        return new MockLowLevelHttpResponse()
+                                .setContentType("multipart/mixed; boundary=" + BOUNDARY)
+                                .setContent(content);
+                    }
+                };
+            }
+        }, JacksonFactory.getDefaultInstance(), null);
+        when(gcpApiFactory.getComputeApi(authenticatedContext.getCloudCredential())).thenReturn(compute);
+    }
+
+    @Test
+    public void testCheckLooksUpTheInstancesInBatches() {
+        batchResponses.add(batchResponse(part("200 OK", RUNNING), part("404 Not Found", NOT_FOUND)));
+        batchResponses.add(batchResponse(part("200 OK", TERMINATED)));
+
+        List<CloudVmInstanceStatus> actual = underTest.check(authenticatedContext, createCloudInstances(3));
+
+        assertEquals(List.of(InstanceStatus.STARTED, InstanceStatus.TERMINATED, InstanceStatus.STOPPED), getStatuses(actual));
+        assertEquals(List.of("testcluster-w-1", "testcluster-w-2", "testcluster-w-3"),
+                actual.stream().map(status -> status.getCloudInstance().getInstanceId()).collect(Collectors.toList()));
+        assertEquals(2, requestUrls.size());
+        assertTrue(requestUrls.stream().allMatch(url -> url.endsWith("/batch/compute/v1")));
+    }
+
+    @Test
+    public void testCheckReportsTheFailedLookupsOnTheirOwn() {
+        batchResponses.add(batchResponse(part("500 Internal Server Error", SERVER_ERROR), part("200 OK", RUNNING)));
+
+        List<CloudVmInstanceStatus> actual = underTest.check(authenticatedContext, createCloudInstances(2));
+
+        assertEquals(List.of(InstanceStatus.UNKNOWN, InstanceStatus.STARTED), getStatuses(actual));
+    }
+
+    @Test
+    public void testCheckReportsUnknownStatusWhenTheBatchFails() {
+        List<CloudVmInstanceStatus> actual = underTest.check(authenticatedContext, createCloudInstances(2));
+
+        assertEquals(List.of(InstanceStatus.UNKNOWN, InstanceStatus.UNKNOWN), getStatuses(actual));
+    }
+
+    private List<InstanceStatus> getStatuses(List<CloudVmInstanceStatus> statuses) {
+        return statuses.stream().map(CloudVmInstanceStatus::getStatus).collect(Collectors.toList());
+    }
+
+    private String batchResponse(String... parts) {
+        StringBuilder response = new StringBuilder();
+        for (String part : parts) {
+            response.append("--").append(BOUNDARY).append("\r\n").append(part);
+        }
+        return response.append("--").append(BOUNDARY).append("--\r\n").toString();
+    }
+
+    private String part(String status, String body) {
+        return "Content-Type: application/http\r\n\r\n"
+                + "HTTP/1.1 " + status + "\r\n"
+                + "Content-Type: application/json; charset=UTF-8\r\n\r\n"
+                + body + "\r\n";
+    }
+
+    private List<CloudInstance> createCloudInstances(int count) {
+        List<CloudInstance> instances = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            instances.add(new CloudInstance("testcluster-w-" + i, null, null));
+        }
+        return instances;
+    }
+
+    private AuthenticatedContext createAuthenticatedContext() {
+        Location location = Location.location(null, AvailabilityZone.availabilityZone(AZ));
+        CloudContext cloudContext = new CloudContext(null, "test-cluster", null, null, location, null, null, "");
+        CloudCredential cloudCredential = new CloudCredential("1", "gcp-cred", Collections.singletonMap("projectId", "gcp-cred"), false);
+        return new AuthenticatedContext(cloudContext, cloudCredential);
+    }
+}
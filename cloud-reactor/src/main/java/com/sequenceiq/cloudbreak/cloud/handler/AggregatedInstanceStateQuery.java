@@ -0,0 +1,326 @@
+package com.sequenceiq.cloudbreak.cloud.handler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.exception.CloudConnectorException;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
+import com.sequenceiq.cloudbreak.util.TokenBucket;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Queries the instance states for the periodic status sync of the stacks.
+ * <p>
+ * On the platforms where the instance check does not depend on the stack of the cloud context, e.g. on AWS, the stacks of the same
+ * platform, region and credential form a group and the instances of every stack checked recently in the group are checked together, in
+ * calls of at most {@code cb.instance.state.aggregation.max.instances.per.call} instances. The result is kept as a snapshot of the group
+ * and serves the stacks of the group until it gets older than {@code cb.instance.state.aggregation.snapshot.ttl}, so the provider is
+ * called a few times per snapshot ttl instead of once per stack sync. A snapshot taken before the last status change of the stack is not
+ * served to it, because the flow changing the status, e.g. a start or a stop, may have changed the instances after the snapshot.
+ * <p>
+ * The aggregated calls of a group are limited by a token bucket, the stack sync fails when the limit is exceeded. The defaults allow far
+ * more calls than a group makes per snapshot ttl, the bucket only stops a group from calling the provider in a tight loop. The repeated
+ * calls after dropping not found instances are not counted, they are limited by
+ * {@code cb.instance.state.aggregation.missing.instance.retries}. The other platforms and the stacks checked on their own are called once
+ * per stack sync without limit, as without the aggregation.
+ * <p>
+ * The connectors drop the instances not found by the provider from the list they check, so a call failing because of them is repeated
+ * with the rest of the instances. The instances of a call failing anyway are remembered as failed in the snapshot, their stacks are
+ * checked on their own until the snapshot gets old, instead of checking the whole group again on every sync of them.
+ * The instances without instance id are not checked, like the instance connectors do.
+ */
+@Component
+public class AggregatedInstanceStateQuery {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregatedInstanceStateQuery.class);
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.enabled:true}")
+    boolean aggregationEnabled;
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.platforms:AWS}")
+    Set<String> aggregatedPlatforms;
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.snapshot.ttl:PT1M}")
+    Duration snapshotTtl;
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.group.idle.timeout:PT10M}")
+    Duration groupIdleTimeout;
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.max.instances.per.call:1000}")
+    int maxInstancesPerCall;
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.missing.instance.retries:3}")
+    int missingInstanceRetries;
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.rate.limit.calls.per.second:5}")
+    double callsPerSecond;
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.rate.limit.burst:50}")
+    long burst;
+
+    @VisibleForTesting
+    @Value("${cb.instance.state.aggregation.rate.limit.max.wait:PT30S}")
+    Duration maxWait;
+
+    @Inject
+    private InstanceStateQuery instanceStateQuery;
+
+    private Cache<GroupKey, Group> groups;
+
+    @PostConstruct
+    public void init() {
+        groups = Caffeine.newBuilder()
+                .expireAfterAccess(groupIdleTimeout)
+                .build();
+    }
+
+    /**
+     * @param statusChangedAt the time of the last status change of the stack in epoch millis, or 0 if it is not known
+     */
+    public List<CloudVmInstanceStatus> getCloudVmInstanceStatuses(CloudCredential cloudCredential, CloudContext cloudContext,
+            List<CloudInstance> instances, long statusChangedAt) {
+        if (!aggregationEnabled || !aggregatedPlatforms.contains(cloudContext.getPlatform().value())) {
+            return query(cloudCredential, cloudContext, instances);
+        }
+        Group group = groups.get(new GroupKey(cloudCredential, cloudContext), key -> new Group(new TokenBucket(burst, callsPerSecond)));
+        List<CloudInstance> instancesWithId = instances.stream()
+                .filter(instance -> instance.getInstanceId() != null)
+                .collect(Collectors.toList());
+        synchronized (group) {
+            long now = System.nanoTime();
+            group.register(cloudContext.getId(), instancesWithId, now);
+            if (group.isFresh(instancesWithId, now - snapshotTtl.toNanos(), statusChangedAt)) {
+                Metrics.counter("instance.state.aggregation.snapshot.hit", "platform", cloudContext.getPlatform().value()).increment();
+            } else {
+                refresh(group, cloudCredential, cloudContext, now);
+            }
+            if (group.isChecked(instancesWithId)) {
+                return group.getStatuses(instancesWithId);
+            }
+        }
+        LOGGER.info("Instances of stack {} could not be checked with the others of the group, checking them on their own", cloudContext.getId());
+        return query(cloudCredential, cloudContext, instances);
+    }
+
+    private void refresh(Group group, CloudCredential cloudCredential, CloudContext cloudContext, long now) {
+        List<CloudInstance> groupInstances = group.getInstances(now - groupIdleTimeout.toNanos());
+        LOGGER.debug("Checking {} instances of the group of stack {}", groupInstances.size(), cloudContext.getId());
+        long snapshotTakenAt = System.currentTimeMillis();
+        Map<String, CloudVmInstanceStatus> statuses = new HashMap<>();
+        Set<String> checkedInstanceIds = new HashSet<>();
+        Set<String> failedInstanceIds = new HashSet<>();
+        for (List<CloudInstance> instances : Lists.partition(groupInstances, maxInstancesPerCall)) {
+            acquireCallPermit(group, cloudContext);
+            try {
+                queryFoundInstances(cloudCredential, cloudContext, new ArrayList<>(instances))
+                        .forEach(status -> statuses.put(status.getCloudInstance().getInstanceId(), status));
+                instances.forEach(instance -> checkedInstanceIds.add(instance.getInstanceId()));
+            } catch (RuntimeException e) {
+                LOGGER.info("Could not check {} instances of the group of stack {}", instances.size(), cloudContext.getId(), e);
+                instances.forEach(instance -> failedInstanceIds.add(instance.getInstanceId()));
+            }
+        }
+        group.setSnapshot(statuses, checkedInstanceIds, failedInstanceIds, now, snapshotTakenAt);
+    }
+
+    /**
+     * Checks the instances, repeating the call while the connector drops instances not found by the provider from the list. The dropped
+     * instances have no status in the result, like in the result of a connector retrying the check on its own.
+     */
+    private List<CloudVmInstanceStatus> queryFoundInstances(CloudCredential cloudCredential, CloudContext cloudContext, List<CloudInstance> instances) {
+        int retries = 0;
+        while (true) {
+            int instanceCount = instances.size();
+            try {
+                return query(cloudCredential, cloudContext, instances);
+            } catch (RuntimeException e) {
+                if (instances.size() == instanceCount || retries >= missingInstanceRetries) {
+                    throw e;
+                }
+                LOGGER.info("{} instances of the group of stack {} were not found, checking the other {} instances again",
+                        instanceCount - instances.size(), cloudContext.getId(), instances.size());
+                if (instances.isEmpty()) {
+                    return List.of();
+                }
+                retries++;
+            }
+        }
+    }
+
+    private void acquireCallPermit(Group group, CloudContext cloudContext) {
+        try {
+            if (!group.getTokenBucket().tryAcquire(maxWait)) {
+                throw new CloudConnectorException(String.format("Instance state query rate limit was exceeded for stack %s", cloudContext.getId()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CloudConnectorException("Interrupted while waiting for the instance state query rate limit", e);
+        }
+    }
+
+    private List<CloudVmInstanceStatus> query(CloudCredential cloudCredential, CloudContext cloudContext, List<CloudInstance> instances) {
+        Metrics.counter("instance.state.query", "platform", cloudContext.getPlatform().value()).increment();
+        return instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(cloudCredential, cloudContext, instances);
+    }
+
+    private static class Group {
+
+        private final TokenBucket tokenBucket;
+
+        private final Map<Long, StackInstances> stackInstances = new ConcurrentHashMap<>();
+
+        private Map<String, CloudVmInstanceStatus> snapshot = Map.of();
+
+        private Set<String> checkedInstanceIds = Set.of();
+
+        private Set<String> failedInstanceIds = Set.of();
+
+        private Long snapshotTime;
+
+        private long snapshotTakenAt;
+
+        Group(TokenBucket tokenBucket) {
+            this.tokenBucket = tokenBucket;
+        }
+
+        TokenBucket getTokenBucket() {
+            return tokenBucket;
+        }
+
+        void register(Long stackId, List<CloudInstance> instances, long now) {
+            stackInstances.put(stackId, new StackInstances(instances, now));
+        }
+
+        boolean isFresh(List<CloudInstance> instances, long notBefore, long statusChangedAt) {
+            return snapshotTime != null && snapshotTime - notBefore > 0 && snapshotTakenAt > statusChangedAt && isCovered(instances);
+        }
+
+        private boolean isCovered(List<CloudInstance> instances) {
+            return instances.stream().allMatch(instance ->
+                    checkedInstanceIds.contains(instance.getInstanceId()) || failedInstanceIds.contains(instance.getInstanceId()));
+        }
+
+        boolean isChecked(List<CloudInstance> instances) {
+            return instances.stream().allMatch(instance -> checkedInstanceIds.contains(instance.getInstanceId()));
+        }
+
+        List<CloudInstance> getInstances(long registeredAfter) {
+            stackInstances.values().removeIf(registered -> registered.getRegistered() - registeredAfter < 0);
+            Map<String, CloudInstance> instancesById = new LinkedHashMap<>();
+            stackInstances.values().forEach(registered -> registered.getInstances()
+                    .forEach(instance -> instancesById.putIfAbsent(instance.getInstanceId(), instance)));
+            return new ArrayList<>(instancesById.values());
+        }
+
+        void setSnapshot(Map<String, CloudVmInstanceStatus> snapshot, Set<String> checkedInstanceIds, Set<String> failedInstanceIds,
+                long snapshotTime, long snapshotTakenAt) {
+            this.snapshot = snapshot;
+            this.checkedInstanceIds = checkedInstanceIds;
+            this.failedInstanceIds = failedInstanceIds;
+            this.snapshotTime = snapshotTime;
+            this.snapshotTakenAt = snapshotTakenAt;
+        }
+
+        List<CloudVmInstanceStatus> getStatuses(List<CloudInstance> instances) {
+            return instances.stream()
+                    .filter(instance -> snapshot.containsKey(instance.getInstanceId()))
+                    .map(instance -> {
+                        CloudVmInstanceStatus status = snapshot.get(instance.getInstanceId());
+                        return new CloudVmInstanceStatus(instance, status.getStatus(), status.getStatusReason());
+                    })
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static class StackInstances {
+
+        private final List<CloudInstance> instances;
+
+        private final long registered;
+
+        StackInstances(List<CloudInstance> instances, long registered) {
+            this.instances = instances;
+            this.registered = registered;
+        }
+
+        List<CloudInstance> getInstances() {
+            return instances;
+        }
+
+        long getRegistered() {
+            return registered;
+        }
+    }
+
+    private static class GroupKey {
+
+        private final String platform;
+
+        private final String variant;
+
+        private final String region;
+
+        private final String credentialId;
+
+        GroupKey(CloudCredential cloudCredential, CloudContext cloudContext) {
+            platform = cloudContext.getPlatform().value();
+            variant = cloudContext.getVariant().value();
+            region = cloudContext.getLocation() != null && cloudContext.getLocation().getRegion() != null
+                    ? cloudContext.getLocation().getRegion().value() : null;
+            credentialId = cloudCredential.getId();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            GroupKey groupKey = (GroupKey) o;
+            return Objects.equals(platform, groupKey.platform)
+                    && Objects.equals(variant, groupKey.variant)
+                    && Objects.equals(region, groupKey.region)
+                    && Objects.equals(credentialId, groupKey.credentialId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(platform, variant, region, credentialId);
+        }
+    }
+}
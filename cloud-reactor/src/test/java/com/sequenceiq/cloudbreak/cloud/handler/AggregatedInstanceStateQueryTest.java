@@ -0,0 +1,214 @@
+package com.sequenceiq.cloudbreak.cloud.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.exception.CloudConnectorException;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.InstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.Location;
+import com.sequenceiq.cloudbreak.cloud.model.Region;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AggregatedInstanceStateQueryTest {
+
+    private static final String AWS = "AWS";
+
+    private static final String AZURE = "AZURE";
+
+    private static final String REGION = "eu-west-1";
+
+    private static final long BURST = 100L;
+
+    private static final int MAX_INSTANCES_PER_CALL = 1000;
+
+    private static final long NO_STATUS_CHANGE = 0L;
+
+    private static final int MISSING_INSTANCE_RETRIES = 3;
+
+    private final CloudCredential cloudCredential = new CloudCredential("credential", "credential");
+
+    @InjectMocks
+    private AggregatedInstanceStateQuery underTest;
+
+    @Mock
+    private InstanceStateQuery instanceStateQuery;
+
+    @Before
+    public void setUp() {
+        underTest.aggregationEnabled = true;
+        underTest.aggregatedPlatforms = Set.of(AWS);
+        underTest.snapshotTtl = Duration.ofMinutes(1L);
+        underTest.groupIdleTimeout = Duration.ofMinutes(10L);
+        underTest.maxInstancesPerCall = MAX_INSTANCES_PER_CALL;
+        underTest.callsPerSecond = BURST;
+        underTest.burst = BURST;
+        underTest.maxWait = Duration.ofSeconds(1L);
+        underTest.missingInstanceRetries = MISSING_INSTANCE_RETRIES;
+        underTest.init();
+        when(instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(any(), any(), anyList())).thenAnswer(invocation -> started(invocation.getArgument(2)));
+    }
+
+    @Test
+    public void testStacksOfTheGroupAreServedFromTheSnapshot() {
+        List<CloudInstance> firstStackInstances = instances("i-1", "i-2");
+        List<CloudInstance> secondStackInstances = instances("i-3");
+
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), firstStackInstances, NO_STATUS_CHANGE);
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(2L, AWS), secondStackInstances, NO_STATUS_CHANGE);
+        List<CloudVmInstanceStatus> firstStackStatuses =
+                underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), firstStackInstances, NO_STATUS_CHANGE);
+        List<CloudVmInstanceStatus> secondStackStatuses =
+                underTest.getCloudVmInstanceStatuses(cloudCredential, context(2L, AWS), secondStackInstances, NO_STATUS_CHANGE);
+
+        ArgumentCaptor<List<CloudInstance>> checkedInstances = ArgumentCaptor.forClass(List.class);
+        verify(instanceStateQuery, times(2)).getCloudVmInstanceStatusesWithoutRetry(eq(cloudCredential), any(), checkedInstances.capture());
+        assertEquals(List.of("i-1", "i-2", "i-3"), instanceIds(checkedInstances.getValue()));
+        assertEquals(List.of("i-1", "i-2"), instanceIds(firstStackStatuses.stream().map(CloudVmInstanceStatus::getCloudInstance)));
+        assertEquals(firstStackInstances.get(0), firstStackStatuses.get(0).getCloudInstance());
+        assertEquals(InstanceStatus.STARTED, firstStackStatuses.get(0).getStatus());
+        assertEquals(List.of("i-3"), instanceIds(secondStackStatuses.stream().map(CloudVmInstanceStatus::getCloudInstance)));
+    }
+
+    @Test
+    public void testSnapshotTakenBeforeTheStatusChangeOfTheStackIsRefreshed() {
+        List<CloudInstance> instances = instances("i-1");
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), instances, NO_STATUS_CHANGE);
+
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), instances, System.currentTimeMillis());
+
+        verify(instanceStateQuery, times(2)).getCloudVmInstanceStatusesWithoutRetry(eq(cloudCredential), any(), anyList());
+    }
+
+    @Test
+    public void testInstancesOfTheGroupAreCheckedInLimitedCalls() {
+        underTest.maxInstancesPerCall = 2;
+
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), instances("i-1", "i-2"), NO_STATUS_CHANGE);
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(2L, AWS), instances("i-3"), NO_STATUS_CHANGE);
+
+        ArgumentCaptor<List<CloudInstance>> checkedInstances = ArgumentCaptor.forClass(List.class);
+        verify(instanceStateQuery, times(3)).getCloudVmInstanceStatusesWithoutRetry(eq(cloudCredential), any(), checkedInstances.capture());
+        assertEquals(List.of("i-1", "i-2"), instanceIds(checkedInstances.getAllValues().get(1)));
+        assertEquals(List.of("i-3"), instanceIds(checkedInstances.getAllValues().get(2)));
+    }
+
+    @Test
+    public void testStackIsCheckedOnItsOwnWhenTheGroupCheckFails() {
+        when(instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(any(), any(), anyList()))
+                .thenThrow(new CloudConnectorException("InvalidInstanceID.NotFound"))
+                .thenAnswer(invocation -> started(invocation.getArgument(2)));
+
+        List<CloudVmInstanceStatus> statuses = underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), instances("i-1"), NO_STATUS_CHANGE);
+
+        assertEquals(List.of("i-1"), instanceIds(statuses.stream().map(CloudVmInstanceStatus::getCloudInstance)));
+        verify(instanceStateQuery, times(2)).getCloudVmInstanceStatusesWithoutRetry(eq(cloudCredential), any(), anyList());
+    }
+
+    @Test
+    public void testCallIsRepeatedWithoutTheInstancesNotFound() {
+        when(instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(any(), any(), anyList()))
+                .thenAnswer(invocation -> {
+                    List<CloudInstance> checkedInstances = invocation.getArgument(2);
+                    checkedInstances.removeIf(instance -> "i-2".equals(instance.getInstanceId()));
+                    throw new CloudConnectorException("InvalidInstanceID.NotFound");
+                })
+                .thenAnswer(invocation -> started(invocation.getArgument(2)));
+
+        List<CloudVmInstanceStatus> statuses =
+                underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), instances("i-1", "i-2"), NO_STATUS_CHANGE);
+
+        assertEquals(List.of("i-1"), instanceIds(statuses.stream().map(CloudVmInstanceStatus::getCloudInstance)));
+        verify(instanceStateQuery, times(2)).getCloudVmInstanceStatusesWithoutRetry(eq(cloudCredential), any(), anyList());
+    }
+
+    @Test
+    public void testFailedInstancesAreNotCheckedWithTheGroupAgainUntilTheSnapshotGetsOld() {
+        when(instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(any(), any(), anyList()))
+                .thenThrow(new CloudConnectorException("RequestLimitExceeded"))
+                .thenAnswer(invocation -> started(invocation.getArgument(2)));
+
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), instances("i-1"), NO_STATUS_CHANGE);
+        List<CloudVmInstanceStatus> statuses = underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), instances("i-1"), NO_STATUS_CHANGE);
+
+        assertEquals(List.of("i-1"), instanceIds(statuses.stream().map(CloudVmInstanceStatus::getCloudInstance)));
+        verify(instanceStateQuery, times(3)).getCloudVmInstanceStatusesWithoutRetry(eq(cloudCredential), any(), anyList());
+    }
+
+    @Test
+    public void testStacksAreCheckedOnTheirOwnOnOtherPlatforms() {
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AZURE), instances("vm-1"), NO_STATUS_CHANGE);
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AZURE), instances("vm-1"), NO_STATUS_CHANGE);
+
+        verify(instanceStateQuery, times(2)).getCloudVmInstanceStatusesWithoutRetry(eq(cloudCredential), any(), anyList());
+    }
+
+    @Test(expected = CloudConnectorException.class)
+    public void testAggregatedCallsAreRateLimited() {
+        underTest.burst = 1L;
+        underTest.callsPerSecond = 0.01;
+        underTest.maxWait = Duration.ZERO;
+
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AWS), instances("i-1"), NO_STATUS_CHANGE);
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(2L, AWS), instances("i-2"), NO_STATUS_CHANGE);
+    }
+
+    @Test
+    public void testCallsAreNotRateLimitedOnOtherPlatforms() {
+        underTest.burst = 1L;
+        underTest.callsPerSecond = 0.01;
+        underTest.maxWait = Duration.ZERO;
+
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AZURE), instances("vm-1"), NO_STATUS_CHANGE);
+        underTest.getCloudVmInstanceStatuses(cloudCredential, context(1L, AZURE), instances("vm-1"), NO_STATUS_CHANGE);
+
+        verify(instanceStateQuery, times(2)).getCloudVmInstanceStatusesWithoutRetry(eq(cloudCredential), any(), anyList());
+    }
+
+    private List<CloudVmInstanceStatus> started(List<CloudInstance> instances) {
+        return instances.stream()
+                .map(instance -> new CloudVmInstanceStatus(instance, InstanceStatus.STARTED))
+                .collect(Collectors.toList());
+    }
+
+    private List<CloudInstance> instances(String... instanceIds) {
+        return Arrays.stream(instanceIds)
+                .map(instanceId -> new CloudInstance(instanceId, null, null))
+                .collect(Collectors.toList());
+    }
+
+    private List<String> instanceIds(List<CloudInstance> instances) {
+        return instanceIds(instances.stream());
+    }
+
+    private List<String> instanceIds(Stream<CloudInstance> instances) {
+        return instances.map(CloudInstance::getInstanceId).sorted().collect(Collectors.toList());
+    }
+
+    private CloudContext context(Long stackId, String platform) {
+        return new CloudContext(stackId, "stack" + stackId, platform, platform, Location.location(Region.region(REGION)), "user", "account");
+    }
+}
@@ -0,0 +1,131 @@
+package com.sequenceiq.cloudbreak.cm.polling;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.cloudera.api.swagger.CommandsResourceApi;
+import com.cloudera.api.swagger.client.ApiClient;
+import com.cloudera.api.swagger.client.ApiException;
+import com.cloudera.api.swagger.model.ApiCommand;
+import com.sequenceiq.cloudbreak.common.service.Clock;
+
+/**
+ * Coalesces the command reads of the pollers waiting on the same Cloudera Manager. Every command of a Cloudera Manager is read at most once
+ * per tick: the first poller which finds the command stale reads it, the pollers of the same command arriving in the meantime wait for that
+ * read and share its result. A running command is read again after a fixed tick, which is shorter than the poll interval of the pollers,
+ * so a finished command is noticed as soon as without coalescing. A finished command is served from memory only for a short time, so a
+ * Cloudera Manager recreated behind the same address can not return the result of a command of its predecessor for long.
+ * <p>
+ * The commands are tracked per stack and Cloudera Manager address, because the command ids are only unique within one Cloudera Manager.
+ */
+@Component
+public class ClouderaManagerCommandPollCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClouderaManagerCommandPollCoalescer.class);
+
+    @Value("${cb.cm.command.poll.coalescing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cb.cm.command.poll.tick.ms:4000}")
+    private long tickMillis;
+
+    @Value("${cb.cm.command.poll.finished.ttl.ms:30000}")
+    private long finishedTtlMillis;
+
+    @Value("${cb.cm.command.poll.idle.eviction.ms:600000}")
+    private long idleEvictionMillis;
+
+    @Inject
+    private Clock clock;
+
+    private final Map<String, EndpointCommands> endpointCommands = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the last known state of the command, which may be as old as the tick of the command.
+     */
+    public ApiCommand readCommand(Long stackId, ApiClient apiClient, CommandsResourceApi commandsResourceApi, BigDecimal commandId)
+            throws ApiException {
+        EndpointCommands commands = endpointCommands.computeIfAbsent(stackId + "@" + apiClient.getBasePath(), EndpointCommands::new);
+        return commands.read(commandsResourceApi, commandId);
+    }
+
+    @Scheduled(fixedDelayString = "${cb.cm.command.poll.eviction.rate.ms:60000}")
+    public void evictIdleCommands() {
+        long idleBefore = clock.getCurrentTimeMillis() - idleEvictionMillis;
+        endpointCommands.values().forEach(commands -> commands.evictIdle(idleBefore));
+        endpointCommands.values().removeIf(EndpointCommands::isEmpty);
+    }
+
+    private class EndpointCommands {
+
+        private final String endpoint;
+
+        private final Map<BigDecimal, TrackedCommand> trackedCommands = new ConcurrentHashMap<>();
+
+        EndpointCommands(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        ApiCommand read(CommandsResourceApi commandsResourceApi, BigDecimal commandId) throws ApiException {
+            TrackedCommand trackedCommand = trackedCommands.computeIfAbsent(commandId, TrackedCommand::new);
+            return trackedCommand.read(commandsResourceApi);
+        }
+
+        void evictIdle(long idleBefore) {
+            trackedCommands.values().removeIf(trackedCommand -> trackedCommand.lastAccessedAt < idleBefore);
+        }
+
+        boolean isEmpty() {
+            return trackedCommands.isEmpty();
+        }
+
+        private class TrackedCommand {
+
+            private final BigDecimal commandId;
+
+            private volatile long lastAccessedAt;
+
+            private long lastReadAt;
+
+            private ApiCommand command;
+
+            TrackedCommand(BigDecimal commandId) {
+                this.commandId = commandId;
+            }
+
+            synchronized ApiCommand read(CommandsResourceApi commandsResourceApi) throws ApiException {
+                long now = clock.getCurrentTimeMillis();
+                lastAccessedAt = now;
+                if (isStale(now)) {
+                    LOGGER.debug("Reading command [{}] of Cloudera Manager [{}].", commandId, endpoint);
+                    command = commandsResourceApi.readCommand(commandId);
+                    lastReadAt = now;
+                }
+                return command;
+            }
+
+            private boolean isStale(long now) {
+                if (command == null) {
+                    return true;
+                } else if (Boolean.FALSE.equals(command.getActive())) {
+                    return now - lastReadAt >= finishedTtlMillis;
+                } else {
+                    return now - lastReadAt >= tickMillis;
+                }
+            }
+        }
+    }
+}
@@ -69,6 +69,9 @@ public class ClouderaManagerPollingServiceProvider {
     @Inject
     private CloudbreakEventService cloudbreakEventService;
 
+    @Inject
+    private ClouderaManagerCommandPollCoalescer commandPollCoalescer;
+
     public PollingResult startPollingCmStartup(Stack stack, ApiClient apiClient) {
         LOGGER.debug("Waiting for Cloudera Manager startup. [Server address: {}]", stack.getClusterManagerIp());
         return pollCommandWithTimeListener(stack, apiClient, null, POLL_FOR_ONE_HOUR,
@@ -219,6 +222,7 @@ public class ClouderaManagerPollingServiceProvider {
     private PollingResult pollCommandListWithTimeListener(Stack stack, ApiClient apiClient, List<BigDecimal> commandIds, long maximumWaitTimeInSeconds,
             AbstractClouderaManagerCommandListCheckerTask<ClouderaManagerCommandListPollerObject> listenerTask) {
         ClouderaManagerCommandListPollerObject clouderaManagerCommandPollerObject = new ClouderaManagerCommandListPollerObject(stack, apiClient, commandIds);
+        listenerTask.setCommandPollCoalescer(commandPollCoalescer);
         return clouderaManagerCommandListPollerObjectPollingService.pollWithAbsoluteTimeoutSingleFailure(
                 listenerTask,
                 clouderaManagerCommandPollerObject,
@@ -229,6 +233,7 @@ public class ClouderaManagerPollingServiceProvider {
     private PollingResult pollCommandWithTimeListener(Stack stack, ApiClient apiClient, BigDecimal commandId, long maximumWaitTimeInSeconds,
             AbstractClouderaManagerCommandCheckerTask<ClouderaManagerCommandPollerObject> listenerTask) {
         ClouderaManagerCommandPollerObject clouderaManagerCommandPollerObject = new ClouderaManagerCommandPollerObject(stack, apiClient, commandId);
+        listenerTask.setCommandPollCoalescer(commandPollCoalescer);
         return clouderaManagerCommandPollerObjectPollingService.pollWithAbsoluteTimeoutSingleFailure(
                 listenerTask,
                 clouderaManagerCommandPollerObject,
@@ -239,6 +244,7 @@ public class ClouderaManagerPollingServiceProvider {
     private PollingResult pollCommandWithAttemptListener(Stack stack, ApiClient apiClient, BigDecimal commandId, int numAttempts,
             AbstractClouderaManagerCommandCheckerTask<ClouderaManagerCommandPollerObject> listenerTask) {
         ClouderaManagerCommandPollerObject clouderaManagerCommandPollerObject = new ClouderaManagerCommandPollerObject(stack, apiClient, commandId);
+        listenerTask.setCommandPollCoalescer(commandPollCoalescer);
         return clouderaManagerCommandPollerObjectPollingService.pollWithAttemptSingleFailure(
                 listenerTask,
                 clouderaManagerCommandPollerObject,
@@ -10,19 +10,22 @@ import com.cloudera.api.swagger.client.ApiException;
 import com.cloudera.api.swagger.model.ApiCommand;
 import com.sequenceiq.cloudbreak.cm.ClouderaManagerOperationFailedException;
 import com.sequenceiq.cloudbreak.cm.client.ClouderaManagerApiPojoFactory;
+import com.sequenceiq.cloudbreak.cm.polling.ClouderaManagerCommandPollCoalescer;
 import com.sequenceiq.cloudbreak.cm.polling.ClouderaManagerCommandPollerObject;
 import com.sequenceiq.cloudbreak.structuredevent.event.CloudbreakEventService;
 
 public abstract class AbstractClouderaManagerCommandCheckerTask<T extends ClouderaManagerCommandPollerObject> extends AbstractClouderaManagerApiCheckerTask<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractClouderaManagerCommandCheckerTask.class);
 
+    private ClouderaManagerCommandPollCoalescer commandPollCoalescer;
+
     protected AbstractClouderaManagerCommandCheckerTask(ClouderaManagerApiPojoFactory clouderaManagerApiPojoFactory,
             CloudbreakEventService cloudbreakEventService) {
         super(clouderaManagerApiPojoFactory, cloudbreakEventService);
     }
 
     protected boolean doStatusCheck(T pollerObject, CommandsResourceApi commandsResourceApi) throws ApiException {
-        ApiCommand apiCommand = commandsResourceApi.readCommand(pollerObject.getId());
+        ApiCommand apiCommand = readCommand(pollerObject, commandsResourceApi);
         if (apiCommand.getActive()) {
             LOGGER.debug("Command [" + getCommandName() + "] with id [" + pollerObject.getId() + "] is active, so it hasn't finished yet");
             return false;
@@ -37,6 +40,18 @@ public abstract class AbstractClouderaManagerCommandCheckerTask<T extends Cloude
         }
     }
 
+    public void setCommandPollCoalescer(ClouderaManagerCommandPollCoalescer commandPollCoalescer) {
+        this.commandPollCoalescer = commandPollCoalescer;
+    }
+
+    private ApiCommand readCommand(T pollerObject, CommandsResourceApi commandsResourceApi) throws ApiException {
+        if (commandPollCoalescer != null && commandPollCoalescer.isEnabled()) {
+            return commandPollCoalescer.readCommand(pollerObject.getStack().getId(), pollerObject.getApiClient(), commandsResourceApi, pollerObject.getId());
+        } else {
+            return commandsResourceApi.readCommand(pollerObject.getId());
+        }
+    }
+
     protected String getOperationIdentifier(T pollerObject) {
         return String.valueOf(pollerObject.getId());
     }
@@ -16,12 +16,15 @@ import com.cloudera.api.swagger.model.ApiHostRef;
 import com.sequenceiq.cloudbreak.cm.ClouderaManagerOperationFailedException;
 import com.sequenceiq.cloudbreak.cm.client.ClouderaManagerApiPojoFactory;
 import com.sequenceiq.cloudbreak.cm.polling.ClouderaManagerCommandListPollerObject;
+import com.sequenceiq.cloudbreak.cm.polling.ClouderaManagerCommandPollCoalescer;
 import com.sequenceiq.cloudbreak.structuredevent.event.CloudbreakEventService;
 
 public abstract class AbstractClouderaManagerCommandListCheckerTask<T extends ClouderaManagerCommandListPollerObject>
         extends AbstractClouderaManagerApiCheckerTask<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractClouderaManagerCommandListCheckerTask.class);
 
+    private ClouderaManagerCommandPollCoalescer commandPollCoalescer;
+
     protected AbstractClouderaManagerCommandListCheckerTask(ClouderaManagerApiPojoFactory clouderaManagerApiPojoFactory,
             CloudbreakEventService cloudbreakEventService) {
         super(clouderaManagerApiPojoFactory, cloudbreakEventService);
@@ -38,10 +41,14 @@ public abstract class AbstractClouderaManagerCommandListCheckerTask<T extends Cl
         }
     }
 
+    public void setCommandPollCoalescer(ClouderaManagerCommandPollCoalescer commandPollCoalescer) {
+        this.commandPollCoalescer = commandPollCoalescer;
+    }
+
     private List<ApiCommand> collectApiCommands(T pollerObject, CommandsResourceApi commandsResourceApi)  throws ApiException {
         List<ApiCommand> apiCommands = new ArrayList<>();
         for (BigDecimal commandId : pollerObject.getIdList()) {
-            ApiCommand apiCommand = commandsResourceApi.readCommand(commandId);
+            ApiCommand apiCommand = readCommand(pollerObject, commandsResourceApi, commandId);
             apiCommands.add(apiCommand);
             if (apiCommand.getActive()) {
                 LOGGER.debug("Command [" + getCommandName() + "] with id [" + commandId + "] is active, so it hasn't finished yet");
@@ -51,6 +58,14 @@ public abstract class AbstractClouderaManagerCommandListCheckerTask<T extends Cl
         return apiCommands;
     }
 
+    private ApiCommand readCommand(T pollerObject, CommandsResourceApi commandsResourceApi, BigDecimal commandId) throws ApiException {
+        if (commandPollCoalescer != null && commandPollCoalescer.isEnabled()) {
+            return commandPollCoalescer.readCommand(pollerObject.getStack().getId(), pollerObject.getApiClient(), commandsResourceApi, commandId);
+        } else {
+            return commandsResourceApi.readCommand(commandId);
+        }
+    }
+
     private void validateApiCommandResults(List<ApiCommand> apiCommands) {
         List<ApiCommand> failedCommands = apiCommands.stream().filter(cmd -> !cmd.getSuccess()).collect(Collectors.toList());
         if (!failedCommands.isEmpty()) {
@@ -0,0 +1,185 @@
+package com.sequenceiq.cloudbreak.cm.polling;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloudera.api.swagger.CommandsResourceApi;
+import com.cloudera.api.swagger.client.ApiClient;
+import com.cloudera.api.swagger.client.ApiException;
+import com.cloudera.api.swagger.model.ApiCommand;
+import com.sequenceiq.cloudbreak.common.service.Clock;
+
+/**
+ * Polls the commands of a cluster-wide restart against a mock Cloudera Manager which serves a limited number of requests at a time, once
+ * with a readCommand per poller and poll, once through the {@link ClouderaManagerCommandPollCoalescer}. The time is the end-to-end time until
+ * every poller saw its command finished, the request count and the average delay between finishing and noticing a command are logged per
+ * iteration. Run with {@code ./gradlew :cluster-cm:benchmark -PbenchmarkIncludes=ClouderaManagerCommandPollCoalescerBenchmark}.
+ * The intervals are scaled down from the production 5 second poll interval.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClouderaManagerCommandPollCoalescerBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClouderaManagerCommandPollCoalescerBenchmark.class);
+
+    private static final int COMMAND_COUNT = 40;
+
+    private static final long POLL_INTERVAL_MILLIS = 50L;
+
+    private static final Long STACK_ID = 1L;
+
+    private static final long MIN_COMMAND_DURATION_MILLIS = 500L;
+
+    private static final long MAX_COMMAND_DURATION_MILLIS = 3000L;
+
+    private static final long REQUEST_LATENCY_MILLIS = 20L;
+
+    private static final int CM_REQUEST_CONCURRENCY = 4;
+
+    @Param({"DIRECT", "COALESCED"})
+    private String mode;
+
+    @Param({"1", "4"})
+    private int pollersPerCommand;
+
+    private final Random random = new Random(1L);
+
+    private MockCommandsResourceApi commandsResourceApi;
+
+    private ClouderaManagerCommandPollCoalescer coalescer;
+
+    private ApiClient apiClient;
+
+    private ExecutorService executorService;
+
+    private final AtomicLong noticeDelayMillis = new AtomicLong();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        apiClient = new ApiClient();
+        apiClient.setBasePath("https://10.0.0.1:7180/api/v31");
+        coalescer = new ClouderaManagerCommandPollCoalescer();
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(coalescer, "tickMillis", POLL_INTERVAL_MILLIS - 10L);
+        ReflectionTestUtils.setField(coalescer, "finishedTtlMillis", TimeUnit.SECONDS.toMillis(30L));
+        ReflectionTestUtils.setField(coalescer, "idleEvictionMillis", TimeUnit.MINUTES.toMillis(10L));
+        ReflectionTestUtils.setField(coalescer, "clock", new Clock());
+        long now = System.currentTimeMillis();
+        List<Long> finishTimes = new ArrayList<>(COMMAND_COUNT);
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            finishTimes.add(now + MIN_COMMAND_DURATION_MILLIS + (long) (random.nextDouble() * (MAX_COMMAND_DURATION_MILLIS - MIN_COMMAND_DURATION_MILLIS)));
+        }
+        commandsResourceApi = new MockCommandsResourceApi(finishTimes);
+        executorService = Executors.newFixedThreadPool(COMMAND_COUNT * pollersPerCommand);
+        noticeDelayMillis.set(0L);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        executorService.shutdownNow();
+        LOGGER.info("{} with {} pollers per command: {} readCommand requests, {} ms average delay until a finished command is noticed",
+                mode, pollersPerCommand, commandsResourceApi.requestCount.get(), noticeDelayMillis.get() / (COMMAND_COUNT * pollersPerCommand));
+    }
+
+    @Benchmark
+    public void pollCommands() throws Exception {
+        List<Future<?>> pollers = new ArrayList<>();
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            BigDecimal commandId = BigDecimal.valueOf(i);
+            for (int j = 0; j < pollersPerCommand; j++) {
+                pollers.add(executorService.submit(() -> {
+                    poll(commandId);
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> poller : pollers) {
+            poller.get();
+        }
+    }
+
+    private void poll(BigDecimal commandId) throws ApiException, InterruptedException {
+        ApiCommand command = read(commandId);
+        while (command.getActive()) {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+            command = read(commandId);
+        }
+        noticeDelayMillis.addAndGet(System.currentTimeMillis() - commandsResourceApi.getFinishTime(commandId));
+    }
+
+    private ApiCommand read(BigDecimal commandId) throws ApiException {
+        if ("COALESCED".equals(mode)) {
+            return coalescer.readCommand(STACK_ID, apiClient, commandsResourceApi, commandId);
+        } else {
+            return commandsResourceApi.readCommand(commandId);
+        }
+    }
+
+    private static class MockCommandsResourceApi extends CommandsResourceApi {
+
+        private final List<Long> finishTimes;
+
+        private final Semaphore requestSlots = new Semaphore(CM_REQUEST_CONCURRENCY, true);
+
+        private final AtomicLong requestCount = new AtomicLong();
+
+        MockCommandsResourceApi(List<Long> finishTimes) {
+            this.finishTimes = finishTimes;
+        }
+
+        @Override
+        public ApiCommand readCommand(BigDecimal commandId) throws ApiException {
+            requestCount.incrementAndGet();
+            try {
+                requestSlots.acquire();
+                try {
+                    Thread.sleep(REQUEST_LATENCY_MILLIS);
+                } finally {
+                    requestSlots.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ApiException(e);
+            }
+            boolean active = System.currentTimeMillis() < getFinishTime(commandId);
+            ApiCommand command = new ApiCommand();
+            command.setId(commandId);
+            command.setActive(active);
+            command.setSuccess(!active);
+            return command;
+        }
+
+        long getFinishTime(BigDecimal commandId) {
+            return finishTimes.get(commandId.intValue());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.sequenceiq.cloudbreak.cm.polling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloudera.api.swagger.CommandsResourceApi;
+import com.cloudera.api.swagger.client.ApiClient;
+import com.cloudera.api.swagger.client.ApiException;
+import com.cloudera.api.swagger.model.ApiCommand;
+import com.sequenceiq.cloudbreak.common.service.Clock;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClouderaManagerCommandPollCoalescerTest {
+
+    private static final long TICK = 4000L;
+
+    private static final long FINISHED_TTL = 30000L;
+
+    private static final Long STACK_ID = 1L;
+
+    private static final Long OTHER_STACK_ID = 2L;
+
+    private static final BigDecimal FIRST_ID = BigDecimal.ONE;
+
+    @InjectMocks
+    private ClouderaManagerCommandPollCoalescer underTest;
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private ApiClient apiClient;
+
+    @Mock
+    private CommandsResourceApi commandsResourceApi;
+
+    private long now = 1_000_000L;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "tickMillis", TICK);
+        ReflectionTestUtils.setField(underTest, "finishedTtlMillis", FINISHED_TTL);
+        ReflectionTestUtils.setField(underTest, "idleEvictionMillis", 600000L);
+        when(clock.getCurrentTimeMillis()).thenAnswer(invocation -> now);
+        when(apiClient.getBasePath()).thenReturn("https://10.0.0.1:7180/api/v31");
+    }
+
+    @Test
+    public void testPollersOfTheSameCommandShareOneReadPerTick() throws ApiException {
+        ApiCommand active = command(FIRST_ID, true);
+        when(commandsResourceApi.readCommand(FIRST_ID)).thenReturn(active);
+
+        assertSame(active, underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID));
+        now += TICK - 1;
+        assertSame(active, underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID));
+        now += 1;
+        underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID);
+
+        verify(commandsResourceApi, times(2)).readCommand(FIRST_ID);
+    }
+
+    @Test
+    public void testFinishedCommandIsNotReadAgainWithinItsTtl() throws ApiException {
+        ApiCommand finished = command(FIRST_ID, false);
+        when(commandsResourceApi.readCommand(FIRST_ID)).thenReturn(finished);
+
+        underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID);
+        now += FINISHED_TTL - 1;
+        assertSame(finished, underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID));
+
+        verify(commandsResourceApi, times(1)).readCommand(FIRST_ID);
+    }
+
+    @Test
+    public void testFinishedCommandIsReadAgainAfterItsTtl() throws ApiException {
+        ApiCommand finished = command(FIRST_ID, false);
+        ApiCommand recreated = command(FIRST_ID, true);
+        when(commandsResourceApi.readCommand(FIRST_ID)).thenReturn(finished).thenReturn(recreated);
+
+        underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID);
+        now += FINISHED_TTL;
+
+        assertSame(recreated, underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID));
+    }
+
+    @Test
+    public void testCommandsOfOtherStacksOnTheSameEndpointAreReadSeparately() throws ApiException {
+        when(commandsResourceApi.readCommand(FIRST_ID)).thenReturn(command(FIRST_ID, false));
+
+        underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID);
+        underTest.readCommand(OTHER_STACK_ID, apiClient, commandsResourceApi, FIRST_ID);
+
+        verify(commandsResourceApi, times(2)).readCommand(FIRST_ID);
+    }
+
+    @Test
+    public void testCommandsOfOtherEndpointsAreReadSeparately() throws ApiException {
+        ApiClient otherApiClient = mock(ApiClient.class);
+        when(otherApiClient.getBasePath()).thenReturn("https://10.0.0.2:7180/api/v31");
+        when(commandsResourceApi.readCommand(FIRST_ID)).thenReturn(command(FIRST_ID, true));
+
+        underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID);
+        underTest.readCommand(STACK_ID, otherApiClient, commandsResourceApi, FIRST_ID);
+
+        verify(commandsResourceApi, times(2)).readCommand(FIRST_ID);
+    }
+
+    @Test
+    public void testFailedReadIsRepeatedByTheNextPoller() throws ApiException {
+        ApiCommand first = command(FIRST_ID, true);
+        ApiException error = new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.value(), "error");
+        when(commandsResourceApi.readCommand(FIRST_ID)).thenThrow(error).thenReturn(first);
+
+        ApiException thrown = null;
+        try {
+            underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID);
+        } catch (ApiException e) {
+            thrown = e;
+        }
+
+        assertSame(error, thrown);
+        assertSame(first, underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID));
+    }
+
+    @Test
+    public void testIdleCommandsAreEvicted() throws ApiException {
+        when(commandsResourceApi.readCommand(FIRST_ID)).thenReturn(command(FIRST_ID, false));
+        underTest.readCommand(STACK_ID, apiClient, commandsResourceApi, FIRST_ID);
+
+        now += 600000L;
+        underTest.evictIdleCommands();
+        assertEquals(1, trackedEndpointCount());
+
+        now += 1L;
+        underTest.evictIdleCommands();
+        assertEquals(0, trackedEndpointCount());
+    }
+
+    private int trackedEndpointCount() {
+        return ((Map<?, ?>) ReflectionTestUtils.getField(underTest, "endpointCommands")).size();
+    }
+
+    private ApiCommand command(BigDecimal id, boolean active) {
+        ApiCommand command = new ApiCommand();
+        command.setId(id);
+        command.setActive(active);
+        command.setSuccess(!active);
+        return command;
+    }
+}
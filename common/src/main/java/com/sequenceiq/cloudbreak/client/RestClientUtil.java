@@ -1,31 +1,100 @@
 package com.sequenceiq.cloudbreak.client;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
 import java.util.OptionalInt;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 
 import javax.net.ssl.SSLContext;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.ssl.SSLContexts;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
 import org.glassfish.jersey.logging.LoggingFeature;
 import org.glassfish.jersey.logging.LoggingFeature.Verbosity;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 public class RestClientUtil {
 
+    @VisibleForTesting
+    static final ScheduledExecutorService TLS_CLIENT_CLOSER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("rest-client-closer-%d").setDaemon(true).build());
+
+    @VisibleForTesting
+    static volatile Duration tlsClientCloseGracePeriod = Duration.ofMinutes(1L);
+
     private static final Logger LOGGER = LoggerFactory.getLogger(RestClientUtil.class);
 
     private static final int CONNECT_TIMEOUT_MS = 20_000;
 
     private static final Map<ConfigKey, Client> CLIENTS = new ConcurrentHashMap<>();
 
+    private static final int TLS_CLIENT_CACHE_SIZE = 2_000;
+
+    private static final Duration TLS_CLIENT_IDLE_TIMEOUT = Duration.ofMinutes(10L);
+
+    private static final int TLS_CLIENT_MAX_CONNECTIONS = 5;
+
+    private static final long TLS_CLIENT_CONNECTION_IDLE_TIMEOUT_SECONDS = 120L;
+
+    private static final int TLS_CLIENT_VALIDATE_AFTER_INACTIVITY_MS = 10_000;
+
+    private static final int TLS_CLIENT_CONNECTION_REQUEST_TIMEOUT_MS = 20_000;
+
+    private static final Duration TLS_CLIENT_CLOSE_MAX_DELAY = Duration.ofMinutes(30L);
+
+    private static final char TLS_KEY_SEPARATOR = '\0';
+
+    private static final Cache<String, PooledClient> TLS_CLIENTS = Caffeine.newBuilder()
+            .maximumSize(TLS_CLIENT_CACHE_SIZE)
+            .expireAfterAccess(TLS_CLIENT_IDLE_TIMEOUT)
+            .executor(Runnable::run)
+            .recordStats()
+            .removalListener(RestClientUtil::closeEvictedClient)
+            .build();
+
+    static {
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, TLS_CLIENTS, "restClientTlsCache");
+        Gauge.builder("restclient.tls.connections", TLS_CLIENTS, cache -> countConnections(cache, PoolStats::getLeased))
+                .tag("state", "leased")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("restclient.tls.connections", TLS_CLIENTS, cache -> countConnections(cache, PoolStats::getAvailable))
+                .tag("state", "available")
+                .register(Metrics.globalRegistry);
+    }
+
     private RestClientUtil() {
     }
 
@@ -39,10 +108,67 @@ public class RestClientUtil {
         return client;
     }
 
+    /**
+     * Returns a shared client for the given TLS material instead of creating a new one on every call. The clients keep a pool of
+     * connections, the clients unused for 10 minutes or over the size limit are removed from the cache. A removed client is closed after a
+     * grace period, once none of its connections is leased, so the callers which fetched it before the removal can finish their requests.
+     * The returned client must not be closed by the caller.
+     */
+    public static Client getTlsClient(String serverCert, String clientCert, String clientKey, boolean debug) {
+        String key = Hashing.sha256().newHasher()
+                .putString(StringUtils.defaultString(serverCert), StandardCharsets.UTF_8).putChar(TLS_KEY_SEPARATOR)
+                .putString(StringUtils.defaultString(clientCert), StandardCharsets.UTF_8).putChar(TLS_KEY_SEPARATOR)
+                .putString(StringUtils.defaultString(clientKey), StandardCharsets.UTF_8).putChar(TLS_KEY_SEPARATOR)
+                .putBoolean(debug)
+                .hash().toString();
+        PooledClient pooledClient = TLS_CLIENTS.get(key, k -> createPooledClient(serverCert, clientCert, clientKey, TLS_CLIENT_MAX_CONNECTIONS, debug));
+        pooledClient.closeIdleConnections();
+        return pooledClient.getClient();
+    }
+
+    @VisibleForTesting
+    static void closeTlsClients() {
+        TLS_CLIENTS.invalidateAll();
+        TLS_CLIENTS.cleanUp();
+    }
+
     public static Client createClient(String serverCert, String clientCert, String clientKey, boolean debug) throws Exception {
         return createClient(serverCert, clientCert, clientKey, CONNECT_TIMEOUT_MS, OptionalInt.empty(), debug);
     }
 
+    /**
+     * Creates a client keeping at most the given number of connections alive between the requests. Unlike {@link #getTlsClient} the
+     * client is not shared, the caller owns it and closing it closes its connections.
+     */
+    public static Client createKeepAliveClient(String serverCert, String clientCert, String clientKey, int maxConnections, boolean debug) {
+        return createPooledClient(serverCert, clientCert, clientKey, maxConnections, debug).getClient();
+    }
+
+    /**
+     * Closes the expired connections of a client created by {@link #createKeepAliveClient} and the ones idle for longer than the given
+     * time. Does nothing for other clients.
+     */
+    public static void closeIdleConnections(Client client, Duration idleTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = getConnectionManager(client);
+        if (connectionManager != null) {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the connection statistics of a client created by {@link #createKeepAliveClient}, empty statistics for other clients.
+     */
+    public static PoolStats getConnectionStats(Client client) {
+        PoolingHttpClientConnectionManager connectionManager = getConnectionManager(client);
+        return connectionManager != null ? connectionManager.getTotalStats() : new PoolStats(0, 0, 0, 0);
+    }
+
+    private static PoolingHttpClientConnectionManager getConnectionManager(Client client) {
+        Object connectionManager = client.getConfiguration().getProperty(ApacheClientProperties.CONNECTION_MANAGER);
+        return connectionManager instanceof PoolingHttpClientConnectionManager ? (PoolingHttpClientConnectionManager) connectionManager : null;
+    }
+
     public static Client createClient(String serverCert, String clientCert, String clientKey, int connectionTimeout, int readTimeout, boolean debug)
             throws Exception {
         return createClient(serverCert, clientCert, clientKey, connectionTimeout, OptionalInt.of(readTimeout), debug);
@@ -50,29 +176,38 @@ public class RestClientUtil {
 
     public static Client createClient(String serverCert, String clientCert, String clientKey, int connectionTimeout, OptionalInt readTimeout, boolean debug)
             throws Exception {
-        SSLContext sslContext;
+        return createClient(createSslContext(serverCert, clientCert, clientKey), connectionTimeout, readTimeout, debug);
+    }
+
+    public static Client createClient(SSLContext sslContext, boolean debug) {
+        return createClient(sslContext, CONNECT_TIMEOUT_MS, OptionalInt.empty(), debug);
+    }
+
+    private static SSLContext createSslContext(String serverCert, String clientCert, String clientKey) throws Exception {
         if (StringUtils.isNoneBlank(serverCert, clientCert, clientKey)) {
-            sslContext = SSLContexts.custom()
+            return SSLContexts.custom()
                     .loadTrustMaterial(KeyStoreUtil.createTrustStore(serverCert), null)
                     .loadKeyMaterial(KeyStoreUtil.createKeyStore(clientCert, clientKey), "consul".toCharArray())
                     .build();
         } else {
-            sslContext = CertificateTrustManager.sslContext();
+            return CertificateTrustManager.sslContext();
         }
-        return createClient(sslContext, connectionTimeout, readTimeout, debug);
     }
 
-    public static Client createClient(SSLContext sslContext, boolean debug) {
-        return createClient(sslContext, CONNECT_TIMEOUT_MS, OptionalInt.empty(), debug);
+    private static Client createClient(SSLContext sslContext, int connectionTimeout, OptionalInt readTimeout, boolean debug) {
+        return createClient(createClientConfig(connectionTimeout, readTimeout), sslContext, debug);
     }
 
-    private static Client createClient(SSLContext sslContext, int connectionTimeout, OptionalInt readTimeout, boolean debug) {
+    private static ClientConfig createClientConfig(int connectionTimeout, OptionalInt readTimeout) {
         ClientConfig config = new ClientConfig();
         config.property(ClientProperties.FOLLOW_REDIRECTS, "false");
         config.property(ClientProperties.CONNECT_TIMEOUT, connectionTimeout);
         readTimeout.ifPresent(rt -> config.property(ClientProperties.READ_TIMEOUT, rt));
         config.register(MultiPartFeature.class);
+        return config;
+    }
 
+    private static Client createClient(ClientConfig config, SSLContext sslContext, boolean debug) {
         ClientBuilder builder = ClientBuilder.newBuilder().withConfig(config);
         builder.sslContext(sslContext);
         builder.hostnameVerifier(CertificateTrustManager.hostnameVerifier());
@@ -84,6 +219,66 @@ public class RestClientUtil {
         return client;
     }
 
+    private static PooledClient createPooledClient(String serverCert, String clientCert, String clientKey, int maxConnections, boolean debug) {
+        SSLContext sslContext;
+        try {
+            sslContext = createSslContext(serverCert, clientCert, clientKey);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create SSL context for the REST client", e);
+        }
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(sslContext, CertificateTrustManager.hostnameVerifier()))
+                .build();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(TLS_CLIENT_VALIDATE_AFTER_INACTIVITY_MS);
+
+        ClientConfig config = createClientConfig(CONNECT_TIMEOUT_MS, OptionalInt.empty());
+        config.connectorProvider(new ApacheConnectorProvider());
+        config.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+        // Without it a request waits forever for a connection of an exhausted pool, the connect and read timeouts are set by Jersey.
+        config.property(ApacheClientProperties.REQUEST_CONFIG, RequestConfig.custom()
+                .setConnectionRequestTimeout(TLS_CLIENT_CONNECTION_REQUEST_TIMEOUT_MS)
+                .build());
+        config.property(ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.BUFFERED);
+        return new PooledClient(createClient(config, sslContext, debug), connectionManager);
+    }
+
+    private static void closeEvictedClient(String key, PooledClient pooledClient, RemovalCause cause) {
+        if (pooledClient != null) {
+            LOGGER.debug("REST client {} removed from the TLS client cache is closed in {}, cause: {}", pooledClient.getClient(),
+                    tlsClientCloseGracePeriod, cause);
+            scheduleClose(pooledClient, System.nanoTime() + TLS_CLIENT_CLOSE_MAX_DELAY.toNanos());
+        }
+    }
+
+    private static void scheduleClose(PooledClient pooledClient, long deadline) {
+        TLS_CLIENT_CLOSER.schedule(() -> closeWhenReleased(pooledClient, deadline), tlsClientCloseGracePeriod.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static void closeWhenReleased(PooledClient pooledClient, long deadline) {
+        int leased = pooledClient.getConnectionManager().getTotalStats().getLeased();
+        if (leased > 0 && System.nanoTime() < deadline) {
+            LOGGER.debug("REST client {} still has {} leased connections, postponing its close", pooledClient.getClient(), leased);
+            scheduleClose(pooledClient, deadline);
+        } else {
+            LOGGER.debug("Closing REST client {} removed from the TLS client cache", pooledClient.getClient());
+            try {
+                pooledClient.getClient().close();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to close REST client {}", pooledClient.getClient(), e);
+            }
+        }
+    }
+
+    private static long countConnections(Cache<String, PooledClient> cache, ToIntFunction<PoolStats> count) {
+        return cache.asMap().values().stream()
+                .mapToLong(pooledClient -> count.applyAsInt(pooledClient.getConnectionManager().getTotalStats()))
+                .sum();
+    }
+
     private static Client createClient(ConfigKey configKey) {
         LOGGER.debug("Constructing jax rs client: {}", configKey);
         ClientConfig config = new ClientConfig();
@@ -115,4 +310,29 @@ public class RestClientUtil {
         return builder.property(LoggingFeature.LOGGING_FEATURE_VERBOSITY_CLIENT, Verbosity.PAYLOAD_ANY)
                 .property(LoggingFeature.LOGGING_FEATURE_LOGGER_LEVEL_CLIENT, "INFO");
     }
+
+    private static class PooledClient {
+
+        private final Client client;
+
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        PooledClient(Client client, PoolingHttpClientConnectionManager connectionManager) {
+            this.client = client;
+            this.connectionManager = connectionManager;
+        }
+
+        Client getClient() {
+            return client;
+        }
+
+        PoolingHttpClientConnectionManager getConnectionManager() {
+            return connectionManager;
+        }
+
+        void closeIdleConnections() {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(TLS_CLIENT_CONNECTION_IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package com.sequenceiq.cloudbreak.common.concurrent;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads with the given stack size, for pools which hold many threads waiting in shallow call stacks.
+ */
+public class SmallStackThreadFactory implements ThreadFactory {
+
+    private final String namePrefix;
+
+    private final long stackSizeBytes;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    public SmallStackThreadFactory(String namePrefix, long stackSizeBytes) {
+        this.namePrefix = namePrefix;
+        this.stackSizeBytes = stackSizeBytes;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(null, runnable, namePrefix + threadCounter.incrementAndGet(), stackSizeBytes);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,18 @@
+package com.sequenceiq.cloudbreak.common.concurrent;
+
+/**
+ * Sizing strategy of the thread pools running blocking tasks, like the reactor event bus and the resource builder executor.
+ */
+public enum ThreadPoolMode {
+
+    /**
+     * A fixed number of threads, tasks above it wait in the queue of the pool.
+     */
+    FIXED,
+
+    /**
+     * A thread for every running task up to a high limit. The threads are created with a small stack and stopped when idle,
+     * so tasks which mostly wait for a remote call do not queue up behind each other.
+     */
+    ELASTIC
+}
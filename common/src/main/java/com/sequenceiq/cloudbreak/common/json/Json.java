@@ -2,12 +2,14 @@ package com.sequenceiq.cloudbreak.common.json;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -16,19 +18,41 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.MissingNode;
 
 import net.sf.json.JSONArray;
 import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
 import net.sf.json.JSONObject;
-
+import net.sf.json.util.JSONUtils;
+
+/**
+ * Wraps a json document stored as a string. A document read more than once is parsed to a tree which is kept until the value is changed,
+ * the typed reads convert this tree with a reader cached per target type. The first read parses the string directly, as parsing and
+ * converting a tree costs more than that for documents read only once. Every read returns a new instance, so the callers are free to modify
+ * what they get back.
+ */
 public class Json implements Serializable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Json.class);
 
+    private static final int MAX_COMPILED_PATHS = 1024;
+
+    private static final Map<String, CompiledPath> COMPILED_PATHS = new ConcurrentHashMap<>();
+
+    private static final Map<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+
     private String value;
 
+    private transient volatile JsonNode tree;
+
+    private transient volatile boolean readBefore;
+
     public Json(String value) {
         this.value = value;
     }
@@ -50,19 +74,21 @@ public class Json implements Serializable {
     }
 
     public <T> T get(Class<T> valueType) throws IOException {
-        return JsonUtil.readValue(value, valueType);
+        JsonNode parsed = getTree();
+        return parsed.isMissingNode() ? JsonUtil.readValue(value, valueType) : readTree(parsed, valueType);
     }
 
     public <T> T getSilent(Class<T> valueType) {
         try {
-            return JsonUtil.readValue(value, valueType);
+            return get(valueType);
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
     }
 
     public <T> T get(TypeReference<T> valueType) throws IOException {
-        return JsonUtil.readValue(value, valueType);
+        JsonNode parsed = getTree();
+        return parsed.isMissingNode() ? JsonUtil.readValue(value, valueType) : readTree(parsed, valueType.getType());
     }
 
     public static Json silent(Object value) {
@@ -85,6 +111,28 @@ public class Json implements Serializable {
 
     @JsonIgnore
     public <T> T getValue(String path) {
+        JsonNode parsed = getTree();
+        if (parsed.isObject()) {
+            CompiledPath compiledPath = compile(path);
+            JsonNode parent = parsed;
+            for (JsonPointer pointer = compiledPath.getParent(); parent != null && !pointer.matches(); pointer = pointer.tail()) {
+                parent = parent.isObject() ? parent.get(pointer.getMatchingProperty()) : null;
+            }
+            if (parent != null && parent.isObject()) {
+                JsonNode node = parent.get(compiledPath.getProperty());
+                if (node == null) {
+                    return null;
+                }
+                Object nodeValue = toJsonLibValue(node);
+                if (nodeValue != null) {
+                    return (T) nodeValue;
+                }
+            }
+        }
+        return getValueByJsonLib(path);
+    }
+
+    private <T> T getValueByJsonLib(String path) {
         String[] split = path.split("\\.");
         JSONObject jsonObject = JSONObject.fromObject(value);
         if (split.length == 1) {
@@ -135,7 +183,7 @@ public class Json implements Serializable {
             object = object.getJSONObject(split[i]);
         }
         object.remove(split[split.length - 1]);
-        value = jsonObject.toString();
+        updateValue(jsonObject.toString());
     }
 
     @JsonIgnore
@@ -168,7 +216,72 @@ public class Json implements Serializable {
             object = object.getJSONObject(split[i]);
         }
         object.put(split[split.length - 1], newValue);
-        value = jsonObject.toString();
+        updateValue(jsonObject.toString());
+    }
+
+    private void updateValue(String newValue) {
+        value = newValue;
+        tree = null;
+        readBefore = false;
+    }
+
+    /**
+     * Returns the parsed tree of the value, or a missing node on the first read or if the value is null or it is not a valid json, in
+     * which case the reads parse the string directly, reporting failures the same way as before.
+     */
+    private JsonNode getTree() {
+        JsonNode parsed = tree;
+        if (parsed == null && !readBefore) {
+            readBefore = true;
+            return MissingNode.getInstance();
+        } else if (parsed == null) {
+            parsed = MissingNode.getInstance();
+            if (value != null) {
+                try {
+                    JsonNode read = JsonUtil.readTreeToleratingDuplicateKeys(value);
+                    parsed = read == null ? parsed : read;
+                } catch (IOException e) {
+                    LOGGER.debug("Json value can not be parsed to a tree: {}", e.getMessage());
+                }
+            }
+            tree = parsed;
+        }
+        return parsed;
+    }
+
+    private <T> T readTree(JsonNode parsed, Type valueType) throws IOException {
+        return READERS.computeIfAbsent(valueType, JsonUtil::readerFor).readValue(parsed);
+    }
+
+    /**
+     * Converts the node to the value json-lib would return for it, or returns null if the node is better left to json-lib itself, like
+     * strings looking like json, which json-lib handles in its own way, and floating point numbers.
+     */
+    private Object toJsonLibValue(JsonNode node) {
+        Object nodeValue = null;
+        if (node.isObject()) {
+            nodeValue = JSONObject.fromObject(node.toString());
+        } else if (node.isArray()) {
+            nodeValue = JSONArray.fromObject(node.toString());
+        } else if (node.isTextual() && !JSONUtils.mayBeJSON(node.textValue())) {
+            nodeValue = node.textValue();
+        } else if (node.isInt() || node.isLong() || node.isBoolean()) {
+            nodeValue = node.isBoolean() ? node.booleanValue() : node.numberValue();
+        } else if (node.isNull()) {
+            nodeValue = JSONNull.getInstance();
+        }
+        return nodeValue;
+    }
+
+    private static CompiledPath compile(String path) {
+        CompiledPath compiledPath = COMPILED_PATHS.get(path);
+        if (compiledPath == null) {
+            compiledPath = new CompiledPath(path);
+            if (COMPILED_PATHS.size() < MAX_COMPILED_PATHS) {
+                COMPILED_PATHS.putIfAbsent(path, compiledPath);
+            }
+        }
+        return compiledPath;
     }
 
     @Override
@@ -202,4 +315,32 @@ public class Json implements Serializable {
     public List<String> asArray() {
         return (List<String>) JSONArray.fromObject(value).stream().map(Object::toString).collect(Collectors.toList());
     }
+
+    /**
+     * The dotted path used by {@link #getValue(String)} compiled to a json pointer to the parent object and the name of the property in it.
+     */
+    private static final class CompiledPath {
+
+        private final JsonPointer parent;
+
+        private final String property;
+
+        private CompiledPath(String path) {
+            String[] split = path.split("\\.");
+            StringBuilder pointer = new StringBuilder();
+            for (int i = 0; i < split.length - 1; i++) {
+                pointer.append('/').append(split[i].replace("~", "~0").replace("/", "~1"));
+            }
+            parent = JsonPointer.compile(pointer.toString());
+            property = split[split.length - 1];
+        }
+
+        private JsonPointer getParent() {
+            return parent;
+        }
+
+        private String getProperty() {
+            return property;
+        }
+    }
 }
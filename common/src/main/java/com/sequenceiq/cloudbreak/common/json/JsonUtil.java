@@ -2,6 +2,7 @@ package com.sequenceiq.cloudbreak.common.json;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -19,6 +20,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -33,12 +35,15 @@ public class JsonUtil {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private static final ObjectReader DUPLICATE_KEY_TOLERANT_TREE_READER;
+
     static {
         MAPPER.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
         MAPPER.enable(Feature.ALLOW_UNQUOTED_CONTROL_CHARS);
         MAPPER.enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
         MAPPER.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, false);
         MAPPER.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        DUPLICATE_KEY_TOLERANT_TREE_READER = MAPPER.reader().without(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
     }
 
     private JsonUtil() {
@@ -114,6 +119,17 @@ public class JsonUtil {
         return MAPPER.readTree(content);
     }
 
+    /**
+     * Reads the tree the same way {@link #readValue(String, Class)} would read the content, the last one wins from duplicated keys.
+     */
+    static JsonNode readTreeToleratingDuplicateKeys(String content) throws IOException {
+        return DUPLICATE_KEY_TOLERANT_TREE_READER.readTree(content);
+    }
+
+    static ObjectReader readerFor(Type valueType) {
+        return MAPPER.readerFor(MAPPER.getTypeFactory().constructType(valueType));
+    }
+
     public static JsonNode readTreeByArray(String content) throws IOException {
         JSONObject jsonObject;
         try {
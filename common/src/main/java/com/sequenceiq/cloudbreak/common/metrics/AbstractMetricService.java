@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.common.metrics;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -53,6 +54,11 @@ public abstract class AbstractMetricService implements MetricService {
         counter.increment();
     }
 
+    @Override
+    public void recordTimerMetric(Metric metric, Duration duration, String... tags) {
+        recordTimer(duration.toMillis(), metric, tags);
+    }
+
     protected boolean gaugeMetric(Metric metric) {
         return metric.getMetricName().contains("state") || metric.getMetricName().contains("leader") || metric.getMetricName().contains("threadpool");
     }
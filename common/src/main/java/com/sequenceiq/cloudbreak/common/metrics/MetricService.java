@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.common.metrics;
 
+import java.time.Duration;
 import java.util.Map;
 
 import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
@@ -12,4 +13,6 @@ public interface MetricService {
     void initMicrometerMetricCounter(Metric metric);
 
     void incrementMetricCounter(Metric metric, String... tags);
+
+    void recordTimerMetric(Metric metric, Duration duration, String... tags);
 }
@@ -11,5 +11,7 @@ public enum MetricTag {
     TENANT,
     REGION,
     URI,
-    CALLER_ID
+    CALLER_ID,
+    POLLING_TASK,
+    POLLING_RESULT
 }
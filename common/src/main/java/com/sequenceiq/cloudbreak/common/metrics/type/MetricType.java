@@ -10,7 +10,9 @@ public enum MetricType implements Metric {
     HEARTBEAT_UPDATE_FAILED("heartbeat.update.failed"),
     REST_OPERATION("rest.operation"),
     REST_OPERATION_FAILED("rest.operation.failed"),
-    REST_OPERATION_CALLER_ID("rest.operation.caller.id");
+    REST_OPERATION_CALLER_ID("rest.operation.caller.id"),
+    POLLING_TIME("polling.time"),
+    POLLING_FINISHED("polling.finished");
 
     private final String metricName;
 
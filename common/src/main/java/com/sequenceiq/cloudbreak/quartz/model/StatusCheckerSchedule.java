@@ -0,0 +1,36 @@
+package com.sequenceiq.cloudbreak.quartz.model;
+
+public class StatusCheckerSchedule {
+
+    private final String localId;
+
+    private final String jobClass;
+
+    private final String remoteResourceCrn;
+
+    public StatusCheckerSchedule(String localId, String jobClass, String remoteResourceCrn) {
+        this.localId = localId;
+        this.jobClass = jobClass;
+        this.remoteResourceCrn = remoteResourceCrn;
+    }
+
+    public String getLocalId() {
+        return localId;
+    }
+
+    public String getJobClass() {
+        return jobClass;
+    }
+
+    public String getRemoteResourceCrn() {
+        return remoteResourceCrn;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusCheckerSchedule{"
+                + "localId='" + localId + '\''
+                + ", jobClass='" + jobClass + '\''
+                + '}';
+    }
+}
@@ -1,5 +1,7 @@
 package com.sequenceiq.cloudbreak.quartz.statuschecker;
 
+import java.time.Duration;
+
 import javax.annotation.PostConstruct;
 
 import org.slf4j.Logger;
@@ -15,9 +17,24 @@ public class StatusCheckerConfig {
     @Value("${statuschecker.intervalsec:180}")
     private int intervalInSeconds;
 
+    @Value("${statuschecker.jittersec:30}")
+    private int jitterInSeconds;
+
     @Value("${statuschecker.enabled:true}")
     private boolean autoSyncEnabled;
 
+    @Value("${statuschecker.batch.enabled:true}")
+    private boolean batchSchedulerEnabled;
+
+    @Value("${statuschecker.batch.size:100}")
+    private int batchSize;
+
+    @Value("${statuschecker.batch.threads:10}")
+    private int batchThreads;
+
+    @Value("${statuschecker.batch.claim.timeout:PT30M}")
+    private Duration claimTimeout;
+
     @PostConstruct
     void logEnablement() {
         LOGGER.info("Auto sync is {}", autoSyncEnabled ? "enabled" : "disabled");
@@ -30,4 +47,24 @@ public class StatusCheckerConfig {
     public int getIntervalInSeconds() {
         return intervalInSeconds;
     }
+
+    public int getJitterInSeconds() {
+        return jitterInSeconds;
+    }
+
+    public boolean isBatchSchedulerEnabled() {
+        return batchSchedulerEnabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBatchThreads() {
+        return batchThreads;
+    }
+
+    public Duration getClaimTimeout() {
+        return claimTimeout;
+    }
 }
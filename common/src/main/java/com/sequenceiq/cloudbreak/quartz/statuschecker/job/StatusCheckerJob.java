@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.quartz.statuschecker.job;
 
+import org.quartz.JobExecutionException;
 import org.springframework.scheduling.quartz.QuartzJobBean;
 
 public abstract class StatusCheckerJob extends QuartzJobBean {
@@ -23,4 +24,11 @@ public abstract class StatusCheckerJob extends QuartzJobBean {
     public void setRemoteResourceCrn(String remoteResourceCrn) {
         this.remoteResourceCrn = remoteResourceCrn;
     }
+
+    /**
+     * Runs the check of the resource for the batch scheduler, which runs the jobs without a Quartz job execution context.
+     */
+    public void executeCheck() throws JobExecutionException {
+        executeInternal(null);
+    }
 }
@@ -0,0 +1,78 @@
+package com.sequenceiq.cloudbreak.quartz.statuschecker.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.sequenceiq.cloudbreak.quartz.model.StatusCheckerSchedule;
+
+/**
+ * Stores the time of the next status check per resource in the {@code statuscheckerschedule} table of the service. A claimed resource
+ * gets its next check time moved to the end of the claim, so the other nodes skip it until the claim is released or expires.
+ */
+@Repository
+public class StatusCheckerScheduleRepository {
+
+    private static final String SAVE = "INSERT INTO statuscheckerschedule (localid, jobclass, remoteresourcecrn, nextcheck) "
+            + "VALUES (:localId, :jobClass, :remoteResourceCrn, :nextCheck) ON CONFLICT (localid) DO UPDATE SET jobclass = EXCLUDED.jobclass, "
+            + "remoteresourcecrn = EXCLUDED.remoteresourcecrn, nextcheck = EXCLUDED.nextcheck";
+
+    private static final String CLAIM_DUE = "UPDATE statuscheckerschedule SET nextcheck = :claimedUntil WHERE localid IN "
+            + "(SELECT localid FROM statuscheckerschedule WHERE nextcheck <= :now ORDER BY nextcheck LIMIT :limit FOR UPDATE SKIP LOCKED) "
+            + "RETURNING localid, jobclass, remoteresourcecrn";
+
+    private static final String RESCHEDULE = "UPDATE statuscheckerschedule SET nextcheck = :nextCheck "
+            + "WHERE localid = :localId AND nextcheck = :claimedUntil";
+
+    private static final String DELETE = "DELETE FROM statuscheckerschedule WHERE localid = :localId";
+
+    private static final String DELETE_ALL = "DELETE FROM statuscheckerschedule";
+
+    @Inject
+    private DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public void save(String localId, String jobClass, String remoteResourceCrn, long nextCheck) {
+        jdbcTemplate.update(SAVE, new MapSqlParameterSource()
+                .addValue("localId", localId)
+                .addValue("jobClass", jobClass)
+                .addValue("remoteResourceCrn", remoteResourceCrn)
+                .addValue("nextCheck", nextCheck));
+    }
+
+    /**
+     * Claims at most {@code limit} resources due for a check until {@code claimedUntil}, the ones locked by an other node are skipped.
+     */
+    public List<StatusCheckerSchedule> claimDue(long now, long claimedUntil, int limit) {
+        return jdbcTemplate.query(CLAIM_DUE, Map.of("now", now, "claimedUntil", claimedUntil, "limit", limit),
+                (rs, rowNum) -> new StatusCheckerSchedule(rs.getString("localid"), rs.getString("jobclass"), rs.getString("remoteresourcecrn")));
+    }
+
+    /**
+     * Releases the claim of the resource by setting its next check time, unless it was rescheduled or unscheduled meanwhile.
+     */
+    public boolean reschedule(String localId, long claimedUntil, long nextCheck) {
+        return jdbcTemplate.update(RESCHEDULE, Map.of("localId", localId, "claimedUntil", claimedUntil, "nextCheck", nextCheck)) > 0;
+    }
+
+    public void delete(String localId) {
+        jdbcTemplate.update(DELETE, Map.of("localId", localId));
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update(DELETE_ALL, Map.of());
+    }
+}
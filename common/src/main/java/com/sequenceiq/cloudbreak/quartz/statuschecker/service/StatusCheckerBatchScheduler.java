@@ -0,0 +1,139 @@
+package com.sequenceiq.cloudbreak.quartz.statuschecker.service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.common.service.Clock;
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+import com.sequenceiq.cloudbreak.quartz.model.StatusCheckerSchedule;
+import com.sequenceiq.cloudbreak.quartz.statuschecker.StatusCheckerConfig;
+import com.sequenceiq.cloudbreak.quartz.statuschecker.job.StatusCheckerJob;
+import com.sequenceiq.cloudbreak.quartz.statuschecker.repository.StatusCheckerScheduleRepository;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Runs the status checks scheduled by {@link StatusCheckerJobService}. Every node claims the due checks in batches, skipping the ones
+ * claimed by the other nodes, so the checks are spread over the nodes without cluster wide locks. A batch is never bigger than the free
+ * capacity of the bounded executor, and the next check of a resource is jittered to keep the checks from bunching up.
+ * <p>
+ * A check runs on a new instance of the job of the resource, like Quartz ran it, so the jobs are the same as before. The claim of a node
+ * which stops during a check expires after {@code statuschecker.batch.claim.timeout}, then the check is run by an other node.
+ */
+@Service
+public class StatusCheckerBatchScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatusCheckerBatchScheduler.class);
+
+    private static final String METRIC_PREFIX = "statuschecker.";
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30L);
+
+    private static final Random RANDOM = new SecureRandom();
+
+    @Inject
+    private StatusCheckerConfig properties;
+
+    @Inject
+    private StatusCheckerScheduleRepository repository;
+
+    @Inject
+    private ApplicationContext applicationContext;
+
+    @Inject
+    private Clock clock;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(properties.getBatchThreads(), properties.getBatchThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getBatchSize()), new ThreadFactoryBuilder().setNameFormat("status-checker-%d").build());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            LOGGER.info("Status checks are still running on shutdown, their claims expire after {}", properties.getClaimTimeout());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${statuschecker.batch.poll.interval.ms:5000}")
+    public void claimDueChecks() {
+        if (!properties.isAutoSyncEnabled() || !properties.isBatchSchedulerEnabled()) {
+            return;
+        }
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            LOGGER.debug("All status checker threads are busy, not claiming new checks");
+            return;
+        }
+        long now = clock.getCurrentTimeMillis();
+        long claimedUntil = now + properties.getClaimTimeout().toMillis();
+        try {
+            List<StatusCheckerSchedule> claimed = repository.claimDue(now, claimedUntil, capacity);
+            if (!claimed.isEmpty()) {
+                LOGGER.debug("Claimed {} status checks", claimed.size());
+                Metrics.counter(METRIC_PREFIX + "claimed").increment(claimed.size());
+                claimed.forEach(schedule -> executor.execute(() -> check(schedule, claimedUntil)));
+            }
+        } catch (DataAccessException e) {
+            LOGGER.warn("Could not claim the due status checks", e);
+        }
+    }
+
+    private void check(StatusCheckerSchedule schedule, long claimedUntil) {
+        try {
+            Class<?> jobClass = ClassUtils.forName(schedule.getJobClass(), applicationContext.getClassLoader());
+            StatusCheckerJob job = (StatusCheckerJob) applicationContext.getAutowireCapableBeanFactory().createBean(jobClass);
+            job.setLocalId(schedule.getLocalId());
+            job.setRemoteResourceCrn(schedule.getRemoteResourceCrn());
+            job.executeCheck();
+        } catch (ClassNotFoundException | LinkageError | ClassCastException e) {
+            LOGGER.error("Unscheduling {}, its job class could not be loaded", schedule, e);
+            repository.delete(schedule.getLocalId());
+            return;
+        } catch (Exception e) {
+            LOGGER.warn("Status check failed: {}", schedule, e);
+            Metrics.counter(METRIC_PREFIX + "failed", "job", ClassUtils.getShortName(schedule.getJobClass())).increment();
+        } finally {
+            MDCBuilder.cleanupMdc();
+        }
+        reschedule(schedule, claimedUntil);
+    }
+
+    private void reschedule(StatusCheckerSchedule schedule, long claimedUntil) {
+        try {
+            if (!repository.reschedule(schedule.getLocalId(), claimedUntil, nextCheck())) {
+                LOGGER.debug("{} was rescheduled or unscheduled during its check", schedule);
+            }
+        } catch (DataAccessException e) {
+            LOGGER.warn("Could not reschedule {}, it is checked again when its claim expires", schedule, e);
+        }
+    }
+
+    private long nextCheck() {
+        long jitter = Duration.ofSeconds(properties.getJitterInSeconds()).toMillis();
+        return clock.getCurrentTimeMillis() + Duration.ofSeconds(properties.getIntervalInSeconds()).toMillis()
+                + (jitter > 0 ? (long) (RANDOM.nextDouble() * jitter) : 0L);
+    }
+}
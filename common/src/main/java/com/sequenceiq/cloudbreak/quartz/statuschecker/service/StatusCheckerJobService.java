@@ -4,41 +4,29 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.security.SecureRandom;
 import java.time.Duration;
-import java.time.ZonedDateTime;
-import java.util.Date;
 import java.util.Random;
 
 import javax.inject.Inject;
 
 import org.quartz.Job;
-import org.quartz.JobBuilder;
-import org.quartz.JobDataMap;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.SimpleScheduleBuilder;
-import org.quartz.Trigger;
-import org.quartz.TriggerBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import com.sequenceiq.cloudbreak.common.service.Clock;
 import com.sequenceiq.cloudbreak.quartz.model.JobResourceAdapter;
-import com.sequenceiq.cloudbreak.quartz.statuschecker.StatusCheckerConfig;
+import com.sequenceiq.cloudbreak.quartz.statuschecker.job.StatusCheckerJob;
+import com.sequenceiq.cloudbreak.quartz.statuschecker.repository.StatusCheckerScheduleRepository;
 
+/**
+ * Schedules the periodic status checks of the resources. Only the next check time of a resource is stored, the checks are claimed and
+ * run in batches by {@link StatusCheckerBatchScheduler}.
+ */
 @Service
 public class StatusCheckerJobService {
 
-    private static final String JOB_GROUP = "status-checker-jobs";
-
-    private static final String TRIGGER_GROUP = "status-checker-triggers";
-
-    private static final String LOCAL_ID = "localId";
-
-    private static final String REMOTE_RESOURCE_CRN = "remoteResourceCrn";
-
     private static final Logger LOGGER = LoggerFactory.getLogger(StatusCheckerJobService.class);
 
     private static final int RANDOM_DELAY = 120;
@@ -46,24 +34,24 @@ public class StatusCheckerJobService {
     private static final Random RANDOM = new SecureRandom();
 
     @Inject
-    private StatusCheckerConfig properties;
+    private StatusCheckerScheduleRepository repository;
 
     @Inject
-    private Scheduler scheduler;
+    private ApplicationContext applicationContext;
 
     @Inject
-    private ApplicationContext applicationContext;
+    private Clock clock;
 
     public <T> void schedule(JobResourceAdapter<T> resource) {
-        JobDetail jobDetail = buildJobDetail(resource.getLocalId(), resource.getRemoteResourceId(), resource.getJobClassForResource());
-        Trigger trigger = buildJobTrigger(jobDetail);
+        Class<? extends Job> jobClass = resource.getJobClassForResource();
+        if (!StatusCheckerJob.class.isAssignableFrom(jobClass)) {
+            LOGGER.error("Status checker job {} of {} does not extend {}", jobClass, resource.getLocalId(), StatusCheckerJob.class.getSimpleName());
+            return;
+        }
         try {
-            if (scheduler.getJobDetail(JobKey.jobKey(resource.getLocalId(), JOB_GROUP)) != null) {
-                unschedule(resource.getLocalId());
-            }
-            scheduler.scheduleJob(jobDetail, trigger);
-        } catch (SchedulerException e) {
-            LOGGER.error(String.format("Error during scheduling quartz job: %s", resource.getLocalId()), e);
+            repository.save(resource.getLocalId(), jobClass.getName(), resource.getRemoteResourceId(), delayedFirstStart());
+        } catch (DataAccessException e) {
+            LOGGER.error(String.format("Error during scheduling status checker job: %s", resource.getLocalId()), e);
         }
     }
 
@@ -73,54 +61,27 @@ public class StatusCheckerJobService {
             JobResourceAdapter resourceAdapter = c.newInstance(id, applicationContext);
             schedule(resourceAdapter);
         } catch (NoSuchMethodException | IllegalAccessException | InstantiationException | InvocationTargetException e) {
-            LOGGER.error(String.format("Error during scheduling quartz job: %s", id), e);
+            LOGGER.error(String.format("Error during scheduling status checker job: %s", id), e);
         }
     }
 
     public void unschedule(String id) {
         try {
-            scheduler.deleteJob(JobKey.jobKey(id, JOB_GROUP));
-        } catch (SchedulerException e) {
-            LOGGER.error(String.format("Error during unscheduling quartz job: %s", id), e);
+            repository.delete(id);
+        } catch (DataAccessException e) {
+            LOGGER.error(String.format("Error during unscheduling status checker job: %s", id), e);
         }
     }
 
     public void deleteAll() {
         try {
-            scheduler.clear();
-        } catch (SchedulerException e) {
-            LOGGER.error("Error during clearing quartz jobs", e);
+            repository.deleteAll();
+        } catch (DataAccessException e) {
+            LOGGER.error("Error during clearing status checker jobs", e);
         }
     }
 
-    private <T> JobDetail buildJobDetail(String sdxId, String crn, Class<? extends Job> clazz) {
-        JobDataMap jobDataMap = new JobDataMap();
-
-        jobDataMap.put(LOCAL_ID, sdxId);
-        jobDataMap.put(REMOTE_RESOURCE_CRN, crn);
-
-        return JobBuilder.newJob(clazz)
-                .withIdentity(sdxId, JOB_GROUP)
-                .withDescription("Checking datalake status Job")
-                .usingJobData(jobDataMap)
-                .storeDurably()
-                .build();
-    }
-
-    private Trigger buildJobTrigger(JobDetail jobDetail) {
-        return TriggerBuilder.newTrigger()
-                .forJob(jobDetail)
-                .withIdentity(jobDetail.getKey().getName(), TRIGGER_GROUP)
-                .withDescription("Checking datalake status Trigger")
-                .startAt(delayedFirstStart())
-                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
-                        .withIntervalInSeconds(properties.getIntervalInSeconds())
-                        .repeatForever()
-                        .withMisfireHandlingInstructionNextWithRemainingCount())
-                .build();
-    }
-
-    private Date delayedFirstStart() {
-        return Date.from(ZonedDateTime.now().toInstant().plus(Duration.ofSeconds(RANDOM.nextInt(RANDOM_DELAY))));
+    private long delayedFirstStart() {
+        return clock.getCurrentTimeMillis() + Duration.ofSeconds(RANDOM.nextInt(RANDOM_DELAY)).toMillis();
     }
 }
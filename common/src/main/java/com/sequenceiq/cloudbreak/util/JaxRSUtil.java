@@ -16,22 +16,26 @@ public class JaxRSUtil {
     }
 
     public static <T> T response(Response response, Class<T> clazz) {
-        if (Family.SUCCESSFUL != response.getStatusInfo().getFamily()) {
-            if (!response.getMediaType().isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+        try {
+            if (Family.SUCCESSFUL != response.getStatusInfo().getFamily() && !isJson(response.getMediaType())) {
                 throw handleUnexpectedError(response);
             }
-        }
-        try {
             response.bufferEntity();
-            return response.readEntity(clazz);
-        } catch (Exception e) {
-            LOGGER.warn("Couldn't parse response: [{}]", response, e);
-            throw handleUnexpectedError(response);
+            try {
+                return response.readEntity(clazz);
+            } catch (Exception e) {
+                LOGGER.warn("Couldn't parse response: [{}]", response, e);
+                throw handleUnexpectedError(response);
+            }
         } finally {
             response.close();
         }
     }
 
+    private static boolean isJson(MediaType mediaType) {
+        return mediaType != null && mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE);
+    }
+
     private static WebApplicationException handleUnexpectedError(Response response) {
         String textResponse = response.readEntity(String.class);
         LOGGER.debug("Received error: {}", textResponse);
@@ -0,0 +1,78 @@
+package com.sequenceiq.cloudbreak.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Limits the rate of calls, e.g. to a cloud provider API. The bucket holds at most {@code capacity} tokens and is refilled continuously
+ * with {@code tokensPerSecond} tokens, every call takes one token, so bursts up to the capacity are allowed and the average rate is limited.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final double capacity;
+
+    private final double tokensPerNano;
+
+    private final LongSupplier nanoTime;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    public TokenBucket(long capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    TokenBucket(long capacity, double tokensPerSecond, LongSupplier nanoTime) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+        this.nanoTime = nanoTime;
+        tokens = capacity;
+        lastRefill = nanoTime.getAsLong();
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes a token, waits at most {@code maxWait} for it to become available.
+     *
+     * @return false if no token became available in time
+     */
+    public boolean tryAcquire(Duration maxWait) throws InterruptedException {
+        long deadline = nanoTime.getAsLong() + maxWait.toNanos();
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens--;
+                    return true;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (nanoTime.getAsLong() + waitNanos > deadline) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
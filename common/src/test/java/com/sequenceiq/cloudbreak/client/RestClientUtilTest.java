@@ -0,0 +1,67 @@
+package com.sequenceiq.cloudbreak.client;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.client.Client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.junit.After;
+import org.junit.Test;
+
+public class RestClientUtilTest {
+
+    @After
+    public void tearDown() {
+        RestClientUtil.closeTlsClients();
+        RestClientUtil.tlsClientCloseGracePeriod = Duration.ofMinutes(1L);
+    }
+
+    @Test
+    public void testTlsClientIsSharedForTheSameTlsConfig() {
+        Client client = RestClientUtil.getTlsClient(null, null, null, false);
+
+        assertSame(client, RestClientUtil.getTlsClient(null, null, null, false));
+    }
+
+    @Test
+    public void testTlsClientsOfDifferentConfigsAreSeparate() {
+        Client client = RestClientUtil.getTlsClient(null, null, null, false);
+
+        assertNotSame(client, RestClientUtil.getTlsClient(null, null, null, true));
+        assertNotSame(client, RestClientUtil.getTlsClient("serverCert", null, null, false));
+    }
+
+    @Test
+    public void testTlsClientWaitsForAPooledConnectionForALimitedTime() {
+        Client client = RestClientUtil.getTlsClient(null, null, null, false);
+
+        RequestConfig requestConfig = (RequestConfig) client.getConfiguration().getProperty(ApacheClientProperties.REQUEST_CONFIG);
+        assertTrue(requestConfig.getConnectionRequestTimeout() > 0);
+    }
+
+    @Test
+    public void testRemovedTlsClientIsUsableDuringTheGracePeriod() {
+        Client client = RestClientUtil.getTlsClient(null, null, null, false);
+
+        RestClientUtil.closeTlsClients();
+
+        client.target("https://localhost");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRemovedTlsClientIsClosedAfterTheGracePeriod() throws Exception {
+        RestClientUtil.tlsClientCloseGracePeriod = Duration.ZERO;
+        Client client = RestClientUtil.getTlsClient(null, null, null, false);
+
+        RestClientUtil.closeTlsClients();
+        RestClientUtil.TLS_CLIENT_CLOSER.schedule(() -> null, 0L, TimeUnit.MILLISECONDS).get();
+
+        client.target("https://localhost");
+    }
+}
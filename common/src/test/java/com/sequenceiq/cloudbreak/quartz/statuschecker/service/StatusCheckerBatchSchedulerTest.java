@@ -0,0 +1,168 @@
+package com.sequenceiq.cloudbreak.quartz.statuschecker.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.context.ApplicationContext;
+
+import com.sequenceiq.cloudbreak.common.service.Clock;
+import com.sequenceiq.cloudbreak.quartz.model.StatusCheckerSchedule;
+import com.sequenceiq.cloudbreak.quartz.statuschecker.StatusCheckerConfig;
+import com.sequenceiq.cloudbreak.quartz.statuschecker.job.StatusCheckerJob;
+import com.sequenceiq.cloudbreak.quartz.statuschecker.repository.StatusCheckerScheduleRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatusCheckerBatchSchedulerTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private static final int BATCH_SIZE = 5;
+
+    private static final int INTERVAL_SEC = 180;
+
+    private static final int JITTER_SEC = 30;
+
+    private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(30L);
+
+    private static final long CLAIMED_UNTIL = NOW + CLAIM_TIMEOUT.toMillis();
+
+    private static final Map<String, String> CHECKED = new ConcurrentHashMap<>();
+
+    @InjectMocks
+    private StatusCheckerBatchScheduler underTest;
+
+    @Mock
+    private StatusCheckerConfig properties;
+
+    @Mock
+    private StatusCheckerScheduleRepository repository;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Mock
+    private Clock clock;
+
+    @Before
+    public void setUp() {
+        CHECKED.clear();
+        when(properties.getBatchThreads()).thenReturn(2);
+        when(properties.getBatchSize()).thenReturn(BATCH_SIZE);
+        when(properties.isAutoSyncEnabled()).thenReturn(true);
+        underTest.init();
+    }
+
+    @Test
+    public void testClaimedChecksAreRunAndRescheduledWithJitter() throws InterruptedException {
+        enableBatchScheduler();
+        enableRescheduling();
+        when(beanFactory.createBean(TestJob.class)).thenAnswer(invocation -> new TestJob());
+        when(repository.claimDue(NOW, CLAIMED_UNTIL, BATCH_SIZE)).thenReturn(List.of(
+                new StatusCheckerSchedule("1", TestJob.class.getName(), "crn1"),
+                new StatusCheckerSchedule("2", TestJob.class.getName(), "crn2")));
+
+        underTest.claimDueChecks();
+        underTest.shutdown();
+
+        assertEquals(Map.of("1", "crn1", "2", "crn2"), CHECKED);
+        ArgumentCaptor<Long> nextCheck = ArgumentCaptor.forClass(Long.class);
+        verify(repository).reschedule(eq("1"), eq(CLAIMED_UNTIL), nextCheck.capture());
+        verify(repository).reschedule(eq("2"), eq(CLAIMED_UNTIL), nextCheck.capture());
+        long interval = Duration.ofSeconds(INTERVAL_SEC).toMillis();
+        long jitter = Duration.ofSeconds(JITTER_SEC).toMillis();
+        assertTrue(nextCheck.getAllValues().stream().allMatch(next -> next >= NOW + interval && next < NOW + interval + jitter));
+    }
+
+    @Test
+    public void testFailedCheckIsRescheduled() throws InterruptedException {
+        enableBatchScheduler();
+        enableRescheduling();
+        when(beanFactory.createBean(FailingJob.class)).thenAnswer(invocation -> new FailingJob());
+        when(repository.claimDue(NOW, CLAIMED_UNTIL, BATCH_SIZE)).thenReturn(List.of(new StatusCheckerSchedule("1", FailingJob.class.getName(), "crn1")));
+
+        underTest.claimDueChecks();
+        underTest.shutdown();
+
+        verify(repository).reschedule(eq("1"), eq(CLAIMED_UNTIL), anyLong());
+    }
+
+    @Test
+    public void testCheckWithUnknownJobClassIsUnscheduled() throws InterruptedException {
+        enableBatchScheduler();
+        when(repository.claimDue(NOW, CLAIMED_UNTIL, BATCH_SIZE)).thenReturn(List.of(new StatusCheckerSchedule("1", "com.example.MissingJob", "crn1")));
+
+        underTest.claimDueChecks();
+        underTest.shutdown();
+
+        verify(repository).delete("1");
+        verify(repository, never()).reschedule(eq("1"), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testNothingIsClaimedWhenTheBatchSchedulerIsDisabled() throws InterruptedException {
+        when(properties.isBatchSchedulerEnabled()).thenReturn(false);
+
+        underTest.claimDueChecks();
+        underTest.shutdown();
+
+        verify(repository, never()).claimDue(anyLong(), anyLong(), anyInt());
+        verifyZeroInteractions(applicationContext);
+    }
+
+    private void enableBatchScheduler() {
+        when(properties.isBatchSchedulerEnabled()).thenReturn(true);
+        when(properties.getClaimTimeout()).thenReturn(CLAIM_TIMEOUT);
+        when(clock.getCurrentTimeMillis()).thenReturn(NOW);
+        when(applicationContext.getClassLoader()).thenReturn(getClass().getClassLoader());
+    }
+
+    private void enableRescheduling() {
+        when(properties.getIntervalInSeconds()).thenReturn(INTERVAL_SEC);
+        when(properties.getJitterInSeconds()).thenReturn(JITTER_SEC);
+        when(applicationContext.getAutowireCapableBeanFactory()).thenReturn(beanFactory);
+    }
+
+    @DisallowConcurrentExecution
+    public static class TestJob extends StatusCheckerJob {
+
+        @Override
+        protected void executeInternal(JobExecutionContext context) {
+            CHECKED.put(getLocalId(), getRemoteResourceCrn());
+        }
+    }
+
+    @DisallowConcurrentExecution
+    public static class FailingJob extends StatusCheckerJob {
+
+        @Override
+        protected void executeInternal(JobExecutionContext context) throws JobExecutionException {
+            throw new JobExecutionException("check failed");
+        }
+    }
+}
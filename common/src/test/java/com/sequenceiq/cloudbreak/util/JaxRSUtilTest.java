@@ -0,0 +1,44 @@
+package com.sequenceiq.cloudbreak.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JaxRSUtilTest {
+
+    @Mock
+    private Response response;
+
+    @Test
+    public void testErrorWithoutMediaTypeIsReportedAndClosed() {
+        when(response.getStatusInfo()).thenReturn(Status.BAD_GATEWAY);
+        when(response.readEntity(String.class)).thenReturn("Bad gateway");
+
+        WebApplicationException exception = assertThrows(WebApplicationException.class, () -> JaxRSUtil.response(response, Object.class));
+
+        assertEquals("Status: 502 Bad Gateway Response: Bad gateway", exception.getMessage());
+        verify(response).close();
+    }
+
+    @Test
+    public void testJsonErrorIsParsedAndClosed() {
+        when(response.getStatusInfo()).thenReturn(Status.BAD_REQUEST);
+        when(response.getMediaType()).thenReturn(MediaType.APPLICATION_JSON_TYPE);
+        when(response.readEntity(String.class)).thenReturn("{}");
+
+        assertEquals("{}", JaxRSUtil.response(response, String.class));
+        verify(response).close();
+    }
+}
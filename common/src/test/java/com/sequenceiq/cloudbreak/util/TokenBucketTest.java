@@ -0,0 +1,66 @@
+package com.sequenceiq.cloudbreak.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+    private static final long CAPACITY = 2L;
+
+    private static final double TOKENS_PER_SECOND = 1.0;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final TokenBucket underTest = new TokenBucket(CAPACITY, TOKENS_PER_SECOND, nanoTime::get);
+
+    @Test
+    public void testBurstUpToTheCapacityIsAllowed() {
+        assertTrue(underTest.tryAcquire());
+        assertTrue(underTest.tryAcquire());
+        assertFalse(underTest.tryAcquire());
+    }
+
+    @Test
+    public void testTokensAreRefilledWithTheRate() {
+        underTest.tryAcquire();
+        underTest.tryAcquire();
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(500L));
+        assertFalse(underTest.tryAcquire());
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(500L));
+        assertTrue(underTest.tryAcquire());
+        assertFalse(underTest.tryAcquire());
+    }
+
+    @Test
+    public void testTokensAreNotRefilledOverTheCapacity() {
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(1L));
+
+        assertTrue(underTest.tryAcquire());
+        assertTrue(underTest.tryAcquire());
+        assertFalse(underTest.tryAcquire());
+    }
+
+    @Test
+    public void testWaitingForTokenGivesUpAfterTheMaxWait() throws InterruptedException {
+        underTest.tryAcquire();
+        underTest.tryAcquire();
+
+        assertFalse(underTest.tryAcquire(Duration.ofMillis(100L)));
+    }
+
+    @Test
+    public void testWaitingForTokenSucceedsWhenItIsRefilledInTime() throws InterruptedException {
+        TokenBucket fastBucket = new TokenBucket(1L, TimeUnit.SECONDS.toMillis(1L));
+        fastBucket.tryAcquire();
+
+        assertTrue(fastBucket.tryAcquire(Duration.ofSeconds(1L)));
+    }
+}
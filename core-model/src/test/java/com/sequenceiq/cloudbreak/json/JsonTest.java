@@ -10,6 +10,8 @@ import org.junit.Test;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.sequenceiq.cloudbreak.common.json.Json;
 
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
 import net.sf.json.JSONObject;
 
 public class JsonTest {
@@ -66,4 +68,82 @@ public class JsonTest {
 
         Assert.assertThat(value, is("value"));
     }
+
+    @Test
+    public void testGetValueOfMissingProperty() {
+        Json json = new Json("{\"depth1\":{\"depth2\":\"value\"}}");
+
+        Assert.assertNull(json.getValue("depth1.other"));
+        Assert.assertNull(json.getValue("other"));
+    }
+
+    @Test
+    public void testGetValueWithMissingParent() {
+        Json json = new Json("{\"depth1\":{\"depth2\":\"value\"}}");
+
+        Assert.assertNull(json.getValue("other.depth2"));
+    }
+
+    @Test(expected = JSONException.class)
+    public void testGetValueWithParentWhichIsNotAnObject() {
+        new Json("{\"depth1\":{\"depth2\":\"value\"}}").getValue("depth1.depth2.depth3");
+    }
+
+    @Test
+    public void testGetValueOfJsonLikeString() {
+        Json json = new Json("{\"list\":\"[1,2]\",\"array\":[1,2]}");
+
+        String stringValue = json.getValue("list");
+        JSONArray arrayValue = json.getValue("array");
+
+        Assert.assertThat(stringValue, is("[1,2]"));
+        Assert.assertThat(arrayValue.size(), is(2));
+    }
+
+    @Test
+    public void testValueIsParsedAgainAfterReplace() {
+        Json json = new Json("{\"depth1\":{\"depth2\":\"value\"}}");
+        Assert.assertThat(json.getValue("depth1.depth2"), is("value"));
+
+        json.replaceValue("depth1.depth2", "newValue");
+
+        Assert.assertThat(json.getValue("depth1.depth2"), is("newValue"));
+        Assert.assertThat(json.getMap().get("depth1"), is(Map.of("depth2", "newValue")));
+    }
+
+    @Test
+    public void testValueIsParsedAgainAfterRemove() {
+        Json json = new Json("{\"key1\":\"value1\",\"key2\":\"value2\"}");
+        Assert.assertThat(json.getMap().size(), is(2));
+
+        json.remove("key1");
+
+        Assert.assertThat(json.getMap(), is(Map.of("key2", "value2")));
+        Assert.assertNull(json.getValue("key1"));
+    }
+
+    @Test
+    public void testEveryReadReturnsNewInstance() {
+        Json json = new Json("{\"key\":\"value\"}");
+
+        json.getMap().put("other", "value");
+
+        Assert.assertThat(json.getMap(), is(Map.of("key", "value")));
+    }
+
+    @Test
+    public void testLastDuplicatedKeyWins() {
+        Json json = new Json("{\"key\":\"value1\",\"key\":\"value2\"}");
+
+        Assert.assertThat(json.getMap(), is(Map.of("key", "value2")));
+        Assert.assertThat(json.getValue("key"), is("value2"));
+    }
+
+    @Test
+    public void testInvalidJson() {
+        Json json = new Json("not a json");
+
+        Assert.assertTrue(json.getMap().isEmpty());
+        Assert.assertFalse(json.isObject());
+    }
 }
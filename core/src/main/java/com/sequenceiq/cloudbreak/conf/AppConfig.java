@@ -43,6 +43,8 @@ import org.springframework.web.filter.GenericFilterBean;
 
 import com.sequenceiq.cloudbreak.client.ConfigKey;
 import com.sequenceiq.cloudbreak.client.RestClientUtil;
+import com.sequenceiq.cloudbreak.common.concurrent.SmallStackThreadFactory;
+import com.sequenceiq.cloudbreak.common.concurrent.ThreadPoolMode;
 import com.sequenceiq.cloudbreak.common.mappable.CloudPlatform;
 import com.sequenceiq.cloudbreak.concurrent.MDCCleanerTaskDecorator;
 import com.sequenceiq.cloudbreak.converter.v4.environment.network.EnvironmentNetworkConverter;
@@ -63,6 +65,10 @@ public class AppConfig implements ResourceLoaderAware {
 
     private static final int AWAIT_TERMINATION_SECONDS = 60;
 
+    private static final int ELASTIC_KEEP_ALIVE_SECONDS = 60;
+
+    private static final long BYTES_IN_KB = 1024L;
+
     @Value("${cb.etc.config.dir:}")
     private String etcConfigDir;
 
@@ -75,6 +81,15 @@ public class AppConfig implements ResourceLoaderAware {
     @Value("${cb.threadpool.capacity.size:}")
     private int queueCapacity;
 
+    @Value("${cb.threadpool.mode:FIXED}")
+    private ThreadPoolMode threadPoolMode;
+
+    @Value("${cb.threadpool.elastic.max.size:1000}")
+    private int elasticMaxPoolSize;
+
+    @Value("${cb.threadpool.elastic.stack.size.kb:512}")
+    private long elasticStackSizeKb;
+
     @Value("${cb.intermediate.threadpool.core.size:}")
     private int intermediateCorePoolSize;
 
@@ -189,7 +204,16 @@ public class AppConfig implements ResourceLoaderAware {
     @Bean
     public AsyncTaskExecutor resourceBuilderExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(corePoolSize);
+        if (threadPoolMode == ThreadPoolMode.ELASTIC) {
+            LOGGER.info("Resource builder executor runs in elastic mode with at most {} threads", elasticMaxPoolSize);
+            executor.setCorePoolSize(elasticMaxPoolSize);
+            executor.setMaxPoolSize(elasticMaxPoolSize);
+            executor.setKeepAliveSeconds(ELASTIC_KEEP_ALIVE_SECONDS);
+            executor.setAllowCoreThreadTimeOut(true);
+            executor.setThreadFactory(new SmallStackThreadFactory("resourceBuilderExecutor-", elasticStackSizeKb * BYTES_IN_KB));
+        } else {
+            executor.setCorePoolSize(corePoolSize);
+        }
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("resourceBuilderExecutor-");
         executor.setTaskDecorator(new MDCCleanerTaskDecorator());
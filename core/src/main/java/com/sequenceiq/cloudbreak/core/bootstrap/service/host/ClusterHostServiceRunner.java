@@ -96,6 +96,8 @@ import com.sequenceiq.cloudbreak.service.environment.EnvironmentConfigProvider;
 import com.sequenceiq.cloudbreak.service.hostgroup.HostGroupService;
 import com.sequenceiq.cloudbreak.service.proxy.ProxyConfigProvider;
 import com.sequenceiq.cloudbreak.service.rdsconfig.RdsConfigService;
+import com.sequenceiq.cloudbreak.service.secret.cache.SecretReadScope;
+import com.sequenceiq.cloudbreak.service.secret.service.SecretService;
 import com.sequenceiq.cloudbreak.service.stack.InstanceMetaDataService;
 import com.sequenceiq.cloudbreak.service.stack.StackService;
 import com.sequenceiq.cloudbreak.service.stack.flow.MountDisks;
@@ -115,6 +117,8 @@ public class ClusterHostServiceRunner {
 
     private static final int CM_HTTPS_PORT = 7183;
 
+    private static final String SECRET_READ_SCOPE = "salt-pillar";
+
     @Value("${cb.cm.heartbeat.interval}")
     private String cmHeartbeatInterval;
 
@@ -157,6 +161,9 @@ public class ClusterHostServiceRunner {
     @Inject
     private RdsConfigService rdsConfigService;
 
+    @Inject
+    private SecretService secretService;
+
     @Inject
     private StackUtil stackUtil;
 
@@ -285,6 +292,16 @@ public class ClusterHostServiceRunner {
     private SaltConfig createSaltConfig(Stack stack, Cluster cluster, GatewayConfig primaryGatewayConfig, Iterable<GatewayConfig> gatewayConfigs,
             Set<Node> nodes)
             throws IOException, CloudbreakOrchestratorException {
+        try (SecretReadScope ignored = SecretReadScope.open(SECRET_READ_SCOPE)) {
+            secretService.prefetch(cluster, cluster.getGateway(), cluster.getIdBroker(), stack.getSecurityConfig(),
+                    rdsConfigService.findByClusterId(cluster.getId()));
+            return createSaltConfigWithPrefetchedSecrets(stack, cluster, primaryGatewayConfig, gatewayConfigs, nodes);
+        }
+    }
+
+    private SaltConfig createSaltConfigWithPrefetchedSecrets(Stack stack, Cluster cluster, GatewayConfig primaryGatewayConfig,
+            Iterable<GatewayConfig> gatewayConfigs, Set<Node> nodes)
+            throws IOException, CloudbreakOrchestratorException {
         ClouderaManagerRepo clouderaManagerRepo = clusterComponentConfigProvider.getClouderaManagerRepoDetails(cluster.getId());
         Map<String, SaltPillarProperties> servicePillar = new HashMap<>();
         KerberosConfig kerberosConfig = kerberosConfigService.get(stack.getEnvironmentCrn(), stack.getName()).orElse(null);
@@ -9,7 +9,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import com.cedarsoftware.util.io.JsonReader;
 import com.sequenceiq.cloudbreak.core.flow2.chain.FlowChainTriggers;
 import com.sequenceiq.cloudbreak.core.flow2.cluster.termination.ClusterTerminationState;
 import com.sequenceiq.cloudbreak.core.flow2.stack.termination.StackTerminationState;
@@ -20,6 +19,7 @@ import com.sequenceiq.flow.core.ApplicationFlowInformation;
 import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.service.FlowCancelService;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 @Service
 public class TerminationTriggerService {
@@ -41,6 +41,9 @@ public class TerminationTriggerService {
     @Inject
     private ApplicationFlowInformation applicationFlowInformation;
 
+    @Inject
+    private FlowPayloadSerializer flowPayloadSerializer;
+
     public void triggerTermination(Stack stack, boolean forced) {
         flowCancelService.cancelTooOldTerminationFlowForResource(stack.getId(), stack.getName());
         if (!stack.isDeleteCompleted() || stack.getTerminated() == null) {
@@ -87,7 +90,7 @@ public class TerminationTriggerService {
     private boolean isRunningFlowForced(FlowLog fl) {
         Class<?> payloadType = fl.getPayloadType();
         if (TerminationEvent.class.equals(payloadType)) {
-            TerminationEvent payload = (TerminationEvent) JsonReader.jsonToJava(fl.getPayload());
+            TerminationEvent payload = (TerminationEvent) flowPayloadSerializer.deserialize(fl.getCodec(), fl.getPayload());
             return Boolean.TRUE.equals(payload.getForced());
         } else {
             LOGGER.warn("Payloadtype [{}] is not 'TerminationEvent' for flow [{}]", fl.getPayloadType(), fl.getFlowId());
@@ -6,14 +6,12 @@ import java.security.KeyPair;
 import java.security.cert.X509Certificate;
 import java.util.Optional;
 
-import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.google.common.io.BaseEncoding;
@@ -35,7 +33,8 @@ import com.sequenceiq.cloudbreak.orchestrator.model.GatewayConfig;
 import com.sequenceiq.cloudbreak.service.securityconfig.SecurityConfigService;
 import com.sequenceiq.cloudbreak.service.stack.InstanceMetaDataService;
 import com.sequenceiq.cloudbreak.service.stack.StackService;
-import com.sequenceiq.cloudbreak.util.FixedSizePreloadCache;
+import com.sequenceiq.cloudbreak.util.KeyPairPool;
+import com.sequenceiq.cloudbreak.util.KeyPairType;
 import com.sequenceiq.cloudbreak.util.PasswordUtil;
 import com.sequenceiq.cloudbreak.workspace.model.Workspace;
 
@@ -62,15 +61,8 @@ public class TlsSecurityService {
     @Inject
     private ClusterProxyService clusterProxyService;
 
-    @Value("${cb.security.keypair.cache.size:10}")
-    private int keyPairCacheSize;
-
-    private FixedSizePreloadCache<KeyPair> keyPairCache;
-
-    @PostConstruct
-    public void init() {
-        keyPairCache = new FixedSizePreloadCache<>(keyPairCacheSize, PkiUtil::generateKeypair);
-    }
+    @Inject
+    private KeyPairPool keyPairPool;
 
     @Measure(TlsSecurityService.class)
     public SecurityConfig generateSecurityKeys(Workspace workspace) {
@@ -82,9 +74,9 @@ public class TlsSecurityService {
         saltSecurityConfig.setSaltPassword(PasswordUtil.generatePassword());
         securityConfig.setSaltSecurityConfig(saltSecurityConfig);
 
-        setClientKeys(securityConfig, keyPairCache.pop(), keyPairCache.pop());
-        setSaltBootSignKeypair(saltSecurityConfig, convertKeyPair(keyPairCache.pop()));
-        setSaltSignKeypair(securityConfig, convertKeyPair(keyPairCache.pop()));
+        setClientKeys(securityConfig, keyPairPool.take(KeyPairType.RSA_2048), keyPairPool.take(KeyPairType.RSA_2048));
+        setSaltBootSignKeypair(saltSecurityConfig, convertKeyPair(keyPairPool.take(KeyPairType.RSA_2048)));
+        setSaltSignKeypair(securityConfig, convertKeyPair(keyPairPool.take(KeyPairType.RSA_2048)));
 
         return securityConfig;
     }
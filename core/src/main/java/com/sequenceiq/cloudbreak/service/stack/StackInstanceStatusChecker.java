@@ -14,7 +14,7 @@ import javax.inject.Inject;
 import org.springframework.stereotype.Service;
 
 import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
-import com.sequenceiq.cloudbreak.cloud.handler.InstanceStateQuery;
+import com.sequenceiq.cloudbreak.cloud.handler.AggregatedInstanceStateQuery;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
 import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
 import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
@@ -34,7 +34,7 @@ public class StackInstanceStatusChecker {
     private InstanceMetaDataToCloudInstanceConverter cloudInstanceConverter;
 
     @Inject
-    private InstanceStateQuery instanceStateQuery;
+    private AggregatedInstanceStateQuery aggregatedInstanceStateQuery;
 
     @Inject
     private EnvironmentInternalCrnClient environmentInternalCrnClient;
@@ -54,16 +54,20 @@ public class StackInstanceStatusChecker {
             CloudContext cloudContext = new CloudContext(stack.getId(), stack.getName(), stack.cloudPlatform(), stack.getPlatformVariant(),
                     location, stack.getCreator().getUserId(), stack.getWorkspace().getId());
             CloudCredential cloudCredential = getCloudCredential(stack.getEnvironmentCrn());
-            result = getCloudVmInstanceStatuses(cloudInstances, cloudContext, cloudCredential);
+            result = getCloudVmInstanceStatuses(cloudInstances, cloudContext, cloudCredential, getStatusChangedAt(stack));
         }
         return result;
     }
 
+    private long getStatusChangedAt(Stack stack) {
+        return stack.getStackStatus() != null && stack.getStackStatus().getCreated() != null ? stack.getStackStatus().getCreated() : 0L;
+    }
+
     private List<CloudVmInstanceStatus> getCloudVmInstanceStatuses(List<CloudInstance> cloudInstances,
-            CloudContext cloudContext, CloudCredential cloudCredential) {
+            CloudContext cloudContext, CloudCredential cloudCredential, long statusChangedAt) {
         List<CloudVmInstanceStatus> instanceStatuses;
         try {
-            instanceStatuses = instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(cloudCredential, cloudContext, cloudInstances);
+            instanceStatuses = aggregatedInstanceStateQuery.getCloudVmInstanceStatuses(cloudCredential, cloudContext, cloudInstances, statusChangedAt);
         } catch (RuntimeException e) {
             instanceStatuses = cloudInstances.stream()
                     .map(instance -> new CloudVmInstanceStatus(instance, InstanceStatus.UNKNOWN))
@@ -0,0 +1,213 @@
+package com.sequenceiq.cloudbreak.converter.v4.stacks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.api.endpoint.v4.stacks.base.InstanceStatus;
+import com.sequenceiq.cloudbreak.api.endpoint.v4.stacks.response.PlacementSettingsV4Response;
+import com.sequenceiq.cloudbreak.api.endpoint.v4.stacks.response.StackV4Response;
+import com.sequenceiq.cloudbreak.api.endpoint.v4.stacks.response.customdomain.CustomDomainSettingsV4Response;
+import com.sequenceiq.cloudbreak.api.util.ConverterUtil;
+import com.sequenceiq.cloudbreak.cloud.model.CloudbreakDetails;
+import com.sequenceiq.cloudbreak.cloud.model.Image;
+import com.sequenceiq.cloudbreak.common.json.Json;
+import com.sequenceiq.cloudbreak.common.mappable.ProviderParameterCalculator;
+import com.sequenceiq.cloudbreak.converter.AbstractConversionServiceAwareConverter;
+import com.sequenceiq.cloudbreak.converter.v4.stacks.instancegroup.InstanceGroupToInstanceGroupV4ResponseConverter;
+import com.sequenceiq.cloudbreak.converter.v4.stacks.instancegroup.InstanceMetaDataToInstanceMetaDataV4ResponseConverter;
+import com.sequenceiq.cloudbreak.converter.v4.stacks.instancegroup.template.TemplateToInstanceTemplateV4ResponseConverter;
+import com.sequenceiq.cloudbreak.converter.v4.stacks.network.NetworkToNetworkV4ResponseConverter;
+import com.sequenceiq.cloudbreak.domain.Network;
+import com.sequenceiq.cloudbreak.domain.Template;
+import com.sequenceiq.cloudbreak.domain.stack.Stack;
+import com.sequenceiq.cloudbreak.domain.stack.cluster.DatalakeResources;
+import com.sequenceiq.cloudbreak.domain.stack.instance.InstanceGroup;
+import com.sequenceiq.cloudbreak.domain.stack.instance.InstanceMetaData;
+import com.sequenceiq.cloudbreak.service.ComponentConfigProviderService;
+import com.sequenceiq.cloudbreak.service.datalake.DatalakeResourcesService;
+import com.sequenceiq.cloudbreak.service.image.ImageService;
+import com.sequenceiq.common.api.telemetry.model.Telemetry;
+import com.sequenceiq.common.api.type.InstanceGroupType;
+
+/**
+ * Converts a stack to its response with the real converters of the parts reading json columns: tags, network, instance groups, templates
+ * and instance metadata. The services return nothing and the rest of the nested responses are created empty. SAME_ENTITY converts the same
+ * stack again and again, like the entities kept in the persistence context, FRESH_ENTITY gets new json columns before every conversion,
+ * like a stack loaded from the database.
+ * Run with {@code ./gradlew :core:benchmark -PbenchmarkIncludes=StackToStackV4ResponseConverterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StackToStackV4ResponseConverterBenchmark {
+
+    private static final String CLOUD_PLATFORM = "AWS";
+
+    private static final int INSTANCE_GROUP_COUNT = 3;
+
+    private static final int INSTANCE_COUNT = 10;
+
+    @Param({"SAME_ENTITY", "FRESH_ENTITY"})
+    private String entity;
+
+    private StackToStackV4ResponseConverter underTest;
+
+    private Stack stack;
+
+    @Setup
+    public void setUp() {
+        GenericConversionService conversionService = new GenericConversionService();
+        ProviderParameterCalculator providerParameterCalculator = new ProviderParameterCalculator();
+        ConverterUtil converterUtil = new ConverterUtil();
+        ReflectionTestUtils.setField(converterUtil, "conversionService", conversionService);
+
+        underTest = register(new StackToStackV4ResponseConverter(), conversionService);
+        ReflectionTestUtils.setField(underTest, "imageService", new ImageService() {
+            @Override
+            public Image getImage(Long stackId) {
+                return null;
+            }
+        });
+        ReflectionTestUtils.setField(underTest, "componentConfigProviderService", new ComponentConfigProviderService() {
+            @Override
+            public Telemetry getTelemetry(Long stackId) {
+                return null;
+            }
+
+            @Override
+            public CloudbreakDetails getCloudbreakDetails(Long stackId) {
+                return null;
+            }
+        });
+        ReflectionTestUtils.setField(underTest, "datalakeResourcesService", new DatalakeResourcesService() {
+            @Override
+            public Optional<DatalakeResources> findByDatalakeStackId(Long datalakeStackId) {
+                return Optional.empty();
+            }
+        });
+        ReflectionTestUtils.setField(underTest, "telemetryConverter", mock(TelemetryConverter.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(underTest, "converterUtil", converterUtil);
+        ReflectionTestUtils.setField(underTest, "providerParameterCalculator", providerParameterCalculator);
+        register(new StackTagsToTagsV4ResponseConverter(), conversionService);
+        NetworkToNetworkV4ResponseConverter networkConverter = register(new NetworkToNetworkV4ResponseConverter(), conversionService);
+        ReflectionTestUtils.setField(networkConverter, "providerParameterCalculator", providerParameterCalculator);
+        InstanceGroupToInstanceGroupV4ResponseConverter instanceGroupConverter =
+                register(new InstanceGroupToInstanceGroupV4ResponseConverter(), conversionService);
+        ReflectionTestUtils.setField(instanceGroupConverter, "converterUtil", converterUtil);
+        ReflectionTestUtils.setField(instanceGroupConverter, "providerParameterCalculator", providerParameterCalculator);
+        TemplateToInstanceTemplateV4ResponseConverter templateConverter =
+                register(new TemplateToInstanceTemplateV4ResponseConverter(), conversionService);
+        ReflectionTestUtils.setField(templateConverter, "providerParameterCalculator", providerParameterCalculator);
+        register(new InstanceMetaDataToInstanceMetaDataV4ResponseConverter(), conversionService);
+        conversionService.addConverter(Stack.class, PlacementSettingsV4Response.class, source -> new PlacementSettingsV4Response());
+        conversionService.addConverter(Stack.class, CustomDomainSettingsV4Response.class, source -> new CustomDomainSettingsV4Response());
+
+        stack = createStack();
+    }
+
+    @Benchmark
+    public StackV4Response convert() {
+        if ("FRESH_ENTITY".equals(entity)) {
+            reloadJsonColumns();
+        }
+        return underTest.convert(stack);
+    }
+
+    private <T extends AbstractConversionServiceAwareConverter<?, ?>> T register(T converter, GenericConversionService conversionService) {
+        ReflectionTestUtils.setField(converter, "conversionService", conversionService);
+        conversionService.addConverter(converter);
+        return converter;
+    }
+
+    private void reloadJsonColumns() {
+        stack.setTags(new Json(stack.getTags().getValue()));
+        stack.getNetwork().setAttributes(new Json(stack.getNetwork().getAttributes().getValue()));
+        for (InstanceGroup instanceGroup : stack.getInstanceGroups()) {
+            instanceGroup.setAttributes(new Json(instanceGroup.getAttributes().getValue()));
+            instanceGroup.getTemplate().setAttributes(new Json(instanceGroup.getTemplate().getAttributes().getValue()));
+        }
+    }
+
+    private Stack createStack() {
+        Stack stack = new Stack();
+        stack.setId(1L);
+        stack.setName("benchmark-stack");
+        stack.setCloudPlatform(CLOUD_PLATFORM);
+        stack.setParameters(Map.of());
+        stack.setTags(new Json(Map.of(
+                "userDefinedTags", tags("user", INSTANCE_COUNT),
+                "applicationTags", tags("application", INSTANCE_COUNT),
+                "defaultTags", tags("default", INSTANCE_COUNT))));
+        Network network = new Network();
+        network.setCloudPlatform(CLOUD_PLATFORM);
+        network.setAttributes(new Json(Map.of(
+                "vpcId", "vpc-0a1b2c3d4e5f",
+                "subnetId", "subnet-0a1b2c3d4e5f",
+                "internetGatewayId", "igw-0a1b2c3d4e5f",
+                "cloudPlatform", CLOUD_PLATFORM)));
+        stack.setNetwork(network);
+        Set<InstanceGroup> instanceGroups = new HashSet<>();
+        for (int i = 0; i < INSTANCE_GROUP_COUNT; i++) {
+            instanceGroups.add(createInstanceGroup("group" + i));
+        }
+        stack.setInstanceGroups(instanceGroups);
+        return stack;
+    }
+
+    private InstanceGroup createInstanceGroup(String groupName) {
+        InstanceGroup instanceGroup = new InstanceGroup();
+        instanceGroup.setGroupName(groupName);
+        instanceGroup.setInstanceGroupType(InstanceGroupType.CORE);
+        instanceGroup.setAttributes(new Json(Map.of("cloudPlatform", CLOUD_PLATFORM, "spotPercentage", 0)));
+        Template template = new Template();
+        template.setCloudPlatform(CLOUD_PLATFORM);
+        template.setInstanceType("m5.2xlarge");
+        template.setVolumeTemplates(new HashSet<>());
+        template.setAttributes(new Json(Map.of("cloudPlatform", CLOUD_PLATFORM, "encryption", Map.of("type", "DEFAULT"))));
+        instanceGroup.setTemplate(template);
+        Set<InstanceMetaData> instanceMetaDataSet = new HashSet<>();
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            InstanceMetaData instanceMetaData = new InstanceMetaData();
+            instanceMetaData.setId((long) i);
+            instanceMetaData.setInstanceGroup(instanceGroup);
+            instanceMetaData.setInstanceStatus(InstanceStatus.SERVICES_HEALTHY);
+            instanceMetaData.setPrivateIp("10.0.0." + i);
+            instanceMetaData.setDiscoveryFQDN(groupName + i + ".benchmark.cloudera.site");
+            instanceMetaDataSet.add(instanceMetaData);
+        }
+        instanceGroup.setInstanceMetaData(instanceMetaDataSet);
+        return instanceGroup;
+    }
+
+    private Map<String, String> tags(String prefix, int count) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            tags.put(prefix + "-key-" + i, prefix + "-value-" + i);
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,108 @@
+package com.sequenceiq.cloudbreak.core.flow2;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.type.ClusterManagerType;
+import com.sequenceiq.cloudbreak.core.flow2.event.ClusterScaleTriggerEvent;
+import com.sequenceiq.cloudbreak.reactor.api.event.StackEvent;
+import com.sequenceiq.flow.conf.JsonIoConfig;
+import com.sequenceiq.flow.service.flowlog.codec.BinaryFlowPayloadCodec;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadCodec;
+import com.sequenceiq.flow.service.flowlog.codec.JsonIoFlowPayloadCodec;
+
+/**
+ * Compares the flow log payload codecs on real flow payloads. Run with {@code ./gradlew :core:benchmark -PbenchmarkIncludes=FlowPayloadCodecBenchmark}.
+ * Besides throughput, the encoded size of every payload is logged during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlowPayloadCodecBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowPayloadCodecBenchmark.class);
+
+    @Param({"JSON_IO", "BINARY"})
+    private String codecType;
+
+    @Param({"10", "200"})
+    private int hostCount;
+
+    private FlowPayloadCodec codec;
+
+    private StackEvent stackEvent;
+
+    private ClusterScaleTriggerEvent scaleEvent;
+
+    private Map<Object, Object> variables;
+
+    private String encodedScaleEvent;
+
+    @Setup
+    public void setUp() {
+        JsonIoConfig jsonIoConfig = new JsonIoConfig();
+        jsonIoConfig.setupJsonReader();
+        if ("BINARY".equals(codecType)) {
+            codec = new BinaryFlowPayloadCodec();
+            ReflectionTestUtils.setField(codec, "compressionEnabled", true);
+            ReflectionTestUtils.setField(codec, "compressionThreshold", 2048);
+        } else {
+            codec = new JsonIoFlowPayloadCodec();
+            ReflectionTestUtils.setField(codec, "writeOptions", jsonIoConfig.getCustomWriteOptions());
+        }
+        Set<String> hostNames = new LinkedHashSet<>();
+        for (int i = 0; i < hostCount; i++) {
+            hostNames.add(String.format("worker%d.cluster-name.xcu2-8y8x.dev.cldr.work", i));
+        }
+        stackEvent = new StackEvent("STACK_SYNC_EVENT", 1234L);
+        scaleEvent = new ClusterScaleTriggerEvent("CLUSTER_UPSCALE_TRIGGER_EVENT", 1234L, "worker", hostCount, hostNames,
+                false, true, false, true, ClusterManagerType.CLOUDERA_MANAGER);
+        variables = new HashMap<>();
+        variables.put("REPEATED", 2);
+        variables.put("HOST_NAMES", hostNames);
+        encodedScaleEvent = codec.encode(scaleEvent);
+        LOGGER.info("{} encoded sizes with {} hosts: StackEvent={}, ClusterScaleTriggerEvent={}, variables={} characters", codecType, hostCount,
+                codec.encode(stackEvent).length(), encodedScaleEvent.length(), codec.encode(variables).length());
+    }
+
+    @Benchmark
+    public String encodeStackEvent() {
+        return codec.encode(stackEvent);
+    }
+
+    @Benchmark
+    public String encodeClusterScaleTriggerEvent() {
+        return codec.encode(scaleEvent);
+    }
+
+    @Benchmark
+    public String encodeVariables() {
+        return codec.encode(variables);
+    }
+
+    @Benchmark
+    public Object decodeClusterScaleTriggerEvent() {
+        return codec.decode(encodedScaleEvent);
+    }
+}
@@ -21,6 +21,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.cedarsoftware.util.io.JsonReader;
 import com.cedarsoftware.util.io.JsonWriter;
 import com.sequenceiq.cloudbreak.api.endpoint.v4.common.Status;
 import com.sequenceiq.cloudbreak.common.event.Acceptable;
@@ -36,6 +37,7 @@ import com.sequenceiq.flow.core.ApplicationFlowInformation;
 import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.service.FlowCancelService;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TerminationTriggerServiceTest {
@@ -57,6 +59,9 @@ public class TerminationTriggerServiceTest {
     @Mock
     private ApplicationFlowInformation applicationFlowInformation;
 
+    @Mock
+    private FlowPayloadSerializer flowPayloadSerializer;
+
     @InjectMocks
     private TerminationTriggerService underTest;
 
@@ -160,6 +165,7 @@ public class TerminationTriggerServiceTest {
 
     @Test
     public void whenStackNotDeletedAndNotForcedTerminationFlowLogAndNotForcedShouldNotTerminate() {
+        setupPayloadDeserialization();
         when(flowLogService.findAllByResourceIdAndFinalizedIsFalseOrderByCreatedDesc(anyLong())).thenReturn(List.of(getTerminationFlowLog(false)));
 
         underTest.triggerTermination(getAvailableStack(), false);
@@ -169,6 +175,7 @@ public class TerminationTriggerServiceTest {
 
     @Test
     public void whenStackNotDeletedAndForcedTerminationFlowLogAndNotForcedShouldNotTerminate() {
+        setupPayloadDeserialization();
         when(flowLogService.findAllByResourceIdAndFinalizedIsFalseOrderByCreatedDesc(anyLong())).thenReturn(List.of(getTerminationFlowLog(true)));
 
         underTest.triggerTermination(getAvailableStack(), false);
@@ -178,6 +185,7 @@ public class TerminationTriggerServiceTest {
 
     @Test
     public void whenStackNotDeletedAndForcedTerminationFlowLogAndForcedShouldNotTerminate() {
+        setupPayloadDeserialization();
         when(flowLogService.findAllByResourceIdAndFinalizedIsFalseOrderByCreatedDesc(anyLong())).thenReturn(List.of(getTerminationFlowLog(true)));
 
         underTest.triggerTermination(getAvailableStack(), true);
@@ -187,6 +195,7 @@ public class TerminationTriggerServiceTest {
 
     @Test
     public void whenStackNotDeletedAndNotForcedTerminationFlowLogAndForcedShouldTerminate() {
+        setupPayloadDeserialization();
         FlowLog flowLog = getTerminationFlowLog(false);
         when(flowLogService.findAllByResourceIdAndFinalizedIsFalseOrderByCreatedDesc(anyLong())).thenReturn(List.of(flowLog));
         setupKerberized();
@@ -254,6 +263,10 @@ public class TerminationTriggerServiceTest {
         verify(flowCancelService, never()).cancelRunningFlows(anyLong());
     }
 
+    private void setupPayloadDeserialization() {
+        when(flowPayloadSerializer.deserialize(any(), anyString())).thenAnswer(invocation -> JsonReader.jsonToJava(invocation.getArgument(1)));
+    }
+
     private void setupKerberized() {
         when(kerberosConfigService.isKerberosConfigExistsForEnvironment(anyString(), anyString())).thenReturn(Boolean.TRUE);
     }
@@ -1,6 +1,7 @@
 package com.sequenceiq.cloudbreak.service.stack;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -18,7 +19,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.sequenceiq.cloudbreak.TestUtil;
-import com.sequenceiq.cloudbreak.cloud.handler.InstanceStateQuery;
+import com.sequenceiq.cloudbreak.cloud.handler.AggregatedInstanceStateQuery;
 import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
 import com.sequenceiq.cloudbreak.cloud.model.InstanceStatus;
 import com.sequenceiq.cloudbreak.converter.spi.CredentialToCloudCredentialConverter;
@@ -40,7 +41,7 @@ class StackInstanceStatusCheckerTest {
     private InstanceMetaDataToCloudInstanceConverter cloudInstanceConverter;
 
     @Mock
-    private InstanceStateQuery instanceStateQuery;
+    private AggregatedInstanceStateQuery aggregatedInstanceStateQuery;
 
     @Mock
     private EnvironmentInternalCrnClient environmentInternalCrnClient;
@@ -76,8 +77,7 @@ class StackInstanceStatusCheckerTest {
     void shouldNotQueryWithEmptyInstances() {
         underTest.queryInstanceStatuses(stack, instanceMetaData);
 
-        verify(instanceStateQuery, never()).getCloudVmInstanceStatusesWithoutRetry(any(), any(), any());
-        verify(instanceStateQuery, never()).getCloudVmInstanceStatuses(any(), any(), any());
+        verify(aggregatedInstanceStateQuery, never()).getCloudVmInstanceStatuses(any(), any(), any(), anyLong());
     }
 
     @Test
@@ -87,21 +87,19 @@ class StackInstanceStatusCheckerTest {
 
         underTest.queryInstanceStatuses(stack, instanceMetaData);
 
-        verify(instanceStateQuery).getCloudVmInstanceStatusesWithoutRetry(any(), any(), any());
-        verify(instanceStateQuery, never()).getCloudVmInstanceStatuses(any(), any(), any());
+        verify(aggregatedInstanceStateQuery).getCloudVmInstanceStatuses(any(), any(), any(), anyLong());
     }
 
     @Test
     void shouldReportUnknownStatusWhenStatusQueryFails() {
         setUpCredentials();
         instanceMetaData.add(new InstanceMetaData());
-        when(instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(any(), any(), any())).thenThrow(RuntimeException.class);
+        when(aggregatedInstanceStateQuery.getCloudVmInstanceStatuses(any(), any(), any(), anyLong())).thenThrow(RuntimeException.class);
 
         List<CloudVmInstanceStatus> cloudVmInstanceStatuses = underTest.queryInstanceStatuses(stack, instanceMetaData);
 
         Assertions.assertThat(cloudVmInstanceStatuses)
                 .allMatch(cloudVmInstanceStatus -> cloudVmInstanceStatus.getStatus().equals(InstanceStatus.UNKNOWN));
-        verify(instanceStateQuery, never()).getCloudVmInstanceStatuses(any(), any(), any());
     }
 
 }
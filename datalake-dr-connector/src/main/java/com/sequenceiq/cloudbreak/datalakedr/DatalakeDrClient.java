@@ -1,7 +1,6 @@
 package com.sequenceiq.cloudbreak.datalakedr;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static io.grpc.internal.GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -17,12 +16,12 @@ import com.cloudera.thunderhead.service.datalakedr.datalakeDRProto.RestoreDatala
 import com.sequenceiq.cloudbreak.datalakedr.config.DatalakeDrConfig;
 import com.sequenceiq.cloudbreak.datalakedr.converter.GrpcStatusResponseToDatalakeDrStatusResponseConverter;
 import com.sequenceiq.cloudbreak.datalakedr.model.DatalakeDrStatusResponse;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelRegistry;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 import com.sequenceiq.cloudbreak.grpc.altus.AltusMetadataInterceptor;
 import com.sequenceiq.cloudbreak.grpc.util.GrpcUtil;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.opentracing.Tracer;
 
 @Component
@@ -38,10 +37,14 @@ public class DatalakeDrClient {
 
     private final Tracer tracer;
 
-    public DatalakeDrClient(DatalakeDrConfig datalakeDrConfig, GrpcStatusResponseToDatalakeDrStatusResponseConverter statusConverter, Tracer tracer) {
+    private final ManagedChannelRegistry channelRegistry;
+
+    public DatalakeDrClient(DatalakeDrConfig datalakeDrConfig, GrpcStatusResponseToDatalakeDrStatusResponseConverter statusConverter, Tracer tracer,
+            ManagedChannelRegistry channelRegistry) {
         this.datalakeDrConfig = datalakeDrConfig;
         this.statusConverter = statusConverter;
         this.tracer = tracer;
+        this.channelRegistry = channelRegistry;
     }
 
     public DatalakeDrStatusResponse getBackupStatusByBackupId(String datalakeName, String backupId, String actorCrn) {
@@ -92,11 +95,7 @@ public class DatalakeDrClient {
      * @return the wrapper object
      */
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-            ManagedChannelBuilder.forAddress(datalakeDrConfig.getHost(), datalakeDrConfig.getPort())
-                .usePlaintext()
-                .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                .build());
+        return channelRegistry.getWrapper(datalakeDrConfig.getHost(), datalakeDrConfig.getPort());
     }
 
     /**
@@ -3,6 +3,7 @@ package com.sequenceiq.cloudbreak.service.ha;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -137,8 +138,7 @@ public class HeartbeatService {
             }
 
             String nodeId = nodeConfig.getId();
-            Set<String> allMyFlows = flowLogService.findAllByCloudbreakNodeId(nodeId).stream()
-                    .map(FlowLog::getFlowId).collect(Collectors.toSet());
+            Set<String> allMyFlows = flowLogService.findAllPendingFlowIdsByCloudbreakNodeId(nodeId);
             LOGGER.info("All my flows: {}", allMyFlows);
             Set<String> newFlows = allMyFlows.stream().filter(f -> runningFlows.get(f) == null).collect(Collectors.toSet());
             LOGGER.info("Restarted flows: {}", newFlows);
@@ -156,6 +156,11 @@ public class HeartbeatService {
         return nodeConfig.isNodeIdSpecified();
     }
 
+    /**
+     * Moves the pending flows of the nodes without a heartbeat within the threshold to the active nodes. The flows are claimed with a
+     * conditional update per target node, so a flow already taken over by a concurrent distribution is left alone. The claimed flows
+     * are restarted by the scheduled flow distribution of their new node.
+     */
     public List<Node> distributeFlows() throws TransactionExecutionException {
         List<Node> nodes = Lists.newArrayList(nodeService.findAll());
         long currentTimeMillis = clock.getCurrentTimeMillis();
@@ -164,31 +169,30 @@ public class HeartbeatService {
         List<Node> activeNodes = nodes.stream().filter(c -> !failedNodes.contains(c)).collect(Collectors.toList());
         LOGGER.info("Active CB nodes: ({})[{}], failed CB nodes: ({})[{}]", activeNodes.size(), activeNodes, failedNodes.size(), failedNodes);
 
-        List<FlowLog> failedFlowLogs = failedNodes.stream()
-                .map(node -> flowLogService.findAllByCloudbreakNodeId(node.getUuid()))
-                .flatMap(Set::stream)
-                .collect(Collectors.toList());
+        Set<String> failedNodeIds = failedNodes.stream().map(Node::getUuid).collect(Collectors.toSet());
+        List<FlowLog> failedFlowLogs = new ArrayList<>(flowLogService.findAllByCloudbreakNodeIds(failedNodeIds));
 
         if (!failedFlowLogs.isEmpty()) {
             LOGGER.info("The following flows will be distributed across the active nodes: {}", getFlowIds(failedFlowLogs));
             List<FlowLog> invalidFlows = getInvalidFlows(failedFlowLogs);
-            Collection<FlowLog> updatedFlowLogs = new ArrayList<>(invalidFlows.size());
-            invalidFlows.forEach(fl -> {
-                fl.setFinalized(true);
-                fl.setStateStatus(StateStatus.SUCCESSFUL);
-            });
-            updatedFlowLogs.addAll(invalidFlows);
-            failedFlowLogs.removeAll(invalidFlows);
+            if (!invalidFlows.isEmpty()) {
+                invalidFlows.forEach(fl -> {
+                    fl.setFinalized(true);
+                    fl.setStateStatus(StateStatus.SUCCESSFUL);
+                });
+                transactionService.required(() -> flowLogService.saveAll(invalidFlows));
+                Set<FlowLog> invalidFlowSet = Collections.newSetFromMap(new IdentityHashMap<>());
+                invalidFlowSet.addAll(invalidFlows);
+                failedFlowLogs.removeIf(invalidFlowSet::contains);
+            }
             LOGGER.info("The following flows have been filtered out from distribution: {}", getFlowIds(invalidFlows));
             Map<Node, List<String>> flowDistribution = flowDistributor.distribute(getFlowIds(failedFlowLogs), activeNodes);
             for (Entry<Node, List<String>> entry : flowDistribution.entrySet()) {
-                entry.getValue().forEach(flowId ->
-                        failedFlowLogs.stream().filter(flowLog -> flowLog.getFlowId().equalsIgnoreCase(flowId)).forEach(flowLog -> {
-                            flowLog.setCloudbreakNodeId(entry.getKey().getUuid());
-                            updatedFlowLogs.add(flowLog);
-                        }));
+                String nodeId = entry.getKey().getUuid();
+                Set<String> claimedFlows = transactionService.required(() ->
+                        flowLogService.claimPendingFlows(nodeId, entry.getValue(), failedNodeIds));
+                LOGGER.info("Flows claimed for node {}: {}", nodeId, claimedFlows);
             }
-            transactionService.required(() -> flowLogService.saveAll(updatedFlowLogs));
         }
         return failedNodes;
     }
@@ -199,8 +203,10 @@ public class HeartbeatService {
     public void cleanupNodes(Collection<Node> failedNodes) throws TransactionExecutionException {
         if (failedNodes != null && !failedNodes.isEmpty()) {
             LOGGER.info("Cleanup node candidates: {}", failedNodes);
+            Set<String> nodeIdsWithPendingFlows = flowLogService.findAllCloudbreakNodeIdsWithPendingFlows(
+                    failedNodes.stream().map(Node::getUuid).collect(Collectors.toSet()));
             List<Node> cleanupNodes = failedNodes.stream()
-                    .filter(node -> flowLogService.findAllByCloudbreakNodeId(node.getUuid()).isEmpty())
+                    .filter(node -> !nodeIdsWithPendingFlows.contains(node.getUuid()))
                     .collect(Collectors.toList());
             LOGGER.info("Cleanup nodes from the DB: {}", cleanupNodes);
             transactionService.required(() -> {
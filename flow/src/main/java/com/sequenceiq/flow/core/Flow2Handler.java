@@ -14,7 +14,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import com.cedarsoftware.util.io.JsonReader;
 import com.sequenceiq.cloudbreak.common.event.AcceptResult;
 import com.sequenceiq.cloudbreak.common.event.Acceptable;
 import com.sequenceiq.cloudbreak.common.event.Payload;
@@ -30,7 +29,11 @@ import com.sequenceiq.flow.core.config.FlowConfiguration;
 import com.sequenceiq.flow.core.exception.FlowNotFoundException;
 import com.sequenceiq.flow.core.model.FlowAcceptResult;
 import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
+import com.sequenceiq.flow.service.flowlog.FlowLogGroupCommitService;
+import com.sequenceiq.flow.service.flowlog.FlowLogTransition;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 import io.opentracing.Scope;
 import io.opentracing.Span;
@@ -87,6 +90,12 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
     @Inject
     private InMemoryCleanup inMemoryCleanup;
 
+    @Inject
+    private FlowPayloadSerializer flowPayloadSerializer;
+
+    @Inject
+    private FlowLogGroupCommitService flowLogGroupCommitService;
+
     @Override
     public void accept(Event<? extends Payload> event) {
         String key = (String) event.getKey();
@@ -194,7 +203,7 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
         Flow flow = runningFlows.get(flowId);
         if (flow != null) {
             MutableBoolean flowCancelled = new MutableBoolean(false);
-            transactionService.required(() -> {
+            Runnable flowLogUpdate = () -> {
                 Optional<FlowLog> lastFlowLog = flowLogService.getLastFlowLog(flow.getFlowId());
                 lastFlowLog.ifPresent(flowLog -> {
                     String nodeId = nodeConfig.getId();
@@ -207,7 +216,13 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
                         flowCancelled.setTrue();
                     }
                 });
-            });
+            };
+            if (flowLogGroupCommitService.isEnabled()) {
+                // the group committer writes the transition in its own transaction, waiting for it inside one would hold a connection
+                flowLogUpdate.run();
+            } else {
+                transactionService.required(flowLogUpdate);
+            }
             if (!flowCancelled.booleanValue()) {
                 flow.sendEvent(key, flowParameters.getFlowTriggerUserCrn(), payload, flowParameters.getSpanContext());
             }
@@ -217,7 +232,9 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
     }
 
     private void updateFlowLogStatus(String key, Payload payload, String flowChainId, Flow flow, FlowLog lastFlowLog, FlowParameters flowParameters) {
-        if (flowLogService.repeatedFlowState(lastFlowLog, key)) {
+        if (flowLogGroupCommitService.isEnabled()) {
+            flowLogGroupCommitService.commit(createFlowLogTransition(key, payload, flowChainId, flow, lastFlowLog, flowParameters));
+        } else if (flowLogService.repeatedFlowState(lastFlowLog, key)) {
             flowLogService.updateLastFlowLogPayload(lastFlowLog, payload, flow.getVariables());
         } else {
             flowLogService.updateLastFlowLogStatus(lastFlowLog, failHandledEvents.contains(key));
@@ -225,6 +242,18 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
         }
     }
 
+    private FlowLogTransition createFlowLogTransition(String key, Payload payload, String flowChainId, Flow flow, FlowLog lastFlowLog,
+            FlowParameters flowParameters) {
+        if (flowLogService.repeatedFlowState(lastFlowLog, key)) {
+            flowLogService.applyPayloadAndVariables(lastFlowLog, payload, flow.getVariables());
+            return FlowLogTransition.repeatedState(lastFlowLog);
+        }
+        StateStatus lastFlowLogStatus = failHandledEvents.contains(key) ? StateStatus.FAILED : StateStatus.SUCCESSFUL;
+        FlowLog nextFlowLog = flowLogService.createFlowLog(flowParameters, flowChainId, key, payload, flow.getVariables(), flow.getFlowConfigClass(),
+                flow.getCurrentState());
+        return FlowLogTransition.nextState(lastFlowLog, lastFlowLogStatus, nextFlowLog);
+    }
+
     private boolean isFlowAcceptable(String key, Payload payload) {
         if (payload instanceof Acceptable && ((Acceptable) payload).accepted() != null) {
             Acceptable acceptable = (Acceptable) payload;
@@ -293,13 +322,13 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
                 Optional<FlowConfiguration<?>> flowConfig = flowConfigs.stream()
                         .filter(fc -> fc.getClass().equals(flowLog.getFlowType())).findFirst();
                 try {
-                    Payload payload = (Payload) JsonReader.jsonToJava(flowLog.getPayload());
+                    Payload payload = (Payload) flowPayloadSerializer.deserialize(flowLog.getCodec(), flowLog.getPayload());
                     Flow flow = flowConfig.get().createFlow(flowLog.getFlowId(), flowLog.getFlowChainId(), payload.getResourceId());
                     runningFlows.put(flow, flowLog.getFlowChainId());
                     if (flowLog.getFlowChainId() != null) {
                         flowChainHandler.restoreFlowChain(flowLog.getFlowChainId());
                     }
-                    Map<Object, Object> variables = (Map<Object, Object>) JsonReader.jsonToJava(flowLog.getVariables());
+                    Map<Object, Object> variables = (Map<Object, Object>) flowPayloadSerializer.deserialize(flowLog.getCodec(), flowLog.getVariables());
                     flow.initialize(flowLog.getCurrentState(), variables);
                     RestartAction restartAction = flowConfig.get().getRestartAction(flowLog.getNextEvent());
                     if (restartAction != null) {
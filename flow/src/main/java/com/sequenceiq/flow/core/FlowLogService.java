@@ -1,5 +1,6 @@
 package com.sequenceiq.flow.core;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -16,6 +17,9 @@ public interface FlowLogService {
     FlowLog save(FlowParameters flowParameters, String flowChanId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
             FlowState currentState);
 
+    FlowLog createFlowLog(FlowParameters flowParameters, String flowChainId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
+            FlowState currentState);
+
     Iterable<FlowLog> saveAll(Iterable<FlowLog> entities);
 
     FlowLog close(Long stackId, String flowId) throws TransactionService.TransactionExecutionException;
@@ -36,6 +40,8 @@ public interface FlowLogService {
 
     void updateLastFlowLogPayload(FlowLog lastFlowLog, Payload payload, Map<Object, Object> variables);
 
+    void applyPayloadAndVariables(FlowLog flowLog, Payload payload, Map<Object, Object> variables);
+
     Optional<FlowLog> getLastFlowLog(String flowId);
 
     void cancelTooOldTerminationFlowForResource(Long resourceId, long olderThan);
@@ -52,6 +58,20 @@ public interface FlowLogService {
 
     Set<FlowLog> findAllByCloudbreakNodeId(String cloudbreakNodeId);
 
+    Set<String> findAllPendingFlowIdsByCloudbreakNodeId(String cloudbreakNodeId);
+
+    Set<FlowLog> findAllByCloudbreakNodeIds(Collection<String> cloudbreakNodeIds);
+
+    Set<String> findAllCloudbreakNodeIdsWithPendingFlows(Collection<String> cloudbreakNodeIds);
+
+    /**
+     * Moves the pending flows still owned by one of the former nodes to the given node in one statement per chunk of flow ids, so
+     * concurrent takeovers can not claim the same flow twice.
+     *
+     * @return the ids of the flows claimed by this call
+     */
+    Set<String> claimPendingFlows(String cloudbreakNodeId, Collection<String> flowIds, Collection<String> formerNodeIds);
+
     List<FlowLog> findAllByResourceIdOrderByCreatedDesc(Long id);
 
     List<FlowLog> findAllByResourceIdAndFinalizedIsFalseOrderByCreatedDesc(Long id);
@@ -4,7 +4,12 @@ import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
 
 public enum FlowMetricType implements Metric {
     FLOW_STEP("flowstep"),
-    ACTIVE_FLOWS("activeflow");
+    ACTIVE_FLOWS("activeflow"),
+    FLOW_LOG_GROUP_COMMIT_TIME("flowlog.groupcommit.time"),
+    FLOW_LOG_GROUP_COMMIT_BATCH_SIZE("flowlog.groupcommit.batchsize"),
+    EVENT_BUS_LANE_DEPTH("eventbus.lane.depth"),
+    EVENT_BUS_LANE_LATENCY("eventbus.lane.latency"),
+    THREADPOOL_THREADS("threadpool.threads");
 
     private final String metricName;
 
@@ -10,13 +10,13 @@ import javax.inject.Inject;
 
 import org.springframework.stereotype.Component;
 
-import com.cedarsoftware.util.io.JsonReader;
 import com.sequenceiq.cloudbreak.common.event.Payload;
 import com.sequenceiq.cloudbreak.common.event.Selectable;
 import com.sequenceiq.flow.core.Flow2Handler;
 import com.sequenceiq.flow.core.FlowConstants;
 import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.flow.domain.FlowChainLog;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 import reactor.bus.Event;
 import reactor.fn.Consumer;
@@ -33,6 +33,9 @@ public class FlowChainHandler implements Consumer<Event<? extends Payload>> {
     @Inject
     private FlowLogService flowLogService;
 
+    @Inject
+    private FlowPayloadSerializer flowPayloadSerializer;
+
     @Override
     public void accept(Event<? extends Payload> event) {
         String key = (String) event.getKey();
@@ -47,7 +50,7 @@ public class FlowChainHandler implements Consumer<Event<? extends Payload>> {
     public void restoreFlowChain(String flowChainId) {
         Optional<FlowChainLog> chainLog = flowLogService.findFirstByFlowChainIdOrderByCreatedDesc(flowChainId);
         if (chainLog.isPresent()) {
-            Queue<Selectable> chain = (Queue<Selectable>) JsonReader.jsonToJava(chainLog.get().getChain());
+            Queue<Selectable> chain = (Queue<Selectable>) flowPayloadSerializer.deserialize(chainLog.get().getCodec(), chainLog.get().getChain());
             flowChains.putFlowChain(flowChainId, chainLog.get().getParentFlowChainId(), chain);
             if (chainLog.get().getParentFlowChainId() != null) {
                 restoreFlowChain(chainLog.get().getParentFlowChainId());
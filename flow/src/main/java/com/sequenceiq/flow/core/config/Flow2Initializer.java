@@ -1,21 +1,26 @@
 package com.sequenceiq.flow.core.config;
 
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.springframework.stereotype.Component;
 
 import com.sequenceiq.flow.core.Flow2Handler;
 import com.sequenceiq.flow.core.FlowEvent;
+import com.sequenceiq.flow.reactor.ResourceShardedDispatcher;
 
 import reactor.bus.EventBus;
 import reactor.bus.selector.Selectors;
+import reactor.core.Dispatcher;
 
 @Component
 public class Flow2Initializer {
@@ -25,14 +30,21 @@ public class Flow2Initializer {
     @Inject
     private Flow2Handler flow2Handler;
 
+    @Inject
+    @Named("eventBusDispatcher")
+    private Dispatcher eventBusDispatcher;
+
     @Resource
     private List<FlowConfiguration<?>> flowConfigs;
 
     @PostConstruct
     public void init() {
-        String eventSelector = Stream.concat(Stream.of(Flow2Handler.FLOW_FINAL, Flow2Handler.FLOW_CANCEL),
+        Set<String> flowSelectors = Stream.concat(Stream.of(Flow2Handler.FLOW_FINAL, Flow2Handler.FLOW_CANCEL),
                                             flowConfigs.stream().flatMap(c -> Arrays.stream(c.getEvents())).map(FlowEvent::event)
-                                    ).distinct().collect(Collectors.joining("|"));
-        reactor.on(Selectors.regex(eventSelector), flow2Handler);
+                                    ).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (eventBusDispatcher instanceof ResourceShardedDispatcher) {
+            ((ResourceShardedDispatcher) eventBusDispatcher).registerLaneSelectors(flowSelectors);
+        }
+        reactor.on(Selectors.regex(String.join("|", flowSelectors)), flow2Handler);
     }
 }
@@ -0,0 +1,9 @@
+package com.sequenceiq.flow.core.exception;
+
+public class FlowEventQueueFullException extends RuntimeException {
+
+    public FlowEventQueueFullException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.sequenceiq.flow.core.exception.mapper;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.ExceptionMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.common.exception.ExceptionResponse;
+import com.sequenceiq.flow.core.exception.FlowEventQueueFullException;
+
+/**
+ * Answers the back-pressure of the event bus lanes with 503 and a Retry-After header in every service which runs flows, the clients
+ * retry the request instead of failing on it.
+ */
+@Component
+public class FlowEventQueueFullExceptionMapper implements ExceptionMapper<FlowEventQueueFullException> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowEventQueueFullExceptionMapper.class);
+
+    @Value("${cb.eventbus.lanes.retry.after.sec:5}")
+    private int retryAfterSeconds;
+
+    @Override
+    public Response toResponse(FlowEventQueueFullException exception) {
+        LOGGER.info("Flow event queue is full, asking the client to retry after {} seconds: {}", retryAfterSeconds, exception.getMessage());
+        return Response.status(Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .entity(new ExceptionResponse(exception.getMessage()))
+                .build();
+    }
+}
@@ -3,12 +3,15 @@ package com.sequenceiq.flow.domain;
 import java.util.Date;
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.SequenceGenerator;
 
+import com.sequenceiq.flow.converter.FlowPayloadCodecTypeConverter;
+
 @Entity
 public class FlowChainLog {
 
@@ -29,6 +32,9 @@ public class FlowChainLog {
 
     private String flowTriggerUserCrn;
 
+    @Convert(converter = FlowPayloadCodecTypeConverter.class)
+    private FlowPayloadCodecType codec;
+
     public FlowChainLog() {
 
     }
@@ -40,6 +46,11 @@ public class FlowChainLog {
         this.flowTriggerUserCrn = flowTriggerUserCrn;
     }
 
+    public FlowChainLog(String flowChainId, String parentFlowChainId, String chain, String flowTriggerUserCrn, FlowPayloadCodecType codec) {
+        this(flowChainId, parentFlowChainId, chain, flowTriggerUserCrn);
+        this.codec = codec;
+    }
+
     public Long getId() {
         return id;
     }
@@ -87,4 +98,12 @@ public class FlowChainLog {
     public void setFlowTriggerUserCrn(String flowTriggerUserCrn) {
         this.flowTriggerUserCrn = flowTriggerUserCrn;
     }
+
+    public FlowPayloadCodecType getCodec() {
+        return codec;
+    }
+
+    public void setCodec(FlowPayloadCodecType codec) {
+        this.codec = codec;
+    }
 }
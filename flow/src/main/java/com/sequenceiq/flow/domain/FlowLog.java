@@ -1,5 +1,6 @@
 package com.sequenceiq.flow.domain;
 
+import com.sequenceiq.flow.converter.FlowPayloadCodecTypeConverter;
 import com.sequenceiq.flow.converter.StateStatusConverter;
 
 import java.util.Date;
@@ -60,6 +61,9 @@ public class FlowLog {
 
     private String flowTriggerUserCrn;
 
+    @Convert(converter = FlowPayloadCodecTypeConverter.class)
+    private FlowPayloadCodecType codec;
+
     public FlowLog() {
 
     }
@@ -222,6 +226,14 @@ public class FlowLog {
         this.flowTriggerUserCrn = flowTriggerUserCrn;
     }
 
+    public FlowPayloadCodecType getCodec() {
+        return codec;
+    }
+
+    public void setCodec(FlowPayloadCodecType codec) {
+        this.codec = codec;
+    }
+
     public String minimizedString() {
         return "FlowLog{" +
                 "resourceId=" + resourceId +
@@ -0,0 +1,5 @@
+package com.sequenceiq.flow.domain;
+
+public enum FlowPayloadCodecType {
+    JSON_IO, BINARY
+}
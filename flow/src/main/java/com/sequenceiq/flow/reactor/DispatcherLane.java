@@ -0,0 +1,155 @@
+package com.sequenceiq.flow.reactor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+
+import reactor.core.support.NamedDaemonThreadFactory;
+
+/**
+ * A bounded queue consumed by a single thread, the tasks of a lane are executed in the order they were submitted. The capacity only limits
+ * the submitters outside of the lane: a task submitted by the lane thread itself is always queued, otherwise a full lane would wait for itself.
+ */
+public class DispatcherLane {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DispatcherLane.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    private final int index;
+
+    private final int capacity;
+
+    private final BlockingQueue<LaneTask> queue = new LinkedBlockingQueue<>();
+
+    private final Semaphore permits;
+
+    private final AtomicLong maxQueueWaitMillis = new AtomicLong();
+
+    private final Thread consumerThread;
+
+    private volatile boolean running = true;
+
+    DispatcherLane(int index, int capacity) {
+        this.index = index;
+        this.capacity = capacity;
+        permits = new Semaphore(capacity);
+        consumerThread = new NamedDaemonThreadFactory("reactorLane-" + index).newThread(this::consume);
+        consumerThread.start();
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    public int getRemainingCapacity() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Returns the longest time a task spent in the queue since the previous call.
+     */
+    public long getAndResetMaxQueueWaitMillis() {
+        return maxQueueWaitMillis.getAndSet(0L);
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    boolean isConsumerThread() {
+        return Thread.currentThread() == consumerThread;
+    }
+
+    boolean offer(Runnable task, long timeoutMillis) throws InterruptedException {
+        if (!running) {
+            return false;
+        } else if (isConsumerThread()) {
+            return queue.add(new LaneTask(task, false));
+        }
+        return permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS) && queue.add(new LaneTask(task, true));
+    }
+
+    boolean tryOffer(Runnable task) {
+        if (!running) {
+            return false;
+        } else if (isConsumerThread()) {
+            return queue.add(new LaneTask(task, false));
+        }
+        return permits.tryAcquire() && queue.add(new LaneTask(task, true));
+    }
+
+    void shutdown() {
+        running = false;
+    }
+
+    boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        consumerThread.join(timeoutMillis);
+        return !consumerThread.isAlive();
+    }
+
+    void forceShutdown() {
+        running = false;
+        queue.clear();
+        consumerThread.interrupt();
+    }
+
+    private void consume() {
+        while (running || !queue.isEmpty()) {
+            try {
+                LaneTask task = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    if (task.holdsPermit) {
+                        permits.release();
+                    }
+                    maxQueueWaitMillis.accumulateAndGet(System.currentTimeMillis() - task.enqueuedAt, Math::max);
+                    execute(task.task);
+                }
+            } catch (InterruptedException e) {
+                LOGGER.info("Dispatcher lane {} was interrupted, {} tasks are dropped", index, queue.size());
+                Thread.currentThread().interrupt();
+                running = false;
+                return;
+            }
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Unexpected error in dispatcher lane {}", index, e);
+        } finally {
+            MDCBuilder.cleanupMdc();
+        }
+    }
+
+    private static class LaneTask {
+
+        private final Runnable task;
+
+        private final boolean holdsPermit;
+
+        private final long enqueuedAt = System.currentTimeMillis();
+
+        LaneTask(Runnable task, boolean holdsPermit) {
+            this.task = task;
+            this.holdsPermit = holdsPermit;
+        }
+    }
+}
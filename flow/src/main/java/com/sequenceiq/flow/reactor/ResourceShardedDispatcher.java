@@ -0,0 +1,177 @@
+package com.sequenceiq.flow.reactor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.flow.core.exception.FlowEventQueueFullException;
+
+import reactor.Environment;
+import reactor.bus.Event;
+import reactor.core.Dispatcher;
+import reactor.core.processor.InsufficientCapacityException;
+import reactor.fn.Consumer;
+
+/**
+ * Dispatches the events of the registered selectors to a fixed set of lanes chosen by the resource id of the payload, so the events of
+ * a resource are handled in order and a burst of events on a few resources cannot occupy every dispatcher thread. Every other event is
+ * dispatched by the shared dispatcher. When a lane is full the notifying thread waits for a free slot and gets a
+ * {@link FlowEventQueueFullException} after the offer timeout, instead of the event being dropped.
+ */
+public class ResourceShardedDispatcher implements Dispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceShardedDispatcher.class);
+
+    private final Dispatcher sharedDispatcher;
+
+    private final List<DispatcherLane> lanes;
+
+    private final long offerTimeoutMillis;
+
+    private final Set<Object> laneSelectors = ConcurrentHashMap.newKeySet();
+
+    public ResourceShardedDispatcher(Dispatcher sharedDispatcher, int laneCount, int laneCapacity, long offerTimeoutMillis) {
+        this.sharedDispatcher = sharedDispatcher;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        List<DispatcherLane> createdLanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            createdLanes.add(new DispatcherLane(i, laneCapacity));
+        }
+        lanes = Collections.unmodifiableList(createdLanes);
+    }
+
+    /**
+     * Only the events of these selectors are dispatched to the lanes. Their consumers must not wait for the result of an event dispatched to a lane.
+     */
+    public void registerLaneSelectors(Collection<String> selectors) {
+        laneSelectors.addAll(selectors);
+    }
+
+    public List<DispatcherLane> getLanes() {
+        return lanes;
+    }
+
+    @Override
+    public <E> void dispatch(E event, Consumer<E> consumer, Consumer<Throwable> errorConsumer) {
+        DispatcherLane lane = selectLane(event);
+        if (lane == null) {
+            sharedDispatcher.dispatch(event, consumer, errorConsumer);
+        } else {
+            try {
+                if (!lane.offer(() -> route(event, consumer, errorConsumer), offerTimeoutMillis)) {
+                    LOGGER.warn("Dispatcher lane {} is full, event is rejected: {}", lane.getIndex(), event);
+                    throw new FlowEventQueueFullException(String.format("Flow event queue is full, the event was not accepted in %d ms. "
+                            + "Please try again later.", offerTimeoutMillis));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FlowEventQueueFullException("Interrupted while waiting for a free slot in the flow event queue");
+            }
+        }
+    }
+
+    @Override
+    public <E> void tryDispatch(E event, Consumer<E> consumer, Consumer<Throwable> errorConsumer) throws InsufficientCapacityException {
+        DispatcherLane lane = selectLane(event);
+        if (lane == null) {
+            sharedDispatcher.tryDispatch(event, consumer, errorConsumer);
+        } else if (!lane.tryOffer(() -> route(event, consumer, errorConsumer))) {
+            throw InsufficientCapacityException.get();
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        sharedDispatcher.execute(command);
+    }
+
+    @Override
+    public long remainingSlots() {
+        return sharedDispatcher.remainingSlots() + lanes.stream().mapToLong(DispatcherLane::getRemainingCapacity).sum();
+    }
+
+    @Override
+    public long backlogSize() {
+        return sharedDispatcher.backlogSize() + lanes.stream().mapToLong(DispatcherLane::getCapacity).sum();
+    }
+
+    @Override
+    public boolean supportsOrdering() {
+        return false;
+    }
+
+    @Override
+    public boolean inContext() {
+        return sharedDispatcher.inContext() || lanes.stream().anyMatch(DispatcherLane::isConsumerThread);
+    }
+
+    @Override
+    public boolean alive() {
+        return sharedDispatcher.alive();
+    }
+
+    @Override
+    public void shutdown() {
+        lanes.forEach(DispatcherLane::shutdown);
+        sharedDispatcher.shutdown();
+    }
+
+    @Override
+    public boolean awaitAndShutdown() {
+        return awaitAndShutdown(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean awaitAndShutdown(long timeout, TimeUnit timeUnit) {
+        lanes.forEach(DispatcherLane::shutdown);
+        long deadline = System.currentTimeMillis() + Math.min(timeUnit.toMillis(timeout), Long.MAX_VALUE - System.currentTimeMillis());
+        try {
+            for (DispatcherLane lane : lanes) {
+                if (!lane.awaitTermination(Math.max(1L, deadline - System.currentTimeMillis()))) {
+                    LOGGER.warn("Dispatcher lane {} did not finish in time, {} events are left in it", lane.getIndex(), lane.getDepth());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return sharedDispatcher.awaitAndShutdown(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void forceShutdown() {
+        lanes.forEach(DispatcherLane::forceShutdown);
+        sharedDispatcher.forceShutdown();
+    }
+
+    private DispatcherLane selectLane(Object event) {
+        if (event instanceof Event && laneSelectors.contains(((Event<?>) event).getKey())) {
+            Object data = ((Event<?>) event).getData();
+            if (data instanceof Payload && ((Payload) data).getResourceId() != null) {
+                return lanes.get(Math.floorMod(((Payload) data).getResourceId().hashCode(), lanes.size()));
+            }
+        }
+        return null;
+    }
+
+    private <E> void route(E event, Consumer<E> consumer, Consumer<Throwable> errorConsumer) {
+        try {
+            consumer.accept(event);
+        } catch (Exception e) {
+            if (errorConsumer != null) {
+                errorConsumer.accept(e);
+            } else if (Environment.alive()) {
+                Environment.get().routeError(e);
+            } else {
+                LOGGER.error("Unhandled error while dispatching event {}", event, e);
+            }
+        }
+    }
+}
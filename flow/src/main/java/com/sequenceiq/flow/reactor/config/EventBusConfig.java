@@ -3,10 +3,12 @@ package com.sequenceiq.flow.reactor.config;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,9 +17,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
+import com.sequenceiq.cloudbreak.common.concurrent.SmallStackThreadFactory;
+import com.sequenceiq.cloudbreak.common.concurrent.ThreadPoolMode;
 import com.sequenceiq.cloudbreak.logger.MDCBuilder;
 import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
 import com.sequenceiq.flow.core.ApplicationFlowInformation;
+import com.sequenceiq.flow.reactor.ResourceShardedDispatcher;
 import com.sequenceiq.flow.reactor.handler.ConsumerNotFoundHandler;
 import com.sequenceiq.flow.service.flowlog.FlowLogDBService;
 
@@ -25,6 +30,7 @@ import reactor.Environment;
 import reactor.bus.Event;
 import reactor.bus.EventBus;
 import reactor.bus.spec.EventBusSpec;
+import reactor.core.Dispatcher;
 import reactor.core.dispatch.ThreadPoolExecutorDispatcher;
 import reactor.core.support.Exceptions;
 import reactor.core.support.NamedDaemonThreadFactory;
@@ -35,6 +41,10 @@ public class EventBusConfig {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EventBusConfig.class);
 
+    private static final long ELASTIC_KEEP_ALIVE_SECONDS = 60L;
+
+    private static final long BYTES_IN_KB = 1024L;
+
     @Value("${cb.eventbus.threadpool.core.size:100}")
     private int eventBusThreadPoolCoreSize;
 
@@ -44,6 +54,27 @@ public class EventBusConfig {
     @Value("${cb.eventbus.threadpool.backlog.size:1000}")
     private int eventBusThreadPoolBacklogSize;
 
+    @Value("${cb.eventbus.threadpool.mode:FIXED}")
+    private ThreadPoolMode eventBusThreadPoolMode;
+
+    @Value("${cb.eventbus.threadpool.elastic.max.size:2000}")
+    private int eventBusThreadPoolElasticMaxSize;
+
+    @Value("${cb.eventbus.threadpool.elastic.stack.size.kb:512}")
+    private long eventBusThreadPoolElasticStackSizeKb;
+
+    @Value("${cb.eventbus.lanes.enabled:false}")
+    private boolean eventBusLanesEnabled;
+
+    @Value("${cb.eventbus.lanes.count:32}")
+    private int eventBusLaneCount;
+
+    @Value("${cb.eventbus.lanes.capacity:100}")
+    private int eventBusLaneCapacity;
+
+    @Value("${cb.eventbus.lanes.offer.timeout.ms:5000}")
+    private long eventBusLaneOfferTimeoutMillis;
+
     @Inject
     @Lazy
     private ApplicationFlowInformation applicationFlowInformation;
@@ -118,10 +149,10 @@ public class EventBusConfig {
     }
 
     @Bean
-    public EventBus reactor(MDCCleanerThreadPoolExecutor threadPoolExecutor, Environment env) {
+    public EventBus reactor(@Named("eventBusDispatcher") Dispatcher dispatcher, Environment env) {
         return new EventBusSpec()
                 .env(env)
-                .dispatcher(new ThreadPoolExecutorDispatcher(eventBusThreadPoolBacklogSize, eventBusThreadPoolCoreSize, threadPoolExecutor))
+                .dispatcher(dispatcher)
                 .traceEventPath()
                 .dispatchErrorHandler(throwable -> {
                     handleFlowFail(throwable);
@@ -131,15 +162,41 @@ public class EventBusConfig {
                 .get();
     }
 
+    @Bean("eventBusDispatcher")
+    public Dispatcher eventBusDispatcher(MDCCleanerThreadPoolExecutor threadPoolExecutor) {
+        Dispatcher sharedDispatcher = new ThreadPoolExecutorDispatcher(eventBusThreadPoolBacklogSize, threadPoolExecutor.getCorePoolSize(), threadPoolExecutor);
+        if (eventBusLanesEnabled) {
+            LOGGER.info("Flow events are dispatched on {} lanes with capacity {}", eventBusLaneCount, eventBusLaneCapacity);
+            return new ResourceShardedDispatcher(sharedDispatcher, eventBusLaneCount, eventBusLaneCapacity, eventBusLaneOfferTimeoutMillis);
+        }
+        return sharedDispatcher;
+    }
+
     @Bean("eventBusThreadPoolExecutor")
     public MDCCleanerThreadPoolExecutor getPoolExecutor() {
+        if (eventBusThreadPoolMode == ThreadPoolMode.ELASTIC) {
+            LOGGER.info("Reactor event bus runs in elastic mode with at most {} threads", eventBusThreadPoolElasticMaxSize);
+            MDCCleanerThreadPoolExecutor executor = new MDCCleanerThreadPoolExecutor(eventBusThreadPoolElasticMaxSize,
+                    eventBusThreadPoolElasticMaxSize,
+                    ELASTIC_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(eventBusThreadPoolBacklogSize),
+                    new SmallStackThreadFactory("reactorDispatcher-", eventBusThreadPoolElasticStackSizeKb * BYTES_IN_KB),
+                    this::logRejectedTask);
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
         return new MDCCleanerThreadPoolExecutor(eventBusThreadPoolCoreSize,
                 eventBusThreadPoolMaxSize,
                 0L,
                 TimeUnit.MILLISECONDS,
                 new LinkedBlockingQueue<>(eventBusThreadPoolBacklogSize),
                 new NamedDaemonThreadFactory("reactorDispatcher"),
-                (r, executor) -> LOGGER.error("Task has been rejected from 'reactorDispatcher' threadpool. Executor state: " + executor));
+                this::logRejectedTask);
+
+    }
 
+    private void logRejectedTask(Runnable task, ThreadPoolExecutor executor) {
+        LOGGER.error("Task has been rejected from 'reactorDispatcher' threadpool. Executor state: " + executor);
     }
 }
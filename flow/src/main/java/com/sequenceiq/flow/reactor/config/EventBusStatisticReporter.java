@@ -1,15 +1,26 @@
 package com.sequenceiq.flow.reactor.config;
 
-import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
+import com.sequenceiq.flow.core.FlowMetricType;
+import com.sequenceiq.flow.reactor.DispatcherLane;
+import com.sequenceiq.flow.reactor.ResourceShardedDispatcher;
+
 import reactor.bus.EventBus;
 import reactor.core.Dispatcher;
 
-import javax.inject.Inject;
-import javax.inject.Named;
-
 @Component
 public class EventBusStatisticReporter {
 
@@ -22,6 +33,13 @@ public class EventBusStatisticReporter {
     @Named("eventBusThreadPoolExecutor")
     private MDCCleanerThreadPoolExecutor executor;
 
+    @Inject
+    @Named("eventBusDispatcher")
+    private Dispatcher eventBusDispatcher;
+
+    @Inject
+    private MetricService metricService;
+
     public void logInfoReport() {
         LOGGER.info("Reactor event bus statistics: {}", create());
     }
@@ -30,6 +48,17 @@ public class EventBusStatisticReporter {
         LOGGER.error("Reactor state is critical, statistics: {}", create());
     }
 
+    @Scheduled(fixedDelayString = "${cb.eventbus.lanes.metrics.rate.ms:10000}")
+    public void submitLaneMetrics() {
+        if (eventBusDispatcher instanceof ResourceShardedDispatcher) {
+            for (DispatcherLane lane : ((ResourceShardedDispatcher) eventBusDispatcher).getLanes()) {
+                Map<String, String> labels = Map.of("lane", String.valueOf(lane.getIndex()));
+                metricService.submit(FlowMetricType.EVENT_BUS_LANE_DEPTH, lane.getDepth(), labels);
+                metricService.submit(FlowMetricType.EVENT_BUS_LANE_LATENCY, lane.getAndResetMaxQueueWaitMillis(), labels);
+            }
+        }
+    }
+
     private EventBusStatistics create() {
         EventBusStatistics stats = new EventBusStatistics();
         Dispatcher dispatcher = eventBus.getDispatcher();
@@ -43,6 +72,11 @@ public class EventBusStatisticReporter {
         stats.setTaskCount(executor.getTaskCount());
         stats.setActiveCount(executor.getActiveCount());
         stats.setCompletedTaskCount(executor.getCompletedTaskCount());
+        if (eventBusDispatcher instanceof ResourceShardedDispatcher) {
+            stats.setLaneDepths(((ResourceShardedDispatcher) eventBusDispatcher).getLanes().stream()
+                    .map(DispatcherLane::getDepth)
+                    .collect(Collectors.toList()));
+        }
 
         return stats;
     }
@@ -67,6 +101,8 @@ public class EventBusStatisticReporter {
 
         private boolean inContext;
 
+        private List<Integer> laneDepths = List.of();
+
         public void setGetActiveCount(long getActiveCount) {
             this.getActiveCount = getActiveCount;
         }
@@ -103,6 +139,10 @@ public class EventBusStatisticReporter {
             this.inContext = inContext;
         }
 
+        public void setLaneDepths(List<Integer> laneDepths) {
+            this.laneDepths = laneDepths;
+        }
+
         @Override
         public String toString() {
             return "EventBusStatistics{" +
@@ -115,6 +155,7 @@ public class EventBusStatisticReporter {
                     ", poolSize=" + poolSize +
                     ", activeCount=" + activeCount +
                     ", inContext=" + inContext +
+                    ", laneDepths=" + laneDepths +
                     '}';
         }
     }
@@ -0,0 +1,107 @@
+package com.sequenceiq.flow.reactor.config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.flow.core.FlowMetricType;
+
+/**
+ * Samples the threads of the pools running blocking tasks. The number of threads per state shows whether a pool is busy or only
+ * waiting, and the monitors the blocked threads wait for point to the synchronized code which serializes the handlers.
+ */
+@Component
+public class ThreadContentionReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadContentionReporter.class);
+
+    @Value("${cb.threadpool.diagnostics.enabled:false}")
+    private boolean enabled;
+
+    @Value("#{'${cb.threadpool.diagnostics.thread.prefixes:reactorDispatcher,reactorLane,resourceBuilderExecutor}'.split(',')}")
+    private List<String> threadNamePrefixes;
+
+    @Value("${cb.threadpool.diagnostics.top.monitors:5}")
+    private int topMonitors;
+
+    @Inject
+    private MetricService metricService;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    @PostConstruct
+    public void init() {
+        if (enabled && threadMXBean.isThreadContentionMonitoringSupported()) {
+            threadMXBean.setThreadContentionMonitoringEnabled(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cb.threadpool.diagnostics.rate.ms:60000}")
+    public void report() {
+        if (enabled) {
+            report(threadMXBean.dumpAllThreads(true, false));
+        }
+    }
+
+    void report(ThreadInfo[] threadInfos) {
+        Map<String, Map<Thread.State, Integer>> threadStatesByPool = new TreeMap<>();
+        Map<String, Integer> blockedThreadsByMonitor = new TreeMap<>();
+        for (ThreadInfo threadInfo : threadInfos) {
+            String pool = getPool(threadInfo);
+            if (pool != null) {
+                threadStatesByPool.computeIfAbsent(pool, key -> new EnumMap<>(Thread.State.class)).merge(threadInfo.getThreadState(), 1, Integer::sum);
+                if (threadInfo.getThreadState() == Thread.State.BLOCKED) {
+                    blockedThreadsByMonitor.merge(describeMonitor(threadInfo), 1, Integer::sum);
+                }
+            }
+        }
+        threadStatesByPool.forEach((pool, threadStates) -> {
+            for (Thread.State state : Thread.State.values()) {
+                metricService.submit(FlowMetricType.THREADPOOL_THREADS, threadStates.getOrDefault(state, 0), Map.of("pool", pool, "state", state.name()));
+            }
+        });
+        LOGGER.info("Pooled threads by state: {}", threadStatesByPool);
+        if (!blockedThreadsByMonitor.isEmpty()) {
+            LOGGER.warn("Most contended monitors of pooled threads (monitor and waiting method: blocked threads): {}", getTopMonitors(blockedThreadsByMonitor));
+        }
+    }
+
+    private String getPool(ThreadInfo threadInfo) {
+        String threadName = threadInfo.getThreadName();
+        return threadNamePrefixes.stream()
+                .filter(threadName::startsWith)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String describeMonitor(ThreadInfo threadInfo) {
+        StackTraceElement[] stackTrace = threadInfo.getStackTrace();
+        String waitingMethod = stackTrace.length > 0 ? stackTrace[0].getClassName() + '.' + stackTrace[0].getMethodName() : "unknown";
+        String monitor = threadInfo.getLockInfo() != null ? threadInfo.getLockInfo().getClassName() : "unknown";
+        return monitor + " in " + waitingMethod;
+    }
+
+    private Map<String, Integer> getTopMonitors(Map<String, Integer> blockedThreadsByMonitor) {
+        return blockedThreadsByMonitor.entrySet().stream()
+                .sorted(Entry.<String, Integer>comparingByValue().reversed())
+                .limit(topMonitors)
+                .collect(Collectors.toMap(Entry::getKey, Entry::getValue, (first, second) -> first, LinkedHashMap::new));
+    }
+}
@@ -1,5 +1,6 @@
 package com.sequenceiq.flow.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -36,6 +37,20 @@ public interface FlowLogRepository extends CrudRepository<FlowLog, Long> {
     @Query("SELECT fl FROM FlowLog fl WHERE fl.cloudbreakNodeId = :cloudbreakNodeId AND fl.stateStatus = 'PENDING'")
     Set<FlowLog> findAllByCloudbreakNodeId(@Param("cloudbreakNodeId") String cloudbreakNodeId);
 
+    @Query("SELECT DISTINCT fl.flowId FROM FlowLog fl WHERE fl.cloudbreakNodeId = :cloudbreakNodeId AND fl.stateStatus = 'PENDING'")
+    Set<String> findAllPendingFlowIdsByCloudbreakNodeId(@Param("cloudbreakNodeId") String cloudbreakNodeId);
+
+    @Query("SELECT fl FROM FlowLog fl WHERE fl.cloudbreakNodeId IN (:cloudbreakNodeIds) AND fl.stateStatus = 'PENDING'")
+    Set<FlowLog> findAllByCloudbreakNodeIds(@Param("cloudbreakNodeIds") Collection<String> cloudbreakNodeIds);
+
+    @Query("SELECT DISTINCT fl.cloudbreakNodeId FROM FlowLog fl WHERE fl.cloudbreakNodeId IN (:cloudbreakNodeIds) AND fl.stateStatus = 'PENDING'")
+    Set<String> findAllCloudbreakNodeIdsWithPendingFlows(@Param("cloudbreakNodeIds") Collection<String> cloudbreakNodeIds);
+
+    @Query(value = "UPDATE flowlog SET cloudbreaknodeid = :cloudbreakNodeId, version = COALESCE(version, 0) + 1 "
+            + "WHERE flowid IN (:flowIds) AND cloudbreaknodeid IN (:formerNodeIds) AND statestatus = 'PENDING' RETURNING flowid", nativeQuery = true)
+    List<String> claimPendingFlows(@Param("cloudbreakNodeId") String cloudbreakNodeId, @Param("flowIds") Collection<String> flowIds,
+            @Param("formerNodeIds") Collection<String> formerNodeIds);
+
     @Query("SELECT fl FROM FlowLog fl WHERE fl.cloudbreakNodeId IS NULL AND fl.stateStatus = 'PENDING'")
     Set<FlowLog> findAllUnassigned();
 
@@ -49,6 +64,10 @@ public interface FlowLogRepository extends CrudRepository<FlowLog, Long> {
     @Query("UPDATE FlowLog fl SET fl.stateStatus = :stateStatus WHERE fl.id = :id")
     void updateLastLogStatusInFlow(@Param("id") Long id, @Param("stateStatus") StateStatus stateStatus);
 
+    @Modifying
+    @Query("UPDATE FlowLog fl SET fl.stateStatus = :stateStatus WHERE fl.id IN (:ids)")
+    void updateLastLogStatusInFlows(@Param("ids") Collection<Long> ids, @Param("stateStatus") StateStatus stateStatus);
+
     @Modifying
     @Query("DELETE FROM FlowLog fl WHERE fl.finalized = TRUE")
     int purgeFinalizedFlowLogs();
@@ -17,11 +17,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import com.cedarsoftware.util.io.JsonReader;
 import com.google.common.base.Joiner;
 import com.sequenceiq.cloudbreak.common.event.Selectable;
 import com.sequenceiq.flow.domain.FlowChainLog;
 import com.sequenceiq.flow.repository.FlowChainLogRepository;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 @Service
 public class FlowChainLogService {
@@ -31,6 +31,9 @@ public class FlowChainLogService {
     @Inject
     private FlowChainLogRepository repository;
 
+    @Inject
+    private FlowPayloadSerializer flowPayloadSerializer;
+
     public Optional<FlowChainLog> findFirstByFlowChainIdOrderByCreatedDesc(String flowChainId) {
         return repository.findFirstByFlowChainIdOrderByCreatedDesc(flowChainId);
     }
@@ -86,7 +89,7 @@ public class FlowChainLogService {
                     .findFirst()
                     .get();
             LOGGER.debug("Checking if chain with id {} has any event in it's queue", latestFlowChain.getFlowChainId());
-            Queue<Selectable> chain = (Queue<Selectable>) JsonReader.jsonToJava(latestFlowChain.getChain());
+            Queue<Selectable> chain = (Queue<Selectable>) flowPayloadSerializer.deserialize(latestFlowChain.getCodec(), latestFlowChain.getChain());
             return !chain.isEmpty();
         });
     }
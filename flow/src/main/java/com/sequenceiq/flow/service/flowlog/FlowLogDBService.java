@@ -1,5 +1,7 @@
 package com.sequenceiq.flow.service.flowlog;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -13,17 +15,15 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
-import com.cedarsoftware.util.io.JsonWriter;
 import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
 import com.sequenceiq.cloudbreak.auth.altus.Crn;
 import com.sequenceiq.cloudbreak.common.event.Payload;
 import com.sequenceiq.cloudbreak.common.event.Selectable;
 import com.sequenceiq.cloudbreak.common.exception.NotFoundException;
-import com.sequenceiq.cloudbreak.common.json.JsonUtil;
 import com.sequenceiq.cloudbreak.common.service.TransactionService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
 import com.sequenceiq.flow.core.ApplicationFlowInformation;
@@ -38,6 +38,7 @@ import com.sequenceiq.flow.domain.FlowLogIdWithTypeAndTimestamp;
 import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
 import com.sequenceiq.flow.repository.FlowLogRepository;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 @Primary
 @Service
@@ -45,6 +46,8 @@ public class FlowLogDBService implements FlowLogService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FlowLogDBService.class);
 
+    private static final int CLAIM_CHUNK_SIZE = 1000;
+
     @Inject
     private NodeConfig nodeConfig;
 
@@ -58,8 +61,7 @@ public class FlowLogDBService implements FlowLogService {
     private ApplicationFlowInformation applicationFlowInformation;
 
     @Inject
-    @Qualifier("JsonWriterOptions")
-    private Map<String, Object> writeOptions;
+    private FlowPayloadSerializer flowPayloadSerializer;
 
     @Inject
     private TransactionService transactionService;
@@ -69,23 +71,23 @@ public class FlowLogDBService implements FlowLogService {
 
     public FlowLog save(FlowParameters flowParameters, String flowChanId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
             FlowState currentState) {
+        return flowLogRepository.save(createFlowLog(flowParameters, flowChanId, key, payload, variables, flowType, currentState));
+    }
+
+    @Override
+    public FlowLog createFlowLog(FlowParameters flowParameters, String flowChanId, String key, Payload payload, Map<Object, Object> variables,
+            Class<?> flowType, FlowState currentState) {
         String payloadAsString = getSerializedString(payload);
-        String variablesJson = getSerializedString(variables);
+        String variablesAsString = getSerializedString(variables);
         FlowLog flowLog = new FlowLog(payload.getResourceId(), flowParameters.getFlowId(), flowChanId, flowParameters.getFlowTriggerUserCrn(), key,
-                payloadAsString, payload.getClass(), variablesJson, flowType, currentState.toString());
+                payloadAsString, payload.getClass(), variablesAsString, flowType, currentState.toString());
+        flowLog.setCodec(flowPayloadSerializer.getWriteCodecType());
         flowLog.setCloudbreakNodeId(nodeConfig.getId());
-        return flowLogRepository.save(flowLog);
+        return flowLog;
     }
 
     public String getSerializedString(Object object) {
-        String objectAsString;
-        try {
-            objectAsString = JsonWriter.objectToJson(object, writeOptions);
-        } catch (Exception e) {
-            LOGGER.debug("Somehow can not serialize object to string, try another method..", e);
-            objectAsString = JsonUtil.writeValueAsStringSilent(object);
-        }
-        return objectAsString;
+        return flowPayloadSerializer.serialize(object);
     }
 
     @Override
@@ -116,8 +118,9 @@ public class FlowLogDBService implements FlowLogService {
     }
 
     public void saveChain(String flowChainId, String parentFlowChainId, Queue<Selectable> chain, String flowTriggerUserCrn) {
-        String chainJson = JsonWriter.objectToJson(chain);
-        FlowChainLog chainLog = new FlowChainLog(flowChainId, parentFlowChainId, chainJson, flowTriggerUserCrn);
+        String chainAsString = getSerializedString(chain);
+        FlowChainLog chainLog = new FlowChainLog(flowChainId, parentFlowChainId, chainAsString, flowTriggerUserCrn,
+                flowPayloadSerializer.getWriteCodecType());
         flowChainLogService.save(chainLog);
     }
 
@@ -175,16 +178,20 @@ public class FlowLogDBService implements FlowLogService {
     }
 
     public void updateLastFlowLogPayload(FlowLog lastFlowLog, Payload payload, Map<Object, Object> variables) {
-        String payloadJson = JsonWriter.objectToJson(payload, writeOptions);
-        String variablesJson = JsonWriter.objectToJson(variables, writeOptions);
         Optional.ofNullable(lastFlowLog)
                 .ifPresent(flowLog -> {
-                    flowLog.setPayload(payloadJson);
-                    flowLog.setVariables(variablesJson);
+                    applyPayloadAndVariables(flowLog, payload, variables);
                     flowLogRepository.save(flowLog);
                 });
     }
 
+    @Override
+    public void applyPayloadAndVariables(FlowLog flowLog, Payload payload, Map<Object, Object> variables) {
+        flowLog.setPayload(getSerializedString(payload));
+        flowLog.setVariables(getSerializedString(variables));
+        flowLog.setCodec(flowPayloadSerializer.getWriteCodecType());
+    }
+
     public Optional<FlowLog> getLastFlowLog(String flowId) {
         return flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(flowId);
     }
@@ -219,6 +226,33 @@ public class FlowLogDBService implements FlowLogService {
         return flowLogRepository.findAllByCloudbreakNodeId(cloudbreakNodeId);
     }
 
+    @Override
+    public Set<String> findAllPendingFlowIdsByCloudbreakNodeId(String cloudbreakNodeId) {
+        return flowLogRepository.findAllPendingFlowIdsByCloudbreakNodeId(cloudbreakNodeId);
+    }
+
+    @Override
+    public Set<FlowLog> findAllByCloudbreakNodeIds(Collection<String> cloudbreakNodeIds) {
+        return cloudbreakNodeIds.isEmpty() ? Set.of() : flowLogRepository.findAllByCloudbreakNodeIds(cloudbreakNodeIds);
+    }
+
+    @Override
+    public Set<String> findAllCloudbreakNodeIdsWithPendingFlows(Collection<String> cloudbreakNodeIds) {
+        return cloudbreakNodeIds.isEmpty() ? Set.of() : flowLogRepository.findAllCloudbreakNodeIdsWithPendingFlows(cloudbreakNodeIds);
+    }
+
+    @Override
+    public Set<String> claimPendingFlows(String cloudbreakNodeId, Collection<String> flowIds, Collection<String> formerNodeIds) {
+        Set<String> claimed = new HashSet<>();
+        if (!formerNodeIds.isEmpty()) {
+            for (List<String> chunk : Iterables.partition(flowIds, CLAIM_CHUNK_SIZE)) {
+                claimed.addAll(flowLogRepository.claimPendingFlows(cloudbreakNodeId, chunk, formerNodeIds));
+            }
+        }
+        LOGGER.debug("Node {} claimed {} of {} flows from nodes {}", cloudbreakNodeId, claimed.size(), flowIds.size(), formerNodeIds);
+        return claimed;
+    }
+
     public List<FlowLog> findAllByResourceIdOrderByCreatedDesc(Long id) {
         return flowLogRepository.findFirstByResourceIdOrderByCreatedDesc(id)
                 .map(FlowLog::getFlowId)
@@ -0,0 +1,202 @@
+package com.sequenceiq.flow.service.flowlog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.flow.core.FlowMetricType;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+import com.sequenceiq.flow.repository.FlowLogRepository;
+
+/**
+ * Write-behind committer of flow log transitions. Transitions of concurrently running flows are queued and committed by a single
+ * thread in one transaction, so many flows share the cost of one database commit. Callers of {@link #commit(FlowLogTransition)} are
+ * blocked until the transaction containing their transition is committed, so a flow never moves on with an unpersisted state.
+ */
+@Service
+public class FlowLogGroupCommitService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowLogGroupCommitService.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30L;
+
+    @Value("${flow.log.groupcommit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${flow.log.groupcommit.maxDelayMillis:5}")
+    private long maxDelayMillis;
+
+    @Value("${flow.log.groupcommit.maxBatchSize:100}")
+    private int maxBatchSize;
+
+    @Value("${flow.log.groupcommit.queueCapacity:2000}")
+    private int queueCapacity;
+
+    @Value("${flow.log.groupcommit.commitTimeoutSeconds:60}")
+    private long commitTimeoutSeconds;
+
+    @Inject
+    private FlowLogRepository flowLogRepository;
+
+    @Inject
+    private TransactionService transactionService;
+
+    @Inject
+    private MetricService metricService;
+
+    private BlockingQueue<FlowLogTransition> pendingTransitions;
+
+    private ExecutorService committerExecutor;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            LOGGER.info("Flow log group commit is enabled with max delay {} ms and max batch size {}", maxDelayMillis, maxBatchSize);
+            pendingTransitions = new ArrayBlockingQueue<>(queueCapacity);
+            committerExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("flowLogGroupCommitter-%d").setDaemon(true).build());
+            running = true;
+            committerExecutor.submit(this::commitPendingTransitions);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (committerExecutor != null) {
+            running = false;
+            committerExecutor.shutdown();
+            if (!committerExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Flow log group committer did not finish in {} seconds, {} transitions are not committed",
+                        SHUTDOWN_TIMEOUT_SECONDS, pendingTransitions.size());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the transition and waits until it is committed. When the queue is full the caller is blocked, this back-pressure
+     * keeps the dispatcher threads from running ahead of the database.
+     */
+    public void commit(FlowLogTransition transition) {
+        if (!running) {
+            commitBatch(List.of(transition));
+        } else {
+            try {
+                pendingTransitions.put(transition);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing flow log transition", e);
+            }
+        }
+        awaitCommit(transition);
+    }
+
+    private void awaitCommit(FlowLogTransition transition) {
+        try {
+            transition.getCommitted().get(commitTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for flow log commit", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Flow log transition could not be committed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Flow log transition was not committed in " + commitTimeoutSeconds + " seconds", e);
+        }
+    }
+
+    private void commitPendingTransitions() {
+        while (running || !pendingTransitions.isEmpty()) {
+            try {
+                FlowLogTransition first = pendingTransitions.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    commitBatch(collectBatch(first));
+                }
+            } catch (InterruptedException e) {
+                LOGGER.warn("Flow log group committer was interrupted", e);
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                LOGGER.error("Unexpected error in flow log group committer", e);
+            }
+        }
+    }
+
+    private List<FlowLogTransition> collectBatch(FlowLogTransition first) throws InterruptedException {
+        List<FlowLogTransition> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        while (batch.size() < maxBatchSize) {
+            pendingTransitions.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            FlowLogTransition next = pendingTransitions.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void commitBatch(List<FlowLogTransition> batch) {
+        long start = System.currentTimeMillis();
+        try {
+            persist(batch);
+            batch.forEach(transition -> transition.getCommitted().complete(null));
+        } catch (TransactionExecutionException | RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).getCommitted().completeExceptionally(e);
+            } else {
+                LOGGER.warn("Group commit of {} flow log transitions failed, committing them one by one", batch.size(), e);
+                batch.forEach(transition -> commitBatch(List.of(transition)));
+                return;
+            }
+        }
+        metricService.recordTimerMetric(FlowMetricType.FLOW_LOG_GROUP_COMMIT_TIME, Duration.ofMillis(System.currentTimeMillis() - start));
+        metricService.submit(FlowMetricType.FLOW_LOG_GROUP_COMMIT_BATCH_SIZE, batch.size());
+    }
+
+    private void persist(List<FlowLogTransition> batch) throws TransactionExecutionException {
+        batch.forEach(FlowLogTransition::resetGeneratedValues);
+        Map<StateStatus, List<Long>> statusUpdates = batch.stream()
+                .filter(FlowLogTransition::hasStatusUpdate)
+                .collect(Collectors.groupingBy(FlowLogTransition::getLastFlowLogStatus,
+                        Collectors.mapping(FlowLogTransition::getLastFlowLogId, Collectors.toList())));
+        List<FlowLog> flowLogs = batch.stream().map(FlowLogTransition::getFlowLog).collect(Collectors.toList());
+        transactionService.required(() -> {
+            statusUpdates.forEach((status, ids) -> flowLogRepository.updateLastLogStatusInFlows(ids, status));
+            flowLogRepository.saveAll(flowLogs);
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.sequenceiq.flow.service.flowlog;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+
+/**
+ * The flow log writes of a single state change, committed atomically by {@link FlowLogGroupCommitService}.
+ */
+public class FlowLogTransition {
+
+    private final Long lastFlowLogId;
+
+    private final StateStatus lastFlowLogStatus;
+
+    private final FlowLog flowLog;
+
+    private final boolean newFlowLog;
+
+    private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+    private FlowLogTransition(Long lastFlowLogId, StateStatus lastFlowLogStatus, FlowLog flowLog) {
+        this.lastFlowLogId = lastFlowLogId;
+        this.lastFlowLogStatus = lastFlowLogStatus;
+        this.flowLog = flowLog;
+        newFlowLog = flowLog.getId() == null;
+    }
+
+    public static FlowLogTransition nextState(FlowLog lastFlowLog, StateStatus lastFlowLogStatus, FlowLog nextFlowLog) {
+        return new FlowLogTransition(lastFlowLog.getId(), lastFlowLogStatus, nextFlowLog);
+    }
+
+    public static FlowLogTransition repeatedState(FlowLog lastFlowLog) {
+        return new FlowLogTransition(null, null, lastFlowLog);
+    }
+
+    public Long getLastFlowLogId() {
+        return lastFlowLogId;
+    }
+
+    public StateStatus getLastFlowLogStatus() {
+        return lastFlowLogStatus;
+    }
+
+    public FlowLog getFlowLog() {
+        return flowLog;
+    }
+
+    public boolean hasStatusUpdate() {
+        return lastFlowLogId != null && lastFlowLogStatus != null;
+    }
+
+    CompletableFuture<Void> getCommitted() {
+        return committed;
+    }
+
+    /**
+     * A rolled back insert leaves the generated id and version on the entity, they have to be cleared before it is saved again.
+     */
+    void resetGeneratedValues() {
+        if (newFlowLog) {
+            flowLog.setId(null);
+            flowLog.setVersion(null);
+        }
+    }
+}
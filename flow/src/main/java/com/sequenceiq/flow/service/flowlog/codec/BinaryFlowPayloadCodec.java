@@ -0,0 +1,97 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.flow.domain.FlowPayloadCodecType;
+
+/**
+ * Compact binary flow payload codec. The first byte of the (Base64 encoded) output is the format version, the second one holds flags,
+ * e.g. whether the rest of the body is deflated. Class names and field names are written only once per payload and referenced by id
+ * afterwards; fields are matched by name on read, so payload classes may gain or lose fields between releases.
+ */
+@Component
+public class BinaryFlowPayloadCodec implements FlowPayloadCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int FLAG_DEFLATED = 1;
+
+    private static final int HEADER_LENGTH = 2;
+
+    @Value("${flow.payload.codec.binary.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${flow.payload.codec.binary.compression.threshold:2048}")
+    private int compressionThreshold;
+
+    @Override
+    public FlowPayloadCodecType getType() {
+        return FlowPayloadCodecType.BINARY;
+    }
+
+    @Override
+    public String encode(Object object) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream bodyOutput = new DataOutputStream(body);
+            new BinaryPayloadWriter(bodyOutput).writeValue(object);
+            bodyOutput.flush();
+            int flags = 0;
+            if (compressionEnabled && body.size() > compressionThreshold) {
+                body = deflate(body);
+                flags |= FLAG_DEFLATED;
+            }
+            ByteArrayOutputStream result = new ByteArrayOutputStream(HEADER_LENGTH + body.size());
+            result.write(FORMAT_VERSION);
+            result.write(flags);
+            body.writeTo(result);
+            return Base64.getEncoder().encodeToString(result.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode flow payload of type " + (object == null ? null : object.getClass()), e);
+        }
+    }
+
+    @Override
+    public Object decode(String encoded) {
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        if (bytes.length < HEADER_LENGTH) {
+            throw new IllegalStateException("Binary flow payload is truncated");
+        }
+        byte version = bytes[0];
+        if (version > FORMAT_VERSION) {
+            throw new IllegalStateException(String.format("Binary flow payload format version %d is newer than the supported %d", version, FORMAT_VERSION));
+        }
+        InputStream body = new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        if ((bytes[1] & FLAG_DEFLATED) != 0) {
+            body = new InflaterInputStream(body);
+        }
+        try (DataInputStream bodyInput = new DataInputStream(body)) {
+            return new BinaryPayloadReader(bodyInput).readValue();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot decode binary flow payload", e);
+        }
+    }
+
+    private ByteArrayOutputStream deflate(ByteArrayOutputStream body) throws IOException {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(body.size() / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(deflated, deflater)) {
+            body.writeTo(deflaterOutput);
+        } finally {
+            deflater.end();
+        }
+        return deflated;
+    }
+}
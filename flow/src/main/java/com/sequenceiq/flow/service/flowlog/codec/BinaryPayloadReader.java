@@ -0,0 +1,330 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.objenesis.Objenesis;
+import org.springframework.objenesis.ObjenesisStd;
+import org.springframework.util.ClassUtils;
+
+class BinaryPayloadReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryPayloadReader.class);
+
+    private static final Objenesis OBJENESIS = new ObjenesisStd(true);
+
+    private final DataInputStream in;
+
+    private final List<Object> objects = new ArrayList<>();
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final List<Class<?>> types = new ArrayList<>();
+
+    private final Map<Integer, Field[]> layouts = new HashMap<>();
+
+    BinaryPayloadReader(DataInputStream in) {
+        this.in = in;
+        types.add(null);
+        types.addAll(BinaryPayloadTypes.BUILT_IN_TYPES);
+    }
+
+    Object readValue() throws IOException {
+        byte tag = in.readByte();
+        if (tag <= BinaryPayloadTypes.LONG) {
+            return readBasicValue(tag);
+        } else if (tag <= BinaryPayloadTypes.STRING_REFERENCE) {
+            return readOtherPrimitiveOrString(tag);
+        } else if (tag <= BinaryPayloadTypes.UUID) {
+            return readWellKnownType(tag);
+        }
+        return readReferenceType(tag);
+    }
+
+    private Object readBasicValue(byte tag) throws IOException {
+        switch (tag) {
+            case BinaryPayloadTypes.NULL:
+                return null;
+            case BinaryPayloadTypes.REFERENCE:
+                return objects.get(readVarInt());
+            case BinaryPayloadTypes.TRUE:
+                return Boolean.TRUE;
+            case BinaryPayloadTypes.FALSE:
+                return Boolean.FALSE;
+            case BinaryPayloadTypes.INTEGER:
+                return (int) readVarLong();
+            case BinaryPayloadTypes.LONG:
+                return readVarLong();
+            default:
+                throw unknownTag(tag);
+        }
+    }
+
+    private Object readOtherPrimitiveOrString(byte tag) throws IOException {
+        switch (tag) {
+            case BinaryPayloadTypes.DOUBLE:
+                return in.readDouble();
+            case BinaryPayloadTypes.FLOAT:
+                return in.readFloat();
+            case BinaryPayloadTypes.SHORT:
+                return in.readShort();
+            case BinaryPayloadTypes.BYTE:
+                return in.readByte();
+            case BinaryPayloadTypes.CHARACTER:
+                return in.readChar();
+            case BinaryPayloadTypes.STRING:
+                String value = readRawString();
+                strings.add(value);
+                return value;
+            case BinaryPayloadTypes.STRING_REFERENCE:
+                return strings.get(readVarInt());
+            default:
+                throw unknownTag(tag);
+        }
+    }
+
+    private Object readWellKnownType(byte tag) throws IOException {
+        switch (tag) {
+            case BinaryPayloadTypes.ENUM:
+                return readEnum();
+            case BinaryPayloadTypes.CLASS:
+                return loadClass(readRawString());
+            case BinaryPayloadTypes.DATE:
+                return new Date(readVarLong());
+            case BinaryPayloadTypes.BIG_DECIMAL:
+                return new BigDecimal(readRawString());
+            case BinaryPayloadTypes.BIG_INTEGER:
+                return new BigInteger(readRawString());
+            case BinaryPayloadTypes.UUID:
+                return new UUID(in.readLong(), in.readLong());
+            default:
+                throw unknownTag(tag);
+        }
+    }
+
+    private Object readReferenceType(byte tag) throws IOException {
+        switch (tag) {
+            case BinaryPayloadTypes.ARRAY:
+                return readArray();
+            case BinaryPayloadTypes.COLLECTION:
+                return readCollection();
+            case BinaryPayloadTypes.MAP:
+                return readMap();
+            case BinaryPayloadTypes.THROWABLE:
+                return readThrowable();
+            case BinaryPayloadTypes.OBJECT:
+                return readObject();
+            default:
+                throw unknownTag(tag);
+        }
+    }
+
+    private IllegalStateException unknownTag(byte tag) {
+        return new IllegalStateException("Unknown value tag in binary flow payload: " + tag);
+    }
+
+    private Object readEnum() throws IOException {
+        Class enumType = types.get(readTypeId());
+        String name = readRawString();
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (IllegalArgumentException e) {
+            LOGGER.info("The {} value is not backward compatible: {}", enumType.getSimpleName(), name);
+            return null;
+        }
+    }
+
+    private Object readArray() throws IOException {
+        int handle = reserveHandle();
+        Class<?> componentType = types.get(readTypeId());
+        int length = readVarInt();
+        Object array = Array.newInstance(componentType, length);
+        objects.set(handle, array);
+        for (int i = 0; i < length; i++) {
+            Array.set(array, i, readValue());
+        }
+        return array;
+    }
+
+    private Object readCollection() throws IOException {
+        int handle = reserveHandle();
+        Class<?> type = types.get(readTypeId());
+        int size = readVarInt();
+        Collection<Object> collection = (Collection<Object>) newInstanceWithDefaultConstructor(type);
+        if (collection != null) {
+            objects.set(handle, collection);
+            for (int i = 0; i < size; i++) {
+                collection.add(readValue());
+            }
+        } else {
+            Collection<Object> elements = BinaryPayloadTypes.newCollectionBuffer(type);
+            collection = BinaryPayloadTypes.viewOfCollection(type, elements);
+            objects.set(handle, collection);
+            for (int i = 0; i < size; i++) {
+                elements.add(readValue());
+            }
+            if (BinaryPayloadTypes.isCopiedCollection(type)) {
+                collection = BinaryPayloadTypes.copyOfCollection(type, elements);
+                objects.set(handle, collection);
+            }
+        }
+        return collection;
+    }
+
+    private Object readMap() throws IOException {
+        int handle = reserveHandle();
+        Class<?> type = types.get(readTypeId());
+        int size = readVarInt();
+        Map<Object, Object> map = (Map<Object, Object>) newInstanceWithDefaultConstructor(type);
+        if (map != null) {
+            objects.set(handle, map);
+            for (int i = 0; i < size; i++) {
+                map.put(readValue(), readValue());
+            }
+        } else {
+            Map<Object, Object> entries = new LinkedHashMap<>();
+            map = BinaryPayloadTypes.viewOfMap(type, entries);
+            objects.set(handle, map);
+            for (int i = 0; i < size; i++) {
+                entries.put(readValue(), readValue());
+            }
+            if (BinaryPayloadTypes.isCopiedMap(type, entries)) {
+                map = BinaryPayloadTypes.copyOfMap(type, entries);
+                objects.set(handle, map);
+            }
+        }
+        return map;
+    }
+
+    private Object readThrowable() throws IOException {
+        int handle = reserveHandle();
+        Class<?> type = types.get(readTypeId());
+        String message = (String) readValue();
+        Object throwable;
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(String.class);
+            constructor.setAccessible(true);
+            throwable = constructor.newInstance(message);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Cannot instantiate {} with message, creating it without one", type, e);
+            throwable = OBJENESIS.newInstance(type);
+        }
+        objects.set(handle, throwable);
+        return throwable;
+    }
+
+    private Object readObject() throws IOException {
+        int handle = reserveHandle();
+        int typeId = readTypeId();
+        Class<?> type = types.get(typeId);
+        Field[] layout = layouts.get(typeId);
+        if (layout == null) {
+            layout = readLayout(type);
+            layouts.put(typeId, layout);
+        }
+        Object instance = OBJENESIS.newInstance(type);
+        objects.set(handle, instance);
+        for (Field field : layout) {
+            Object value = readValue();
+            if (field != null && (value != null || !field.getType().isPrimitive())) {
+                setField(instance, field, value);
+            }
+        }
+        return instance;
+    }
+
+    private Field[] readLayout(Class<?> type) throws IOException {
+        Field[] layout = new Field[readVarInt()];
+        for (int i = 0; i < layout.length; i++) {
+            String fieldName = readRawString();
+            layout[i] = BinaryPayloadTypes.persistedField(type, fieldName);
+            if (layout[i] == null) {
+                LOGGER.debug("Field {} of {} no longer exists, its persisted value is ignored", fieldName, type);
+            }
+        }
+        return layout;
+    }
+
+    private void setField(Object instance, Field field, Object value) {
+        try {
+            field.set(instance, value);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            LOGGER.debug("Persisted value of {} is not compatible with the current field type, it is ignored", field, e);
+        }
+    }
+
+    private Object newInstanceWithDefaultConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private int reserveHandle() {
+        objects.add(null);
+        return objects.size() - 1;
+    }
+
+    private int readTypeId() throws IOException {
+        int typeId = readVarInt();
+        if (typeId == BinaryPayloadTypes.INLINE_TYPE_DEFINITION) {
+            types.add(loadClass(readRawString()));
+            typeId = types.size() - 1;
+        }
+        return typeId;
+    }
+
+    private Class<?> loadClass(String className) {
+        try {
+            return ClassUtils.forName(className, BinaryPayloadReader.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalStateException("Cannot load class of binary flow payload: " + className, e);
+        }
+    }
+
+    private String readRawString() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readVarInt() throws IOException {
+        return (int) readUnsignedVarLong();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = readUnsignedVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readUnsignedVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = in.readByte();
+            value |= (long) (current & BinaryPayloadTypes.VARINT_PAYLOAD_MASK) << shift;
+            shift += BinaryPayloadTypes.VARINT_PAYLOAD_BITS;
+        } while ((current & BinaryPayloadTypes.VARINT_CONTINUATION_BIT) != 0);
+        return value;
+    }
+}
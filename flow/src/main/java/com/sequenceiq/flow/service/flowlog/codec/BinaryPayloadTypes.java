@@ -0,0 +1,254 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import reactor.rx.Promise;
+
+/**
+ * Wire constants and the shared type registry of the binary flow payload format.
+ */
+final class BinaryPayloadTypes {
+
+    static final byte NULL = 0;
+
+    static final byte REFERENCE = 1;
+
+    static final byte TRUE = 2;
+
+    static final byte FALSE = 3;
+
+    static final byte INTEGER = 4;
+
+    static final byte LONG = 5;
+
+    static final byte DOUBLE = 6;
+
+    static final byte FLOAT = 7;
+
+    static final byte SHORT = 8;
+
+    static final byte BYTE = 9;
+
+    static final byte CHARACTER = 10;
+
+    static final byte STRING = 11;
+
+    static final byte STRING_REFERENCE = 12;
+
+    static final byte ENUM = 13;
+
+    static final byte CLASS = 14;
+
+    static final byte DATE = 15;
+
+    static final byte BIG_DECIMAL = 16;
+
+    static final byte BIG_INTEGER = 17;
+
+    static final byte UUID = 18;
+
+    static final byte ARRAY = 19;
+
+    static final byte COLLECTION = 20;
+
+    static final byte MAP = 21;
+
+    static final byte THROWABLE = 22;
+
+    static final byte OBJECT = 23;
+
+    /**
+     * Type id 0 means an inline type definition follows, built-in types are addressed by their position (starting from 1).
+     * This list is part of the persisted format: never reorder or remove entries, only append.
+     */
+    static final List<Class<?>> BUILT_IN_TYPES = List.of(
+            Object.class,
+            String.class,
+            Long.class,
+            Integer.class,
+            Boolean.class,
+            Double.class,
+            Date.class,
+            ArrayList.class,
+            LinkedList.class,
+            HashSet.class,
+            LinkedHashSet.class,
+            TreeSet.class,
+            ArrayDeque.class,
+            ConcurrentLinkedQueue.class,
+            CopyOnWriteArrayList.class,
+            HashMap.class,
+            LinkedHashMap.class,
+            TreeMap.class,
+            ConcurrentHashMap.class,
+            long.class,
+            int.class,
+            boolean.class,
+            byte.class,
+            char.class);
+
+    static final int INLINE_TYPE_DEFINITION = 0;
+
+    static final int VARINT_PAYLOAD_BITS = 7;
+
+    static final int VARINT_PAYLOAD_MASK = 0x7F;
+
+    static final int VARINT_CONTINUATION_BIT = 0x80;
+
+    static final int LONG_SIGN_SHIFT = 63;
+
+    static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+
+    private static final Set<Class<?>> SKIPPED_FIELD_TYPES = Set.of(Promise.class, Thread.class, ClassLoader.class);
+
+    private static final ClassValue<List<Field>> PERSISTED_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return collectPersistedFields(type);
+        }
+    };
+
+    private static final ClassValue<Map<String, Field>> PERSISTED_FIELDS_BY_NAME = new ClassValue<>() {
+        @Override
+        protected Map<String, Field> computeValue(Class<?> type) {
+            Map<String, Field> fieldsByName = new HashMap<>();
+            for (Field field : PERSISTED_FIELDS.get(type)) {
+                fieldsByName.put(fieldName(fieldsByName.keySet(), field), field);
+            }
+            return fieldsByName;
+        }
+    };
+
+    private BinaryPayloadTypes() {
+    }
+
+    static List<Field> persistedFields(Class<?> type) {
+        return PERSISTED_FIELDS.get(type);
+    }
+
+    static List<String> persistedFieldNames(Class<?> type) {
+        List<String> names = new ArrayList<>();
+        Set<String> usedNames = new HashSet<>();
+        for (Field field : PERSISTED_FIELDS.get(type)) {
+            String name = fieldName(usedNames, field);
+            usedNames.add(name);
+            names.add(name);
+        }
+        return names;
+    }
+
+    static Field persistedField(Class<?> type, String name) {
+        return PERSISTED_FIELDS_BY_NAME.get(type).get(name);
+    }
+
+    /**
+     * Creates the mutable collection the elements are decoded into when the type has no default constructor.
+     */
+    static Collection<Object> newCollectionBuffer(Class<?> type) {
+        if (Set.class.isAssignableFrom(type)) {
+            return new LinkedHashSet<>();
+        } else if (Queue.class.isAssignableFrom(type)) {
+            return new LinkedList<>();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * The collection which stands for the buffer while its elements are decoded, so the references to it from its elements are resolved.
+     * The unmodifiable JDK collections are views of the buffer, the types which can only be copied are replaced by
+     * {@link #copyOfCollection(Class, Collection)} after the elements are decoded.
+     */
+    static Collection<Object> viewOfCollection(Class<?> type, Collection<Object> buffer) {
+        if (!isUnmodifiableJdkType(type)) {
+            return buffer;
+        }
+        return buffer instanceof Set ? Collections.unmodifiableSet((Set<Object>) buffer) : Collections.unmodifiableList((List<Object>) buffer);
+    }
+
+    static boolean isCopiedCollection(Class<?> type) {
+        return ImmutableList.class.isAssignableFrom(type) || ImmutableSet.class.isAssignableFrom(type) || EnumSet.class.isAssignableFrom(type);
+    }
+
+    static Collection<Object> copyOfCollection(Class<?> type, Collection<Object> elements) {
+        if (ImmutableList.class.isAssignableFrom(type)) {
+            return ImmutableList.copyOf(elements);
+        } else if (ImmutableSet.class.isAssignableFrom(type)) {
+            return ImmutableSet.copyOf(elements);
+        }
+        return elements.isEmpty() ? new LinkedHashSet<>() : EnumSet.copyOf((Collection) elements);
+    }
+
+    static Map<Object, Object> viewOfMap(Class<?> type, Map<Object, Object> buffer) {
+        return isUnmodifiableJdkType(type) ? Collections.unmodifiableMap(buffer) : buffer;
+    }
+
+    static boolean isCopiedMap(Class<?> type, Map<Object, Object> entries) {
+        return ImmutableMap.class.isAssignableFrom(type) || (EnumMap.class.isAssignableFrom(type) && !entries.isEmpty());
+    }
+
+    static Map<Object, Object> copyOfMap(Class<?> type, Map<Object, Object> entries) {
+        if (ImmutableBiMap.class.isAssignableFrom(type)) {
+            return ImmutableBiMap.copyOf(entries);
+        } else if (ImmutableMap.class.isAssignableFrom(type)) {
+            return ImmutableMap.copyOf(entries);
+        }
+        return new EnumMap(entries);
+    }
+
+    private static boolean isUnmodifiableJdkType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.util.ImmutableCollections$") || name.startsWith("java.util.Collections$");
+    }
+
+    private static String fieldName(Set<String> usedNames, Field field) {
+        return usedNames.contains(field.getName()) ? field.getDeclaringClass().getName() + '.' + field.getName() : field.getName();
+    }
+
+    private static List<Field> collectPersistedFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (isPersisted(field)) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    private static boolean isPersisted(Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers)
+                && !Modifier.isTransient(modifiers)
+                && !field.isSynthetic()
+                && SKIPPED_FIELD_TYPES.stream().noneMatch(skipped -> skipped.isAssignableFrom(field.getType()));
+    }
+}
@@ -0,0 +1,229 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+
+class BinaryPayloadWriter {
+
+    private final DataOutputStream out;
+
+    private final Map<Object, Integer> objectHandles = new IdentityHashMap<>();
+
+    private final Map<String, Integer> stringHandles = new HashMap<>();
+
+    private final Map<Class<?>, Integer> typeIds = new HashMap<>();
+
+    private final Set<Class<?>> writtenLayouts = new HashSet<>();
+
+    BinaryPayloadWriter(DataOutputStream out) {
+        this.out = out;
+        List<Class<?>> builtInTypes = BinaryPayloadTypes.BUILT_IN_TYPES;
+        for (int i = 0; i < builtInTypes.size(); i++) {
+            typeIds.put(builtInTypes.get(i), i + 1);
+        }
+    }
+
+    void writeValue(Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(BinaryPayloadTypes.NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? BinaryPayloadTypes.TRUE : BinaryPayloadTypes.FALSE);
+        } else if (value instanceof Integer) {
+            out.writeByte(BinaryPayloadTypes.INTEGER);
+            writeVarLong((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(BinaryPayloadTypes.LONG);
+            writeVarLong((Long) value);
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Enum) {
+            out.writeByte(BinaryPayloadTypes.ENUM);
+            writeType(((Enum<?>) value).getDeclaringClass());
+            writeRawString(((Enum<?>) value).name());
+        } else if (!writeOtherPrimitive(value) && !writeWellKnownType(value)) {
+            writeReferenceType(value);
+        }
+    }
+
+    private boolean writeOtherPrimitive(Object value) throws IOException {
+        if (value instanceof Double) {
+            out.writeByte(BinaryPayloadTypes.DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(BinaryPayloadTypes.FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(BinaryPayloadTypes.SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BinaryPayloadTypes.BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(BinaryPayloadTypes.CHARACTER);
+            out.writeChar((Character) value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private boolean writeWellKnownType(Object value) throws IOException {
+        if (value instanceof Class) {
+            out.writeByte(BinaryPayloadTypes.CLASS);
+            writeRawString(((Class<?>) value).getName());
+        } else if (value instanceof Date) {
+            out.writeByte(BinaryPayloadTypes.DATE);
+            writeVarLong(((Date) value).getTime());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BinaryPayloadTypes.BIG_DECIMAL);
+            writeRawString(value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BinaryPayloadTypes.BIG_INTEGER);
+            writeRawString(value.toString());
+        } else if (value instanceof UUID) {
+            out.writeByte(BinaryPayloadTypes.UUID);
+            out.writeLong(((UUID) value).getMostSignificantBits());
+            out.writeLong(((UUID) value).getLeastSignificantBits());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void writeReferenceType(Object value) throws IOException {
+        Integer handle = objectHandles.get(value);
+        if (handle != null) {
+            out.writeByte(BinaryPayloadTypes.REFERENCE);
+            writeVarInt(handle);
+            return;
+        }
+        objectHandles.put(value, objectHandles.size());
+        if (value.getClass().isArray()) {
+            writeArray(value);
+        } else if (value instanceof Throwable) {
+            out.writeByte(BinaryPayloadTypes.THROWABLE);
+            writeType(value.getClass());
+            writeValue(((Throwable) value).getMessage());
+        } else if (value instanceof Collection) {
+            writeCollection((Collection<?>) value);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else {
+            writeObject(value);
+        }
+    }
+
+    private void writeArray(Object array) throws IOException {
+        out.writeByte(BinaryPayloadTypes.ARRAY);
+        writeType(array.getClass().getComponentType());
+        int length = Array.getLength(array);
+        writeVarInt(length);
+        for (int i = 0; i < length; i++) {
+            writeValue(Array.get(array, i));
+        }
+    }
+
+    private void writeCollection(Collection<?> collection) throws IOException {
+        Object[] elements = collection.toArray();
+        out.writeByte(BinaryPayloadTypes.COLLECTION);
+        writeType(collection.getClass());
+        writeVarInt(elements.length);
+        for (Object element : elements) {
+            writeValue(element);
+        }
+    }
+
+    private void writeMap(Map<?, ?> map) throws IOException {
+        List<Entry<?, ?>> entries = new ArrayList<>(map.entrySet());
+        out.writeByte(BinaryPayloadTypes.MAP);
+        writeType(map.getClass());
+        writeVarInt(entries.size());
+        for (Entry<?, ?> entry : entries) {
+            writeValue(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeObject(Object value) throws IOException {
+        Class<?> type = value.getClass();
+        out.writeByte(BinaryPayloadTypes.OBJECT);
+        writeType(type);
+        List<Field> fields = BinaryPayloadTypes.persistedFields(type);
+        if (writtenLayouts.add(type)) {
+            List<String> fieldNames = BinaryPayloadTypes.persistedFieldNames(type);
+            writeVarInt(fieldNames.size());
+            for (String fieldName : fieldNames) {
+                writeRawString(fieldName);
+            }
+        }
+        for (Field field : fields) {
+            try {
+                writeValue(field.get(value));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read field " + field + " of flow payload", e);
+            }
+        }
+    }
+
+    private void writeType(Class<?> type) throws IOException {
+        Integer typeId = typeIds.get(type);
+        if (typeId != null) {
+            writeVarInt(typeId);
+        } else {
+            writeVarInt(BinaryPayloadTypes.INLINE_TYPE_DEFINITION);
+            writeRawString(type.getName());
+            typeIds.put(type, typeIds.size() + 1);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        Integer handle = stringHandles.get(value);
+        if (handle != null) {
+            out.writeByte(BinaryPayloadTypes.STRING_REFERENCE);
+            writeVarInt(handle);
+        } else {
+            stringHandles.put(value, stringHandles.size());
+            out.writeByte(BinaryPayloadTypes.STRING);
+            writeRawString(value);
+        }
+    }
+
+    private void writeRawString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        writeUnsignedVarLong(value & BinaryPayloadTypes.UNSIGNED_INT_MASK);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        writeUnsignedVarLong((value << 1) ^ (value >> BinaryPayloadTypes.LONG_SIGN_SHIFT));
+    }
+
+    private void writeUnsignedVarLong(long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~BinaryPayloadTypes.VARINT_PAYLOAD_MASK) != 0) {
+            out.writeByte((int) (remaining & BinaryPayloadTypes.VARINT_PAYLOAD_MASK) | BinaryPayloadTypes.VARINT_CONTINUATION_BIT);
+            remaining >>>= BinaryPayloadTypes.VARINT_PAYLOAD_BITS;
+        }
+        out.writeByte((int) remaining);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import com.sequenceiq.flow.domain.FlowPayloadCodecType;
+
+/**
+ * Serializes flow payloads, flow variables and flow chain queues into the textual columns of the flow log tables.
+ * Every row stores the {@link FlowPayloadCodecType} that produced it, so a codec must be able to read back anything it has written
+ * in earlier releases.
+ */
+public interface FlowPayloadCodec {
+
+    FlowPayloadCodecType getType();
+
+    String encode(Object object);
+
+    Object decode(String encoded);
+}
@@ -0,0 +1,55 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sequenceiq.flow.domain.FlowPayloadCodecType;
+
+@Service
+public class FlowPayloadSerializer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowPayloadSerializer.class);
+
+    @Value("${flow.payload.codec:JSON_IO}")
+    private FlowPayloadCodecType writeCodecType;
+
+    @Inject
+    private List<FlowPayloadCodec> codecs;
+
+    private final Map<FlowPayloadCodecType, FlowPayloadCodec> codecsByType = new EnumMap<>(FlowPayloadCodecType.class);
+
+    @PostConstruct
+    public void init() {
+        codecs.forEach(codec -> codecsByType.put(codec.getType(), codec));
+        if (!codecsByType.containsKey(writeCodecType)) {
+            throw new IllegalStateException("No flow payload codec is registered for " + writeCodecType);
+        }
+        LOGGER.info("Flow payloads are written with the {} codec", writeCodecType);
+    }
+
+    public FlowPayloadCodecType getWriteCodecType() {
+        return writeCodecType;
+    }
+
+    public String serialize(Object object) {
+        return codecsByType.get(writeCodecType).encode(object);
+    }
+
+    public Object deserialize(FlowPayloadCodecType codecType, String encoded) {
+        FlowPayloadCodecType type = codecType == null ? FlowPayloadCodecType.JSON_IO : codecType;
+        FlowPayloadCodec codec = codecsByType.get(type);
+        if (codec == null) {
+            throw new IllegalStateException("No flow payload codec is registered for " + type);
+        }
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,11 @@
+-- // flowlog payload codec
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE IF EXISTS flowlog ADD COLUMN IF NOT EXISTS codec varchar(255) NULL;
+ALTER TABLE IF EXISTS flowchainlog ADD COLUMN IF NOT EXISTS codec varchar(255) NULL;
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+ALTER TABLE IF EXISTS flowlog DROP COLUMN IF EXISTS codec;
+ALTER TABLE IF EXISTS flowchainlog DROP COLUMN IF EXISTS codec;
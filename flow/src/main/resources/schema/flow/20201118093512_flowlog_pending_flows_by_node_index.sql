@@ -0,0 +1,9 @@
+-- // flowlog pending flows by node index
+-- Migration SQL that makes the change goes here.
+
+CREATE INDEX IF NOT EXISTS idx_flowlog_cloudbreaknodeid_flowid_pending ON flowlog (cloudbreaknodeid, flowid) WHERE statestatus = 'PENDING';
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+DROP INDEX IF EXISTS idx_flowlog_cloudbreaknodeid_flowid_pending;
@@ -8,9 +8,11 @@ import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -41,7 +43,6 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
-import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.sequenceiq.cloudbreak.cloud.scheduler.PollGroup;
@@ -148,33 +149,30 @@ public class HeartbeatServiceTest {
 
         List<FlowLog> node1FlowLogs = getFlowLogs(2, 5000);
         List<String> suspendedFlows = node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList());
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
 
         Set<FlowLog> node2FlowLogs = new HashSet<>(getFlowLogs(3, 3000));
         suspendedFlows.addAll(node2FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_2_ID)).thenReturn(node2FlowLogs);
+
+        Set<FlowLog> myNewFlowLogs = new HashSet<>();
+        myNewFlowLogs.addAll(node1FlowLogs);
+        myNewFlowLogs.addAll(node2FlowLogs);
+        when(flowLogService.findAllByCloudbreakNodeIds(Set.of(NODE_1_ID, NODE_2_ID))).thenReturn(myNewFlowLogs);
 
         Map<Node, List<String>> distribution = new HashMap<>();
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
                         suspendedFlows.get(3), suspendedFlows.get(4)));
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowLogService.claimPendingFlows(eq(MY_ID), anyList(), anySet())).thenAnswer(invocation -> new HashSet<>(invocation.getArgument(1)));
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs);
-        myNewFlowLogs.addAll(node2FlowLogs);
-        when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        when(flowLogService.findAllPendingFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(getFlowIds(myNewFlowLogs));
 
         when(runningFlows.get(any())).thenReturn(null);
 
         heartbeatService.scheduledFlowDistribution();
 
-        verify(flowLogService).saveAll(flowLogListCaptor.capture());
-        List<FlowLog> updatedFlows = flowLogListCaptor.getValue();
-        assertEquals(myNewFlowLogs.size(), updatedFlows.size());
-        for (FlowLog updatedFlow : updatedFlows) {
-            assertEquals(MY_ID, updatedFlow.getCloudbreakNodeId());
-        }
+        verify(flowLogService).claimPendingFlows(MY_ID, distribution.get(clusterNodes.get(0)), Set.of(NODE_1_ID, NODE_2_ID));
+        verify(flowLogService, never()).saveAll(anyCollection());
 
         verify(flow2Handler, times(5)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
@@ -200,33 +198,31 @@ public class HeartbeatServiceTest {
 
         List<FlowLog> node1FlowLogs = getFlowLogs(2, 5000);
         List<String> suspendedFlows = node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList());
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs)).thenReturn(Collections.emptySet());
 
         Set<FlowLog> node2FlowLogs = new HashSet<>(getFlowLogs(3, 3000));
         suspendedFlows.addAll(node2FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_2_ID)).thenReturn(node2FlowLogs).thenReturn(Collections.emptySet());
+
+        Set<FlowLog> myNewFlowLogs = new HashSet<>();
+        myNewFlowLogs.addAll(node1FlowLogs);
+        myNewFlowLogs.addAll(node2FlowLogs);
+        when(flowLogService.findAllByCloudbreakNodeIds(Set.of(NODE_1_ID, NODE_2_ID))).thenReturn(myNewFlowLogs);
+        when(flowLogService.findAllCloudbreakNodeIdsWithPendingFlows(Set.of(NODE_1_ID, NODE_2_ID))).thenReturn(Collections.emptySet());
 
         Map<Node, List<String>> distribution = new HashMap<>();
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
                         suspendedFlows.get(3), suspendedFlows.get(4)));
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowLogService.claimPendingFlows(eq(MY_ID), anyList(), anySet())).thenAnswer(invocation -> new HashSet<>(invocation.getArgument(1)));
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs);
-        myNewFlowLogs.addAll(node2FlowLogs);
-        when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        when(flowLogService.findAllPendingFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(getFlowIds(myNewFlowLogs));
 
         when(runningFlows.get(any())).thenReturn(null);
 
         heartbeatService.scheduledFlowDistribution();
 
-        verify(flowLogService).saveAll(flowLogListCaptor.capture());
-        List<FlowLog> updatedFlows = flowLogListCaptor.getValue();
-        assertEquals(myNewFlowLogs.size(), updatedFlows.size());
-        for (FlowLog updatedFlow : updatedFlows) {
-            assertEquals(MY_ID, updatedFlow.getCloudbreakNodeId());
-        }
+        verify(flowLogService).claimPendingFlows(MY_ID, distribution.get(clusterNodes.get(0)), Set.of(NODE_1_ID, NODE_2_ID));
+        verify(nodeService).deleteAll(clusterNodes.subList(1, clusterNodes.size()));
 
         verify(flow2Handler, times(5)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
@@ -252,51 +248,50 @@ public class HeartbeatServiceTest {
 
         List<FlowLog> node1FlowLogs = getFlowLogs(2, 5000);
         List<String> suspendedFlows = node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList());
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
 
         Set<FlowLog> node2FlowLogs = new HashSet<>(getFlowLogs(3, 3000));
         suspendedFlows.addAll(node2FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_2_ID)).thenReturn(node2FlowLogs);
-
-        Map<Node, List<String>> distribution = new HashMap<>();
-        distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
-                addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
-                        suspendedFlows.get(3), suspendedFlows.get(4)));
-        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
 
         Set<FlowLog> myNewFlowLogs = new HashSet<>();
         myNewFlowLogs.addAll(node1FlowLogs);
         myNewFlowLogs.addAll(node2FlowLogs);
-        when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
-
-        when(runningFlows.get(any())).thenReturn(null);
+        when(flowLogService.findAllByCloudbreakNodeIds(Set.of(NODE_1_ID, NODE_2_ID))).thenReturn(myNewFlowLogs);
 
         List<Long> stackIds = myNewFlowLogs.stream().map(FlowLog::getResourceId).distinct().collect(Collectors.toList());
         when(haApplication.getDeletingResources(anySet())).thenReturn(Set.of(stackIds.get(0), stackIds.get(2)));
         doReturn(Collections.singletonList(HelloWorldFlowConfig.class)).when(applicationFlowInformation).getTerminationFlow();
         List<FlowLog> invalidFlowLogs = myNewFlowLogs.stream()
                 .filter(fl -> fl.getResourceId().equals(stackIds.get(0)) || fl.getResourceId().equals(stackIds.get(2))).collect(Collectors.toList());
+        Set<FlowLog> validFlowLogs = new HashSet<>(myNewFlowLogs);
+        validFlowLogs.removeAll(invalidFlowLogs);
+        List<String> validFlowIds = new ArrayList<>(getFlowIds(validFlowLogs));
+
+        Map<Node, List<String>> distribution = new HashMap<>();
+        distribution.put(clusterNodes.get(0), validFlowIds);
+        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowLogService.claimPendingFlows(eq(MY_ID), anyList(), anySet())).thenAnswer(invocation -> new HashSet<>(invocation.getArgument(1)));
+
+        when(flowLogService.findAllPendingFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(new HashSet<>(validFlowIds));
+
+        when(runningFlows.get(any())).thenReturn(null);
 
         heartbeatService.scheduledFlowDistribution();
 
         verify(flowLogService).saveAll(flowLogListCaptor.capture());
         List<FlowLog> updatedFlows = flowLogListCaptor.getValue();
-        assertEquals(myNewFlowLogs.size(), updatedFlows.size());
+        assertEquals(invalidFlowLogs.size(), updatedFlows.size());
         for (FlowLog updatedFlow : updatedFlows) {
-            if (invalidFlowLogs.contains(updatedFlow)) {
-                assertEquals(StateStatus.SUCCESSFUL, updatedFlow.getStateStatus());
-                assertNull(updatedFlow.getCloudbreakNodeId());
-            } else {
-                assertEquals(MY_ID, updatedFlow.getCloudbreakNodeId());
-            }
+            assertTrue(invalidFlowLogs.contains(updatedFlow));
+            assertEquals(StateStatus.SUCCESSFUL, updatedFlow.getStateStatus());
+            assertNull(updatedFlow.getCloudbreakNodeId());
         }
+        verify(flowDistributor).distribute(argThat(flowIds -> flowIds.size() == validFlowIds.size() && flowIds.containsAll(validFlowIds)), any());
+        verify(flowLogService).claimPendingFlows(MY_ID, validFlowIds, Set.of(NODE_1_ID, NODE_2_ID));
 
-        verify(flow2Handler, times(5)).restartFlow(stringCaptor.capture());
+        verify(flow2Handler, times(3)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
-        assertEquals(5L, allFlowIds.size());
-        for (String flowId : suspendedFlows) {
-            assertTrue(allFlowIds.contains(flowId));
-        }
+        assertEquals(3L, allFlowIds.size());
+        assertTrue(allFlowIds.containsAll(validFlowIds));
     }
 
     @Test
@@ -316,23 +311,24 @@ public class HeartbeatServiceTest {
         List<FlowLog> node1FlowLogs = getFlowLogs(2, 5000);
         node1FlowLogs.forEach(fl -> fl.setFlowType(HelloWorldFlowConfig.class));
         List<String> suspendedFlows = node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList());
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
 
         Set<FlowLog> node2FlowLogs = new HashSet<>(getFlowLogs(3, 3000));
         node2FlowLogs.forEach(fl -> fl.setFlowType(HelloWorldFlowConfig.class));
         suspendedFlows.addAll(node2FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_2_ID)).thenReturn(node2FlowLogs);
+
+        Set<FlowLog> myNewFlowLogs = new HashSet<>();
+        myNewFlowLogs.addAll(node1FlowLogs);
+        myNewFlowLogs.addAll(node2FlowLogs);
+        when(flowLogService.findAllByCloudbreakNodeIds(Set.of(NODE_1_ID, NODE_2_ID))).thenReturn(myNewFlowLogs);
 
         Map<Node, List<String>> distribution = new HashMap<>();
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
                 addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
                         suspendedFlows.get(3), suspendedFlows.get(4)));
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        when(flowLogService.claimPendingFlows(eq(MY_ID), anyList(), anySet())).thenAnswer(invocation -> new HashSet<>(invocation.getArgument(1)));
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs);
-        myNewFlowLogs.addAll(node2FlowLogs);
-        when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        when(flowLogService.findAllPendingFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(getFlowIds(myNewFlowLogs));
 
         when(runningFlows.get(any())).thenReturn(null);
 
@@ -342,12 +338,8 @@ public class HeartbeatServiceTest {
 
         heartbeatService.scheduledFlowDistribution();
 
-        verify(flowLogService).saveAll(flowLogListCaptor.capture());
-        List<FlowLog> updatedFlows = flowLogListCaptor.getValue();
-        assertEquals(myNewFlowLogs.size(), updatedFlows.size());
-        for (FlowLog updatedFlow : updatedFlows) {
-            assertEquals(MY_ID, updatedFlow.getCloudbreakNodeId());
-        }
+        verify(flowLogService, never()).saveAll(anyCollection());
+        verify(flowLogService).claimPendingFlows(MY_ID, distribution.get(clusterNodes.get(0)), Set.of(NODE_1_ID, NODE_2_ID));
 
         verify(flow2Handler, times(5)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
@@ -371,7 +363,7 @@ public class HeartbeatServiceTest {
 
         List<FlowLog> node1FlowLogs = getFlowLogs(3, 5000);
         List<String> suspendedFlows = node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList());
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
+        when(flowLogService.findAllByCloudbreakNodeIds(Set.of(NODE_1_ID))).thenReturn(new HashSet<>(node1FlowLogs));
 
         Map<Node, List<String>> distribution = new HashMap<>();
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
@@ -380,23 +372,21 @@ public class HeartbeatServiceTest {
                 addAll(Collections.singletonList(suspendedFlows.get(1)));
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs.stream().filter(fl -> fl.getFlowId().equalsIgnoreCase(suspendedFlows.get(0))).collect(Collectors.toList()));
-        myNewFlowLogs.addAll(node1FlowLogs.stream().filter(fl -> fl.getFlowId().equalsIgnoreCase(suspendedFlows.get(2))).collect(Collectors.toList()));
-        when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        // someone else has already claimed the flows and distributed them the same way
+        when(flowLogService.claimPendingFlows(anyString(), anyList(), anySet())).thenReturn(Collections.emptySet());
+        Set<String> myNewFlows = Set.of(suspendedFlows.get(0), suspendedFlows.get(2));
+        when(flowLogService.findAllPendingFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlows);
 
         when(runningFlows.get(any())).thenReturn(null);
 
-        when(flowLogService.saveAll(anyCollection())).thenThrow(new OptimisticLockingFailureException("Someone already distributed the flows.."));
-
         heartbeatService.scheduledFlowDistribution();
 
+        verify(flowLogService).claimPendingFlows(MY_ID, distribution.get(clusterNodes.get(0)), Set.of(NODE_1_ID));
+        verify(flowLogService).claimPendingFlows(NODE_2_ID, distribution.get(clusterNodes.get(2)), Set.of(NODE_1_ID));
         verify(flow2Handler, times(2)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
         assertEquals(2L, allFlowIds.size());
-        for (FlowLog flowLog : myNewFlowLogs) {
-            assertTrue(allFlowIds.contains(flowLog.getFlowId()));
-        }
+        assertTrue(allFlowIds.containsAll(myNewFlows));
     }
 
     @Test
@@ -413,7 +403,7 @@ public class HeartbeatServiceTest {
 
         List<FlowLog> node1FlowLogs = getFlowLogs(3, 5000);
         List<String> suspendedFlows = node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList());
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
+        when(flowLogService.findAllByCloudbreakNodeIds(Set.of(NODE_1_ID))).thenReturn(new HashSet<>(node1FlowLogs));
 
         Map<Node, List<String>> distribution = new HashMap<>();
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
@@ -422,21 +412,35 @@ public class HeartbeatServiceTest {
                 addAll(Collections.singletonList(suspendedFlows.get(1)));
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
 
-        List<FlowLog> myNewFlowLogs = node1FlowLogs.stream().filter(fl -> fl.getFlowId().equalsIgnoreCase(suspendedFlows.get(0))).collect(Collectors.toList());
-        when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(new HashSet<>(myNewFlowLogs));
+        // a concurrent distribution has already taken the third flow, only the first one is claimed by this node
+        when(flowLogService.claimPendingFlows(eq(MY_ID), anyList(), anySet())).thenReturn(Set.of(suspendedFlows.get(0)));
+        when(flowLogService.claimPendingFlows(eq(NODE_2_ID), anyList(), anySet())).thenReturn(Collections.emptySet());
+        when(flowLogService.findAllPendingFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(Set.of(suspendedFlows.get(0)));
 
         when(runningFlows.get(any())).thenReturn(null);
 
-        when(flowLogService.saveAll(anyCollection())).thenThrow(new OptimisticLockingFailureException("Someone already distributed the flows.."));
-
         heartbeatService.scheduledFlowDistribution();
 
         verify(flow2Handler, times(1)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
         assertEquals(1L, allFlowIds.size());
-        for (FlowLog flowLog : myNewFlowLogs) {
-            assertTrue(allFlowIds.contains(flowLog.getFlowId()));
-        }
+        assertEquals(suspendedFlows.get(0), allFlowIds.get(0));
+    }
+
+    @Test
+    public void testFlowsAreNotQueriedWithoutFailedNodes() {
+        List<Node> clusterNodes = getClusterNodes();
+        clusterNodes.forEach(node -> node.setLastUpdated(200_000L));
+        when(nodeService.findAll()).thenReturn(clusterNodes);
+        when(clock.getCurrentTimeMillis()).thenReturn(200_000L);
+        when(flowLogService.findAllByCloudbreakNodeIds(Collections.emptySet())).thenReturn(Collections.emptySet());
+        when(flowLogService.findAllPendingFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(Collections.emptySet());
+
+        heartbeatService.scheduledFlowDistribution();
+
+        verify(flowDistributor, never()).distribute(any(), any());
+        verify(flowLogService, never()).claimPendingFlows(anyString(), anyCollection(), anyCollection());
+        verify(flow2Handler, never()).restartFlow(anyString());
     }
 
     @Test
@@ -480,7 +484,7 @@ public class HeartbeatServiceTest {
             assertEquals(PollGroup.POLLABLE, InMemoryStateStore.getStack(myStackId));
         }
         // There was no action on InMemoryStateStore
-        verify(flowLogService, times(0)).findAllByCloudbreakNodeId(anyString());
+        verify(flowLogService, times(0)).findAllPendingFlowIdsByCloudbreakNodeId(anyString());
     }
 
     @Test
@@ -550,8 +554,9 @@ public class HeartbeatServiceTest {
 
         Set<FlowLog> failedFLowLogs1 = new HashSet<>(getFlowLogs(2, 5000));
         Set<FlowLog> failedFlowLogs2 = new HashSet<>(getFlowLogs(2, 5000));
-        when(flowLogService.findAllByCloudbreakNodeId(MY_ID)).thenReturn(failedFLowLogs1);
-        when(flowLogService.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(failedFlowLogs2);
+        Set<FlowLog> failedFlowLogs = new HashSet<>(failedFLowLogs1);
+        failedFlowLogs.addAll(failedFlowLogs2);
+        when(flowLogService.findAllByCloudbreakNodeIds(Set.of(MY_ID, NODE_1_ID))).thenReturn(failedFlowLogs);
 
         Map<Node, List<String>> flowDistribution = createFlowDistribution(failedFLowLogs1, failedFlowLogs2);
         when(flowDistributor.distribute(anyList(), eq(clusterNodes.subList(2, clusterNodes.size())))).thenReturn(flowDistribution);
@@ -574,6 +579,10 @@ public class HeartbeatServiceTest {
         assertEquals(clusterNodes.subList(0, 2), nodes);
     }
 
+    private Set<String> getFlowIds(Collection<FlowLog> flowLogs) {
+        return flowLogs.stream().map(FlowLog::getFlowId).collect(Collectors.toSet());
+    }
+
     private Map<Node, List<String>> createFlowDistribution(Set<FlowLog> failedFLowLogs1, Set<FlowLog> failedFlowLogs2) {
         Map<Node, List<String>> distribution = new HashMap<>();
 
@@ -0,0 +1,19 @@
+package com.sequenceiq.flow.converter;
+
+import javax.persistence.AttributeConverter;
+
+import com.sequenceiq.cloudbreak.converter.DefaultEnumConverterBaseTest;
+import com.sequenceiq.flow.domain.FlowPayloadCodecType;
+
+public class FlowPayloadCodecTypeConverterTest extends DefaultEnumConverterBaseTest<FlowPayloadCodecType> {
+
+    @Override
+    public FlowPayloadCodecType getDefaultValue() {
+        return FlowPayloadCodecType.JSON_IO;
+    }
+
+    @Override
+    public AttributeConverter<FlowPayloadCodecType, String> getVictim() {
+        return new FlowPayloadCodecTypeConverter();
+    }
+}
@@ -3,6 +3,7 @@ package com.sequenceiq.flow.core;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -12,6 +13,7 @@ import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -41,6 +43,7 @@ import org.springframework.statemachine.access.StateMachineAccessor;
 import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.cedarsoftware.util.io.JsonReader;
 import com.cedarsoftware.util.io.JsonWriter;
 import com.google.common.collect.Lists;
 import com.sequenceiq.cloudbreak.common.event.Payload;
@@ -55,6 +58,9 @@ import com.sequenceiq.flow.core.restart.DefaultRestartAction;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
+import com.sequenceiq.flow.service.flowlog.FlowLogGroupCommitService;
+import com.sequenceiq.flow.service.flowlog.FlowLogTransition;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.opentracing.Scope;
@@ -158,6 +164,12 @@ public class Flow2HandlerTest {
     @Mock
     private InMemoryCleanup inMemoryCleanup;
 
+    @Mock
+    private FlowPayloadSerializer flowPayloadSerializer;
+
+    @Mock
+    private FlowLogGroupCommitService flowLogGroupCommitService;
+
     private FlowState flowState;
 
     private Event<? extends Payload> dummyEvent;
@@ -172,6 +184,7 @@ public class Flow2HandlerTest {
         headers.put(Flow2Handler.FLOW_ID, FLOW_ID);
         dummyEvent = new Event<>(new Headers(headers), payload);
         flowState = new OwnFlowState();
+        when(flowPayloadSerializer.deserialize(any(), anyString())).thenAnswer(invocation -> JsonReader.jsonToJava(invocation.getArgument(1)));
         doAnswer(invocation -> {
             ((Runnable) invocation.getArgument(0)).run();
             return null;
@@ -274,6 +287,56 @@ public class Flow2HandlerTest {
         assertNull(flowParameters.getFlowTriggerUserCrn());
     }
 
+    @Test
+    public void testExistingFlowWithGroupCommit() throws TransactionExecutionException {
+        FlowLog lastFlowLog = new FlowLog();
+        lastFlowLog.setId(2L);
+        lastFlowLog.setNextEvent("OTHER_KEY");
+        FlowLog nextFlowLog = new FlowLog();
+        BDDMockito.<FlowConfiguration<?>>given(flowConfigurationMap.get(any())).willReturn(flowConfig);
+        given(flowLogGroupCommitService.isEnabled()).willReturn(true);
+        given(runningFlows.get(anyString())).willReturn(flow);
+        given(flow.getCurrentState()).willReturn(flowState);
+        given(flow.getFlowId()).willReturn(FLOW_ID);
+        given(flowLogService.getLastFlowLog(FLOW_ID)).willReturn(Optional.of(lastFlowLog));
+        given(flowLogService.createFlowLog(any(FlowParameters.class), nullable(String.class), eq("KEY"), any(Payload.class), any(), nullable(Class.class),
+                eq(flowState))).willReturn(nextFlowLog);
+
+        dummyEvent.setKey("KEY");
+        underTest.accept(dummyEvent);
+
+        ArgumentCaptor<FlowLogTransition> transitionCaptor = ArgumentCaptor.forClass(FlowLogTransition.class);
+        verify(flowLogGroupCommitService, times(1)).commit(transitionCaptor.capture());
+        verify(transactionService, never()).required(any(Runnable.class));
+        verify(flowLogService, never()).save(any(), any(), any(), any(), any(), any(), any());
+        verify(flowLogService, never()).updateLastFlowLogStatus(any(), anyBoolean());
+        verify(flow, times(1)).sendEvent(eq("KEY"), isNull(), any(), any());
+        FlowLogTransition transition = transitionCaptor.getValue();
+        assertEquals(Long.valueOf(2L), transition.getLastFlowLogId());
+        assertEquals(StateStatus.SUCCESSFUL, transition.getLastFlowLogStatus());
+        assertEquals(nextFlowLog, transition.getFlowLog());
+    }
+
+    @Test
+    public void testExistingFlowWithGroupCommitFailure() throws TransactionExecutionException {
+        FlowLog lastFlowLog = new FlowLog();
+        lastFlowLog.setNextEvent("OTHER_KEY");
+        BDDMockito.<FlowConfiguration<?>>given(flowConfigurationMap.get(any())).willReturn(flowConfig);
+        given(flowLogGroupCommitService.isEnabled()).willReturn(true);
+        given(runningFlows.get(anyString())).willReturn(flow);
+        given(flow.getCurrentState()).willReturn(flowState);
+        given(flow.getFlowId()).willReturn(FLOW_ID);
+        given(flowLogService.getLastFlowLog(FLOW_ID)).willReturn(Optional.of(lastFlowLog));
+        doThrow(new IllegalStateException("commit failed")).when(flowLogGroupCommitService).commit(any());
+
+        dummyEvent.setKey("KEY");
+        underTest.accept(dummyEvent);
+
+        verify(flow, never()).sendEvent(any(), any(), any(), any());
+        verify(flowLogService, times(1)).terminate(STACK_ID, FLOW_ID);
+        verify(runningFlows, times(1)).remove(FLOW_ID);
+    }
+
     @Test
     public void testChangedNodeId() {
         FlowLog lastFlowLog = new FlowLog();
@@ -1,6 +1,7 @@
 package com.sequenceiq.flow.core.config;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -15,7 +16,9 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.sequenceiq.flow.core.Flow2Handler;
+import com.sequenceiq.flow.core.helloworld.config.HelloWorldEvent;
 import com.sequenceiq.flow.core.helloworld.config.HelloWorldFlowConfig;
+import com.sequenceiq.flow.reactor.ResourceShardedDispatcher;
 
 import reactor.bus.EventBus;
 import reactor.bus.selector.Selector;
@@ -35,6 +38,9 @@ public class Flow2InitializerTest {
     @Mock
     private Flow2Handler flow2Handler;
 
+    @Mock
+    private ResourceShardedDispatcher eventBusDispatcher;
+
     @Before
     public void setUp() {
         underTest = new Flow2Initializer();
@@ -49,4 +55,15 @@ public class Flow2InitializerTest {
         underTest.init();
         verify(reactor, times(1)).on(any(Selector.class), any(Consumer.class));
     }
+
+    @Test
+    public void testInitializeRegistersFlowSelectorsAsLaneSelectors() {
+        List<FlowConfiguration<?>> flowConfigs = new ArrayList<>();
+        flowConfigs.add(new HelloWorldFlowConfig());
+        given(this.flowConfigs.stream()).willReturn(flowConfigs.stream());
+        underTest.init();
+        verify(eventBusDispatcher, times(1)).registerLaneSelectors(argThat(selectors -> selectors.contains(Flow2Handler.FLOW_FINAL)
+                && selectors.contains(Flow2Handler.FLOW_CANCEL)
+                && selectors.contains(HelloWorldEvent.HELLOWORLD_TRIGGER_EVENT.event())));
+    }
 }
@@ -0,0 +1,175 @@
+package com.sequenceiq.flow.reactor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.flow.core.exception.FlowEventQueueFullException;
+
+import reactor.bus.Event;
+import reactor.core.Dispatcher;
+import reactor.fn.Consumer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResourceShardedDispatcherTest {
+
+    private static final String FLOW_SELECTOR = "FLOW_EVENT";
+
+    private static final String HANDLER_SELECTOR = "HANDLER_EVENT";
+
+    private static final int EVENT_COUNT = 50;
+
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Mock
+    private Dispatcher sharedDispatcher;
+
+    private ResourceShardedDispatcher underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new ResourceShardedDispatcher(sharedDispatcher, 4, 1, 100L);
+        underTest.registerLaneSelectors(Set.of(FLOW_SELECTOR));
+    }
+
+    @After
+    public void tearDown() {
+        underTest.forceShutdown();
+    }
+
+    @Test
+    public void testEventsOfAResourceAreHandledInOrderOnTheSameLane() throws InterruptedException {
+        underTest.forceShutdown();
+        underTest = new ResourceShardedDispatcher(sharedDispatcher, 4, EVENT_COUNT, 100L);
+        underTest.registerLaneSelectors(Set.of(FLOW_SELECTOR));
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch allHandled = new CountDownLatch(EVENT_COUNT);
+
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            int sequence = i;
+            underTest.dispatch(event(FLOW_SELECTOR, 1L), e -> {
+                handled.add(sequence);
+                threads.add(Thread.currentThread());
+                allHandled.countDown();
+            }, null);
+        }
+
+        assertTrue(allHandled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            assertEquals(Integer.valueOf(i), handled.get(i));
+        }
+        assertEquals(1, threads.size());
+        verify(sharedDispatcher, never()).dispatch(any(), any(), any());
+    }
+
+    @Test
+    public void testEventsOfOtherSelectorsAreDispatchedByTheSharedDispatcher() {
+        Event<Payload> event = event(HANDLER_SELECTOR, 1L);
+        Consumer<Event<Payload>> consumer = e -> { };
+
+        underTest.dispatch(event, consumer, null);
+
+        verify(sharedDispatcher).dispatch(eq(event), eq(consumer), any());
+    }
+
+    @Test
+    public void testEventsWithoutResourceIdAreDispatchedByTheSharedDispatcher() {
+        Event<Payload> event = event(FLOW_SELECTOR, null);
+
+        underTest.dispatch(event, e -> { }, null);
+
+        verify(sharedDispatcher).dispatch(eq(event), any(), any());
+    }
+
+    @Test
+    public void testFullLaneRejectsTheEventAfterTheTimeout() throws InterruptedException {
+        CountDownLatch consumerStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        underTest.dispatch(event(FLOW_SELECTOR, 1L), e -> {
+            consumerStarted.countDown();
+            await(release);
+        }, null);
+        assertTrue(consumerStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        underTest.dispatch(event(FLOW_SELECTOR, 1L), e -> { }, null);
+
+        thrown.expect(FlowEventQueueFullException.class);
+
+        try {
+            underTest.dispatch(event(FLOW_SELECTOR, 1L), e -> { }, null);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testLaneThreadCanDispatchToItsOwnFullLane() throws InterruptedException {
+        CountDownLatch nextHandled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        underTest.dispatch(event(FLOW_SELECTOR, 1L), e -> {
+            await(release);
+            underTest.dispatch(event(FLOW_SELECTOR, 1L), next -> nextHandled.countDown(), null);
+        }, null);
+        underTest.dispatch(event(FLOW_SELECTOR, 1L), e -> { }, null);
+
+        release.countDown();
+
+        assertTrue(nextHandled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConsumerErrorIsRoutedToTheErrorConsumer() throws InterruptedException {
+        RuntimeException error = new IllegalStateException("failed");
+        AtomicReference<Throwable> routedError = new AtomicReference<>();
+        CountDownLatch errorRouted = new CountDownLatch(1);
+
+        underTest.dispatch(event(FLOW_SELECTOR, 1L), e -> {
+            throw error;
+        }, throwable -> {
+            routedError.set(throwable);
+            errorRouted.countDown();
+        });
+
+        assertTrue(errorRouted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertSame(error, routedError.get());
+    }
+
+    private Event<Payload> event(String selector, Long resourceId) {
+        Event<Payload> event = new Event<>(() -> resourceId);
+        event.setKey(selector);
+        return event;
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
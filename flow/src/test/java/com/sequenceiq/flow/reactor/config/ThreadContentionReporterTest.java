@@ -0,0 +1,83 @@
+package com.sequenceiq.flow.reactor.config;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.flow.core.FlowMetricType;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ThreadContentionReporterTest {
+
+    private static final long WAIT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10L);
+
+    private static final long WAIT_STEP_MILLIS = 10L;
+
+    private final Object monitor = new Object();
+
+    @InjectMocks
+    private ThreadContentionReporter underTest;
+
+    @Mock
+    private MetricService metricService;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "threadNamePrefixes", List.of("reactorDispatcher"));
+        ReflectionTestUtils.setField(underTest, "topMonitors", 5);
+        underTest.init();
+    }
+
+    @Test
+    public void testBlockedPoolThreadIsReported() throws InterruptedException {
+        Thread blockedThread = new Thread(this::enterMonitor, "reactorDispatcher-1");
+        synchronized (monitor) {
+            blockedThread.start();
+            waitUntilBlocked(blockedThread);
+
+            underTest.report();
+        }
+        blockedThread.join(WAIT_TIMEOUT_MILLIS);
+
+        verify(metricService).submit(FlowMetricType.THREADPOOL_THREADS, 1, Map.of("pool", "reactorDispatcher", "state", "BLOCKED"));
+        verify(metricService).submit(FlowMetricType.THREADPOOL_THREADS, 0, Map.of("pool", "reactorDispatcher", "state", "RUNNABLE"));
+    }
+
+    @Test
+    public void testNothingIsReportedWhenDisabled() {
+        ReflectionTestUtils.setField(underTest, "enabled", false);
+
+        underTest.report();
+
+        verify(metricService, never()).submit(eq(FlowMetricType.THREADPOOL_THREADS), anyDouble(), anyMap());
+    }
+
+    private void enterMonitor() {
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    private void waitUntilBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (thread.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(WAIT_STEP_MILLIS);
+        }
+    }
+}
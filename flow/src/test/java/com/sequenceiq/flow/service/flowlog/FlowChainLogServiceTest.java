@@ -3,6 +3,8 @@ package com.sequenceiq.flow.service.flowlog;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
@@ -16,10 +18,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.cedarsoftware.util.io.JsonReader;
 import com.cedarsoftware.util.io.JsonWriter;
 import com.sequenceiq.cloudbreak.common.event.Selectable;
 import com.sequenceiq.flow.domain.FlowChainLog;
 import com.sequenceiq.flow.repository.FlowChainLogRepository;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FlowChainLogServiceTest {
@@ -34,6 +38,9 @@ public class FlowChainLogServiceTest {
     @Mock
     private FlowChainLogRepository flowLogRepository;
 
+    @Mock
+    private FlowPayloadSerializer flowPayloadSerializer;
+
     @Test
     public void testFindAllFlowChainsInTree() {
         FlowChainLog flowChainLogA = flowChainLog("A", NO_PARENT, 1);
@@ -71,6 +78,7 @@ public class FlowChainLogServiceTest {
 
     @Test
     public void testCheckIfThereIsEventInQueues() {
+        setUpChainDeserialization();
         List<FlowChainLog> flowChains = List.of(
                 flowChainLog("1", true, 1L),
                 flowChainLog("1", true, 2L),
@@ -82,6 +90,7 @@ public class FlowChainLogServiceTest {
 
     @Test
     public void testCheckIfThereIsNoEventInQueues() {
+        setUpChainDeserialization();
         List<FlowChainLog> flowChains = List.of(
                 flowChainLog("1", true, 1L),
                 flowChainLog("1", false, 2L),
@@ -93,6 +102,7 @@ public class FlowChainLogServiceTest {
 
     @Test
     public void testCheckIfThereIsEventInQueuesBasedOnlatestChains() {
+        setUpChainDeserialization();
         List<FlowChainLog> flowChains = List.of(
                 flowChainLog("1", false, 1L),
                 flowChainLog("1", true, 2L),
@@ -102,6 +112,10 @@ public class FlowChainLogServiceTest {
         assertTrue(underTest.hasEventInFlowChainQueue(flowChains));
     }
 
+    private void setUpChainDeserialization() {
+        when(flowPayloadSerializer.deserialize(any(), anyString())).thenAnswer(invocation -> JsonReader.jsonToJava(invocation.getArgument(1)));
+    }
+
     private FlowChainLog flowChainLog(String flowChainId, String parentFlowChainId, long created) {
         FlowChainLog flowChainLog = new FlowChainLog();
         flowChainLog.setFlowChainId(flowChainId);
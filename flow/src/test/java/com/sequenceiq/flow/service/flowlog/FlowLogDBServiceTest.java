@@ -2,6 +2,7 @@ package com.sequenceiq.flow.service.flowlog;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -11,6 +12,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -19,6 +21,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.assertj.core.util.Lists;
 import org.junit.Rule;
@@ -43,9 +47,11 @@ import com.sequenceiq.flow.core.ResourceIdProvider;
 import com.sequenceiq.flow.core.config.AbstractFlowConfiguration;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.FlowLogIdWithTypeAndTimestamp;
+import com.sequenceiq.flow.domain.FlowPayloadCodecType;
 import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
 import com.sequenceiq.flow.repository.FlowLogRepository;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FlowLogDBServiceTest {
@@ -54,6 +60,8 @@ public class FlowLogDBServiceTest {
 
     private static final long ID = 1L;
 
+    private static final int CLAIMED_FLOW_COUNT = 2500;
+
     private static final String CLOUDBREAK_STACK_CRN = Crn.builder()
             .setAccountId("acc")
             .setPartition(Crn.Partition.CDP)
@@ -83,6 +91,9 @@ public class FlowLogDBServiceTest {
     @Mock
     private NodeConfig nodeConfig;
 
+    @Mock
+    private FlowPayloadSerializer flowPayloadSerializer;
+
     @Test
     public void updateLastFlowLogStatus() {
         runUpdateLastFlowLogStatusTest(false, StateStatus.SUCCESSFUL);
@@ -121,6 +132,8 @@ public class FlowLogDBServiceTest {
 
         Payload payload = mock(Selectable.class);
         Map<Object, Object> variables = Map.of("repeated", 2);
+        when(flowPayloadSerializer.serialize(any())).thenAnswer(invocation -> JsonWriter.objectToJson(invocation.getArgument(0), Map.of()));
+        when(flowPayloadSerializer.getWriteCodecType()).thenReturn(FlowPayloadCodecType.JSON_IO);
 
         underTest.updateLastFlowLogPayload(flowLog, payload, variables);
 
@@ -134,6 +147,7 @@ public class FlowLogDBServiceTest {
         String variablesJson = JsonWriter.objectToJson(variables, Map.of());
         assertEquals(payloadJson, savedFlowLog.getPayload());
         assertEquals(variablesJson, savedFlowLog.getVariables());
+        assertEquals(FlowPayloadCodecType.JSON_IO, savedFlowLog.getCodec());
     }
 
     @Test
@@ -255,6 +269,27 @@ public class FlowLogDBServiceTest {
         assertEquals(Boolean.TRUE, actual);
     }
 
+    @Test
+    public void testClaimPendingFlowsInChunks() {
+        List<String> flowIds = IntStream.range(0, CLAIMED_FLOW_COUNT).mapToObj(String::valueOf).collect(Collectors.toList());
+        Set<String> formerNodeIds = Set.of("failed-node");
+        when(flowLogRepository.claimPendingFlows(eq("node"), anyCollection(), eq(formerNodeIds)))
+                .thenAnswer(invocation -> Lists.newArrayList(invocation.<Collection<String>>getArgument(1)));
+
+        Set<String> claimed = underTest.claimPendingFlows("node", flowIds, formerNodeIds);
+
+        assertEquals(new HashSet<>(flowIds), claimed);
+        verify(flowLogRepository, times(3)).claimPendingFlows(eq("node"), anyCollection(), eq(formerNodeIds));
+    }
+
+    @Test
+    public void testClaimPendingFlowsWithoutFormerNodes() {
+        Set<String> claimed = underTest.claimPendingFlows("node", List.of(FLOW_ID), Set.of());
+
+        assertEquals(Set.of(), claimed);
+        verify(flowLogRepository, never()).claimPendingFlows(anyString(), anyCollection(), anyCollection());
+    }
+
     private FlowLog createFlowLog(boolean pending, String flowId) {
         FlowLog flowLog = createFlowLog(flowId);
         flowLog.setFinalized(!pending);
@@ -0,0 +1,180 @@
+package com.sequenceiq.flow.service.flowlog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.flow.core.FlowMetricType;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+import com.sequenceiq.flow.repository.FlowLogRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlowLogGroupCommitServiceTest {
+
+    private static final int FLOW_COUNT = 20;
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @InjectMocks
+    private FlowLogGroupCommitService underTest;
+
+    @Mock
+    private FlowLogRepository flowLogRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private MetricService metricService;
+
+    @Before
+    public void setUp() throws TransactionExecutionException {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "maxDelayMillis", 5L);
+        ReflectionTestUtils.setField(underTest, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(underTest, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(underTest, "commitTimeoutSeconds", 10L);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(transactionService).required(any(Runnable.class));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        underTest.destroy();
+    }
+
+    @Test
+    public void testCommitWaitsForTheBatchAndUpdatesLastFlowLogStatus() {
+        underTest.init();
+        FlowLog nextFlowLog = new FlowLog();
+
+        underTest.commit(FlowLogTransition.nextState(flowLogWithId(1L), StateStatus.FAILED, nextFlowLog));
+
+        verify(flowLogRepository, times(1)).updateLastLogStatusInFlows(List.of(1L), StateStatus.FAILED);
+        verify(flowLogRepository, times(1)).saveAll(List.of(nextFlowLog));
+        verify(metricService, times(1)).recordTimerMetric(eq(FlowMetricType.FLOW_LOG_GROUP_COMMIT_TIME), any());
+        verify(metricService, times(1)).submit(FlowMetricType.FLOW_LOG_GROUP_COMMIT_BATCH_SIZE, 1);
+    }
+
+    @Test
+    public void testRepeatedStateOnlySavesTheLastFlowLog() {
+        underTest.init();
+        FlowLog lastFlowLog = flowLogWithId(1L);
+
+        underTest.commit(FlowLogTransition.repeatedState(lastFlowLog));
+
+        verify(flowLogRepository, never()).updateLastLogStatusInFlows(anyCollection(), any());
+        verify(flowLogRepository, times(1)).saveAll(List.of(lastFlowLog));
+    }
+
+    @Test
+    public void testConcurrentTransitionsAreCommittedTogether() throws Exception {
+        underTest.init();
+        ExecutorService executorService = Executors.newFixedThreadPool(FLOW_COUNT);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long i = 0; i < FLOW_COUNT; i++) {
+                FlowLogTransition transition = FlowLogTransition.nextState(flowLogWithId(i), StateStatus.SUCCESSFUL, new FlowLog());
+                futures.add(executorService.submit(() -> underTest.commit(transition)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        ArgumentCaptor<Iterable<FlowLog>> savedCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(flowLogRepository, atLeastOnce()).saveAll(savedCaptor.capture());
+        int savedCount = savedCaptor.getAllValues().stream().mapToInt(saved -> ((List<FlowLog>) saved).size()).sum();
+        assertEquals(FLOW_COUNT, savedCount);
+        verify(metricService, atLeastOnce()).submit(eq(FlowMetricType.FLOW_LOG_GROUP_COMMIT_BATCH_SIZE), anyDouble());
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedOneByOne() throws Exception {
+        ReflectionTestUtils.setField(underTest, "maxDelayMillis", 500L);
+        underTest.init();
+        FlowLog firstFlowLog = new FlowLog();
+        FlowLog secondFlowLog = new FlowLog();
+        secondFlowLog.setVersion(0L);
+        when(flowLogRepository.saveAll(any())).thenThrow(new IllegalStateException("db error")).thenReturn(List.of());
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executorService.submit(() ->
+                    underTest.commit(FlowLogTransition.nextState(flowLogWithId(1L), StateStatus.SUCCESSFUL, firstFlowLog)));
+            Future<?> second = executorService.submit(() ->
+                    underTest.commit(FlowLogTransition.nextState(flowLogWithId(2L), StateStatus.SUCCESSFUL, secondFlowLog)));
+            first.get();
+            second.get();
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        verify(flowLogRepository, times(1)).saveAll(List.of(firstFlowLog));
+        verify(flowLogRepository, times(1)).saveAll(List.of(secondFlowLog));
+        assertNull(secondFlowLog.getVersion());
+    }
+
+    @Test
+    public void testFailedCommitIsReportedToTheCaller() {
+        underTest.init();
+        when(flowLogRepository.saveAll(any())).thenThrow(new IllegalStateException("db error"));
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("Flow log transition could not be committed");
+
+        underTest.commit(FlowLogTransition.nextState(flowLogWithId(1L), StateStatus.SUCCESSFUL, new FlowLog()));
+    }
+
+    @Test
+    public void testCommitIsSynchronousWhenCommitterIsNotRunning() {
+        ReflectionTestUtils.setField(underTest, "enabled", false);
+        underTest.init();
+        FlowLog nextFlowLog = new FlowLog();
+
+        underTest.commit(FlowLogTransition.nextState(flowLogWithId(1L), StateStatus.SUCCESSFUL, nextFlowLog));
+
+        verify(flowLogRepository, times(1)).saveAll(List.of(nextFlowLog));
+    }
+
+    private FlowLog flowLogWithId(Long id) {
+        FlowLog flowLog = new FlowLog();
+        flowLog.setId(id);
+        return flowLog;
+    }
+}
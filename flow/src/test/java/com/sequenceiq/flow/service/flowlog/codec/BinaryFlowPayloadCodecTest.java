@@ -0,0 +1,169 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.ImmutableList;
+import com.sequenceiq.cloudbreak.common.event.Selectable;
+import com.sequenceiq.flow.domain.StateStatus;
+
+import reactor.rx.Promise;
+
+public class BinaryFlowPayloadCodecTest {
+
+    private BinaryFlowPayloadCodec underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new BinaryFlowPayloadCodec();
+        ReflectionTestUtils.setField(underTest, "compressionEnabled", true);
+        ReflectionTestUtils.setField(underTest, "compressionThreshold", 2048);
+    }
+
+    @Test
+    public void testPayloadRoundTrip() {
+        TestScaleEvent event = new TestScaleEvent("SCALE_EVENT", 12L, "worker", 3, new LinkedHashSet<>(List.of("host1", "host2")), StateStatus.FAILED);
+
+        TestScaleEvent result = (TestScaleEvent) underTest.decode(underTest.encode(event));
+
+        assertEquals("SCALE_EVENT", result.selector());
+        assertEquals(Long.valueOf(12L), result.getResourceId());
+        assertEquals("worker", result.hostGroup);
+        assertEquals(Integer.valueOf(3), result.adjustment);
+        assertEquals(Set.of("host1", "host2"), result.hostNames);
+        assertEquals(StateStatus.FAILED, result.status);
+        assertTrue(result.restartServices);
+        assertNull("Promise fields should not be persisted", ((TestStackEvent) result).accepted);
+    }
+
+    @Test
+    public void testVariablesRoundTrip() {
+        Map<Object, Object> variables = new HashMap<>();
+        variables.put("REPEATED", 3);
+        variables.put("HOSTS", ImmutableList.of("host1", "host2"));
+        variables.put("UNMODIFIABLE", List.of(1L, 2L));
+        variables.put("ERROR", new IllegalStateException("something went wrong"));
+
+        Map<Object, Object> result = (Map<Object, Object>) underTest.decode(underTest.encode(variables));
+
+        assertEquals(3, result.get("REPEATED"));
+        assertEquals(ImmutableList.of("host1", "host2"), result.get("HOSTS"));
+        assertEquals(List.of(1L, 2L), result.get("UNMODIFIABLE"));
+        assertEquals("something went wrong", ((IllegalStateException) result.get("ERROR")).getMessage());
+    }
+
+    @Test
+    public void testFlowChainQueueRoundTripKeepsSharedReferences() {
+        TestScaleEvent event = new TestScaleEvent("SCALE_EVENT", 1L, "worker", 1, Set.of(), StateStatus.PENDING);
+        Queue<Selectable> chain = new ConcurrentLinkedQueue<>(List.of(event, event));
+
+        Queue<Selectable> result = (Queue<Selectable>) underTest.decode(underTest.encode(chain));
+
+        assertEquals(2, result.size());
+        assertSame(result.poll(), result.poll());
+    }
+
+    @Test
+    public void testUnmodifiableCollectionsReferencingThemselvesRoundTrip() {
+        List<Object> elements = new ArrayList<>();
+        List<Object> list = Collections.unmodifiableList(elements);
+        elements.add("element");
+        elements.add(list);
+        Map<Object, Object> entries = new HashMap<>();
+        Map<Object, Object> map = Collections.unmodifiableMap(entries);
+        entries.put("SELF", map);
+        entries.put("LIST", list);
+
+        Map<Object, Object> result = (Map<Object, Object>) underTest.decode(underTest.encode(map));
+
+        assertSame(result, result.get("SELF"));
+        List<Object> resultList = (List<Object>) result.get("LIST");
+        assertEquals("element", resultList.get(0));
+        assertSame(resultList, resultList.get(1));
+    }
+
+    @Test
+    public void testLargePayloadIsCompressed() {
+        List<String> hostNames = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            hostNames.add("host-" + i + ".example.com");
+        }
+        TestScaleEvent event = new TestScaleEvent("SCALE_EVENT", 1L, "worker", 1000, new LinkedHashSet<>(hostNames), StateStatus.PENDING);
+
+        String encoded = underTest.encode(event);
+
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        assertEquals(BinaryFlowPayloadCodec.FORMAT_VERSION, bytes[0]);
+        assertEquals(1, bytes[1]);
+        assertEquals(1000, ((TestScaleEvent) underTest.decode(encoded)).hostNames.size());
+    }
+
+    @Test
+    public void testNullRoundTrip() {
+        assertNull(underTest.decode(underTest.encode(null)));
+    }
+
+    public static class TestStackEvent implements Selectable {
+
+        private final String selector;
+
+        private final Long stackId;
+
+        private final Promise<Void> accepted;
+
+        public TestStackEvent(String selector, Long stackId) {
+            this.selector = selector;
+            this.stackId = stackId;
+            accepted = new Promise<>();
+        }
+
+        @Override
+        public String selector() {
+            return selector;
+        }
+
+        @Override
+        public Long getResourceId() {
+            return stackId;
+        }
+    }
+
+    public static class TestScaleEvent extends TestStackEvent {
+
+        private final String hostGroup;
+
+        private final Integer adjustment;
+
+        private final Set<String> hostNames;
+
+        private final StateStatus status;
+
+        private final boolean restartServices;
+
+        public TestScaleEvent(String selector, Long stackId, String hostGroup, Integer adjustment, Set<String> hostNames, StateStatus status) {
+            super(selector, stackId);
+            this.hostGroup = hostGroup;
+            this.adjustment = adjustment;
+            this.hostNames = hostNames;
+            this.status = status;
+            restartServices = true;
+        }
+    }
+}
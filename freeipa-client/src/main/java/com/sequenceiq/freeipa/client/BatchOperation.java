@@ -0,0 +1,66 @@
+package com.sequenceiq.freeipa.client;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A single command of a FreeIPA {@code batch} call, created by the operation factory methods of {@link FreeIpaClient}.
+ */
+public class BatchOperation {
+
+    private final String method;
+
+    private final List<Object> flags;
+
+    private final Map<String, Object> params;
+
+    private final Type resultType;
+
+    private final String group;
+
+    BatchOperation(String method, List<Object> flags, Map<String, Object> params, Type resultType) {
+        this(method, flags, params, resultType, null);
+    }
+
+    BatchOperation(String method, List<Object> flags, Map<String, Object> params, Type resultType, String group) {
+        this.method = method;
+        this.flags = flags;
+        this.params = params;
+        this.resultType = resultType;
+        this.group = group;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public List<Object> getFlags() {
+        return flags;
+    }
+
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    public Type getResultType() {
+        return resultType;
+    }
+
+    /**
+     * The group the command is about, present for the group commands only.
+     */
+    public Optional<String> getGroup() {
+        return Optional.ofNullable(group);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOperation{"
+                + "method='" + method + '\''
+                + ", flags=" + flags
+                + ", group='" + group + '\''
+                + '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.sequenceiq.freeipa.client;
+
+import java.util.Optional;
+
+import com.sequenceiq.freeipa.client.model.RPCResponse;
+
+/**
+ * The outcome of one command of a FreeIPA {@code batch} call. Either the response or the error of the command is present, the error
+ * carries the FreeIPA error code so {@link FreeIpaClientExceptionUtil} can classify it like the error of a single call.
+ */
+public class BatchOperationResult {
+
+    private final BatchOperation operation;
+
+    private final RPCResponse<Object> response;
+
+    private final FreeIpaClientException error;
+
+    private BatchOperationResult(BatchOperation operation, RPCResponse<Object> response, FreeIpaClientException error) {
+        this.operation = operation;
+        this.response = response;
+        this.error = error;
+    }
+
+    public static BatchOperationResult success(BatchOperation operation, RPCResponse<Object> response) {
+        return new BatchOperationResult(operation, response, null);
+    }
+
+    public static BatchOperationResult failure(BatchOperation operation, FreeIpaClientException error) {
+        return new BatchOperationResult(operation, null, error);
+    }
+
+    public BatchOperation getOperation() {
+        return operation;
+    }
+
+    public RPCResponse<Object> getResponse() {
+        return response;
+    }
+
+    public Optional<FreeIpaClientException> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
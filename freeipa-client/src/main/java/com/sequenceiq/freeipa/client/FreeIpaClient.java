@@ -17,14 +17,20 @@ import java.util.OptionalInt;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.TypeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
 import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
 import com.sequenceiq.cloudbreak.tracing.TracingUtil;
+import com.sequenceiq.freeipa.client.model.BatchRPCResponse;
 import com.sequenceiq.freeipa.client.model.Ca;
 import com.sequenceiq.freeipa.client.model.Cert;
 import com.sequenceiq.freeipa.client.model.Config;
@@ -185,10 +191,14 @@ public class FreeIpaClient {
     }
 
     public User deleteUser(String userUid) throws FreeIpaClientException {
+        return (User) invoke(deleteUserOperation(userUid)).getResult();
+    }
+
+    public BatchOperation deleteUserOperation(String userUid) throws FreeIpaClientException {
         FreeIpaChecks.checkUserNotProtected(userUid, () -> String.format("User '%s' is protected and cannot be deleted from FreeIPA", userUid));
         List<Object> flags = List.of(userUid);
         Map<String, Object> params = Map.of();
-        return (User) invoke("user_del", flags, params, User.class).getResult();
+        return new BatchOperation("user_del", flags, params, User.class);
     }
 
     public Role deleteRole(String roleName) throws FreeIpaClientException {
@@ -198,6 +208,10 @@ public class FreeIpaClient {
     }
 
     public User userAdd(String user, String firstName, String lastName) throws FreeIpaClientException {
+        return (User) invoke(userAddOperation(user, firstName, lastName)).getResult();
+    }
+
+    public BatchOperation userAddOperation(String user, String firstName, String lastName) throws FreeIpaClientException {
         FreeIpaChecks.checkUserNotProtected(user, () -> String.format("User '%s' is protected and cannot be added to FreeIPA", user));
         List<Object> flags = List.of(user);
         Map<String, Object> params = Map.of(
@@ -207,7 +221,7 @@ public class FreeIpaClient {
                 "random", true,
                 "setattr", "krbPasswordExpiration=" + MAX_PASSWORD_EXPIRATION_DATETIME
         );
-        return (User) invoke("user_add", flags, params, User.class).getResult();
+        return new BatchOperation("user_add", flags, params, User.class);
     }
 
     /**
@@ -236,6 +250,13 @@ public class FreeIpaClient {
     public User userSetWorkloadCredentials(String user, String hashedPassword,
             String unencryptedKrbPrincipalKey, Optional<Instant> expiration,
             List<String> sshPublicKeys) throws FreeIpaClientException {
+        return (User) invoke(userSetWorkloadCredentialsOperation(user, hashedPassword, unencryptedKrbPrincipalKey, expiration, sshPublicKeys))
+                .getResult();
+    }
+
+    public BatchOperation userSetWorkloadCredentialsOperation(String user, String hashedPassword,
+            String unencryptedKrbPrincipalKey, Optional<Instant> expiration,
+            List<String> sshPublicKeys) {
         Map<String, Object> params = new HashMap<>();
         List<String> attributes = new ArrayList<>();
 
@@ -248,7 +269,7 @@ public class FreeIpaClient {
 
         params.put("ipasshpubkey", sshPublicKeys);
 
-        return userMod(user, params);
+        return userModOperation(user, params);
     }
 
     String formatDate(Optional<Instant> instant) {
@@ -267,40 +288,60 @@ public class FreeIpaClient {
     }
 
     public User userMod(String user, Map<String, Object> params) throws FreeIpaClientException {
+        return (User) invoke(userModOperation(user, params)).getResult();
+    }
+
+    public BatchOperation userModOperation(String user, Map<String, Object> params) {
         List<Object> flags = List.of(user);
-        return (User) invoke("user_mod", flags, params, User.class).getResult();
+        return new BatchOperation("user_mod", flags, params, User.class);
     }
 
     public Group groupAdd(String group) throws FreeIpaClientException {
+        return (Group) invoke(groupAddOperation(group)).getResult();
+    }
+
+    public BatchOperation groupAddOperation(String group) throws FreeIpaClientException {
         FreeIpaChecks.checkGroupNotProtected(group, () -> String.format("Group '%s' is protected and cannot be added to FreeIPA", group));
         List<Object> flags = List.of(group);
         Map<String, Object> params = Map.of();
-        return (Group) invoke("group_add", flags, params, Group.class).getResult();
+        return new BatchOperation("group_add", flags, params, Group.class, group);
     }
 
     public void deleteGroup(String group) throws FreeIpaClientException {
+        invoke(deleteGroupOperation(group));
+    }
+
+    public BatchOperation deleteGroupOperation(String group) throws FreeIpaClientException {
         FreeIpaChecks.checkGroupNotProtected(group, () -> String.format("Group '%s' is protected and cannot be deleted from FreeIPA", group));
         List<Object> flags = List.of(group);
         Map<String, Object> params = Map.of();
-        invoke("group_del", flags, params, Object.class);
+        return new BatchOperation("group_del", flags, params, Object.class, group);
     }
 
     public RPCResponse<Group> groupAddMembers(String group, Collection<String> users) throws FreeIpaClientException {
+        return invoke(groupAddMembersOperation(group, users));
+    }
+
+    public BatchOperation groupAddMembersOperation(String group, Collection<String> users) throws FreeIpaClientException {
         FreeIpaChecks.checkGroupNotUnmanaged(group, () -> String.format("Group '%s' is not managed and membership cannot be changed", group));
         List<Object> flags = List.of(group);
         Map<String, Object> params = Map.of(
                 "user", users
         );
-        return invoke("group_add_member", flags, params, Group.class);
+        return new BatchOperation("group_add_member", flags, params, Group.class, group);
     }
 
     public RPCResponse<Group> groupRemoveMembers(String group, Collection<String> users) throws FreeIpaClientException {
+        return invoke(groupRemoveMembersOperation(group, users));
+    }
+
+    public BatchOperation groupRemoveMembersOperation(String group, Collection<String> users) throws FreeIpaClientException {
         FreeIpaChecks.checkGroupNotUnmanaged(group, () -> String.format("Group '%s' is not managed and membership cannot be changed", group));
         List<Object> flags = List.of(group);
         Map<String, Object> params = Map.of(
                 "user", users
         );
-        return invoke("group_remove_member", flags, params, Group.class);
+        return new BatchOperation("group_remove_member", flags, params, Group.class, group);
     }
 
     public Set<Group> groupFindAll() throws FreeIpaClientException {
@@ -578,19 +619,91 @@ public class FreeIpaClient {
     }
 
     public <T> RPCResponse<T> invoke(String method, List<Object> flags, Map<String, Object> params, Type resultType) throws FreeIpaClientException {
+        ParameterizedType type = TypeUtils
+                .parameterize(RPCResponse.class, resultType);
+        return invokeJsonRpc(method, flags, params, type);
+    }
+
+    private <T> RPCResponse<T> invoke(BatchOperation operation) throws FreeIpaClientException {
+        return invoke(operation.getMethod(), operation.getFlags(), operation.getParams(), operation.getResultType());
+    }
+
+    /**
+     * Sends the operations in FreeIPA {@code batch} calls of at most {@code chunkSize} commands and returns the result of every operation in
+     * the original order. A command failing in FreeIPA, or a whole batch call failing, does not stop the remaining commands; the failure
+     * is returned in the result of the affected operations. Only an error which makes the client unusable is thrown.
+     */
+    public List<BatchOperationResult> invokeBatch(List<BatchOperation> operations, int chunkSize) throws FreeIpaClientException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Batch chunk size must be positive: " + chunkSize);
+        }
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        for (int from = 0; from < operations.size(); from += chunkSize) {
+            results.addAll(invokeBatchChunk(operations.subList(from, Math.min(from + chunkSize, operations.size()))));
+        }
+        return results;
+    }
+
+    private List<BatchOperationResult> invokeBatchChunk(List<BatchOperation> operations) throws FreeIpaClientException {
+        List<Object> commands = operations.stream()
+                .map(operation -> Map.of(
+                        "method", operation.getMethod(),
+                        "params", List.of(operation.getFlags(), withApiVersion(operation.getParams()))))
+                .collect(Collectors.toList());
+        BatchRPCResponse response;
+        try {
+            response = invokeJsonRpc("batch", commands, Map.of(), BatchRPCResponse.class);
+        } catch (FreeIpaClientException e) {
+            if (e.isClientUnusable()) {
+                throw e;
+            }
+            return operations.stream().map(operation -> BatchOperationResult.failure(operation, e)).collect(Collectors.toList());
+        }
+        List<JsonNode> commandResults = Optional.ofNullable(response.getResults()).orElse(List.of());
+        if (commandResults.size() != operations.size()) {
+            throw new FreeIpaClientException(String.format("FreeIPA batch returned %d results for %d commands", commandResults.size(), operations.size()));
+        }
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            results.add(decodeBatchResult(operations.get(i), commandResults.get(i)));
+        }
+        return results;
+    }
+
+    private BatchOperationResult decodeBatchResult(BatchOperation operation, JsonNode commandResult) {
+        JsonNode error = commandResult.get("error");
+        if (error != null && !error.isNull()) {
+            String message = String.format("Invoke FreeIPA %s failed: %s", operation.getMethod(), error.asText());
+            JsonRpcClientException cause = new JsonRpcClientException(commandResult.path("error_code").asInt(), error.asText(), commandResult.get("error_kw"));
+            return BatchOperationResult.failure(operation, FreeIpaClientExceptionUtil.convertToRetryableIfNeeded(new FreeIpaClientException(message, cause)));
+        }
+        try {
+            ObjectMapper objectMapper = ObjectMapperBuilder.getObjectMapper();
+            JavaType type = objectMapper.getTypeFactory().constructType(TypeUtils.parameterize(RPCResponse.class, operation.getResultType()));
+            return BatchOperationResult.success(operation, objectMapper.convertValue(commandResult, type));
+        } catch (IllegalArgumentException e) {
+            return BatchOperationResult.failure(operation, new FreeIpaClientException(
+                    String.format("Failed to decode the result of FreeIPA %s: %s", operation.getMethod(), e.getMessage()), e));
+        }
+    }
+
+    private Map<String, Object> withApiVersion(Map<String, Object> params) {
         Map<String, Object> parameterMap = new HashMap<>();
         if (params != null && !params.isEmpty()) {
             parameterMap.putAll(params);
         }
         parameterMap.put("version", apiVersion);
+        return parameterMap;
+    }
+
+    private <R> R invokeJsonRpc(String method, List<Object> flags, Map<String, Object> params, Type responseType) throws FreeIpaClientException {
+        Map<String, Object> parameterMap = withApiVersion(params);
 
         LOGGER.debug("Issuing JSON-RPC request:\n\n method: {}\n flags: {}\n", method, flags);
-        ParameterizedType type = TypeUtils
-                .parameterize(RPCResponse.class, resultType);
 
         Span span = TracingUtil.initSpan(tracer, "FreeIpa", method);
         try (Scope ignored = tracer.activateSpan(span)) {
-            RPCResponse<T> response = (RPCResponse<T>) jsonRpcHttpClient.invoke(method, List.of(flags, parameterMap), type);
+            R response = (R) jsonRpcHttpClient.invoke(method, List.of(flags, parameterMap), responseType);
             LOGGER.debug("Response object: {}", response);
             if (response == null) {
                 // TODO CDPCP-1028 investigate why invoke returns null instead of throwing an exception
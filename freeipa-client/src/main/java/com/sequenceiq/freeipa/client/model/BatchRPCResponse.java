@@ -0,0 +1,37 @@
+package com.sequenceiq.freeipa.client.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchRPCResponse {
+
+    private Integer count;
+
+    private List<JsonNode> results;
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public List<JsonNode> getResults() {
+        return results;
+    }
+
+    public void setResults(List<JsonNode> results) {
+        this.results = results;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchRPCResponse{"
+                + "count=" + count
+                + '}';
+    }
+}
@@ -0,0 +1,186 @@
+package com.sequenceiq.freeipa.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.opentracing.noop.NoopTracerFactory;
+
+/**
+ * Adds groups to a stubbed FreeIPA JSON-RPC server through a real {@link JsonRpcHttpClient}, once with a call per group, once with
+ * {@link FreeIpaClient#invokeBatch(List, int)}. Every request costs a fixed round trip and every command a fixed processing time on the
+ * server, like a FreeIPA behind the cluster proxy. Every fifth group already exists, so the batch results contain errors as well.
+ * Run with {@code ./gradlew :freeipa-client:benchmark -PbenchmarkIncludes=FreeIpaBatchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FreeIpaBatchBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FreeIpaBatchBenchmark.class);
+
+    private static final long ROUND_TRIP_MILLIS = 10L;
+
+    private static final long COMMAND_MICROS = 500L;
+
+    private static final int EXISTING_GROUP_RATIO = 5;
+
+    private static final int DUPLICATE_ENTRY = 4002;
+
+    private static final int HTTP_OK = 200;
+
+    @Param({"200"})
+    private int groupCount;
+
+    @Param({"0", "50", "200"})
+    private int batchSize;
+
+    private final ObjectMapper objectMapper = ObjectMapperBuilder.getObjectMapper();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private HttpServer server;
+
+    private FreeIpaClient freeIpaClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // without it the delayed ACKs of small responses would dominate the per-call round trips
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ipa/session/json", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/ipa/session/json");
+        JsonRpcHttpClient jsonRpcHttpClient = new JsonRpcHttpClient(objectMapper, url, Map.of());
+        freeIpaClient = new FreeIpaClient(jsonRpcHttpClient, "2.213", "/ipa", "localhost", NoopTracerFactory.create());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void logRequests() {
+        LOGGER.info("batch size {}: {} requests for {} groups", batchSize, requestCount.getAndSet(0L), groupCount);
+    }
+
+    @Benchmark
+    public int addGroups() throws FreeIpaClientException {
+        int failures = 0;
+        if (batchSize == 0) {
+            for (int i = 0; i < groupCount; i++) {
+                try {
+                    freeIpaClient.groupAdd("group" + i);
+                } catch (FreeIpaClientException e) {
+                    failures++;
+                }
+            }
+        } else {
+            List<BatchOperation> operations = new ArrayList<>(groupCount);
+            for (int i = 0; i < groupCount; i++) {
+                operations.add(freeIpaClient.groupAddOperation("group" + i));
+            }
+            for (BatchOperationResult result : freeIpaClient.invokeBatch(operations, batchSize)) {
+                if (!result.isSuccess()) {
+                    failures++;
+                }
+            }
+        }
+        return failures;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        JsonNode request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = objectMapper.readTree(body);
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("id", request.get("id"));
+        response.putNull("error");
+        JsonNode params = request.get("params");
+        if ("batch".equals(request.get("method").asText())) {
+            ArrayNode results = objectMapper.createArrayNode();
+            for (JsonNode command : params.get(0)) {
+                results.add(executeGroupAdd(command.get("params").get(0).get(0).asText()));
+            }
+            response.putObject("result").put("count", results.size()).set("results", results);
+        } else {
+            ObjectNode result = executeGroupAdd(params.get(0).get(0).asText());
+            if (result.hasNonNull("error")) {
+                response.set("error", objectMapper.createObjectNode().put("code", result.get("error_code").asInt())
+                        .put("message", result.get("error").asText()));
+            } else {
+                response.set("result", result);
+            }
+        }
+        sleep(TimeUnit.MILLISECONDS.toMicros(ROUND_TRIP_MILLIS));
+        byte[] bytes = objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(HTTP_OK, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private ObjectNode executeGroupAdd(String group) {
+        sleep(COMMAND_MICROS);
+        ObjectNode result = objectMapper.createObjectNode();
+        if (Integer.parseInt(group.substring("group".length())) % EXISTING_GROUP_RATIO == 0) {
+            result.put("error", String.format("group with name \"%s\" already exists", group));
+            result.put("error_code", DUPLICATE_ENTRY);
+            result.put("error_name", "DuplicateEntry");
+        } else {
+            result.putNull("error");
+            result.putObject("result").putArray("cn").add(group);
+            result.put("value", group);
+            result.put("summary", String.format("Added group \"%s\"", group));
+        }
+        return result;
+    }
+
+    private void sleep(long micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,29 +1,54 @@
 package com.sequenceiq.freeipa.client;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.OngoingStubbing;
 
 import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.sequenceiq.freeipa.client.model.BatchRPCResponse;
+import com.sequenceiq.freeipa.client.model.Group;
 
-import io.opentracing.Tracer;
+import io.opentracing.noop.NoopTracerFactory;
 
 class FreeIpaClientTest {
 
+    private static final Type BATCH_RESPONSE_TYPE = BatchRPCResponse.class;
+
+    private static final String SUCCESS_RESULT = "{\"result\": {\"cn\": [\"group1\"]}, \"value\": \"group1\", \"summary\": null, \"error\": null}";
+
+    private static final String DUPLICATE_RESULT = "{\"error\": \"group with name \\\"group2\\\" already exists\", \"error_code\": 4002, "
+            + "\"error_name\": \"DuplicateEntry\", \"error_kw\": {\"message\": \"group with name \\\"group2\\\" already exists\"}}";
+
+    private JsonRpcHttpClient jsonRpcHttpClient;
+
     private FreeIpaClient underTest;
 
     @BeforeEach
     void setUp() {
+        jsonRpcHttpClient = mock(JsonRpcHttpClient.class);
         underTest = new FreeIpaClient(
-                mock(JsonRpcHttpClient.class),
+                jsonRpcHttpClient,
                 "apiVersion",
                 "apiAddress",
                 "hostname",
-                mock(Tracer.class));
+                NoopTracerFactory.create());
     }
 
     @Test
@@ -67,4 +92,77 @@ class FreeIpaClientTest {
                 underTest.groupAddMembers(FreeIpaChecks.IPA_UNMANAGED_GROUPS.get(0), List.of("harry", "sally"))
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void invokeBatchDecodesEveryCommandResult() throws Exception {
+        whenBatchInvoked().thenReturn(batchResponse(SUCCESS_RESULT, DUPLICATE_RESULT));
+        List<BatchOperation> operations = List.of(underTest.groupAddOperation("group1"), underTest.groupAddOperation("group2"));
+
+        List<BatchOperationResult> results = underTest.invokeBatch(operations, 10);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("group1", ((Group) results.get(0).getResponse().getResult()).getCn());
+        assertFalse(results.get(1).isSuccess());
+        assertSame(operations.get(1), results.get(1).getOperation());
+        assertTrue(FreeIpaClientExceptionUtil.isDuplicateEntryException(results.get(1).getError().get()));
+    }
+
+    @Test
+    void invokeBatchSplitsOperationsIntoChunks() throws Exception {
+        whenBatchInvoked()
+                .thenReturn(batchResponse(SUCCESS_RESULT, SUCCESS_RESULT))
+                .thenReturn(batchResponse(SUCCESS_RESULT));
+        List<BatchOperation> operations = List.of(underTest.groupAddOperation("group1"), underTest.groupAddOperation("group1"),
+                underTest.groupAddOperation("group1"));
+
+        List<BatchOperationResult> results = underTest.invokeBatch(operations, 2);
+
+        assertEquals(3, results.size());
+        verifyBatchInvoked(2);
+    }
+
+    @Test
+    void invokeBatchFailsEveryOperationOfAFailedCall() throws Exception {
+        whenBatchInvoked().thenThrow(new IllegalStateException("connection reset"));
+        List<BatchOperation> operations = List.of(underTest.groupAddOperation("group1"), underTest.groupAddOperation("group2"));
+
+        List<BatchOperationResult> results = underTest.invokeBatch(operations, 10);
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().noneMatch(BatchOperationResult::isSuccess));
+    }
+
+    @Test
+    void groupOperationsNameTheirGroup() throws Exception {
+        assertEquals(Optional.of("group1"), underTest.groupAddMembersOperation("group1", List.of("harry")).getGroup());
+        assertEquals(Optional.of("group1"), underTest.groupRemoveMembersOperation("group1", List.of("harry")).getGroup());
+        assertEquals(Optional.empty(), underTest.userModOperation("harry", Map.of()).getGroup());
+    }
+
+    @Test
+    void invokeBatchRejectsInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> underTest.invokeBatch(List.of(), 0));
+    }
+
+    private OngoingStubbing<Object> whenBatchInvoked() {
+        try {
+            return when(jsonRpcHttpClient.invoke(eq("batch"), any(), eq(BATCH_RESPONSE_TYPE)));
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private void verifyBatchInvoked(int times) {
+        try {
+            verify(jsonRpcHttpClient, times(times)).invoke(eq("batch"), any(), eq(BATCH_RESPONSE_TYPE));
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private BatchRPCResponse batchResponse(String... commandResults) throws Exception {
+        String json = String.format("{\"count\": %d, \"results\": [%s]}", commandResults.length, String.join(",", commandResults));
+        return ObjectMapperBuilder.getObjectMapper().readValue(json, BatchRPCResponse.class);
+    }
+}
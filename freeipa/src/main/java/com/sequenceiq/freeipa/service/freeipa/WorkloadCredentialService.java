@@ -1,15 +1,22 @@
 package com.sequenceiq.freeipa.service.freeipa;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto;
+import com.google.common.annotations.VisibleForTesting;
+import com.sequenceiq.freeipa.client.BatchOperation;
+import com.sequenceiq.freeipa.client.BatchOperationResult;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
 import com.sequenceiq.freeipa.client.FreeIpaClientExceptionUtil;
@@ -20,6 +27,14 @@ import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
 public class WorkloadCredentialService {
     private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadCredentialService.class);
 
+    @VisibleForTesting
+    @Value("${freeipa.usersync.batch.enabled}")
+    boolean batchEnabled;
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.batch.size}")
+    int batchSize;
+
     public void setWorkloadCredential(FreeIpaClient freeIpaClient, String username, WorkloadCredential workloadCredential)
             throws IOException, FreeIpaClientException {
         LOGGER.debug("Setting workload credentials for user '{}'", username);
@@ -28,7 +43,7 @@ public class WorkloadCredentialService {
             String ansEncodedKrbPrincipalKey = KrbKeySetEncoder.getASNEncodedKrbPrincipalKey(workloadCredential.getKeys());
             freeIpaClient.userSetWorkloadCredentials(username,
                     workloadCredential.getHashedPassword(), ansEncodedKrbPrincipalKey, workloadCredential.getExpirationDate(),
-                    workloadCredential.getSshPublicKeys().stream().map(UserManagementProto.SshPublicKey::getPublicKey).collect(Collectors.toList()));
+                    getSshPublicKeys(workloadCredential));
         } catch (FreeIpaClientException e) {
             if (FreeIpaClientExceptionUtil.isEmptyModlistException(e)) {
                 LOGGER.debug("Workload credentials for user '{}' already set.", username);
@@ -40,6 +55,10 @@ public class WorkloadCredentialService {
 
     public void setWorkloadCredentials(FreeIpaClient freeIpaClient, Map<String, WorkloadCredential> workloadCredentials,
             BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        if (batchEnabled) {
+            setWorkloadCredentialsInBatch(freeIpaClient, workloadCredentials, warnings);
+            return;
+        }
         for (Map.Entry<String, WorkloadCredential> entry : workloadCredentials.entrySet()) {
             try {
                 setWorkloadCredential(freeIpaClient, entry.getKey(), entry.getValue());
@@ -55,6 +74,40 @@ public class WorkloadCredentialService {
         }
     }
 
+    private void setWorkloadCredentialsInBatch(FreeIpaClient freeIpaClient, Map<String, WorkloadCredential> workloadCredentials,
+            BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        Map<BatchOperation, String> operations = new LinkedHashMap<>();
+        for (Map.Entry<String, WorkloadCredential> entry : workloadCredentials.entrySet()) {
+            WorkloadCredential workloadCredential = entry.getValue();
+            try {
+                String ansEncodedKrbPrincipalKey = KrbKeySetEncoder.getASNEncodedKrbPrincipalKey(workloadCredential.getKeys());
+                operations.put(freeIpaClient.userSetWorkloadCredentialsOperation(entry.getKey(), workloadCredential.getHashedPassword(),
+                        ansEncodedKrbPrincipalKey, workloadCredential.getExpirationDate(), getSshPublicKeys(workloadCredential)), entry.getKey());
+            } catch (IOException e) {
+                recordWarning(entry.getKey(), e, warnings);
+            }
+        }
+        for (BatchOperationResult result : freeIpaClient.invokeBatch(List.copyOf(operations.keySet()), batchSize)) {
+            String username = operations.get(result.getOperation());
+            Optional<FreeIpaClientException> error = result.getError();
+            if (error.isEmpty()) {
+                LOGGER.debug("Workload credentials set for user '{}'", username);
+            } else if (FreeIpaClientExceptionUtil.isEmptyModlistException(error.get())) {
+                LOGGER.debug("Workload credentials for user '{}' already set.", username);
+            } else {
+                recordWarning(username, error.get(), warnings);
+                if (error.get().isClientUnusable()) {
+                    LOGGER.warn("Client is not usable for further usage");
+                    throw error.get();
+                }
+            }
+        }
+    }
+
+    private List<String> getSshPublicKeys(WorkloadCredential workloadCredential) {
+        return workloadCredential.getSshPublicKeys().stream().map(UserManagementProto.SshPublicKey::getPublicKey).collect(Collectors.toList());
+    }
+
     private void recordWarning(String username, Exception e, BiConsumer<String, String> warnings) {
         LOGGER.warn("Failed to set workload credentials for user '{}'", username, e);
         warnings.accept(username, "Failed to set workload credentials:" + e.getMessage());
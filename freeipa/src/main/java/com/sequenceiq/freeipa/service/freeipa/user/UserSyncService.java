@@ -5,6 +5,7 @@ import static com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider.INTERNAL
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -12,6 +13,8 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -43,6 +46,8 @@ import com.sequenceiq.freeipa.api.v1.freeipa.user.model.SuccessDetails;
 import com.sequenceiq.freeipa.api.v1.freeipa.user.model.SynchronizationStatus;
 import com.sequenceiq.freeipa.api.v1.operation.model.OperationState;
 import com.sequenceiq.freeipa.api.v1.operation.model.OperationType;
+import com.sequenceiq.freeipa.client.BatchOperation;
+import com.sequenceiq.freeipa.client.BatchOperationResult;
 import com.sequenceiq.freeipa.client.FreeIpaCapabilities;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
@@ -63,6 +68,7 @@ import com.sequenceiq.freeipa.service.freeipa.user.model.UmsEventGenerationIds;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UmsUsersState;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateDifference;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateFingerprint;
 import com.sequenceiq.freeipa.service.operation.OperationService;
 import com.sequenceiq.freeipa.service.stack.StackService;
 
@@ -95,6 +101,14 @@ public class UserSyncService {
     @Value("${freeipa.usersync.max-subjects-per-request}")
     int maxSubjectsPerRequest;
 
+    @VisibleForTesting
+    @Value("${freeipa.usersync.batch.enabled}")
+    boolean batchEnabled;
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.batch.size}")
+    int batchSize;
+
     @Inject
     private StackService stackService;
 
@@ -135,6 +149,9 @@ public class UserSyncService {
     @Inject
     private UserSyncRequestValidator userSyncRequestValidator;
 
+    @Inject
+    private UsersStateFingerprintService usersStateFingerprintService;
+
     public Operation synchronizeUsers(String accountId, String actorCrn, Set<String> environmentCrnFilter,
             Set<String> userCrnFilter, Set<String> machineUserCrnFilter) {
         UserSyncRequestFilter userSyncFilter = new UserSyncRequestFilter(userCrnFilter, machineUserCrnFilter, Optional.empty());
@@ -305,10 +322,16 @@ public class UserSyncService {
     private Future<SyncStatusDetail> asyncSynchronizeStack(Stack stack, UmsUsersState umsUsersState, UmsEventGenerationIds umsEventGenerationIds,
             boolean fullSync, String operationId, String accountId) {
         return asyncTaskExecutor.submit(() -> {
-            SyncStatusDetail statusDetail = internalSynchronizeStack(stack, umsUsersState, fullSync);
+            boolean incrementalSync = fullSync && usersStateFingerprintService.isIncrementalEnabled();
+            Optional<UsersStateFingerprint> previousFingerprint = incrementalSync
+                    ? usersStateFingerprintService.getPreviousFingerprint(userSyncStatusService.findByStack(stack))
+                    : Optional.empty();
+            UsersStateFingerprint fingerprint = incrementalSync ? usersStateFingerprintService.calculate(umsUsersState, previousFingerprint) : null;
+            SyncStatusDetail statusDetail = internalSynchronizeStack(stack, umsUsersState, fullSync, previousFingerprint, fingerprint);
             if (fullSync && statusDetail.getStatus() == SynchronizationStatus.COMPLETED) {
                 UserSyncStatus userSyncStatus = userSyncStatusService.getOrCreateForStack(stack);
                 userSyncStatus.setUmsEventGenerationIds(new Json(umsEventGenerationIds));
+                userSyncStatus.setUsersStateFingerprint(fingerprint == null ? null : new Json(fingerprint));
                 userSyncStatus.setLastSuccessfulFullSync(operationService.getOperationForAccountIdAndOperationId(accountId, operationId));
                 userSyncStatusService.save(userSyncStatus);
             }
@@ -321,33 +344,21 @@ public class UserSyncService {
         return asyncTaskExecutor.submit(() -> internalSynchronizeStackForDeleteUser(stack, deletedWorkloadUser));
     }
 
-    private SyncStatusDetail internalSynchronizeStack(Stack stack, UmsUsersState umsUsersState, boolean fullSync) {
+    private SyncStatusDetail internalSynchronizeStack(Stack stack, UmsUsersState umsUsersState, boolean fullSync,
+            Optional<UsersStateFingerprint> previousFingerprint, UsersStateFingerprint fingerprint) {
         MDCBuilder.buildMdcContext(stack);
         String environmentCrn = stack.getEnvironmentCrn();
         Multimap<String, String> warnings = ArrayListMultimap.create();
         try {
             FreeIpaClient freeIpaClient = freeIpaClientFactory.getFreeIpaClientForStack(stack);
-            LogEvent logEvent = fullSync ? LogEvent.RETRIEVE_FULL_IPA_STATE : LogEvent.RETRIEVE_PARTIAL_IPA_STATE;
-            LOGGER.debug("Starting {} ...", logEvent);
-            UsersState ipaUsersState = getIpaUserState(freeIpaClient, umsUsersState, fullSync);
-            LOGGER.debug("Finished {}, found {} users and {} groups.", logEvent,
-                    ipaUsersState.getUsers().size(), ipaUsersState.getGroups().size());
-
-            LOGGER.debug("Starting {} ...", LogEvent.CALCULATE_UMS_IPA_DIFFERENCE);
-            UsersStateDifference usersStateDifference = UsersStateDifference.fromUmsAndIpaUsersStates(umsUsersState, ipaUsersState);
-            LOGGER.debug("Finished {}.", LogEvent.CALCULATE_UMS_IPA_DIFFERENCE);
-
-            LOGGER.debug("Starting {} ...", LogEvent.APPLY_DIFFERENCE_TO_IPA);
-            applyStateDifferenceToIpa(stack.getEnvironmentCrn(), freeIpaClient, usersStateDifference, warnings::put);
-            LOGGER.debug("Finished {}.", LogEvent.APPLY_DIFFERENCE_TO_IPA);
-
-            if (!FreeIpaCapabilities.hasSetPasswordHashSupport(freeIpaClient.getConfig())) {
-                LOGGER.debug("IPA doesn't have password hash support, no credentials sync required for env:{}", environmentCrn);
+            if (previousFingerprint.isEmpty()) {
+                synchronizeFreeIpa(environmentCrn, freeIpaClient, umsUsersState, fullSync, warnings);
+            } else if (usersStateFingerprintService.isUnchanged(previousFingerprint.get(), fingerprint)) {
+                LOGGER.debug("UMS state did not change since the last sync of env:{}, nothing to apply to FreeIPA", environmentCrn);
             } else {
-                // Sync credentials for all users and not just diff. At present there is no way to identify that there is a change in password for a user
-                LOGGER.debug("Starting {} for {} users ...", LogEvent.SET_WORKLOAD_CREDENTIALS, umsUsersState.getUsersWorkloadCredentialMap().size());
-                workloadCredentialService.setWorkloadCredentials(freeIpaClient, umsUsersState.getUsersWorkloadCredentialMap(), warnings::put);
-                LOGGER.debug("Finished {}.", LogEvent.SET_WORKLOAD_CREDENTIALS);
+                Set<String> changedUsers = usersStateFingerprintService.getChangedUsers(previousFingerprint.get(), fingerprint);
+                LOGGER.debug("Synchronizing the {} changed users of env:{}", changedUsers.size(), environmentCrn);
+                synchronizeFreeIpa(environmentCrn, freeIpaClient, usersStateFingerprintService.restrictToUsers(umsUsersState, changedUsers), false, warnings);
             }
 
             // TODO For now we only sync cloud ids during full sync. We should eventually allow more granular syncs (actor level and group level sync).
@@ -364,6 +375,33 @@ public class UserSyncService {
         }
     }
 
+    private void synchronizeFreeIpa(String environmentCrn, FreeIpaClient freeIpaClient, UmsUsersState umsUsersState, boolean fullIpaState,
+            Multimap<String, String> warnings) throws FreeIpaClientException {
+        LogEvent logEvent = fullIpaState ? LogEvent.RETRIEVE_FULL_IPA_STATE : LogEvent.RETRIEVE_PARTIAL_IPA_STATE;
+        LOGGER.debug("Starting {} ...", logEvent);
+        UsersState ipaUsersState = getIpaUserState(freeIpaClient, umsUsersState, fullIpaState);
+        LOGGER.debug("Finished {}, found {} users and {} groups.", logEvent,
+                ipaUsersState.getUsers().size(), ipaUsersState.getGroups().size());
+
+        LOGGER.debug("Starting {} ...", LogEvent.CALCULATE_UMS_IPA_DIFFERENCE);
+        UsersStateDifference usersStateDifference = UsersStateDifference.fromUmsAndIpaUsersStates(umsUsersState, ipaUsersState);
+        LOGGER.debug("Finished {}.", LogEvent.CALCULATE_UMS_IPA_DIFFERENCE);
+
+        LOGGER.debug("Starting {} ...", LogEvent.APPLY_DIFFERENCE_TO_IPA);
+        applyStateDifferenceToIpa(environmentCrn, freeIpaClient, usersStateDifference, warnings::put);
+        LOGGER.debug("Finished {}.", LogEvent.APPLY_DIFFERENCE_TO_IPA);
+
+        if (!FreeIpaCapabilities.hasSetPasswordHashSupport(freeIpaClient.getConfig())) {
+            LOGGER.debug("IPA doesn't have password hash support, no credentials sync required for env:{}", environmentCrn);
+        } else {
+            // Sync credentials for all users in the given UMS state and not just diff. Only an incremental sync can tell from the users state
+            // fingerprint that the password of a user did not change
+            LOGGER.debug("Starting {} for {} users ...", LogEvent.SET_WORKLOAD_CREDENTIALS, umsUsersState.getUsersWorkloadCredentialMap().size());
+            workloadCredentialService.setWorkloadCredentials(freeIpaClient, umsUsersState.getUsersWorkloadCredentialMap(), warnings::put);
+            LOGGER.debug("Finished {}.", LogEvent.SET_WORKLOAD_CREDENTIALS);
+        }
+    }
+
     private SyncStatusDetail internalSynchronizeStackForDeleteUser(Stack stack, String deletedWorkloadUser) {
         MDCBuilder.buildMdcContext(stack);
         String environmentCrn = stack.getEnvironmentCrn();
@@ -446,77 +484,61 @@ public class UserSyncService {
     }
 
     private void addGroups(FreeIpaClient freeIpaClient, Set<FmsGroup> fmsGroups, BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (FmsGroup fmsGroup : fmsGroups) {
-            LOGGER.debug("adding group {}", fmsGroup.getName());
-            try {
-                com.sequenceiq.freeipa.client.model.Group groupAdd = freeIpaClient.groupAdd(fmsGroup.getName());
-                LOGGER.debug("Success: {}", groupAdd);
-            } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isDuplicateEntryException(e)) {
-                    LOGGER.debug("group '{}' already exists", fmsGroup.getName());
-                } else {
-                    LOGGER.warn("Failed to add group {}", fmsGroup.getName(), e);
-                    warnings.accept(fmsGroup.getName(), "Failed to add group:" + e.getMessage());
-                    checkIfClientStillUsable(e);
-                }
-            }
-        }
+        applyToEach(freeIpaClient, fmsGroups, FmsGroup::getName,
+                (client, fmsGroup) -> client.groupAddOperation(fmsGroup.getName()),
+                (client, fmsGroup) -> client.groupAdd(fmsGroup.getName()),
+                FreeIpaClientExceptionUtil::isDuplicateEntryException, "Failed to add group:", warnings);
     }
 
     private void addUsers(FreeIpaClient freeIpaClient, Set<FmsUser> fmsUsers, BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (FmsUser fmsUser : fmsUsers) {
-            String username = fmsUser.getName();
-            LOGGER.debug("adding user {}", username);
-            try {
-                com.sequenceiq.freeipa.client.model.User userAdd = freeIpaClient.userAdd(
-                        username, fmsUser.getFirstName(), fmsUser.getLastName());
-                LOGGER.debug("Success: {}", userAdd);
-            } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isDuplicateEntryException(e)) {
-                    LOGGER.debug("user '{}' already exists", fmsUser.getName());
-                } else {
-                    LOGGER.error("Failed to add {}", username, e);
-                    warnings.accept(fmsUser.getName(), "Failed to add user:" + e.getMessage());
-                    checkIfClientStillUsable(e);
-                }
-            }
-        }
+        applyToEach(freeIpaClient, fmsUsers, FmsUser::getName,
+                (client, fmsUser) -> client.userAddOperation(fmsUser.getName(), fmsUser.getFirstName(), fmsUser.getLastName()),
+                (client, fmsUser) -> client.userAdd(fmsUser.getName(), fmsUser.getFirstName(), fmsUser.getLastName()),
+                FreeIpaClientExceptionUtil::isDuplicateEntryException, "Failed to add user:", warnings);
     }
 
     private void removeUsers(FreeIpaClient freeIpaClient, Set<String> fmsUsers, BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (String username : fmsUsers) {
-            LOGGER.debug("Removing user {}", username);
-            try {
-                com.sequenceiq.freeipa.client.model.User userRemove = freeIpaClient.deleteUser(username);
-                LOGGER.debug("Success: {}", userRemove);
-            } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isNotFoundException(e)) {
-                    LOGGER.debug("user '{}' already does not exists", username);
-                } else {
-                    LOGGER.error("Failed to delete {}", username, e);
-                    warnings.accept(username, "Failed to remove user:" + e.getMessage());
-                    checkIfClientStillUsable(e);
-                }
-            }
-        }
+        applyToEach(freeIpaClient, fmsUsers, Function.identity(), FreeIpaClient::deleteUserOperation, FreeIpaClient::deleteUser,
+                FreeIpaClientExceptionUtil::isNotFoundException, "Failed to remove user:", warnings);
     }
 
     private void removeGroups(FreeIpaClient freeIpaClient, Set<FmsGroup> fmsGroups, BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (FmsGroup fmsGroup : fmsGroups) {
-            String groupname = fmsGroup.getName();
-
-            LOGGER.debug("Removing group {}", groupname);
+        applyToEach(freeIpaClient, fmsGroups, FmsGroup::getName,
+                (client, fmsGroup) -> client.deleteGroupOperation(fmsGroup.getName()),
+                (client, fmsGroup) -> client.deleteGroup(fmsGroup.getName()),
+                FreeIpaClientExceptionUtil::isNotFoundException, "Failed to remove group: ", warnings);
+    }
 
-            try {
-                freeIpaClient.deleteGroup(groupname);
-                LOGGER.debug("Success: {}", groupname);
-            } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isNotFoundException(e)) {
-                    LOGGER.debug("group '{}' already does not exists", groupname);
-                } else {
-                    LOGGER.error("Failed to delete {}", groupname, e);
-                    warnings.accept(groupname, "Failed to remove group: " + e.getMessage());
-                    checkIfClientStillUsable(e);
+    /**
+     * Applies an operation to every subject, in FreeIPA batch calls when batching is enabled and with one call per subject otherwise.
+     * The failure of a subject is recorded as its warning unless it is ignorable, e.g. the subject already exists.
+     */
+    @SuppressWarnings("ParameterNumber")
+    private <T> void applyToEach(FreeIpaClient freeIpaClient, Collection<T> subjects, Function<T, String> nameOf,
+            BatchOperationFactory<T> batchOperation, SingleCall<T> singleCall, Predicate<FreeIpaClientException> ignorable,
+            String warningPrefix, BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        if (batchEnabled) {
+            Map<BatchOperation, String> operations = new LinkedHashMap<>();
+            for (T subject : subjects) {
+                try {
+                    operations.put(batchOperation.create(freeIpaClient, subject), nameOf.apply(subject));
+                } catch (FreeIpaClientException e) {
+                    handleFailure(nameOf.apply(subject), e, warningPrefix, warnings);
+                }
+            }
+            invokeInBatch(freeIpaClient, operations, ignorable, warningPrefix, warnings);
+        } else {
+            for (T subject : subjects) {
+                String name = nameOf.apply(subject);
+                try {
+                    singleCall.call(freeIpaClient, subject);
+                    LOGGER.debug("Success: {}", name);
+                } catch (FreeIpaClientException e) {
+                    if (ignorable.test(e)) {
+                        LOGGER.debug("'{}' needs no change: {}", name, e.getMessage());
+                    } else {
+                        handleFailure(name, e, warningPrefix, warnings);
+                    }
                 }
             }
         }
@@ -526,6 +548,10 @@ public class UserSyncService {
     void addUsersToGroups(FreeIpaClient freeIpaClient, Multimap<String, String> groupMapping, BiConsumer<String, String> warnings)
             throws FreeIpaClientException {
         LOGGER.debug("adding users to groups: [{}]", groupMapping);
+        if (batchEnabled) {
+            addUsersToGroupsInBatch(freeIpaClient, groupMapping, warnings);
+            return;
+        }
         for (String group : groupMapping.keySet()) {
             for (List<String> users : Iterables.partition(groupMapping.get(group), maxSubjectsPerRequest)) {
                 LOGGER.debug("adding users [{}] to group [{}]", users, group);
@@ -551,6 +577,10 @@ public class UserSyncService {
     @VisibleForTesting
     void removeUsersFromGroups(FreeIpaClient freeIpaClient, Multimap<String, String> groupMapping, BiConsumer<String, String> warnings)
             throws FreeIpaClientException {
+        if (batchEnabled) {
+            removeUsersFromGroupsInBatch(freeIpaClient, groupMapping, warnings);
+            return;
+        }
         for (String group : groupMapping.keySet()) {
             for (List<String> users : Iterables.partition(groupMapping.get(group), maxSubjectsPerRequest)) {
                 LOGGER.debug("removing users {} from group {}", users, group);
@@ -573,6 +603,98 @@ public class UserSyncService {
         }
     }
 
+    private void addUsersToGroupsInBatch(FreeIpaClient freeIpaClient, Multimap<String, String> groupMapping, BiConsumer<String, String> warnings)
+            throws FreeIpaClientException {
+        Map<BatchOperation, List<String>> operations = new LinkedHashMap<>();
+        for (String group : groupMapping.keySet()) {
+            for (List<String> users : Iterables.partition(groupMapping.get(group), maxSubjectsPerRequest)) {
+                try {
+                    operations.put(freeIpaClient.groupAddMembersOperation(group, users), users);
+                } catch (FreeIpaClientException e) {
+                    handleFailure(group, e, String.format("Failed to add users %s to group: ", users), warnings);
+                }
+            }
+        }
+        for (BatchOperationResult result : freeIpaClient.invokeBatch(List.copyOf(operations.keySet()), batchSize)) {
+            String group = getGroup(result.getOperation());
+            List<String> users = operations.get(result.getOperation());
+            if (result.isSuccess()) {
+                RPCResponse<Object> response = result.getResponse();
+                if (getMemberUsers(response).containsAll(users)) {
+                    LOGGER.debug("Successfully added users {} to {}", users, response.getResult());
+                } else {
+                    LOGGER.error("Failed to add {} to group '{}': {}", users, group, response.getFailed());
+                    warnings.accept(group, String.format("Failed to add users to group: %s", response.getFailed()));
+                }
+            } else {
+                handleFailure(group, result.getError().get(), String.format("Failed to add users %s to group: ", users), warnings);
+            }
+        }
+    }
+
+    private void removeUsersFromGroupsInBatch(FreeIpaClient freeIpaClient, Multimap<String, String> groupMapping, BiConsumer<String, String> warnings)
+            throws FreeIpaClientException {
+        Map<BatchOperation, List<String>> operations = new LinkedHashMap<>();
+        for (String group : groupMapping.keySet()) {
+            for (List<String> users : Iterables.partition(groupMapping.get(group), maxSubjectsPerRequest)) {
+                try {
+                    operations.put(freeIpaClient.groupRemoveMembersOperation(group, users), users);
+                } catch (FreeIpaClientException e) {
+                    handleFailure(group, e, String.format("Failed to remove users %s from group: ", users), warnings);
+                }
+            }
+        }
+        for (BatchOperationResult result : freeIpaClient.invokeBatch(List.copyOf(operations.keySet()), batchSize)) {
+            String group = getGroup(result.getOperation());
+            List<String> users = operations.get(result.getOperation());
+            if (result.isSuccess()) {
+                RPCResponse<Object> response = result.getResponse();
+                if (Collections.disjoint(getMemberUsers(response), users)) {
+                    LOGGER.debug("Successfully removed users {} from {}", users, response.getResult());
+                } else {
+                    LOGGER.error("Failed to remove {} from group '{}': {}", users, group, response.getFailed());
+                    warnings.accept(group, String.format("Failed to remove users from group: %s", response.getFailed()));
+                }
+            } else {
+                handleFailure(group, result.getError().get(), String.format("Failed to remove users %s from group: ", users), warnings);
+            }
+        }
+    }
+
+    private String getGroup(BatchOperation groupMembersOperation) {
+        return groupMembersOperation.getGroup()
+                .orElseThrow(() -> new IllegalStateException(String.format("Group membership batch operation has no group: %s", groupMembersOperation)));
+    }
+
+    private List<String> getMemberUsers(RPCResponse<Object> groupMembersResponse) {
+        return Optional.ofNullable(((Group) groupMembersResponse.getResult()).getMemberUser()).orElse(List.of());
+    }
+
+    /**
+     * Sends the operations in FreeIPA batch calls, the failure of an operation is recorded as a warning of its subject unless it is ignorable.
+     */
+    private void invokeInBatch(FreeIpaClient freeIpaClient, Map<BatchOperation, String> subjectsByOperation, Predicate<FreeIpaClientException> ignorable,
+            String warningPrefix, BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        for (BatchOperationResult result : freeIpaClient.invokeBatch(List.copyOf(subjectsByOperation.keySet()), batchSize)) {
+            String subject = subjectsByOperation.get(result.getOperation());
+            Optional<FreeIpaClientException> error = result.getError();
+            if (error.isEmpty()) {
+                LOGGER.debug("Success: {} {}", result.getOperation().getMethod(), subject);
+            } else if (ignorable.test(error.get())) {
+                LOGGER.debug("{} of '{}' is not needed: {}", result.getOperation().getMethod(), subject, error.get().getMessage());
+            } else {
+                handleFailure(subject, error.get(), warningPrefix, warnings);
+            }
+        }
+    }
+
+    private void handleFailure(String subject, FreeIpaClientException e, String warningPrefix, BiConsumer<String, String> warnings)
+            throws FreeIpaClientException {
+        LOGGER.error("Failed to apply FreeIPA operation for {}", subject, e);
+        warnings.accept(subject, warningPrefix + e.getMessage());
+        checkIfClientStillUsable(e);
+    }
+
     private void checkIfClientStillUsable(FreeIpaClientException e) throws FreeIpaClientException {
         if (e.isClientUnusable()) {
             LOGGER.warn("Client is not usable for further usage");
@@ -583,4 +705,14 @@ public class UserSyncService {
     private Set<String> union(Collection<String> collection1, Collection<String> collection2) {
         return Stream.concat(collection1.stream(), collection2.stream()).collect(Collectors.toSet());
     }
+
+    @FunctionalInterface
+    private interface BatchOperationFactory<T> {
+        BatchOperation create(FreeIpaClient freeIpaClient, T subject) throws FreeIpaClientException;
+    }
+
+    @FunctionalInterface
+    private interface SingleCall<T> {
+        void call(FreeIpaClient freeIpaClient, T subject) throws FreeIpaClientException;
+    }
 }
@@ -0,0 +1,188 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.ActorKerberosKey;
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.SshPublicKey;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.sequenceiq.cloudbreak.common.service.Clock;
+import com.sequenceiq.freeipa.entity.UserSyncStatus;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsUsersState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateFingerprint;
+import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
+
+/**
+ * Supports the incremental full sync: the fingerprint of the UMS state synchronized last time tells which workload users changed since, so
+ * only those have to be read from and written to FreeIPA. The fingerprint is only trusted until the next periodic full sync, which also
+ * repairs the changes made in FreeIPA outside of the user sync.
+ */
+@Service
+public class UsersStateFingerprintService {
+
+    @VisibleForTesting
+    static final int VERSION = 1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UsersStateFingerprintService.class);
+
+    private static final char SEPARATOR = '\0';
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.incremental.enabled}")
+    boolean incrementalEnabled;
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.incremental.full-sync-interval}")
+    Duration fullSyncInterval;
+
+    @Inject
+    private Clock clock;
+
+    public boolean isIncrementalEnabled() {
+        return incrementalEnabled;
+    }
+
+    /**
+     * Returns the fingerprint of the last successful full sync if an incremental sync can be based on it.
+     */
+    public Optional<UsersStateFingerprint> getPreviousFingerprint(UserSyncStatus userSyncStatus) {
+        if (!incrementalEnabled || userSyncStatus == null || userSyncStatus.getUsersStateFingerprint() == null) {
+            return Optional.empty();
+        }
+        try {
+            UsersStateFingerprint fingerprint = userSyncStatus.getUsersStateFingerprint().get(UsersStateFingerprint.class);
+            if (fingerprint.getVersion() != VERSION) {
+                LOGGER.debug("Users state fingerprint has version {} instead of {}, full sync is needed", fingerprint.getVersion(), VERSION);
+                return Optional.empty();
+            } else if (clock.getCurrentTimeMillis() - fingerprint.getFullSyncTime() >= fullSyncInterval.toMillis()) {
+                LOGGER.debug("Last full sync happened more than {} ago, full sync is needed", fullSyncInterval);
+                return Optional.empty();
+            } else {
+                return Optional.of(fingerprint);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read the users state fingerprint, full sync is needed", e);
+            return Optional.empty();
+        }
+    }
+
+    public UsersStateFingerprint calculate(UmsUsersState umsUsersState, Optional<UsersStateFingerprint> previousFingerprint) {
+        UsersState usersState = umsUsersState.getUsersState();
+        Multimap<String, String> groupsOfUsers = Multimaps.invertFrom(usersState.getGroupMembership(), HashMultimap.create());
+        Map<String, String> users = new HashMap<>();
+        for (FmsUser user : usersState.getUsers()) {
+            users.put(user.getName(), hash(user, groupsOfUsers.get(user.getName()), umsUsersState.getUsersWorkloadCredentialMap().get(user.getName())));
+        }
+        UsersStateFingerprint fingerprint = new UsersStateFingerprint();
+        fingerprint.setVersion(VERSION);
+        fingerprint.setFullSyncTime(previousFingerprint.map(UsersStateFingerprint::getFullSyncTime).orElseGet(clock::getCurrentTimeMillis));
+        fingerprint.setUsers(users);
+        fingerprint.setGroups(Stream.concat(usersState.getGroups().stream(), umsUsersState.getWorkloadAdministrationGroups().stream())
+                .map(FmsGroup::getName)
+                .collect(Collectors.toSet()));
+        return fingerprint;
+    }
+
+    public boolean isUnchanged(UsersStateFingerprint previousFingerprint, UsersStateFingerprint fingerprint) {
+        return previousFingerprint.getUsers().equals(fingerprint.getUsers()) && previousFingerprint.getGroups().equals(fingerprint.getGroups());
+    }
+
+    /**
+     * Returns the workload users which were added, changed or removed since the previous fingerprint.
+     */
+    public Set<String> getChangedUsers(UsersStateFingerprint previousFingerprint, UsersStateFingerprint fingerprint) {
+        Map<String, String> previousUsers = previousFingerprint.getUsers();
+        Set<String> changedUsers = new HashSet<>();
+        fingerprint.getUsers().forEach((user, hash) -> {
+            if (!hash.equals(previousUsers.get(user))) {
+                changedUsers.add(user);
+            }
+        });
+        previousUsers.keySet().stream()
+                .filter(user -> !fingerprint.getUsers().containsKey(user))
+                .forEach(changedUsers::add);
+        LOGGER.debug("{} of {} workload users changed since the last sync", changedUsers.size(), fingerprint.getUsers().size());
+        return changedUsers;
+    }
+
+    /**
+     * Restricts the UMS state to the given users like a sync filtered for those users, every group is kept.
+     */
+    public UmsUsersState restrictToUsers(UmsUsersState umsUsersState, Set<String> users) {
+        UsersState usersState = umsUsersState.getUsersState();
+        UsersState.Builder usersStateBuilder = UsersState.newBuilder();
+        usersState.getGroups().forEach(usersStateBuilder::addGroup);
+        usersState.getUsers().stream()
+                .filter(user -> users.contains(user.getName()))
+                .forEach(usersStateBuilder::addUser);
+        usersState.getGroupMembership().forEach((group, user) -> {
+            if (users.contains(user)) {
+                usersStateBuilder.addMemberToGroup(group, user);
+            }
+        });
+        UmsUsersState.Builder builder = UmsUsersState.newBuilder()
+                .setUsersState(usersStateBuilder.build())
+                .setWorkloadAdministrationGroups(umsUsersState.getWorkloadAdministrationGroups())
+                .addAllRequestedWorkloadUsernames(users)
+                .addServicePrincipalCloudIdentities(umsUsersState.getServicePrincipalCloudIdentities());
+        umsUsersState.getUsersWorkloadCredentialMap().forEach((user, workloadCredential) -> {
+            if (users.contains(user)) {
+                builder.addWorkloadCredentials(user, workloadCredential);
+            }
+        });
+        umsUsersState.getUserToCloudIdentityMap().forEach((user, cloudIdentities) -> {
+            if (users.contains(user)) {
+                builder.addUserCloudIdentities(user, cloudIdentities);
+            }
+        });
+        return builder.build();
+    }
+
+    private String hash(FmsUser user, Collection<String> groups, WorkloadCredential workloadCredential) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        putString(hasher, user.getName());
+        putString(hasher, user.getFirstName());
+        putString(hasher, user.getLastName());
+        groups.stream().sorted().forEach(group -> putString(hasher, group));
+        if (workloadCredential != null) {
+            putString(hasher, workloadCredential.getHashedPassword());
+            hasher.putLong(workloadCredential.getExpirationDate().map(Instant::toEpochMilli).orElse(-1L));
+            for (ActorKerberosKey key : workloadCredential.getKeys()) {
+                hasher.putBytes(key.toByteArray());
+            }
+            for (SshPublicKey sshPublicKey : workloadCredential.getSshPublicKeys()) {
+                putString(hasher, sshPublicKey.getPublicKey());
+            }
+        }
+        return Long.toHexString(hasher.hash().padToLong());
+    }
+
+    private void putString(Hasher hasher, String value) {
+        hasher.putString(String.valueOf(value), StandardCharsets.UTF_8).putChar(SEPARATOR);
+    }
+}
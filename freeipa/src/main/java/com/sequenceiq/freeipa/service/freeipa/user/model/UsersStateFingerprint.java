@@ -0,0 +1,87 @@
+package com.sequenceiq.freeipa.service.freeipa.user.model;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Compact form of the UMS state of an environment synchronized last time: a hash per workload user covering its name, group memberships
+ * and workload credentials, and the names of the groups.
+ */
+public class UsersStateFingerprint {
+
+    private int version;
+
+    private long fullSyncTime;
+
+    private Map<String, String> users = ImmutableMap.of();
+
+    private Set<String> groups = ImmutableSet.of();
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public long getFullSyncTime() {
+        return fullSyncTime;
+    }
+
+    public void setFullSyncTime(long fullSyncTime) {
+        this.fullSyncTime = fullSyncTime;
+    }
+
+    public Map<String, String> getUsers() {
+        return users;
+    }
+
+    public void setUsers(Map<String, String> users) {
+        this.users = ImmutableMap.copyOf(users);
+    }
+
+    public Set<String> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Set<String> groups) {
+        this.groups = ImmutableSet.copyOf(groups);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        UsersStateFingerprint that = (UsersStateFingerprint) o;
+
+        return version == that.version
+                && fullSyncTime == that.fullSyncTime
+                && Objects.equals(users, that.users)
+                && Objects.equals(groups, that.groups);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, fullSyncTime, users, groups);
+    }
+
+    @Override
+    public String toString() {
+        return "UsersStateFingerprint{"
+                + "version=" + version
+                + ", fullSyncTime=" + fullSyncTime
+                + ", users=" + users.size()
+                + ", groups=" + groups.size()
+                + '}';
+    }
+}
@@ -15,7 +15,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
-import com.sequenceiq.cloudbreak.cloud.handler.InstanceStateQuery;
+import com.sequenceiq.cloudbreak.cloud.handler.AggregatedInstanceStateQuery;
 import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
 import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
 import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
@@ -33,7 +33,7 @@ public class StackInstanceProviderChecker {
     private static final Logger LOGGER = LoggerFactory.getLogger(StackInstanceProviderChecker.class);
 
     @Inject
-    private InstanceStateQuery instanceStateQuery;
+    private AggregatedInstanceStateQuery aggregatedInstanceStateQuery;
 
     @Inject
     private CredentialService credentialService;
@@ -53,9 +53,10 @@ public class StackInstanceProviderChecker {
                 location, stack.getOwner(), stack.getOwner(), stack.getAccountId());
         CloudCredential cloudCredential = credentialConverter.convert(credentialService.getCredentialByEnvCrn(stack.getEnvironmentCrn()));
         List<CloudInstance> instances = metadataConverter.convert(notTerminatedForStack);
+        long statusChangedAt = stack.getStackStatus() != null && stack.getStackStatus().getCreated() != null ? stack.getStackStatus().getCreated() : 0L;
         try {
-            return checkedMeasure(() -> instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(cloudCredential, cloudContext, instances), LOGGER,
-                    ":::Auto sync::: get instance statuses in {}ms");
+            return checkedMeasure(() -> aggregatedInstanceStateQuery.getCloudVmInstanceStatuses(cloudCredential, cloudContext, instances, statusChangedAt),
+                    LOGGER, ":::Auto sync::: get instance statuses in {}ms");
         } catch (Exception e) {
             LOGGER.info(":::Auto sync::: Could not fetch vm statuses: " + e.getMessage(), e);
             throw e;
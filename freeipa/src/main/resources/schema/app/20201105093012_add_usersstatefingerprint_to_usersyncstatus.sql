@@ -0,0 +1,11 @@
+-- // Add the fingerprint of the last synchronized UMS state to the user sync status
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE usersyncstatus
+    ADD COLUMN IF NOT EXISTS usersstatefingerprint TEXT;
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+ALTER TABLE usersyncstatus
+    DROP COLUMN IF EXISTS usersstatefingerprint;
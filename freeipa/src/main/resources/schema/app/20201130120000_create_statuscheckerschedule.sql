@@ -0,0 +1,18 @@
+-- // create statuscheckerschedule table for the batch status checker scheduler
+-- Migration SQL that makes the change goes here.
+
+CREATE TABLE IF NOT EXISTS statuscheckerschedule (
+    localid            VARCHAR(255) NOT NULL,
+    jobclass           VARCHAR(255) NOT NULL,
+    remoteresourcecrn  VARCHAR(255),
+    nextcheck          bigint NOT NULL,
+    PRIMARY KEY (localid)
+);
+
+CREATE INDEX IF NOT EXISTS idx_statuscheckerschedule_nextcheck ON statuscheckerschedule (nextcheck);
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+DROP INDEX IF EXISTS idx_statuscheckerschedule_nextcheck;
+DROP TABLE IF EXISTS statuscheckerschedule;
@@ -12,6 +12,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -19,9 +20,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,11 +38,15 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
 import com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider;
 import com.sequenceiq.freeipa.api.v1.operation.model.OperationState;
 import com.sequenceiq.freeipa.api.v1.operation.model.OperationType;
+import com.sequenceiq.freeipa.client.BatchOperation;
+import com.sequenceiq.freeipa.client.BatchOperationResult;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
+import com.sequenceiq.freeipa.client.FreeIpaErrorCodes;
 import com.sequenceiq.freeipa.client.model.Group;
 import com.sequenceiq.freeipa.client.model.RPCResponse;
 import com.sequenceiq.freeipa.entity.Operation;
@@ -61,6 +68,8 @@ class UserSyncServiceTest {
 
     private static final int MAX_SUBJECTS_PER_REQUEST = 10;
 
+    private static final int BATCH_SIZE = 100;
+
     @Mock
     StackService stackService;
 
@@ -258,6 +267,78 @@ class UserSyncServiceTest {
         verifyNoMoreInteractions(freeIpaClient);
     }
 
+    @Test
+    void testApplyStateDifferenceToIpaInBatch() throws FreeIpaClientException {
+        underTest.batchEnabled = true;
+        underTest.batchSize = BATCH_SIZE;
+        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
+        when(freeIpaClient.groupAddOperation(anyString())).thenCallRealMethod();
+        when(freeIpaClient.userAddOperation(anyString(), anyString(), anyString())).thenCallRealMethod();
+        when(freeIpaClient.groupAddMembersOperation(anyString(), anyCollection())).thenCallRealMethod();
+        when(freeIpaClient.groupRemoveMembersOperation(anyString(), anyCollection())).thenCallRealMethod();
+        when(freeIpaClient.deleteUserOperation(anyString())).thenCallRealMethod();
+        when(freeIpaClient.deleteGroupOperation(anyString())).thenCallRealMethod();
+        when(freeIpaClient.invokeBatch(anyList(), eq(BATCH_SIZE))).thenAnswer(invocation -> {
+            List<BatchOperation> operations = invocation.getArgument(0);
+            return operations.stream().map(this::succeed).collect(Collectors.toList());
+        });
+        Multimap<String, String> warnings = ArrayListMultimap.create();
+        UsersStateDifference usersStateDifference = new UsersStateDifference(
+                ImmutableSet.of(new FmsGroup().withName("groupToAdd1"), new FmsGroup().withName("groupToAdd2")),
+                ImmutableSet.of(new FmsGroup().withName("groupToRemove1")),
+                ImmutableSet.of(new FmsUser().withName("userToAdd1").withFirstName("clark").withLastName("kent")),
+                ImmutableSet.of("userToRemove1"),
+                ImmutableMultimap.of("groupToAdd1", "userToAdd1"),
+                ImmutableMultimap.of("groupToRemove1", "userToRemove1"));
+
+        underTest.applyStateDifferenceToIpa(ENV_CRN, freeIpaClient, usersStateDifference, warnings::put);
+
+        verify(freeIpaClient, times(6)).invokeBatch(anyList(), eq(BATCH_SIZE));
+        verify(freeIpaClient, never()).groupAdd(anyString());
+        verify(freeIpaClient, never()).userAdd(anyString(), anyString(), anyString());
+        verify(freeIpaClient, never()).groupAddMembers(anyString(), anyCollection());
+        assertTrue(warnings.isEmpty());
+    }
+
+    @Test
+    void testBatchFailuresAreReportedAsWarnings() throws FreeIpaClientException {
+        underTest.batchEnabled = true;
+        underTest.batchSize = BATCH_SIZE;
+        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
+        when(freeIpaClient.groupAddOperation(anyString())).thenCallRealMethod();
+        when(freeIpaClient.invokeBatch(anyList(), eq(BATCH_SIZE))).thenAnswer(invocation -> {
+            List<BatchOperation> operations = invocation.getArgument(0);
+            return operations.stream()
+                    .map(operation -> fail(operation, operation.getGroup().filter("existingGroup"::equals).isPresent()
+                            ? FreeIpaErrorCodes.DUPLICATE_ENTRY : FreeIpaErrorCodes.ACI_ERROR))
+                    .collect(Collectors.toList());
+        });
+        Multimap<String, String> warnings = ArrayListMultimap.create();
+        UsersStateDifference usersStateDifference = new UsersStateDifference(
+                ImmutableSet.of(new FmsGroup().withName("existingGroup"), new FmsGroup().withName("deniedGroup")),
+                ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), ImmutableMultimap.of(), ImmutableMultimap.of());
+
+        underTest.applyStateDifferenceToIpa(ENV_CRN, freeIpaClient, usersStateDifference, warnings::put);
+
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.containsKey("deniedGroup"));
+    }
+
+    private BatchOperationResult succeed(BatchOperation operation) {
+        RPCResponse<Object> response = new RPCResponse<>();
+        Group group = new Group();
+        if ("group_add_member".equals(operation.getMethod())) {
+            group.setMemberUser(List.copyOf((Collection<String>) operation.getParams().get("user")));
+        }
+        response.setResult(group);
+        return BatchOperationResult.success(operation, response);
+    }
+
+    private BatchOperationResult fail(BatchOperation operation, FreeIpaErrorCodes errorCode) {
+        return BatchOperationResult.failure(operation,
+                new FreeIpaClientException("error", new JsonRpcClientException(errorCode.getValue(), "error", null)));
+    }
+
     private Multimap<String, String> setupGroupMapping(int numGroups, int numPerGroup) {
         Multimap<String, String> groupMapping = HashMultimap.create();
         for (int i = 0; i < numGroups; ++i) {
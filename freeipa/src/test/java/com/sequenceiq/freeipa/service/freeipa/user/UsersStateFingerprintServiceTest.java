@@ -0,0 +1,158 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.cloudera.thunderhead.service.usermanagement.UserManagementProto.SshPublicKey;
+import com.sequenceiq.cloudbreak.common.json.Json;
+import com.sequenceiq.cloudbreak.common.service.Clock;
+import com.sequenceiq.freeipa.entity.UserSyncStatus;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
+import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UmsUsersState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersStateFingerprint;
+import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
+
+@ExtendWith(MockitoExtension.class)
+class UsersStateFingerprintServiceTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    private static final Duration FULL_SYNC_INTERVAL = Duration.ofHours(6L);
+
+    private static final String GROUP = "group";
+
+    private static final String ALICE = "alice";
+
+    private static final String BOB = "bob";
+
+    @Mock
+    private Clock clock;
+
+    @InjectMocks
+    private UsersStateFingerprintService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest.incrementalEnabled = true;
+        underTest.fullSyncInterval = FULL_SYNC_INTERVAL;
+    }
+
+    @Test
+    void testSameStateIsUnchanged() {
+        when(clock.getCurrentTimeMillis()).thenReturn(NOW);
+        UsersStateFingerprint previous = underTest.calculate(umsUsersState("password", ALICE, BOB), Optional.empty());
+
+        UsersStateFingerprint current = underTest.calculate(umsUsersState("password", ALICE, BOB), Optional.of(previous));
+
+        assertTrue(underTest.isUnchanged(previous, current));
+        assertEquals(previous, current);
+        assertTrue(underTest.getChangedUsers(previous, current).isEmpty());
+    }
+
+    @Test
+    void testCredentialChangeChangesEveryAffectedUser() {
+        when(clock.getCurrentTimeMillis()).thenReturn(NOW);
+        UsersStateFingerprint previous = underTest.calculate(umsUsersState("password", ALICE, BOB), Optional.empty());
+
+        UsersStateFingerprint current = underTest.calculate(umsUsersState("newPassword", ALICE, BOB), Optional.of(previous));
+
+        assertFalse(underTest.isUnchanged(previous, current));
+        assertEquals(Set.of(ALICE, BOB), underTest.getChangedUsers(previous, current));
+        assertEquals(NOW, current.getFullSyncTime());
+    }
+
+    @Test
+    void testAddedAndRemovedUsersAreChanged() {
+        when(clock.getCurrentTimeMillis()).thenReturn(NOW);
+        UsersStateFingerprint previous = underTest.calculate(umsUsersState("password", ALICE), Optional.empty());
+
+        UsersStateFingerprint current = underTest.calculate(umsUsersState("password", BOB), Optional.of(previous));
+
+        assertEquals(Set.of(ALICE, BOB), underTest.getChangedUsers(previous, current));
+    }
+
+    @Test
+    void testPreviousFingerprintIsReturnedWithinFullSyncInterval() {
+        when(clock.getCurrentTimeMillis()).thenReturn(NOW);
+        UsersStateFingerprint fingerprint = underTest.calculate(umsUsersState("password", ALICE), Optional.empty());
+        when(clock.getCurrentTimeMillis()).thenReturn(NOW + FULL_SYNC_INTERVAL.toMillis() - 1L);
+
+        assertEquals(Optional.of(fingerprint), underTest.getPreviousFingerprint(userSyncStatus(fingerprint)));
+    }
+
+    @Test
+    void testPreviousFingerprintExpiresAfterFullSyncInterval() {
+        when(clock.getCurrentTimeMillis()).thenReturn(NOW);
+        UsersStateFingerprint fingerprint = underTest.calculate(umsUsersState("password", ALICE), Optional.empty());
+        when(clock.getCurrentTimeMillis()).thenReturn(NOW + FULL_SYNC_INTERVAL.toMillis());
+
+        assertTrue(underTest.getPreviousFingerprint(userSyncStatus(fingerprint)).isEmpty());
+    }
+
+    @Test
+    void testPreviousFingerprintOfOtherVersionIsIgnored() {
+        UsersStateFingerprint fingerprint = new UsersStateFingerprint();
+        fingerprint.setVersion(UsersStateFingerprintService.VERSION + 1);
+        fingerprint.setFullSyncTime(NOW);
+
+        assertTrue(underTest.getPreviousFingerprint(userSyncStatus(fingerprint)).isEmpty());
+    }
+
+    @Test
+    void testPreviousFingerprintIsIgnoredWhenIncrementalSyncIsDisabled() {
+        underTest.incrementalEnabled = false;
+        UsersStateFingerprint fingerprint = new UsersStateFingerprint();
+        fingerprint.setVersion(UsersStateFingerprintService.VERSION);
+
+        assertTrue(underTest.getPreviousFingerprint(userSyncStatus(fingerprint)).isEmpty());
+        assertTrue(underTest.getPreviousFingerprint(new UserSyncStatus()).isEmpty());
+    }
+
+    @Test
+    void testRestrictToUsersKeepsGroups() {
+        UmsUsersState umsUsersState = umsUsersState("password", ALICE, BOB);
+
+        UmsUsersState restricted = underTest.restrictToUsers(umsUsersState, Set.of(ALICE));
+
+        assertEquals(Set.of(ALICE), restricted.getRequestedWorkloadUsernames());
+        assertEquals(Set.of(new FmsUser().withName(ALICE)), restricted.getUsersState().getUsers());
+        assertEquals(umsUsersState.getUsersState().getGroups(), restricted.getUsersState().getGroups());
+        assertEquals(List.of(GROUP), List.copyOf(restricted.getUsersState().getGroupMembership().keySet()));
+        assertEquals(Set.of(ALICE), restricted.getUsersWorkloadCredentialMap().keySet());
+    }
+
+    private UmsUsersState umsUsersState(String hashedPassword, String... users) {
+        UsersState.Builder usersStateBuilder = UsersState.newBuilder()
+                .addGroup(new FmsGroup().withName(GROUP));
+        UmsUsersState.Builder builder = UmsUsersState.newBuilder();
+        for (String user : users) {
+            usersStateBuilder.addUser(new FmsUser().withName(user));
+            usersStateBuilder.addMemberToGroup(GROUP, user);
+            builder.addWorkloadCredentials(user, new WorkloadCredential(hashedPassword, List.of(), Optional.empty(),
+                    List.of(SshPublicKey.newBuilder().setPublicKey("ssh-rsa " + user).build())));
+        }
+        return builder.setUsersState(usersStateBuilder.build()).build();
+    }
+
+    private UserSyncStatus userSyncStatus(UsersStateFingerprint fingerprint) {
+        UserSyncStatus userSyncStatus = new UserSyncStatus();
+        userSyncStatus.setUsersStateFingerprint(new Json(fingerprint));
+        return userSyncStatus;
+    }
+}
@@ -0,0 +1,161 @@
+package com.sequenceiq.cloudbreak.grpc;
+
+import static io.grpc.internal.GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ConnectivityState;
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+
+/**
+ * Keeps one long-lived channel per gRPC endpoint, so the connectors reuse the HTTP/2 connection of the endpoint instead of opening a new
+ * one for every call. The channels are shut down only when the application stops, the wrappers handed out do not close them.
+ */
+@Component
+public class ManagedChannelRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManagedChannelRegistry.class);
+
+    @VisibleForTesting
+    @Value("${grpc.channel.keepalive.time:PT30S}")
+    Duration keepAliveTime;
+
+    @VisibleForTesting
+    @Value("${grpc.channel.keepalive.timeout:PT10S}")
+    Duration keepAliveTimeout;
+
+    @VisibleForTesting
+    @Value("${grpc.channel.idle.timeout:PT5M}")
+    Duration idleTimeout;
+
+    @VisibleForTesting
+    @Value("${grpc.channel.deadline:PT5M}")
+    Duration defaultDeadline;
+
+    @VisibleForTesting
+    @Value("${grpc.channel.executor.pool.size:0}")
+    int executorPoolSize;
+
+    private final Map<String, ManagedChannel> channels = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService executor;
+
+    /**
+     * Returns the shared channel of the endpoint wrapped so that closing the wrapper leaves the channel open.
+     *
+     * @param host the host of the endpoint
+     * @param port the port of the endpoint
+     * @return the wrapper of the shared channel
+     */
+    public ManagedChannelWrapper getWrapper(String host, int port) {
+        return new ManagedChannelWrapper(getChannel(host, port), false);
+    }
+
+    /**
+     * Returns the shared channel of the endpoint. A channel that was shut down is replaced, and a channel that failed to connect retries
+     * right away instead of waiting for its reconnect backoff to pass.
+     *
+     * @param host the host of the endpoint
+     * @param port the port of the endpoint
+     * @return the shared channel
+     */
+    public ManagedChannel getChannel(String host, int port) {
+        ManagedChannel channel = channels.compute(host + ':' + port, (endpoint, current) -> {
+            if (current == null || current.isShutdown()) {
+                LOGGER.debug("Creating gRPC channel for {}", endpoint);
+                return createChannel(host, port);
+            }
+            return current;
+        });
+        if (channel.getState(false) == ConnectivityState.TRANSIENT_FAILURE) {
+            LOGGER.debug("gRPC channel of {}:{} is in transient failure, reconnecting", host, port);
+            channel.resetConnectBackoff();
+        }
+        return channel;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(ManagedChannel::shutdown);
+        channels.values().forEach(this::awaitTermination);
+        channels.clear();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private ManagedChannel createChannel(String host, int port) {
+        ManagedChannelBuilder<?> builder = ManagedChannelBuilder.forAddress(host, port)
+                .usePlaintext()
+                .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
+                .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(keepAliveTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .idleTimeout(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .intercept(new DefaultDeadlineInterceptor(defaultDeadline));
+        if (executorPoolSize > 0) {
+            builder.executor(getExecutor());
+        }
+        return builder.build();
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(executorPoolSize, new ThreadFactoryBuilder().setNameFormat("grpc-channel-%d").setDaemon(true).build());
+        }
+        return executor;
+    }
+
+    private void awaitTermination(ManagedChannel channel) {
+        try {
+            if (!channel.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.error("Timed out waiting for channel to shutdown cleanly.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sets a deadline on the calls made without one. The deadline of the calling gRPC context is kept, it is propagated by the channel.
+     */
+    private static class DefaultDeadlineInterceptor implements ClientInterceptor {
+
+        private final Duration deadline;
+
+        DefaultDeadlineInterceptor(Duration deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        // CHECKSTYLE:OFF
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        // CHECKSTYLE:ON
+            if (callOptions.getDeadline() == null && Context.current().getDeadline() == null && !deadline.isZero()) {
+                return next.newCall(method, callOptions.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS));
+            }
+            return next.newCall(method, callOptions);
+        }
+    }
+}
@@ -18,13 +18,26 @@ public class ManagedChannelWrapper implements AutoCloseable {
 
     private final ManagedChannel channel;
 
+    private final boolean shutdownOnClose;
+
     /**
      * Constructor.
      *
      * @param channel the channel
      */
     public ManagedChannelWrapper(ManagedChannel channel) {
+        this(channel, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param channel         the channel
+     * @param shutdownOnClose whether closing the wrapper shuts down the channel
+     */
+    public ManagedChannelWrapper(ManagedChannel channel, boolean shutdownOnClose) {
         this.channel = checkNotNull(channel);
+        this.shutdownOnClose = shutdownOnClose;
     }
 
     /**
@@ -36,6 +49,9 @@ public class ManagedChannelWrapper implements AutoCloseable {
 
     @Override
     public void close() {
+        if (!shutdownOnClose) {
+            return;
+        }
         channel.shutdown();
         try {
             if (!channel.awaitTermination(1, TimeUnit.MINUTES)) {
@@ -0,0 +1,120 @@
+package com.sequenceiq.cloudbreak.grpc;
+
+import static io.grpc.internal.GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Strings;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+
+/**
+ * Calls a local gRPC server the way the connectors call UMS, once with a new channel per call like the connectors did before, once through
+ * the {@link ManagedChannelRegistry}. {@code checkRight} stands for the small authorization calls, {@code listUsers} for a page of users.
+ * Run with {@code ./gradlew :grpc-common:benchmark -PbenchmarkIncludes=ManagedChannelRegistryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class ManagedChannelRegistryBenchmark {
+
+    private static final String LOCALHOST = "localhost";
+
+    private static final int USER_PAGE_SIZE = 100;
+
+    private static final int USER_SIZE = 500;
+
+    private static final MethodDescriptor<String, String> CHECK_RIGHT_METHOD = StringMarshaller.unaryMethod("ums", "checkRight");
+
+    private static final MethodDescriptor<String, String> LIST_USERS_METHOD = StringMarshaller.unaryMethod("ums", "listUsers");
+
+    @Param({"CHANNEL_PER_CALL", "SHARED_CHANNEL"})
+    private String mode;
+
+    private Server server;
+
+    private ManagedChannelRegistry registry;
+
+    @Setup
+    public void setUp() throws IOException {
+        String userPage = Strings.repeat("u", USER_PAGE_SIZE * USER_SIZE);
+        server = ServerBuilder.forPort(0)
+                .addService(ServerServiceDefinition.builder("ums")
+                        .addMethod(CHECK_RIGHT_METHOD, ServerCalls.asyncUnaryCall((request, responseObserver) -> {
+                            responseObserver.onNext("true");
+                            responseObserver.onCompleted();
+                        }))
+                        .addMethod(LIST_USERS_METHOD, ServerCalls.asyncUnaryCall((request, responseObserver) -> {
+                            responseObserver.onNext(userPage);
+                            responseObserver.onCompleted();
+                        }))
+                        .build())
+                .build()
+                .start();
+        registry = new ManagedChannelRegistry();
+        registry.keepAliveTime = Duration.ofSeconds(30L);
+        registry.keepAliveTimeout = Duration.ofSeconds(10L);
+        registry.idleTimeout = Duration.ofMinutes(5L);
+        registry.defaultDeadline = Duration.ofMinutes(5L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.shutdown();
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    public String checkRight() {
+        return call(CHECK_RIGHT_METHOD, "crn:altus:iam:us-west-1:account:user:user/environments/describeEnvironment");
+    }
+
+    @Benchmark
+    public String listUsers() {
+        return call(LIST_USERS_METHOD, "account");
+    }
+
+    private String call(MethodDescriptor<String, String> method, String request) {
+        try (ManagedChannelWrapper channelWrapper = makeWrapper()) {
+            return ClientCalls.blockingUnaryCall(channelWrapper.getChannel(), method, CallOptions.DEFAULT, request);
+        }
+    }
+
+    private ManagedChannelWrapper makeWrapper() {
+        if ("SHARED_CHANNEL".equals(mode)) {
+            return registry.getWrapper(LOCALHOST, server.getPort());
+        }
+        return new ManagedChannelWrapper(
+                ManagedChannelBuilder.forAddress(LOCALHOST, server.getPort())
+                        .usePlaintext()
+                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
+                        .build());
+    }
+}
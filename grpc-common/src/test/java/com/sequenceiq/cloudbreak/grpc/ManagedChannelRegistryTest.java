@@ -0,0 +1,113 @@
+package com.sequenceiq.cloudbreak.grpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.grpc.CallOptions;
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+
+public class ManagedChannelRegistryTest {
+
+    private static final String LOCALHOST = "localhost";
+
+    private static final int OTHER_PORT = 1;
+
+    private static final MethodDescriptor<String, String> ECHO_METHOD = StringMarshaller.unaryMethod("test", "echo");
+
+    private Server server;
+
+    private ManagedChannelRegistry underTest;
+
+    @Before
+    public void setUp() throws IOException {
+        server = ServerBuilder.forPort(0)
+                .addService(ServerServiceDefinition.builder("test")
+                        .addMethod(ECHO_METHOD, ServerCalls.asyncUnaryCall((request, responseObserver) -> {
+                            responseObserver.onNext(request + (Context.current().getDeadline() == null ? "" : " with deadline"));
+                            responseObserver.onCompleted();
+                        }))
+                        .build())
+                .build()
+                .start();
+        underTest = new ManagedChannelRegistry();
+        underTest.keepAliveTime = Duration.ofSeconds(30L);
+        underTest.keepAliveTimeout = Duration.ofSeconds(10L);
+        underTest.idleTimeout = Duration.ofMinutes(5L);
+        underTest.defaultDeadline = Duration.ofMinutes(1L);
+    }
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void testChannelIsSharedPerEndpoint() {
+        ManagedChannel channel = underTest.getChannel(LOCALHOST, server.getPort());
+
+        assertSame(channel, underTest.getChannel(LOCALHOST, server.getPort()));
+        assertNotSame(channel, underTest.getChannel(LOCALHOST, OTHER_PORT));
+    }
+
+    @Test
+    public void testClosingTheWrapperKeepsTheChannel() {
+        ManagedChannel channel;
+        try (ManagedChannelWrapper channelWrapper = underTest.getWrapper(LOCALHOST, server.getPort())) {
+            channel = channelWrapper.getChannel();
+            assertEquals("hello with deadline", ClientCalls.blockingUnaryCall(channel, ECHO_METHOD, CallOptions.DEFAULT, "hello"));
+        }
+
+        assertFalse(channel.isShutdown());
+        assertEquals("hello with deadline", ClientCalls.blockingUnaryCall(channel, ECHO_METHOD, CallOptions.DEFAULT, "hello"));
+    }
+
+    @Test
+    public void testShutdownChannelIsReplaced() {
+        ManagedChannel channel = underTest.getChannel(LOCALHOST, server.getPort());
+        channel.shutdownNow();
+
+        ManagedChannel newChannel = underTest.getChannel(LOCALHOST, server.getPort());
+
+        assertNotSame(channel, newChannel);
+        assertEquals("hello with deadline", ClientCalls.blockingUnaryCall(newChannel, ECHO_METHOD, CallOptions.DEFAULT, "hello"));
+    }
+
+    @Test
+    public void testNoDeadlineIsSetWhenDisabled() {
+        underTest.defaultDeadline = Duration.ZERO;
+
+        ManagedChannel channel = underTest.getChannel(LOCALHOST, server.getPort());
+
+        assertEquals("hello", ClientCalls.blockingUnaryCall(channel, ECHO_METHOD, CallOptions.DEFAULT, "hello"));
+    }
+
+    @Test
+    public void testShutdownClosesTheChannels() {
+        underTest.executorPoolSize = 2;
+        ManagedChannel channel = underTest.getChannel(LOCALHOST, server.getPort());
+        assertNotNull(ClientCalls.blockingUnaryCall(channel, ECHO_METHOD, CallOptions.DEFAULT, "hello"));
+
+        underTest.shutdown();
+
+        assertTrue(channel.isTerminated());
+    }
+}
@@ -0,0 +1,38 @@
+package com.sequenceiq.cloudbreak.grpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import io.grpc.MethodDescriptor;
+
+/**
+ * Marshals plain strings, so the tests can define gRPC methods without generated protobuf services.
+ */
+class StringMarshaller implements MethodDescriptor.Marshaller<String> {
+
+    static MethodDescriptor<String, String> unaryMethod(String serviceName, String methodName) {
+        return MethodDescriptor.<String, String>newBuilder()
+                .setType(MethodDescriptor.MethodType.UNARY)
+                .setFullMethodName(MethodDescriptor.generateFullMethodName(serviceName, methodName))
+                .setRequestMarshaller(new StringMarshaller())
+                .setResponseMarshaller(new StringMarshaller())
+                .build();
+    }
+
+    @Override
+    public InputStream stream(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String parse(InputStream stream) {
+        try {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
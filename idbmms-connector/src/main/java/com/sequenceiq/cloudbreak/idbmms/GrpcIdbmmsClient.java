@@ -1,7 +1,6 @@
 package com.sequenceiq.cloudbreak.idbmms;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static io.grpc.internal.GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -12,13 +11,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelRegistry;
 import com.sequenceiq.cloudbreak.grpc.ManagedChannelWrapper;
 import com.sequenceiq.cloudbreak.idbmms.config.IdbmmsConfig;
 import com.sequenceiq.cloudbreak.idbmms.exception.IdbmmsOperationException;
 import com.sequenceiq.cloudbreak.idbmms.model.MappingsConfig;
 
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.opentracing.Tracer;
 
 /**
@@ -35,6 +34,9 @@ public class GrpcIdbmmsClient {
     @Inject
     private Tracer tracer;
 
+    @Inject
+    private ManagedChannelRegistry channelRegistry;
+
     /**
      * Retrieves IDBroker mappings from IDBMMS for a particular environment.
      *
@@ -86,11 +88,7 @@ public class GrpcIdbmmsClient {
     }
 
     private ManagedChannelWrapper makeWrapper() {
-        return new ManagedChannelWrapper(
-                ManagedChannelBuilder.forAddress(idbmmsConfig.getEndpoint(), idbmmsConfig.getPort())
-                        .usePlaintext()
-                        .maxInboundMessageSize(DEFAULT_MAX_MESSAGE_SIZE)
-                        .build());
+        return channelRegistry.getWrapper(idbmmsConfig.getEndpoint(), idbmmsConfig.getPort());
     }
 
     private IdbmmsClient makeClient(ManagedChannel channel, String actorCrn) {
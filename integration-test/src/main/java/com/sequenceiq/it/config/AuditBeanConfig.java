@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.FilterType;
 
 import com.sequenceiq.cloudbreak.audit.AuditClient;
+import com.sequenceiq.cloudbreak.grpc.ManagedChannelRegistry;
 import com.sequenceiq.cloudbreak.structuredevent.rest.LegacyRestCommonService;
 import com.sequenceiq.cloudbreak.structuredevent.rest.LegacyStructuredEventFilter;
 
@@ -15,7 +16,7 @@ import com.sequenceiq.cloudbreak.structuredevent.rest.LegacyStructuredEventFilte
         "com.sequenceiq.cloudbreak.audit.converter",
         "com.sequenceiq.cloudbreak.audit.model",
         "com.sequenceiq.cloudbreak.audit.util"},
-        basePackageClasses = {AuditClient.class, LegacyRestCommonService.class},
+        basePackageClasses = {AuditClient.class, ManagedChannelRegistry.class, LegacyRestCommonService.class},
         excludeFilters = @ComponentScan.Filter(
                 classes = LegacyStructuredEventFilter.class,
                 type = FilterType.ASSIGNABLE_TYPE
@@ -0,0 +1,272 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.ws.rs.client.Client;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.sequenceiq.cloudbreak.client.RestClientUtil;
+import com.sequenceiq.cloudbreak.orchestrator.model.GatewayConfig;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.opentracing.Tracer;
+
+/**
+ * Keeps one REST client per salt gateway, so the connectors of the same gateway share its TLS setup and its kept-alive connections instead
+ * of building them for every orchestrator call. The clients are keyed by the gateway address and the fingerprint of its certificates. A
+ * client is leased by every connector created on it and released when the connector is closed. A client whose gateway got new
+ * certificates is retired and closed after its last connector is closed, a client not leased for the idle timeout is closed on the next
+ * lease of any gateway.
+ */
+@Component
+public class SaltConnectorPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaltConnectorPool.class);
+
+    private static final String METRIC_PREFIX = "salt.connector.pool.";
+
+    private static final char FINGERPRINT_SEPARATOR = '\0';
+
+    @VisibleForTesting
+    @Value("${cb.salt.connector.pool.enabled:true}")
+    boolean enabled;
+
+    @VisibleForTesting
+    @Value("${cb.salt.connector.pool.max.connections:10}")
+    int maxConnections;
+
+    @VisibleForTesting
+    @Value("${cb.salt.connector.pool.idle.timeout:PT10M}")
+    Duration idleTimeout;
+
+    @VisibleForTesting
+    @Value("${cb.salt.connector.pool.connection.idle.timeout:PT2M}")
+    Duration connectionIdleTimeout;
+
+    @Value("${rest.debug}")
+    private boolean restDebug;
+
+    @Inject
+    private SaltErrorResolver saltErrorResolver;
+
+    @Inject
+    private Tracer tracer;
+
+    private final Map<String, PooledClient> clients = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder(METRIC_PREFIX + "clients", this, SaltConnectorPool::countClients)
+                .register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "leases", this, SaltConnectorPool::countLeases)
+                .register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "connections", this, pool -> pool.countConnections(PoolStats::getLeased))
+                .tag("state", "leased")
+                .register(Metrics.globalRegistry);
+        Gauge.builder(METRIC_PREFIX + "connections", this, pool -> pool.countConnections(PoolStats::getAvailable))
+                .tag("state", "available")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Returns a connector for the gateway, the caller must close it when it is done with the gateway. The connection setup is reused from
+     * the earlier connectors of the gateway if its certificates are the same.
+     */
+    public SaltConnector getSaltConnector(GatewayConfig gatewayConfig) {
+        if (!enabled) {
+            return new SaltConnector(gatewayConfig, saltErrorResolver, restDebug, tracer);
+        }
+        String address = gatewayConfig.getGatewayUrl();
+        String fingerprint = fingerprint(gatewayConfig);
+        PooledClient pooledClient = lease(address, fingerprint);
+        if (pooledClient == null) {
+            pooledClient = register(address, new PooledClient(fingerprint, createClient(gatewayConfig)));
+        }
+        RestClientUtil.closeIdleConnections(pooledClient.getClient(), connectionIdleTimeout);
+        PooledClient leased = pooledClient;
+        try {
+            return new SaltConnector(gatewayConfig, leased.getClient(), () -> release(leased), saltErrorResolver, tracer);
+        } catch (RuntimeException e) {
+            release(leased);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void closeAll() {
+        clients.values().forEach(pooledClient -> close(pooledClient, "shutdown"));
+        clients.clear();
+    }
+
+    @VisibleForTesting
+    Client createClient(GatewayConfig gatewayConfig) {
+        return RestClientUtil.createKeepAliveClient(gatewayConfig.getServerCert(), gatewayConfig.getClientCert(), gatewayConfig.getClientKey(),
+                maxConnections, restDebug);
+    }
+
+    @VisibleForTesting
+    synchronized int countClients() {
+        return clients.size();
+    }
+
+    @VisibleForTesting
+    synchronized int countLeases() {
+        return clients.values().stream().mapToInt(PooledClient::getLeases).sum();
+    }
+
+    private synchronized long countConnections(ToIntFunction<PoolStats> count) {
+        return clients.values().stream()
+                .mapToLong(pooledClient -> count.applyAsInt(RestClientUtil.getConnectionStats(pooledClient.getClient())))
+                .sum();
+    }
+
+    private synchronized PooledClient lease(String address, String fingerprint) {
+        evictIdleClients();
+        PooledClient pooledClient = clients.get(address);
+        if (pooledClient != null && !pooledClient.getFingerprint().equals(fingerprint)) {
+            LOGGER.debug("The certificates of salt gateway {} changed, retiring its REST client", address);
+            clients.remove(address);
+            retire(pooledClient);
+            pooledClient = null;
+        }
+        if (pooledClient != null) {
+            pooledClient.lease();
+            Metrics.counter(METRIC_PREFIX + "hit").increment();
+        }
+        return pooledClient;
+    }
+
+    private PooledClient register(String address, PooledClient created) {
+        List<PooledClient> toClose = new ArrayList<>();
+        PooledClient registered;
+        synchronized (this) {
+            PooledClient current = clients.get(address);
+            if (current != null && current.getFingerprint().equals(created.getFingerprint())) {
+                LOGGER.debug("REST client of salt gateway {} was created concurrently, using the registered one", address);
+                toClose.add(created);
+                registered = current;
+            } else {
+                if (current != null) {
+                    retire(current);
+                }
+                clients.put(address, created);
+                registered = created;
+                Metrics.counter(METRIC_PREFIX + "miss").increment();
+            }
+            registered.lease();
+        }
+        toClose.forEach(pooledClient -> pooledClient.getClient().close());
+        return registered;
+    }
+
+    private synchronized void release(PooledClient pooledClient) {
+        pooledClient.release();
+        if (pooledClient.isRetired() && pooledClient.getLeases() == 0) {
+            close(pooledClient, "rotated");
+        }
+    }
+
+    private void retire(PooledClient pooledClient) {
+        pooledClient.retire();
+        if (pooledClient.getLeases() == 0) {
+            close(pooledClient, "rotated");
+        }
+    }
+
+    private void evictIdleClients() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledClient> iterator = clients.values().iterator();
+        while (iterator.hasNext()) {
+            PooledClient pooledClient = iterator.next();
+            if (pooledClient.getLeases() == 0 && now - pooledClient.getLastReleased() >= idleTimeout.toMillis()) {
+                iterator.remove();
+                close(pooledClient, "idle");
+            }
+        }
+    }
+
+    private void close(PooledClient pooledClient, String reason) {
+        LOGGER.debug("Closing pooled salt REST client {}, reason: {}", pooledClient.getClient(), reason);
+        Metrics.counter(METRIC_PREFIX + "eviction", "reason", reason).increment();
+        pooledClient.getClient().close();
+    }
+
+    private String fingerprint(GatewayConfig gatewayConfig) {
+        return Hashing.sha256().newHasher()
+                .putString(StringUtils.defaultString(gatewayConfig.getServerCert()), StandardCharsets.UTF_8).putChar(FINGERPRINT_SEPARATOR)
+                .putString(StringUtils.defaultString(gatewayConfig.getClientCert()), StandardCharsets.UTF_8).putChar(FINGERPRINT_SEPARATOR)
+                .putString(StringUtils.defaultString(gatewayConfig.getClientKey()), StandardCharsets.UTF_8)
+                .hash().toString();
+    }
+
+    private static class PooledClient {
+
+        private final String fingerprint;
+
+        private final Client client;
+
+        private int leases;
+
+        private long lastReleased = System.currentTimeMillis();
+
+        private boolean retired;
+
+        PooledClient(String fingerprint, Client client) {
+            this.fingerprint = fingerprint;
+            this.client = client;
+        }
+
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        Client getClient() {
+            return client;
+        }
+
+        int getLeases() {
+            return leases;
+        }
+
+        long getLastReleased() {
+            return lastReleased;
+        }
+
+        boolean isRetired() {
+            return retired;
+        }
+
+        void lease() {
+            leases++;
+        }
+
+        void release() {
+            leases--;
+            lastReleased = System.currentTimeMillis();
+        }
+
+        void retire() {
+            retired = true;
+        }
+    }
+}
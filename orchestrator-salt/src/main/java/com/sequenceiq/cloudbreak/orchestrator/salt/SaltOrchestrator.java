@@ -35,6 +35,7 @@ import org.springframework.util.StringUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
 import com.sequenceiq.cloudbreak.common.exception.NotFoundException;
 import com.sequenceiq.cloudbreak.common.type.RecipeExecutionPhase;
@@ -159,6 +160,8 @@ SaltOrchestrator implements HostOrchestrator {
     @Inject
     private SaltService saltService;
 
+    private volatile byte[] cachedStateConfigZip;
+
     @Override
     public void bootstrap(List<GatewayConfig> allGatewayConfigs, Set<Node> targets, BootstrapParams params,
             ExitCriteriaModel exitModel) throws CloudbreakOrchestratorException {
@@ -785,7 +788,13 @@ SaltOrchestrator implements HostOrchestrator {
 
     @Override
     public byte[] getStateConfigZip() throws IOException {
-        return CompressUtil.generateCompressedOutputFromFolders("salt-common", "salt");
+        byte[] zip = cachedStateConfigZip;
+        if (zip == null) {
+            zip = CompressUtil.generateCompressedOutputFromFolders("salt-common", "salt");
+            LOGGER.debug("Salt states are zipped, size: {}, sha256: {}", zip.length, Hashing.sha256().hashBytes(zip));
+            cachedStateConfigZip = zip;
+        }
+        return zip.clone();
     }
 
     @Override
@@ -7,31 +7,22 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorFailedException;
 import com.sequenceiq.cloudbreak.orchestrator.model.GatewayConfig;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
 
-import io.opentracing.Tracer;
-
 @Service
 public class SaltService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SaltService.class);
 
     @Inject
-    private SaltErrorResolver saltErrorResolver;
-
-    @Inject
-    private Tracer tracer;
-
-    @Value("${rest.debug}")
-    private boolean restDebug;
+    private SaltConnectorPool saltConnectorPool;
 
     public SaltConnector createSaltConnector(GatewayConfig gatewayConfig) {
-        return new SaltConnector(gatewayConfig, saltErrorResolver, restDebug, tracer);
+        return saltConnectorPool.getSaltConnector(gatewayConfig);
     }
 
     public GatewayConfig getPrimaryGatewayConfig(List<GatewayConfig> allGatewayConfigs) throws CloudbreakOrchestratorFailedException {
@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import javax.ws.rs.client.Client;
@@ -74,8 +75,6 @@ public class SaltConnector implements Closeable {
 
     private static final int PROXY_TIMEOUT = 90000;
 
-    private final Client restClient;
-
     private final WebTarget saltTarget;
 
     private final String saltPassword;
@@ -84,22 +83,42 @@ public class SaltConnector implements Closeable {
 
     private final SaltErrorResolver saltErrorResolver;
 
+    private final Runnable closeAction;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
     public SaltConnector(GatewayConfig gatewayConfig, SaltErrorResolver saltErrorResolver, boolean debug, Tracer tracer) {
+        this(gatewayConfig, createRestClient(gatewayConfig, debug), saltErrorResolver, tracer);
+    }
+
+    private SaltConnector(GatewayConfig gatewayConfig, Client restClient, SaltErrorResolver saltErrorResolver, Tracer tracer) {
+        this(gatewayConfig, restClient, restClient::close, saltErrorResolver, tracer);
+    }
+
+    /**
+     * Creates a connector on a client shared with other connectors of the same gateway. The client is not closed by the connector, the
+     * close action is run instead when the connector is closed.
+     */
+    public SaltConnector(GatewayConfig gatewayConfig, Client restClient, Runnable closeAction, SaltErrorResolver saltErrorResolver,
+            Tracer tracer) {
         ClientTracingFeature tracingFeature = new ClientTracingFeature.Builder(tracer)
                 .withTraceSerialization(false)
                 .withDecorators(List.of(new TracingClientSpanDecorator())).build();
+        this.closeAction = closeAction;
+        String saltBootPasswd = Optional.ofNullable(gatewayConfig.getSaltBootPassword()).orElse(SALT_BOOT_PASSWORD);
+        saltTarget = restClient.target(gatewayConfig.getGatewayUrl())
+                .register(HttpAuthenticationFeature.basic(SALT_BOOT_USER, saltBootPasswd))
+                .register(new DisableProxyAuthFeature())
+                .register(new SetProxyTimeoutFeature(PROXY_TIMEOUT))
+                .register(tracingFeature);
+        saltPassword = Optional.ofNullable(gatewayConfig.getSaltPassword()).orElse(SALT_PASSWORD);
+        signatureKey = gatewayConfig.getSignatureKey();
+        this.saltErrorResolver = saltErrorResolver;
+    }
+
+    private static Client createRestClient(GatewayConfig gatewayConfig, boolean debug) {
         try {
-            restClient = RestClientUtil.createClient(
-                    gatewayConfig.getServerCert(), gatewayConfig.getClientCert(), gatewayConfig.getClientKey(), debug);
-            String saltBootPasswd = Optional.ofNullable(gatewayConfig.getSaltBootPassword()).orElse(SALT_BOOT_PASSWORD);
-            saltTarget = restClient.target(gatewayConfig.getGatewayUrl())
-                    .register(HttpAuthenticationFeature.basic(SALT_BOOT_USER, saltBootPasswd))
-                    .register(new DisableProxyAuthFeature())
-                    .register(new SetProxyTimeoutFeature(PROXY_TIMEOUT))
-                    .register(tracingFeature);
-            saltPassword = Optional.ofNullable(gatewayConfig.getSaltPassword()).orElse(SALT_PASSWORD);
-            signatureKey = gatewayConfig.getSignatureKey();
-            this.saltErrorResolver = saltErrorResolver;
+            return RestClientUtil.createClient(gatewayConfig.getServerCert(), gatewayConfig.getClientCert(), gatewayConfig.getClientKey(), debug);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create rest client with 2-way-ssl config", e);
         }
@@ -331,8 +350,8 @@ public class SaltConnector implements Closeable {
 
     @Override
     public void close() {
-        if (restClient != null) {
-            restClient.close();
+        if (closed.compareAndSet(false, true)) {
+            closeAction.run();
         }
     }
 
@@ -0,0 +1,122 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.client.Client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.sequenceiq.cloudbreak.orchestrator.model.GatewayConfig;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+
+import io.opentracing.Tracer;
+
+class SaltConnectorPoolTest {
+
+    private static final String ADDRESS = "10.0.0.1";
+
+    private static final String OTHER_ADDRESS = "10.0.0.2";
+
+    private static final int GATEWAY_PORT = 9443;
+
+    private final List<Client> createdClients = new ArrayList<>();
+
+    @Mock
+    private SaltErrorResolver saltErrorResolver;
+
+    @Mock
+    private Tracer tracer;
+
+    @InjectMocks
+    private SaltConnectorPool underTest = new SaltConnectorPool() {
+        @Override
+        Client createClient(GatewayConfig gatewayConfig) {
+            Client client = mock(Client.class, RETURNS_DEEP_STUBS);
+            createdClients.add(client);
+            return client;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        underTest.enabled = true;
+        underTest.idleTimeout = Duration.ofMinutes(10L);
+        underTest.connectionIdleTimeout = Duration.ofMinutes(2L);
+    }
+
+    @Test
+    void testConnectorsOfTheSameGatewayShareTheClient() {
+        try (SaltConnector first = underTest.getSaltConnector(gatewayConfig(ADDRESS, "cert"));
+                SaltConnector second = underTest.getSaltConnector(gatewayConfig(ADDRESS, "cert"))) {
+            assertEquals(1, createdClients.size());
+            assertEquals(2, underTest.countLeases());
+        }
+
+        assertEquals(0, underTest.countLeases());
+        assertEquals(1, underTest.countClients());
+        verify(createdClients.get(0), never()).close();
+    }
+
+    @Test
+    void testGatewaysHaveSeparateClients() {
+        underTest.getSaltConnector(gatewayConfig(ADDRESS, "cert")).close();
+        underTest.getSaltConnector(gatewayConfig(OTHER_ADDRESS, "cert")).close();
+
+        assertEquals(2, createdClients.size());
+        assertEquals(2, underTest.countClients());
+    }
+
+    @Test
+    void testClientIsClosedAfterTheLastConnectorWhenTheCertificatesRotate() {
+        SaltConnector old = underTest.getSaltConnector(gatewayConfig(ADDRESS, "cert"));
+
+        underTest.getSaltConnector(gatewayConfig(ADDRESS, "rotated-cert")).close();
+
+        assertEquals(2, createdClients.size());
+        verify(createdClients.get(0), never()).close();
+        old.close();
+        old.close();
+        verify(createdClients.get(0), times(1)).close();
+        verify(createdClients.get(1), never()).close();
+        assertEquals(1, underTest.countClients());
+    }
+
+    @Test
+    void testIdleClientIsClosed() {
+        underTest.idleTimeout = Duration.ZERO;
+        underTest.getSaltConnector(gatewayConfig(ADDRESS, "cert")).close();
+
+        underTest.getSaltConnector(gatewayConfig(OTHER_ADDRESS, "cert")).close();
+
+        verify(createdClients.get(0)).close();
+        assertEquals(1, underTest.countClients());
+    }
+
+    @Test
+    void testClientsAreNotPooledWhenDisabled() {
+        underTest.enabled = false;
+        underTest.getSaltConnector(gatewayConfig(ADDRESS, "")).close();
+
+        assertEquals(0, createdClients.size());
+        assertEquals(0, underTest.countClients());
+    }
+
+    private GatewayConfig gatewayConfig(String address, String serverCert) {
+        return new GatewayConfig(address, address, address, "gateway", GATEWAY_PORT, "instance-id", serverCert, "client-cert", "client-key",
+                "salt-password", "saltboot-password", "signature-key", true, true, null, null, null, null);
+    }
+}
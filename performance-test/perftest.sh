@@ -7,6 +7,8 @@
 : ${CB_NUMBER_OF_USERS:=1}
 : ${CB_RAMPUP_SECONDS:=3}
 : ${CB_DELAY_BEFORE_TERM:=60}
+: ${CB_NUMBER_OF_FLOWS:=500}
+: ${CB_MAX_WAIT_MINUTES:=60}
 
 echo "[!!] Make sure you spinned up the mock server: CB_SERVER_ADDRESS=$CB_PERFTEST_HOST MOCK_SERVER_ADDRESS=$CB_MOCK_HOST gradle :integration-test:runMockServer"
 echo "[!!] \$CB_MOCK_HOST ($CB_MOCK_HOST) must be resolvable from the running Cloudbreak backend"
@@ -21,6 +23,8 @@ docker run -it --rm \
 -e CB_NUMBER_OF_USERS=$CB_NUMBER_OF_USERS \
 -e CB_RAMPUP_SECONDS=$CB_RAMPUP_SECONDS \
 -e CB_DELAY_BEFORE_TERM=$CB_DELAY_BEFORE_TERM \
+-e CB_NUMBER_OF_FLOWS=$CB_NUMBER_OF_FLOWS \
+-e CB_MAX_WAIT_MINUTES=$CB_MAX_WAIT_MINUTES \
 -e CB_USERNAME=$CB_USERNAME \
 -e CB_PASSWORD=$CB_PASSWORD \
 -e CB_HOSTNAME_ALIASES=$CB_HOSTNAME_ALIASES \
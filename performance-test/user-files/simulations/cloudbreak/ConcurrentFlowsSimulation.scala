@@ -0,0 +1,71 @@
+package cloudbreak
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Starts CB_NUMBER_OF_FLOWS mock stack creations at once and keeps them running, to measure how many concurrent flows
+ * a Cloudbreak node can hold with a given thread pool mode (cb.eventbus.threadpool.mode, cb.threadpool.mode).
+ */
+class ConcurrentFlowsSimulation extends Simulation {
+
+  val r = scala.util.Random
+
+  val host = sys.env("CB_PERFTEST_HOST")
+  val mockHost = sys.env.getOrElse("CB_MOCK_HOST", "mockhosts")
+  val numberOfFlows = sys.env.getOrElse("CB_NUMBER_OF_FLOWS", "500").toInt
+  val rampupSeconds = sys.env.getOrElse("CB_RAMPUP_SECONDS", "60").toInt
+  val maxWaitMinutes = sys.env.getOrElse("CB_MAX_WAIT_MINUTES", "60").toInt
+
+  val httpConf = http
+    .baseURL("https://" + host)
+    .userAgentHeader("curl/7.37.1")
+
+  sys.env.get("CB_HOSTNAME_ALIASES").filter(_.trim.nonEmpty).foreach(s => httpConf.hostNameAliases(Utils.stringToMap(s)))
+
+  val getToken = http("uaa token request")
+      .post("/identity/oauth/authorize")
+      .header("accept", "application/x-www-form-urlencoded")
+      .header("Content-Type", "application/x-www-form-urlencoded")
+      .queryParam("response_type", "token")
+      .queryParam("client_id", "cloudbreak_shell")
+      .queryParam("scope.0", "openid")
+      .queryParam("source", "login")
+      .queryParam("redirect_uri", "http://cloudbreak.shell")
+      .body(StringBody("""credentials={"username":"${userName}","password":"${password}"}"""))
+      .disableFollowRedirect
+      .check(status.is(302), headerRegex("Location", """access_token=(.*?)&""").saveAs("token"))
+
+  val scn = scenario("concurrent flows")
+    .feed(Feeders.userFeeder)
+    .exec(Utils.addVariableToSession(_, "mockHost", mockHost))
+    .exec(getToken)
+
+    //init
+    .exec(Utils.addVariableToSession(_, "imagecatalogName", "mock-catalog-" + r.alphanumeric.take(10).mkString.toLowerCase))
+    .exec(ImageCatalogRequests.createMock)
+    .exec(Utils.addVariableToSession(_, "blueprintName", "multinode-hdfs-yarn-" + r.alphanumeric.take(10).mkString.toLowerCase))
+    .exec(BlueprintRequests.createBlueprint)
+    .exec(Utils.addVariableToSession(_, "credentialName", "mock-credential-" + r.alphanumeric.take(10).mkString.toLowerCase))
+    .exec(CredentialRequests.createMock)
+
+    //create cluster and wait until its flow finishes
+    .exec(Utils.addVariableToSession(_, "stackName", "perftest-" + r.alphanumeric.take(10).mkString.toLowerCase))
+    .exec(StackRequests.createMockStackV2)
+    .exitHereIfFailed
+    .exec(Utils.addVariableToSession(_, "stackStatus", ""))
+    .asLongAsDuring(s => !Set("AVAILABLE", "CREATE_FAILED").contains(s("stackStatus").as[String]), maxWaitMinutes minutes) {
+        pause(10)
+        .exec(StackRequests.getStack)
+    }
+
+    //delete
+    .exec(StackRequests.deleteStack)
+    .exec(BlueprintRequests.deleteBlueprint)
+    .exec(CredentialRequests.deleteMock)
+    .exec(ImageCatalogRequests.deleteMock)
+
+  setUp(scn.inject(rampUsers(numberOfFlows) over (rampupSeconds seconds)).protocols(httpConf))
+    .assertions(global.failedRequests.percent.lt(1))
+}
@@ -19,6 +19,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
         "com.sequenceiq.cloudbreak.auth.altus",
         "com.sequenceiq.cloudbreak.auth.filter",
         "com.sequenceiq.cloudbreak.auth.security",
+        "com.sequenceiq.cloudbreak.grpc",
         "com.sequenceiq.cloudbreak.security",
         "com.sequenceiq.cloudbreak.api.util",
         "com.sequenceiq.cloudbreak.cloud.aws",
@@ -0,0 +1,96 @@
+package com.sequenceiq.cloudbreak.service.secret.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Keeps the secrets read from the secret store on the current thread until the scope is closed, so a secret is read from Vault only once
+ * during an API call or while the salt pillars of a cluster are built, no matter how many entity getters resolve it. A scope opened while
+ * another one is active on the thread joins the outer one and closing it has no effect. The Vault reads and the cache hits of a scope are
+ * recorded as distribution summaries when the outermost scope is closed.
+ */
+public class SecretReadScope implements AutoCloseable {
+
+    private static final String METRIC_PREFIX = "secret.read.scope.";
+
+    private static final ThreadLocal<SecretReadScope> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+
+    private final boolean outermost;
+
+    private final Map<String, String> secrets = new HashMap<>();
+
+    private int vaultReads;
+
+    private int hits;
+
+    private SecretReadScope(String name, boolean outermost) {
+        this.name = name;
+        this.outermost = outermost;
+    }
+
+    /**
+     * Opens a scope on the current thread or joins the one already active. The returned scope has to be closed by the caller.
+     */
+    public static SecretReadScope open(String name) {
+        if (CURRENT.get() != null) {
+            return new SecretReadScope(name, false);
+        }
+        SecretReadScope scope = new SecretReadScope(name, true);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Optional<SecretReadScope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public boolean contains(String secret) {
+        return secrets.containsKey(secret);
+    }
+
+    /**
+     * Returns the secret content kept in the scope, it might be null if the secret was not found in the store.
+     */
+    public String get(String secret) {
+        hits++;
+        return secrets.get(secret);
+    }
+
+    /**
+     * Keeps the secret content just read from the secret store.
+     */
+    public void put(String secret, String value) {
+        vaultReads++;
+        secrets.put(secret, value);
+    }
+
+    public void remove(String secret) {
+        secrets.remove(secret);
+    }
+
+    public void clear() {
+        secrets.clear();
+    }
+
+    public int getVaultReads() {
+        return vaultReads;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    @Override
+    public void close() {
+        if (outermost) {
+            CURRENT.remove();
+            Metrics.summary(METRIC_PREFIX + "vault.reads", "scope", name).record(vaultReads);
+            Metrics.summary(METRIC_PREFIX + "hits", "scope", name).record(hits);
+        }
+    }
+}
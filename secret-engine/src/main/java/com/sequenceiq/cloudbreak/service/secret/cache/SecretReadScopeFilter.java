@@ -0,0 +1,22 @@
+package com.sequenceiq.cloudbreak.service.secret.cache;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+public class SecretReadScopeFilter extends OncePerRequestFilter {
+
+    private static final String SCOPE_NAME = "api";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (SecretReadScope ignored = SecretReadScope.open(SCOPE_NAME)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.sequenceiq.cloudbreak.service.secret.conf;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sequenceiq.cloudbreak.service.secret.cache.SecretReadScopeFilter;
+
+@Configuration
+@ConditionalOnProperty(name = "secret.read.scope.enabled", havingValue = "true", matchIfMissing = true)
+public class SecretReadScopeFilterConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<SecretReadScopeFilter> secretReadScopeFilterRegistrationBean() {
+        FilterRegistrationBean<SecretReadScopeFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new SecretReadScopeFilter());
+        return registrationBean;
+    }
+}
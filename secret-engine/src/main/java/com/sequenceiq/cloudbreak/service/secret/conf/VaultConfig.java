@@ -82,6 +82,9 @@ public class VaultConfig extends AbstractVaultConfiguration {
     @Value("${vault.auth.kubernetes.service.account.token.path:}")
     private String kubernetesSATokenPath;
 
+    @Value("${vault.http.max.connections:20}")
+    private int maxConnections;
+
     @Value("${https.proxyUser:}")
     private String httpsProxyUser;
 
@@ -129,7 +132,9 @@ public class VaultConfig extends AbstractVaultConfiguration {
 
         private ClientHttpRequestFactory usingHttpComponents(ClientOptions options, SslConfiguration sslConfiguration)
                 throws GeneralSecurityException, IOException {
-            HttpClientBuilder httpClientBuilder = HttpClients.custom();
+            HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                    .setMaxConnTotal(maxConnections)
+                    .setMaxConnPerRoute(maxConnections);
 
             httpClientBuilder.setRoutePlanner(new SystemDefaultRoutePlanner(
                     DefaultSchemePortResolver.INSTANCE, ProxySelector.getDefault()));
@@ -2,12 +2,27 @@ package com.sequenceiq.cloudbreak.service.secret.service;
 
 import static java.lang.String.format;
 
+import java.lang.reflect.Field;
 import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,11 +31,18 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.sequenceiq.cloudbreak.common.metrics.MetricService;
 import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
 import com.sequenceiq.cloudbreak.service.secret.SecretEngine;
+import com.sequenceiq.cloudbreak.service.secret.SecretOperationException;
+import com.sequenceiq.cloudbreak.service.secret.SecretValue;
+import com.sequenceiq.cloudbreak.service.secret.cache.SecretReadScope;
 import com.sequenceiq.cloudbreak.service.secret.conf.VaultConfig;
+import com.sequenceiq.cloudbreak.service.secret.domain.SecretProxy;
 import com.sequenceiq.cloudbreak.service.secret.model.SecretResponse;
 import com.sequenceiq.cloudbreak.service.secret.vault.VaultKvV1Engine;
 import com.sequenceiq.cloudbreak.service.secret.vault.VaultKvV2Engine;
@@ -35,6 +57,9 @@ public class SecretService {
     @Value("${secret.engine:}")
     private String engineClass;
 
+    @Value("${secret.read.concurrency:8}")
+    private int readConcurrency;
+
     private final MetricService metricService;
 
     private final List<SecretEngine> engines;
@@ -43,6 +68,8 @@ public class SecretService {
 
     private final VaultRetryService vaultRetryService;
 
+    private ExecutorService readExecutor;
+
     public SecretService(MetricService metricService, List<SecretEngine> engines, VaultRetryService vaultRetryService) {
         this.metricService = metricService;
         this.engines = engines;
@@ -55,6 +82,15 @@ public class SecretService {
             persistentEngine = engines.stream().filter(e -> e.getClass().getCanonicalName().startsWith(engineClass)).findFirst()
                     .orElseThrow(() -> new RuntimeException(format("Selected secret engine (%s) is not found, please check secret.engine", engineClass)));
         }
+        readExecutor = new MDCCleanerThreadPoolExecutor(readConcurrency, readConcurrency, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("secret-read-%d").setDaemon(true).build(), new CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (readExecutor != null) {
+            readExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -84,7 +120,7 @@ public class SecretService {
 
     /**
      * Fetches the secret from Secret's store. If the secret is not found then null is returned.
-     * If the secret is null then null is returned.
+     * If the secret is null then null is returned. The secret is read only once in a {@link SecretReadScope}.
      *
      * @param secret Key-value secret in Secret
      * @return Secret content or null if the secret secret is not found.
@@ -93,6 +129,118 @@ public class SecretService {
         if (secret == null) {
             return null;
         }
+        Optional<SecretReadScope> scope = SecretReadScope.current();
+        if (scope.isPresent() && scope.get().contains(secret)) {
+            return scope.get().get(secret);
+        }
+        String response = read(secret);
+        scope.ifPresent(s -> s.put(secret, response));
+        return response;
+    }
+
+    /**
+     * Fetches the secrets from Secret's store concurrently. The secrets already read in the current {@link SecretReadScope} are not read
+     * again and the ones read are kept in it. Null secrets are skipped.
+     *
+     * @param secrets Key-value secrets in Secret
+     * @return Secret contents by the secrets, the content is null if the secret is not found.
+     */
+    public Map<String, String> getAll(Collection<String> secrets) {
+        Optional<SecretReadScope> scope = SecretReadScope.current();
+        Map<String, String> result = new HashMap<>();
+        List<String> secretsToRead = new ArrayList<>();
+        for (String secret : new LinkedHashSet<>(secrets)) {
+            if (scope.isPresent() && scope.get().contains(secret)) {
+                result.put(secret, scope.get().get(secret));
+            } else if (secret != null) {
+                secretsToRead.add(secret);
+            }
+        }
+        Map<String, String> read = readConcurrently(secretsToRead);
+        scope.ifPresent(s -> read.forEach(s::put));
+        result.putAll(read);
+        return result;
+    }
+
+    /**
+     * Reads the secrets of the {@link SecretValue} fields of the entities into the current {@link SecretReadScope} with {@link #getAll},
+     * so the getters of the entities are served from the scope later on. The elements of collections are prefetched one by one. Nothing
+     * is read without a scope opened on the current thread.
+     *
+     * @param entities Entities having secret fields or collections of them
+     */
+    public void prefetch(Object... entities) {
+        if (SecretReadScope.current().isPresent()) {
+            List<String> secrets = new ArrayList<>();
+            for (Object entity : entities) {
+                collectSecrets(entity, secrets);
+            }
+            LOGGER.debug("Prefetching {} secrets", secrets.size());
+            getAll(secrets);
+        }
+    }
+
+    private void collectSecrets(Object entity, List<String> secrets) {
+        if (entity instanceof Iterable) {
+            for (Object element : (Iterable<?>) entity) {
+                collectSecrets(element, secrets);
+            }
+        } else if (entity != null) {
+            for (Class<?> clazz = entity.getClass(); clazz != Object.class; clazz = clazz.getSuperclass()) {
+                collectSecretFields(entity, clazz, secrets);
+            }
+        }
+    }
+
+    private void collectSecretFields(Object entity, Class<?> clazz, List<String> secrets) {
+        for (Field field : clazz.getDeclaredFields()) {
+            if (field.isAnnotationPresent(SecretValue.class)) {
+                try {
+                    field.setAccessible(true);
+                    Object value = field.get(entity);
+                    if (value instanceof SecretProxy) {
+                        secrets.add(((SecretProxy) value).getSecret());
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new SecretOperationException(e);
+                }
+            }
+        }
+    }
+
+    private Map<String, String> readConcurrently(List<String> secrets) {
+        Map<String, String> result = new HashMap<>();
+        if (secrets.size() < 2 || readExecutor == null) {
+            secrets.forEach(secret -> result.put(secret, read(secret)));
+            return result;
+        }
+        Map<String, String> mdcContext = MDCBuilder.getMdcContextMap();
+        Map<String, Future<String>> futures = new LinkedHashMap<>();
+        for (String secret : secrets) {
+            futures.put(secret, readExecutor.submit(() -> {
+                MDCBuilder.buildMdcContextFromMap(mdcContext);
+                return read(secret);
+            }));
+        }
+        try {
+            for (Entry<String, Future<String>> future : futures.entrySet()) {
+                result.put(future.getKey(), future.getValue().get());
+            }
+        } catch (ExecutionException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SecretOperationException(e.getCause());
+        } catch (InterruptedException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new SecretOperationException(e);
+        }
+        return result;
+    }
+
+    private String read(String secret) {
         metricService.incrementMetricCounter(() -> "secret.read." + convertSecretToMetric(secret));
         long start = System.currentTimeMillis();
 
@@ -136,6 +284,7 @@ public class SecretService {
      * @param secret Key-value secret in Secret
      */
     public void delete(String secret) {
+        SecretReadScope.current().ifPresent(scope -> scope.remove(secret));
         metricService.incrementMetricCounter(() -> "secret.delete." + convertSecretToMetric(secret));
         long start = System.currentTimeMillis();
         engines.stream()
@@ -151,6 +300,7 @@ public class SecretService {
     }
 
     public void cleanup(String pathPrefix) {
+        SecretReadScope.current().ifPresent(SecretReadScope::clear);
         metricService.incrementMetricCounter(() -> "secret.cleanup." + pathPrefix);
         long start = System.currentTimeMillis();
         persistentEngine.cleanup(pathPrefix);
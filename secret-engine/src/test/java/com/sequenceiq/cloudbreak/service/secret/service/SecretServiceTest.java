@@ -4,13 +4,16 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.security.InvalidKeyException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import org.junit.Assert;
@@ -22,12 +25,17 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.ReflectionUtils;
 
 import com.sequenceiq.cloudbreak.common.metrics.MetricService;
 import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
 import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
 import com.sequenceiq.cloudbreak.service.secret.SecretEngine;
+import com.sequenceiq.cloudbreak.service.secret.SecretValue;
+import com.sequenceiq.cloudbreak.service.secret.cache.SecretReadScope;
+import com.sequenceiq.cloudbreak.service.secret.domain.Secret;
+import com.sequenceiq.cloudbreak.service.secret.domain.SecretProxy;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SecretServiceTest {
@@ -138,4 +146,81 @@ public class SecretServiceTest {
         verify(persistentEngine, times(1)).delete(anyString());
         verify(metricService, times(1)).submit(eq(MetricType.VAULT_WRITE), anyDouble());
     }
+
+    @Test
+    public void testGetIsReadOnceInScope() {
+        when(persistentEngine.get("secret")).thenReturn("value");
+
+        try (SecretReadScope scope = SecretReadScope.open("test")) {
+            Assert.assertEquals("value", underTest.get("secret"));
+            Assert.assertEquals("value", underTest.get("secret"));
+            Assert.assertEquals(1, scope.getVaultReads());
+            Assert.assertEquals(1, scope.getHits());
+        }
+        Assert.assertEquals("value", underTest.get("secret"));
+
+        verify(persistentEngine, times(2)).get("secret");
+    }
+
+    @Test
+    public void testGetAllReadsConcurrentlyTheSecretsNotInScope() {
+        ReflectionTestUtils.setField(underTest, "readConcurrency", 2);
+        underTest.init();
+        when(persistentEngine.get(anyString())).then(i -> "value-" + i.getArgument(0));
+
+        try (SecretReadScope scope = SecretReadScope.open("test")) {
+            underTest.get("secret1");
+            Map<String, String> result = underTest.getAll(Arrays.asList("secret1", "secret2", "secret3", "secret2", null));
+
+            Assert.assertEquals(Map.of("secret1", "value-secret1", "secret2", "value-secret2", "secret3", "value-secret3"), result);
+            Assert.assertEquals(3, scope.getVaultReads());
+        } finally {
+            underTest.shutdown();
+        }
+        verify(persistentEngine, times(1)).get("secret1");
+        verify(persistentEngine, times(1)).get("secret2");
+        verify(persistentEngine, times(1)).get("secret3");
+    }
+
+    @Test
+    public void testPrefetchReadsTheSecretFieldsIntoScope() {
+        when(persistentEngine.get(anyString())).then(i -> "value-" + i.getArgument(0));
+        SecretEntity entity = new SecretEntity(new SecretProxy(underTest, "secret1"), new Secret("raw"));
+        SecretEntity otherEntity = new SecretEntity(new SecretProxy(underTest, "secret2"), new SecretProxy(underTest, null));
+
+        try (SecretReadScope scope = SecretReadScope.open("test")) {
+            underTest.prefetch(entity, List.of(otherEntity), null);
+
+            Assert.assertEquals(2, scope.getVaultReads());
+            Assert.assertEquals("value-secret1", entity.getPassword());
+            Assert.assertEquals("value-secret2", otherEntity.getPassword());
+            Assert.assertEquals(2, scope.getHits());
+        }
+        verify(persistentEngine, times(2)).get(anyString());
+    }
+
+    @Test
+    public void testPrefetchWithoutScope() {
+        underTest.prefetch(new SecretEntity(new SecretProxy(underTest, "secret1"), Secret.EMPTY));
+
+        verify(persistentEngine, never()).get(anyString());
+    }
+
+    private static class SecretEntity {
+
+        @SecretValue
+        private Secret password;
+
+        @SecretValue
+        private Secret key;
+
+        SecretEntity(Secret password, Secret key) {
+            this.password = password;
+            this.key = key;
+        }
+
+        String getPassword() {
+            return password.getRaw();
+        }
+    }
 }
@@ -0,0 +1,338 @@
+package com.sequenceiq.cloudbreak.structuredevent.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Appends the structured events to the audit file in the order they arrive. The callers only put the line to a lock-free queue, a single
+ * writer thread keeps the file open, writes whatever is queued at once and syncs it to the disk according to the fsync policy. The file is
+ * rotated when it reaches the size limit or gets older than the rotation interval, the rotated segments are gzipped if configured.
+ * The file can be rotated externally as well, e.g. by logrotate: before writing, the writer checks at most once per reopen check interval
+ * whether the file was moved away or deleted and reopens it by its path, and follows a truncated file, so copytruncate is not needed.
+ * The writer thread is started by the first event, so applications not writing the audit file have no thread and no open file.
+ */
+@Component
+public class AuditFileWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditFileWriter.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private static final long FLUSH_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100L);
+
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000L;
+
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+
+    private static final DateTimeFormatter ROTATED_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    @VisibleForTesting
+    @Value("${cb.audit.filepath:}")
+    String auditFilePath;
+
+    @VisibleForTesting
+    @Value("${cb.audit.file.fsync:INTERVAL}")
+    FsyncPolicy fsyncPolicy;
+
+    @VisibleForTesting
+    @Value("${cb.audit.file.fsync.interval.ms:1000}")
+    long fsyncIntervalMillis;
+
+    @VisibleForTesting
+    @Value("${cb.audit.file.rotation.max.bytes:0}")
+    long rotationMaxBytes;
+
+    @VisibleForTesting
+    @Value("${cb.audit.file.rotation.interval.ms:0}")
+    long rotationIntervalMillis;
+
+    @VisibleForTesting
+    @Value("${cb.audit.file.rotation.gzip:false}")
+    boolean gzipRotated;
+
+    @VisibleForTesting
+    @Value("${cb.audit.file.reopen.check.interval.ms:1000}")
+    long reopenCheckIntervalMillis;
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong appended = new AtomicLong();
+
+    private volatile long written;
+
+    private volatile Thread writerThread;
+
+    private volatile boolean waiting;
+
+    private volatile boolean running = true;
+
+    private FileChannel channel;
+
+    private Object openedFileKey;
+
+    private long lastReopenCheck;
+
+    private long segmentSize;
+
+    private long segmentOpened;
+
+    private long lastFsync;
+
+    private boolean unsynced;
+
+    /**
+     * Queues the line to be appended to the audit file, a line separator is added after it.
+     */
+    public void append(String line) {
+        queue.offer(line);
+        appended.incrementAndGet();
+        startWriterThreadIfNeeded();
+        if (waiting) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Waits until the lines appended before the call are written to the audit file.
+     *
+     * @return whether they were written within the timeout
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        long target = appended.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (written < target) {
+            if (System.nanoTime() >= deadline || writerThread == null) {
+                return false;
+            }
+            LockSupport.parkNanos(FLUSH_PARK_NANOS);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(SHUTDOWN_WAIT_MILLIS);
+        }
+    }
+
+    private void startWriterThreadIfNeeded() {
+        if (writerThread == null) {
+            synchronized (this) {
+                if (writerThread == null && running) {
+                    Thread thread = new Thread(this::run, "audit-file-writer");
+                    thread.setDaemon(true);
+                    writerThread = thread;
+                    thread.start();
+                }
+            }
+        }
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            drainTo(batch);
+            try {
+                if (batch.isEmpty()) {
+                    waitForLines();
+                } else {
+                    write(batch);
+                }
+                fsyncIfDue();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Can not write structured events to file {}", auditFilePath, e);
+                closeChannel();
+            } finally {
+                written += batch.size();
+                batch.clear();
+            }
+        }
+        fsync();
+        closeChannel();
+    }
+
+    private void drainTo(List<String> batch) {
+        int batchBytes = 0;
+        String line = queue.poll();
+        while (line != null) {
+            batch.add(line);
+            batchBytes += line.length();
+            line = batchBytes < MAX_BATCH_BYTES ? queue.poll() : null;
+        }
+    }
+
+    private void waitForLines() {
+        waiting = true;
+        if (queue.isEmpty() && running) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        waiting = false;
+    }
+
+    private void write(List<String> batch) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        batch.forEach(line -> lines.append(line).append('\n'));
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+        reopenIfRotatedExternally();
+        rotateIfNeeded(buffer.remaining());
+        if (channel == null) {
+            open();
+        }
+        while (buffer.hasRemaining()) {
+            segmentSize += channel.write(buffer);
+        }
+        unsynced = true;
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            fsync();
+        }
+    }
+
+    private void open() throws IOException {
+        Path path = Path.of(auditFilePath);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = channel.size();
+        segmentOpened = System.currentTimeMillis();
+        openedFileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        lastReopenCheck = segmentOpened;
+        LOGGER.debug("Opened audit file {}", path);
+    }
+
+    /**
+     * The open channel keeps writing to the moved file after an external rotation, so the file is reopened by its path when the path
+     * points to another file or to none. The file key is not supported by every file system, then only the deletion is noticed.
+     */
+    private void reopenIfRotatedExternally() throws IOException {
+        long now = System.currentTimeMillis();
+        if (channel == null || now - lastReopenCheck < reopenCheckIntervalMillis) {
+            return;
+        }
+        lastReopenCheck = now;
+        Path path = Path.of(auditFilePath);
+        boolean moved = !Files.exists(path)
+                || openedFileKey != null && !openedFileKey.equals(Files.readAttributes(path, BasicFileAttributes.class).fileKey());
+        if (moved) {
+            LOGGER.info("Audit file {} was rotated externally, reopening it", path);
+            fsync();
+            closeChannel();
+            open();
+        } else if (channel.size() < segmentSize) {
+            LOGGER.info("Audit file {} was truncated externally", path);
+            segmentSize = channel.size();
+        }
+    }
+
+    private void rotateIfNeeded(int batchBytes) throws IOException {
+        if (channel == null) {
+            open();
+        }
+        boolean sizeLimitReached = rotationMaxBytes > 0L && segmentSize > 0L && segmentSize + batchBytes > rotationMaxBytes;
+        boolean intervalPassed = rotationIntervalMillis > 0L && System.currentTimeMillis() - segmentOpened >= rotationIntervalMillis;
+        if (sizeLimitReached || intervalPassed) {
+            fsync();
+            closeChannel();
+            Path path = Path.of(auditFilePath);
+            String rotatedName = path.getFileName() + "." + LocalDateTime.now().format(ROTATED_SUFFIX_FORMATTER);
+            Path rotated = path.resolveSibling(rotatedName);
+            for (int i = 1; Files.exists(rotated); i++) {
+                rotated = path.resolveSibling(rotatedName + '-' + i);
+            }
+            Files.move(path, rotated);
+            LOGGER.debug("Rotated audit file to {}", rotated);
+            if (gzipRotated) {
+                gzip(rotated);
+            }
+        }
+    }
+
+    private void gzip(Path rotated) {
+        Path gzipped = rotated.resolveSibling(rotated.getFileName() + GZIP_SUFFIX);
+        try (InputStream in = Files.newInputStream(rotated); OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to gzip rotated audit file {}, it is kept uncompressed", rotated, e);
+            return;
+        }
+        try {
+            Files.delete(rotated);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete rotated audit file {} after gzipping it", rotated, e);
+        }
+    }
+
+    private void fsyncIfDue() {
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && unsynced && System.currentTimeMillis() - lastFsync >= fsyncIntervalMillis) {
+            fsync();
+        }
+    }
+
+    private void fsync() {
+        if (channel != null && unsynced) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to sync audit file {}", auditFilePath, e);
+            }
+        }
+        unsynced = false;
+        lastFsync = System.currentTimeMillis();
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close audit file {}", auditFilePath, e);
+            }
+            channel = null;
+        }
+    }
+
+    public enum FsyncPolicy {
+        /**
+         * The operating system decides when the written events reach the disk.
+         */
+        NEVER,
+        /**
+         * Every batch of events is synced to the disk after writing it.
+         */
+        BATCH,
+        /**
+         * The written events are synced to the disk at most once per fsync interval.
+         */
+        INTERVAL
+    }
+}
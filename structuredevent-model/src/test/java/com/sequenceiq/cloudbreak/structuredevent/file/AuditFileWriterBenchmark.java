@@ -0,0 +1,93 @@
+package com.sequenceiq.cloudbreak.structuredevent.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Strings;
+
+/**
+ * Writes structured events to an audit file from several dispatcher threads, once opening and closing the file for every event like the
+ * file structured event handlers did before, once through the {@link AuditFileWriter}. The score is events per second, the writer is
+ * flushed at the end of every invocation so only written events are counted.
+ * Run with {@code ./gradlew :structuredevent-model:benchmark -PbenchmarkIncludes=AuditFileWriterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class AuditFileWriterBenchmark {
+
+    private static final int EVENTS_PER_INVOCATION = 100;
+
+    private static final int EVENT_SIZE = 2048;
+
+    private static final long FLUSH_TIMEOUT_SECONDS = 60L;
+
+    @Param({"WRITE_STRING_TO_FILE", "AUDIT_FILE_WRITER"})
+    private String mode;
+
+    @Param({"INTERVAL", "BATCH"})
+    private AuditFileWriter.FsyncPolicy fsyncPolicy;
+
+    private final String event = "{\"event\":\"" + Strings.repeat("x", EVENT_SIZE) + "\"}";
+
+    private Path directory;
+
+    private File auditFile;
+
+    private AuditFileWriter writer;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-benchmark");
+        auditFile = directory.resolve("audit.log").toFile();
+        writer = new AuditFileWriter();
+        writer.auditFilePath = auditFile.getPath();
+        writer.fsyncPolicy = fsyncPolicy;
+        writer.fsyncIntervalMillis = 1000L;
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException, IOException {
+        writer.shutdown();
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void writeEvents() throws IOException {
+        if ("AUDIT_FILE_WRITER".equals(mode)) {
+            for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+                writer.append(event);
+            }
+            writer.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } else {
+            for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+                FileUtils.writeStringToFile(auditFile, event + '\n', StandardCharsets.UTF_8, true);
+            }
+        }
+    }
+}
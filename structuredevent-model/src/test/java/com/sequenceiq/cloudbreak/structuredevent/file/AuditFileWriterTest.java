@@ -0,0 +1,140 @@
+package com.sequenceiq.cloudbreak.structuredevent.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditFileWriterTest {
+
+    private static final long FLUSH_TIMEOUT_SECONDS = 5L;
+
+    private static final int EVENT_COUNT = 1000;
+
+    private static final String AUDIT_FILE_NAME = "audit.log";
+
+    @TempDir
+    Path directory;
+
+    private AuditFileWriter underTest;
+
+    private Path auditFile;
+
+    @BeforeEach
+    void setUp() {
+        auditFile = directory.resolve(AUDIT_FILE_NAME);
+        underTest = new AuditFileWriter();
+        underTest.auditFilePath = auditFile.toString();
+        underTest.fsyncPolicy = AuditFileWriter.FsyncPolicy.INTERVAL;
+        underTest.fsyncIntervalMillis = 1000L;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        underTest.shutdown();
+    }
+
+    @Test
+    void testEventsAreAppendedInOrder() throws IOException {
+        Files.writeString(auditFile, "existing\n");
+
+        events().forEach(underTest::append);
+
+        assertTrue(underTest.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        List<String> expected = new ArrayList<>();
+        expected.add("existing");
+        expected.addAll(events());
+        assertEquals(expected, Files.readAllLines(auditFile));
+    }
+
+    @Test
+    void testEventsAreWrittenOnShutdown() throws IOException, InterruptedException {
+        underTest.fsyncPolicy = AuditFileWriter.FsyncPolicy.BATCH;
+
+        events().forEach(underTest::append);
+        underTest.shutdown();
+
+        assertEquals(events(), Files.readAllLines(auditFile));
+    }
+
+    @Test
+    void testFileIsRotatedBySizeAndGzipped() throws IOException {
+        underTest.rotationMaxBytes = 1024L;
+        underTest.gzipRotated = true;
+
+        for (String event : events()) {
+            underTest.append(event);
+            assertTrue(underTest.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path rotated : files.filter(file -> !file.equals(auditFile)).sorted().collect(Collectors.toList())) {
+                assertTrue(rotated.getFileName().toString().endsWith(".gz"));
+                lines.addAll(readGzipped(rotated));
+            }
+        }
+        assertTrue(Files.size(auditFile) <= underTest.rotationMaxBytes);
+        lines.addAll(Files.readAllLines(auditFile));
+        assertEquals(events(), lines);
+    }
+
+    @Test
+    void testFileIsReopenedAfterExternalRotation() throws IOException {
+        Path rotated = directory.resolve(AUDIT_FILE_NAME + ".1");
+        underTest.append("first");
+        assertTrue(underTest.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        Files.move(auditFile, rotated);
+        underTest.append("second");
+        assertTrue(underTest.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertEquals(List.of("first"), Files.readAllLines(rotated));
+        assertEquals(List.of("second"), Files.readAllLines(auditFile));
+    }
+
+    @Test
+    void testTruncatedFileIsFollowed() throws IOException {
+        underTest.rotationMaxBytes = 1024L;
+        underTest.append("first");
+        assertTrue(underTest.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        Files.write(auditFile, new byte[0]);
+        underTest.append("second");
+        assertTrue(underTest.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertEquals(List.of("second"), Files.readAllLines(auditFile));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1L, files.count());
+        }
+    }
+
+    private List<String> events() {
+        return IntStream.range(0, EVENT_COUNT)
+                .mapToObj(i -> "{\"event\":" + i + '}')
+                .collect(Collectors.toList());
+    }
+
+    private List<String> readGzipped(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return content.lines().collect(Collectors.toList());
+        }
+    }
+}
@@ -1,19 +1,15 @@
 package com.sequenceiq.cloudbreak.structuredevent.service.file;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-
 import javax.inject.Inject;
 
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sequenceiq.cloudbreak.structuredevent.conf.StructuredEventEnablementConfig;
 import com.sequenceiq.cloudbreak.structuredevent.event.cdp.CDPStructuredEvent;
+import com.sequenceiq.cloudbreak.structuredevent.file.AuditFileWriter;
 import com.sequenceiq.flow.reactor.api.handler.EventHandler;
 
 import reactor.bus.Event;
@@ -26,7 +22,7 @@ public class CDPFileStructuredEventHandler<T extends CDPStructuredEvent> impleme
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Inject
-    private StructuredEventEnablementConfig structuredEventEnablementConfig;
+    private AuditFileWriter auditFileWriter;
 
     @Override
     public String selector() {
@@ -35,13 +31,12 @@ public class CDPFileStructuredEventHandler<T extends CDPStructuredEvent> impleme
 
     @Override
     public void accept(Event<T> structuredEvent) {
-        File file = new File(structuredEventEnablementConfig.getAuditFilePath());
         try {
             String structuredEventAsJson = objectMapper.writeValueAsString(structuredEvent);
-            FileUtils.writeStringToFile(file, structuredEventAsJson + '\n', StandardCharsets.UTF_8, true);
-            LOGGER.trace("Structured event\n{}\nhas been sent to file: {}", structuredEventAsJson, file.getAbsolutePath());
-        } catch (IOException e) {
-            LOGGER.error("Can not write structured event to file " + file.getAbsolutePath(), e);
+            auditFileWriter.append(structuredEventAsJson);
+            LOGGER.trace("Structured event\n{}\nhas been queued to be written to the audit file", structuredEventAsJson);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Can not write structured event to the audit file", e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,312 @@
+package com.sequenceiq.cloudbreak.structuredevent.service.kafka;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.kafka.common.errors.InvalidTopicException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.annotations.VisibleForTesting;
+import com.sequenceiq.cloudbreak.common.json.JsonUtil;
+import com.sequenceiq.cloudbreak.structuredevent.service.kafka.KafkaStructuredEventSpill.SpilledEvent;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes structured events to Kafka without blocking the caller. The events wait in a bounded queue, a single publisher thread drains
+ * it, serializes the events and hands them to the producer one by one, the producer groups them into requests to the broker by its own
+ * batching settings. The send results are handled in callbacks: events which could not be sent are spilled to a local directory if one is
+ * configured. After every drain the publisher sends a limited number of spilled events again while the queue is at most half full and the
+ * broker is reachable, so the spill is emptied under constant traffic too. Events are dropped when the queue or the spill directory is full.
+ */
+@Component
+public class KafkaStructuredEventPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaStructuredEventPublisher.class);
+
+    private static final String METRIC_PREFIX = "structuredevent.kafka.";
+
+    private static final String REASON = "reason";
+
+    private static final long IDLE_POLL_MILLIS = 1000L;
+
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000L;
+
+    @VisibleForTesting
+    @Value("${cb.kafka.publisher.queue.capacity:10000}")
+    int queueCapacity;
+
+    @VisibleForTesting
+    @Value("${cb.kafka.publisher.drain.size:500}")
+    int drainSize;
+
+    @VisibleForTesting
+    @Value("${cb.kafka.publisher.linger.ms:20}")
+    long lingerMillis;
+
+    @VisibleForTesting
+    @Value("${cb.kafka.publisher.spill.dir:}")
+    String spillDirectory;
+
+    @VisibleForTesting
+    @Value("${cb.kafka.publisher.spill.max.bytes:104857600}")
+    long spillMaxBytes;
+
+    @VisibleForTesting
+    @Value("${cb.kafka.publisher.spill.retry.ms:30000}")
+    long spillRetryMillis;
+
+    @Inject
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private BlockingQueue<PendingEvent> queue;
+
+    private KafkaStructuredEventSpill spill;
+
+    private Timer latencyTimer;
+
+    private volatile Thread publisherThread;
+
+    private volatile boolean running = true;
+
+    private volatile boolean brokerAvailable = true;
+
+    private long lastSpillReplay;
+
+    private final Queue<SpilledEvent> replayBuffer = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Metrics.gauge(METRIC_PREFIX + "queue.size", queue, BlockingQueue::size);
+        latencyTimer = Metrics.timer(METRIC_PREFIX + "latency");
+        if (StringUtils.isNotEmpty(spillDirectory)) {
+            try {
+                spill = new KafkaStructuredEventSpill(Path.of(spillDirectory), spillMaxBytes);
+            } catch (IOException e) {
+                LOGGER.error("Cannot use {} to spill structured events, events failed to send will be dropped", spillDirectory, e);
+            }
+        }
+    }
+
+    /**
+     * Queues the event to be sent to the topic.
+     *
+     * @return whether the event was queued, {@code false} if it was dropped because the queue is full
+     */
+    public boolean publish(String topic, Object event) {
+        if (!queue.offer(new PendingEvent(topic, event, System.nanoTime()))) {
+            LOGGER.debug("Structured event queue is full, dropping event of topic {}", topic);
+            drop("queue_full");
+            return false;
+        }
+        startPublisherThreadIfNeeded();
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        Thread thread = publisherThread;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(SHUTDOWN_WAIT_MILLIS);
+        }
+        List<PendingEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (PendingEvent event : remaining) {
+            String payload = serialize(event);
+            if (payload != null && !spill(event.getTopic(), payload)) {
+                drop("shutdown");
+            }
+        }
+        for (SpilledEvent event : replayBuffer) {
+            if (!spill(event.getTopic(), event.getPayload())) {
+                drop("shutdown");
+            }
+        }
+        replayBuffer.clear();
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    private synchronized void startPublisherThreadIfNeeded() {
+        if (publisherThread == null && running) {
+            Thread thread = new Thread(this::run, "structured-event-kafka-publisher");
+            thread.setDaemon(true);
+            thread.start();
+            publisherThread = thread;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                publishQueuedEvents();
+                replaySpilledEvents();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Unexpected error while publishing structured events to kafka", e);
+            }
+        }
+    }
+
+    private void publishQueuedEvents() throws InterruptedException {
+        for (PendingEvent event : takeQueuedEvents()) {
+            String payload = serialize(event);
+            if (payload != null) {
+                send(event.getTopic(), payload, event.getQueuedNanos());
+            }
+        }
+    }
+
+    /**
+     * Takes at most {@link #drainSize} events, waiting for the linger time once the first event arrived. The first event is waited for only
+     * shortly while there are spilled events to send again, so the replay is not slowed down by an idle queue.
+     */
+    private List<PendingEvent> takeQueuedEvents() throws InterruptedException {
+        List<PendingEvent> events = new ArrayList<>();
+        long firstPollMillis = isReplayDue(System.currentTimeMillis()) ? lingerMillis : IDLE_POLL_MILLIS;
+        PendingEvent first = queue.poll(firstPollMillis, TimeUnit.MILLISECONDS);
+        if (first != null) {
+            events.add(first);
+            long lingerEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+            while (events.size() < drainSize) {
+                PendingEvent next = queue.poll(lingerEnd - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                events.add(next);
+            }
+        }
+        return events;
+    }
+
+    private void send(String topic, String payload, long queuedNanos) {
+        try {
+            kafkaTemplate.send(topic, payload).addCallback(
+                    result -> {
+                        brokerAvailable = true;
+                        latencyTimer.record(System.nanoTime() - queuedNanos, TimeUnit.NANOSECONDS);
+                        LOGGER.trace("Structured event sent to kafka with topic {}", topic);
+                    },
+                    e -> handleSendFailure(topic, payload, e));
+        } catch (RuntimeException e) {
+            handleSendFailure(topic, payload, e);
+        }
+    }
+
+    private void handleSendFailure(String topic, String payload, Throwable e) {
+        Metrics.counter(METRIC_PREFIX + "failed").increment();
+        if (ExceptionUtils.indexOfThrowable(e, InvalidTopicException.class) != -1) {
+            LOGGER.error("Structured event invalid topic name {}", topic, e);
+            drop("invalid_topic");
+        } else {
+            brokerAvailable = false;
+            LOGGER.warn("Error happened in message sending to kafka with topic {}", topic, e);
+            if (!spill(topic, payload)) {
+                drop("send_failed");
+            }
+        }
+    }
+
+    private boolean spill(String topic, String payload) {
+        if (spill != null && spill.spill(topic, payload)) {
+            Metrics.counter(METRIC_PREFIX + "spilled").increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sends at most {@link #drainSize} spilled events again, the oldest spill file is read into memory when the previous one is sent.
+     */
+    private void replaySpilledEvents() {
+        long now = System.currentTimeMillis();
+        if (isReplayDue(now) && queue.size() <= queueCapacity / 2) {
+            lastSpillReplay = now;
+            try {
+                if (replayBuffer.isEmpty()) {
+                    replayBuffer.addAll(spill.takeOldest());
+                }
+                long replayNanos = System.nanoTime();
+                int replayed = 0;
+                while (replayed < drainSize && !replayBuffer.isEmpty()) {
+                    SpilledEvent event = replayBuffer.poll();
+                    send(event.getTopic(), event.getPayload(), replayNanos);
+                    replayed++;
+                }
+                LOGGER.debug("Sent {} spilled structured events to kafka again", replayed);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to read spilled structured events", e);
+            }
+        }
+    }
+
+    private boolean isReplayDue(long now) {
+        return spill != null && (!replayBuffer.isEmpty() || !spill.isEmpty()) && (brokerAvailable || now - lastSpillReplay >= spillRetryMillis);
+    }
+
+    private String serialize(PendingEvent event) {
+        try {
+            return JsonUtil.writeValueAsString(event.getEvent());
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Structured event json processing error", e);
+            drop("serialization");
+            return null;
+        }
+    }
+
+    private void drop(String reason) {
+        Metrics.counter(METRIC_PREFIX + "dropped", REASON, reason).increment();
+    }
+
+    private static class PendingEvent {
+
+        private final String topic;
+
+        private final Object event;
+
+        private final long queuedNanos;
+
+        PendingEvent(String topic, Object event, long queuedNanos) {
+            this.topic = topic;
+            this.event = event;
+            this.queuedNanos = queuedNanos;
+        }
+
+        String getTopic() {
+            return topic;
+        }
+
+        Object getEvent() {
+            return event;
+        }
+
+        long getQueuedNanos() {
+            return queuedNanos;
+        }
+    }
+}
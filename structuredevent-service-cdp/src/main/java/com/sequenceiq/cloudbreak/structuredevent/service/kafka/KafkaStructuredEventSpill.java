@@ -0,0 +1,160 @@
+package com.sequenceiq.cloudbreak.structuredevent.service.kafka;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the structured events which could not be sent to Kafka in files of a local directory, one event per line prefixed by its topic,
+ * until the broker is reachable again. The directory is limited in size, events over the limit are not kept. A file is closed once it
+ * reaches a part of the limit, so the events of one file can be read into memory.
+ */
+class KafkaStructuredEventSpill {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaStructuredEventSpill.class);
+
+    private static final String FILE_PREFIX = "structured-events-";
+
+    private static final String FILE_SUFFIX = ".spill";
+
+    private static final char TOPIC_SEPARATOR = '\t';
+
+    private static final int FILES_PER_LIMIT = 10;
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    private final long maxFileBytes;
+
+    private long spilledBytes;
+
+    private long currentFileBytes;
+
+    private BufferedWriter writer;
+
+    KafkaStructuredEventSpill(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        maxFileBytes = Math.max(1L, maxBytes / FILES_PER_LIMIT);
+        for (Path file : listFiles()) {
+            spilledBytes += Files.size(file);
+        }
+    }
+
+    /**
+     * Appends the event to the current spill file.
+     *
+     * @return whether the event was kept
+     */
+    synchronized boolean spill(String topic, String payload) {
+        String line = topic + TOPIC_SEPARATOR + payload + System.lineSeparator();
+        long lineBytes = line.getBytes(StandardCharsets.UTF_8).length;
+        if (spilledBytes + lineBytes > maxBytes) {
+            return false;
+        }
+        try {
+            if (writer == null) {
+                Path file = directory.resolve(FILE_PREFIX + System.currentTimeMillis() + FILE_SUFFIX);
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(line);
+            writer.flush();
+            spilledBytes += lineBytes;
+            currentFileBytes += lineBytes;
+            if (currentFileBytes >= maxFileBytes) {
+                closeWriter();
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to spill structured event of topic {} to {}", topic, directory, e);
+            return false;
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return spilledBytes == 0L;
+    }
+
+    /**
+     * Removes the oldest spill file and returns its events. The file written currently is closed first, so new events go to a new file.
+     */
+    synchronized List<SpilledEvent> takeOldest() throws IOException {
+        closeWriter();
+        List<Path> files = listFiles();
+        List<SpilledEvent> events = new ArrayList<>();
+        if (!files.isEmpty()) {
+            Path oldest = files.get(0);
+            for (String line : Files.readAllLines(oldest, StandardCharsets.UTF_8)) {
+                parse(line).ifPresent(events::add);
+            }
+            spilledBytes = Math.max(0L, spilledBytes - Files.size(oldest));
+            Files.delete(oldest);
+        }
+        return events;
+    }
+
+    synchronized void close() {
+        closeWriter();
+    }
+
+    private Optional<SpilledEvent> parse(String line) {
+        int separatorIndex = line.indexOf(TOPIC_SEPARATOR);
+        if (separatorIndex < 1) {
+            LOGGER.warn("Skipping malformed spilled structured event");
+            return Optional.empty();
+        }
+        return Optional.of(new SpilledEvent(line.substring(0, separatorIndex), line.substring(separatorIndex + 1)));
+    }
+
+    private List<Path> listFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + '*' + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(Path::compareTo);
+        return files;
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close structured event spill file", e);
+            }
+            writer = null;
+        }
+        currentFileBytes = 0L;
+    }
+
+    static class SpilledEvent {
+
+        private final String topic;
+
+        private final String payload;
+
+        SpilledEvent(String topic, String payload) {
+            this.topic = topic;
+            this.payload = payload;
+        }
+
+        String getTopic() {
+            return topic;
+        }
+
+        String getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.sequenceiq.cloudbreak.structuredevent.service.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaStructuredEventPublisherTest {
+
+    private static final long VERIFY_TIMEOUT_MILLIS = 5000L;
+
+    private static final long PUBLISH_INTERVAL_MILLIS = 5L;
+
+    private static final String TOPIC = "cbStructuredFlowEvent";
+
+    private static final String OTHER_TOPIC = "cbStructuredRestCallEvent";
+
+    private static final String PAYLOAD = "{\"key\":\"value\"}";
+
+    @TempDir
+    Path spillDirectory;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @InjectMocks
+    private KafkaStructuredEventPublisher underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest.queueCapacity = 2;
+        underTest.drainSize = 10;
+        underTest.lingerMillis = 10L;
+        underTest.spillMaxBytes = 1024L;
+        underTest.spillRetryMillis = 0L;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        underTest.shutdown();
+    }
+
+    @Test
+    void testEventsAreSentPerTopic() {
+        underTest.init();
+        when(kafkaTemplate.send(anyString(), anyString())).thenAnswer(invocation -> succeeded());
+
+        assertTrue(underTest.publish(TOPIC, Map.of("key", "value")));
+        assertTrue(underTest.publish(OTHER_TOPIC, Map.of("key", "value")));
+
+        verify(kafkaTemplate, timeout(VERIFY_TIMEOUT_MILLIS)).send(TOPIC, PAYLOAD);
+        verify(kafkaTemplate, timeout(VERIFY_TIMEOUT_MILLIS)).send(OTHER_TOPIC, PAYLOAD);
+    }
+
+    @Test
+    void testEventIsDroppedWhenTheQueueIsFull() throws InterruptedException {
+        underTest.init();
+        CountDownLatch sendBlocked = new CountDownLatch(1);
+        when(kafkaTemplate.send(anyString(), anyString())).thenAnswer(invocation -> {
+            sendBlocked.await(VERIFY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return succeeded();
+        });
+        assertTrue(underTest.publish(TOPIC, Map.of("key", "value")));
+        verify(kafkaTemplate, timeout(VERIFY_TIMEOUT_MILLIS)).send(TOPIC, PAYLOAD);
+
+        assertTrue(underTest.publish(TOPIC, Map.of("key", "value")));
+        assertTrue(underTest.publish(TOPIC, Map.of("key", "value")));
+        assertFalse(underTest.publish(TOPIC, Map.of("key", "value")));
+
+        sendBlocked.countDown();
+        verify(kafkaTemplate, timeout(VERIFY_TIMEOUT_MILLIS).times(3)).send(TOPIC, PAYLOAD);
+    }
+
+    @Test
+    void testFailedEventIsSpilledAndSentAgain() throws IOException {
+        underTest.spillDirectory = spillDirectory.toString();
+        underTest.init();
+        when(kafkaTemplate.send(anyString(), anyString()))
+                .thenAnswer(invocation -> failed())
+                .thenAnswer(invocation -> succeeded());
+
+        assertTrue(underTest.publish(TOPIC, Map.of("key", "value")));
+
+        verify(kafkaTemplate, timeout(VERIFY_TIMEOUT_MILLIS).times(2)).send(TOPIC, PAYLOAD);
+        verify(kafkaTemplate, times(2)).send(anyString(), anyString());
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertTrue(files.findAny().isEmpty());
+        }
+    }
+
+    @Test
+    void testSpilledEventsAreSentAgainUnderConstantTraffic() throws IOException, InterruptedException {
+        KafkaStructuredEventSpill previousSpill = new KafkaStructuredEventSpill(spillDirectory, underTest.spillMaxBytes);
+        assertTrue(previousSpill.spill(OTHER_TOPIC, PAYLOAD));
+        previousSpill.close();
+        underTest.spillDirectory = spillDirectory.toString();
+        underTest.init();
+        CountDownLatch spilledEventSent = new CountDownLatch(1);
+        when(kafkaTemplate.send(anyString(), anyString())).thenAnswer(invocation -> {
+            if (OTHER_TOPIC.equals(invocation.getArgument(0))) {
+                spilledEventSent.countDown();
+            }
+            return succeeded();
+        });
+
+        long deadline = System.currentTimeMillis() + VERIFY_TIMEOUT_MILLIS;
+        while (spilledEventSent.getCount() > 0 && System.currentTimeMillis() < deadline) {
+            underTest.publish(TOPIC, Map.of("key", "value"));
+            Thread.sleep(PUBLISH_INTERVAL_MILLIS);
+        }
+
+        assertTrue(spilledEventSent.await(0L, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testQueuedEventsAreSpilledOnShutdown() throws InterruptedException, IOException {
+        underTest.spillDirectory = spillDirectory.toString();
+        underTest.init();
+        CountDownLatch sendBlocked = new CountDownLatch(1);
+        when(kafkaTemplate.send(anyString(), anyString())).thenAnswer(invocation -> {
+            sendBlocked.await(VERIFY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return succeeded();
+        });
+        underTest.publish(TOPIC, Map.of("key", "value"));
+        verify(kafkaTemplate, timeout(VERIFY_TIMEOUT_MILLIS)).send(TOPIC, PAYLOAD);
+        underTest.publish(OTHER_TOPIC, Map.of("key", "value"));
+
+        underTest.shutdown();
+
+        KafkaStructuredEventSpill spill = new KafkaStructuredEventSpill(spillDirectory, underTest.spillMaxBytes);
+        assertTrue(spill.takeOldest().stream().anyMatch(event -> OTHER_TOPIC.equals(event.getTopic()) && PAYLOAD.equals(event.getPayload())));
+    }
+
+    private SettableListenableFuture<SendResult<String, String>> succeeded() {
+        SettableListenableFuture<SendResult<String, String>> future = new SettableListenableFuture<>();
+        future.set(null);
+        return future;
+    }
+
+    private SettableListenableFuture<SendResult<String, String>> failed() {
+        SettableListenableFuture<SendResult<String, String>> future = new SettableListenableFuture<>();
+        future.setException(new TimeoutException("broker is not available"));
+        return future;
+    }
+}
@@ -3,7 +3,6 @@ package com.sequenceiq.cloudbreak.structuredevent.service.kafka;
 import static com.sequenceiq.cloudbreak.common.anonymizer.AnonymizerUtil.REPLACEMENT;
 
 import java.util.HashMap;
-import java.util.concurrent.ExecutionException;
 
 import javax.inject.Inject;
 
@@ -11,9 +10,7 @@ import org.apache.kafka.common.errors.InvalidTopicException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
-import org.springframework.util.concurrent.ListenableFuture;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.sequenceiq.cloudbreak.common.json.JsonUtil;
@@ -44,16 +41,13 @@ public class LegacyKafkaStructuredEventHandler<T extends StructuredEvent> implem
         try {
             StructuredEvent event = structuredEvent.getData();
             sanitizeSensitiveRestData(event);
-            ListenableFuture<SendResult<String, String>> sendResultFuture =
-                    kafkaTemplate.send(topicByType, JsonUtil.writeValueAsString(structuredEvent.getData()));
-            SendResult<String, String> sendResult = sendResultFuture.get();
-            LOGGER.trace("Structured event sent to kafka with topic {}: {}", topicByType, sendResult.getProducerRecord());
+            kafkaTemplate.send(topicByType, JsonUtil.writeValueAsString(structuredEvent.getData())).addCallback(
+                    sendResult -> LOGGER.trace("Structured event sent to kafka with topic {}: {}", topicByType, sendResult.getProducerRecord()),
+                    e -> LOGGER.error("Error happened in message sending to kafka", e));
         } catch (InvalidTopicException e) {
             LOGGER.error("Structured event invalid topic name {}", topicByType, e);
         } catch (JsonProcessingException e) {
             LOGGER.error("Structured event json processing error", e);
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.error("Error happened in message sending to kafka", e);
         }
     }
 